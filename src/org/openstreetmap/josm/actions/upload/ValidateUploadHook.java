@@ -9,7 +9,10 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 
@@ -17,13 +20,16 @@ import org.openstreetmap.josm.data.APIDataSet;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.validation.OsmValidator;
 import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.data.validation.TestStatistics;
 import org.openstreetmap.josm.data.validation.ValidationTask;
 import org.openstreetmap.josm.gui.ExtendedDialog;
 import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.Notification;
 import org.openstreetmap.josm.gui.dialogs.validator.ValidatorTreePanel;
 import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.gui.widgets.HtmlPanel;
 import org.openstreetmap.josm.tools.GBC;
+import org.openstreetmap.josm.tools.Utils;
 
 /**
  * The action that does the validate thing.
@@ -48,28 +54,53 @@ public class ValidateUploadHook implements UploadHook {
         toCheck.addAll(apiDataSet.getPrimitivesToAdd());
         toCheck.addAll(apiDataSet.getPrimitivesToUpdate());
         OsmValidator.initializeTests();
-        new ValidationTask(errors -> {
+        AtomicReference<ValidationTask> task = new AtomicReference<>();
+        task.set(new ValidationTask(errors -> {
+            List<String> skippedTests = task.get().getStatistics().stream()
+                    .filter(statistics -> statistics.getSkipped() > 0)
+                    .map(TestStatistics::getName)
+                    .collect(Collectors.toList());
             if (errors.stream().allMatch(TestError::isIgnored)) {
+                if (!skippedTests.isEmpty()) {
+                    GuiHelper.runInEDT(() -> new Notification(getSkippedTestsMessage(skippedTests))
+                            .setDuration(Notification.TIME_LONG)
+                            .setIcon(JOptionPane.INFORMATION_MESSAGE)
+                            .setHelpTopic("Dialog/Validator")
+                            .show());
+                }
                 returnCode.set(true);
             } else {
                 // Unfortunately, the progress monitor is not "finished" until after `finish` is called, so we will
                 // have a ProgressMonitor open behind the error screen. Fortunately, the error screen appears in front
                 // of the progress monitor.
-                GuiHelper.runInEDTAndWait(() -> returnCode.set(displayErrorScreen(errors)));
+                GuiHelper.runInEDTAndWait(() -> returnCode.set(displayErrorScreen(errors, skippedTests)));
             }
-        }, null, OsmValidator.getEnabledTests(true), toCheck, null, true).run();
+        }, null, OsmValidator.getEnabledTests(true), toCheck, null, true));
+        task.get().run();
 
         return returnCode.get();
     }
 
+    /**
+     * Returns the message listing the tests skipped because they exceeded their time budget.
+     * @param skippedTests the names of the skipped tests
+     * @return the message, in HTML
+     * @see org.openstreetmap.josm.data.preferences.sources.ValidatorPrefHelper#PREF_UPLOAD_TIME_BUDGET
+     */
+    private static String getSkippedTestsMessage(List<String> skippedTests) {
+        return tr("These tests were skipped, they took too long during the previous uploads:")
+                + Utils.joinAsHtmlUnorderedList(skippedTests);
+    }
+
     /**
      * Displays a screen where the actions that would be taken are displayed and
      * give the user the possibility to cancel the upload.
      * @param errors The errors displayed in the screen
+     * @param skippedTests The names of the tests skipped because they took too long, listed in the screen
      * @return {@code true}, if the upload should continue.<br>
      *         {@code false}, if the user requested cancel.
      */
-    private static boolean displayErrorScreen(List<TestError> errors) {
+    private static boolean displayErrorScreen(List<TestError> errors, List<String> skippedTests) {
         JPanel p = new JPanel(new GridBagLayout());
         ValidatorTreePanel errorPanel = new ValidatorTreePanel(errors);
         errorPanel.expandAll();
@@ -91,8 +122,10 @@ public class ValidateUploadHook implements UploadHook {
                 + "&nbsp;</b></td><td align=\"left\">"
                 + tr("Informational hints, expect many false entries.")+"</td></tr>"
                 + "</table>"
+                + (skippedTests.isEmpty() ? "" : getSkippedTestsMessage(skippedTests))
         );
-        pnlMessage.setPreferredSize(new Dimension(500, 150));
+        // room for the list of skipped tests
+        pnlMessage.setPreferredSize(new Dimension(500, skippedTests.isEmpty() ? 150 : 170 + 20 * skippedTests.size()));
         p.add(pnlMessage, GBC.eol().fill(GBC.HORIZONTAL));
         p.add(new JScrollPane(errorPanel), GBC.eol().fill(GBC.BOTH));
 
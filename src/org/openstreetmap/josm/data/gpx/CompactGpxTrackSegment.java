@@ -0,0 +1,671 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import java.awt.Color;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+
+/**
+ * A gpx track segment storing its waypoints in a compact, columnar form.
+ * <p>
+ * Coordinates are stored in primitive arrays, times, elevations and other numeric attributes too, rare attributes in sparse
+ * side tables. {@link #getWayPoints()} returns a view creating a {@link WayPoint} each time one is read, so that the segment
+ * never holds them: use the index accessors, like {@link #getCoor(int)}, to read the data without creating them.
+ * <p>
+ * The attribute maps of the created waypoints are views of the columns: changes are written to the columns, and a column is
+ * converted to a generic one if it cannot hold the new value. The attribute maps do not hold {@code null} values.
+ * The drawing state of the waypoints is kept by {@link #setDrawingState(int, WayPoint)}. Other changes of the created
+ * waypoints are not kept.
+ * <p>
+ * The columns are read and written while synchronized on the segment.
+ * <p>
+ * Only waypoints without extensions can be stored in this form, see {@link #canCompact(Collection)}.
+ */
+public class CompactGpxTrackSegment extends WithAttributes implements IGpxTrackSegment {
+
+    /**
+     * Minimum number of points for a track segment to be stored in a compact form when reading GPX files.
+     * A negative value disables compact track segments.
+     */
+    public static final IntegerProperty PROP_MIN_POINTS = new IntegerProperty("gpx.compact-segments.min-points", 1000);
+
+    /** The drawing state flag telling that the waypoint has a {@link WayPoint#customColoring} */
+    private static final byte HAS_COLOR = 0x10;
+    /** The drawing state flag of {@link WayPoint#drawLine}, the lower bits hold {@link WayPoint#dir} */
+    private static final byte DRAW_LINE = 0x08;
+
+    private final int size;
+    private final double[] lats;
+    private final double[] lons;
+    private final Map<String, Column> columns;
+    private final Bounds bounds;
+    private final double length;
+    /** The colors of the waypoints, as RGB values with alpha, see {@link #setDrawingState(int, WayPoint)} */
+    private int[] colors;
+    /** The drawing flags and directions of the waypoints, see {@link #setDrawingState(int, WayPoint)} */
+    private byte[] drawingFlags;
+
+    /**
+     * Constructs a new {@code CompactGpxTrackSegment}.
+     * @param wayPoints list of waypoints
+     * @throws IllegalArgumentException if the waypoints cannot be stored in a compact form
+     * @see #canCompact(Collection)
+     */
+    public CompactGpxTrackSegment(Collection<WayPoint> wayPoints) {
+        if (!canCompact(wayPoints)) {
+            throw new IllegalArgumentException("Waypoints cannot be stored in a compact form");
+        }
+        size = wayPoints.size();
+        lats = new double[size];
+        lons = new double[size];
+        Map<String, List<Object>> values = new LinkedHashMap<>();
+        Bounds b = null;
+        double len = 0.0; // in meters
+        LatLon last = null;
+        int i = 0;
+        for (WayPoint wpt : wayPoints) {
+            lats[i] = wpt.lat();
+            lons[i] = wpt.lon();
+            LatLon ll = wpt.getCoor();
+            if (b == null) {
+                b = new Bounds(ll);
+            } else {
+                b.extend(ll);
+            }
+            if (last != null) {
+                double d = last.greatCircleDistance(ll);
+                if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+                    len += d;
+                }
+            }
+            last = ll;
+            for (Map.Entry<String, Object> e : wpt.attr.entrySet()) {
+                if (e.getValue() != null) {
+                    List<Object> column = values.computeIfAbsent(e.getKey(), k -> new ArrayList<>(Collections.nCopies(size, null)));
+                    column.set(i, e.getValue());
+                }
+            }
+            i++;
+        }
+        Map<String, Column> cols = new LinkedHashMap<>(values.size());
+        values.forEach((key, column) -> cols.put(key, Column.of(column)));
+        this.columns = cols;
+        this.bounds = b;
+        this.length = len;
+    }
+
+    /**
+     * Determines if the given waypoints can be stored in a compact form, i.e., if they have no extensions.
+     * @param wayPoints list of waypoints
+     * @return {@code true} if the waypoints can be stored in a {@code CompactGpxTrackSegment}
+     */
+    public static boolean canCompact(Collection<WayPoint> wayPoints) {
+        return !wayPoints.isEmpty()
+                && wayPoints.stream().allMatch(wpt -> !wpt.hasExtensions() || wpt.getExtensions().isEmpty());
+    }
+
+    /**
+     * Creates a track segment, stored in a compact form if it is large enough.
+     * @param wayPoints list of waypoints
+     * @return a new {@link CompactGpxTrackSegment} if the waypoints can be compacted and their number
+     * is at least {@link #PROP_MIN_POINTS}, a new {@link GpxTrackSegment} otherwise
+     */
+    public static IGpxTrackSegment create(Collection<WayPoint> wayPoints) {
+        int minPoints = PROP_MIN_POINTS.get();
+        if (minPoints >= 0 && wayPoints.size() >= minPoints && canCompact(wayPoints)) {
+            return new CompactGpxTrackSegment(wayPoints);
+        }
+        return new GpxTrackSegment(wayPoints);
+    }
+
+    /**
+     * Returns the number of waypoints of this segment, without creating them.
+     * @return the number of waypoints
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the coordinates of a waypoint, without creating it.
+     * @param index the waypoint index
+     * @return the coordinates of the waypoint
+     */
+    public LatLon getCoor(int index) {
+        return new LatLon(lats[index], lons[index]);
+    }
+
+    /**
+     * Returns the attributes of a waypoint, without creating it.
+     * @param index the waypoint index
+     * @return the attributes of the waypoint, a view of the columns which writes its changes to them
+     */
+    public Map<String, Object> getWayPointAttributes(int index) {
+        return new Attributes(index);
+    }
+
+    @Override
+    public Bounds getBounds() {
+        return bounds == null ? null : new Bounds(bounds);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned list is a view, which creates a new {@link WayPoint} each time one is read.
+     */
+    @Override
+    public Collection<WayPoint> getWayPoints() {
+        return new AbstractList<WayPoint>() {
+            @Override
+            public WayPoint get(int index) {
+                return createWayPoint(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private WayPoint createWayPoint(int index) {
+        WayPoint wpt = new WayPoint(getCoor(index));
+        wpt.attr = new Attributes(index);
+        synchronized (this) {
+            if (drawingFlags != null) {
+                byte flags = drawingFlags[index];
+                wpt.customColoring = (flags & HAS_COLOR) != 0 ? new Color(colors[index], true) : null;
+                wpt.drawLine = (flags & DRAW_LINE) != 0;
+                wpt.dir = flags & 0x07;
+            }
+        }
+        return wpt;
+    }
+
+    /**
+     * Keeps the drawing state of a waypoint, {@link WayPoint#customColoring}, {@link WayPoint#drawLine} and {@link WayPoint#dir},
+     * so that the waypoints created later by {@link #getWayPoints()} have it.
+     * @param index the waypoint index
+     * @param wpt the waypoint with the drawing state
+     */
+    public synchronized void setDrawingState(int index, WayPoint wpt) {
+        if (drawingFlags == null) {
+            colors = new int[size];
+            drawingFlags = new byte[size];
+        }
+        colors[index] = wpt.customColoring != null ? wpt.customColoring.getRGB() : 0;
+        drawingFlags[index] = (byte) ((wpt.customColoring != null ? HAS_COLOR : 0) | (wpt.drawLine ? DRAW_LINE : 0) | (wpt.dir & 0x07));
+    }
+
+    /**
+     * Returns the value of an attribute of a waypoint.
+     * @param index the waypoint index
+     * @param key the attribute key
+     * @return the value, or {@code null}
+     */
+    private synchronized Object getAttribute(int index, Object key) {
+        Column column = key == null ? null : columns.get(key);
+        return column == null ? null : column.get(index);
+    }
+
+    /**
+     * Returns the keys of the attributes of a waypoint.
+     * @param index the waypoint index
+     * @return the keys, in the order of the columns
+     */
+    private synchronized List<String> getAttributeKeys(int index) {
+        List<String> keys = new ArrayList<>();
+        columns.forEach((key, column) -> {
+            if (column.get(index) != null) {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    /**
+     * Sets the value of an attribute of a waypoint.
+     * @param index the waypoint index
+     * @param key the attribute key
+     * @param value the new value, or {@code null} to remove the attribute
+     * @return the previous value, or {@code null}
+     */
+    private synchronized Object setAttribute(int index, String key, Object value) {
+        Column column = columns.get(key);
+        if (column == null) {
+            if (value == null) {
+                return null;
+            }
+            column = new SparseColumn(Collections.emptyList());
+            columns.put(key, column);
+        }
+        Object previous = column.get(index);
+        if (!column.set(index, value)) {
+            Column generic = new ObjectColumn(column, size);
+            generic.set(index, value);
+            columns.put(key, generic);
+        }
+        return previous;
+    }
+
+    /**
+     * Returns the values of an attribute for all waypoints.
+     * @param key the attribute key
+     * @return the values, with {@code null} for the waypoints without such attribute
+     */
+    private synchronized Object[] getAttributeValues(String key) {
+        Object[] values = new Object[size];
+        Column column = columns.get(key);
+        if (column != null) {
+            for (int i = 0; i < size; i++) {
+                values[i] = column.get(i);
+            }
+        }
+        return values;
+    }
+
+    private synchronized Set<String> getColumnKeys() {
+        return new HashSet<>(columns.keySet());
+    }
+
+    @Override
+    public double length() {
+        return length;
+    }
+
+    @Override
+    public int getUpdateCount() {
+        return 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), Arrays.hashCode(lats), Arrays.hashCode(lons));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (!super.equals(obj))
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        CompactGpxTrackSegment other = (CompactGpxTrackSegment) obj;
+        if (!Arrays.equals(lats, other.lats) || !Arrays.equals(lons, other.lons)) {
+            return false;
+        }
+        // a missing column is equal to a column without values
+        Set<String> keys = getColumnKeys();
+        keys.addAll(other.getColumnKeys());
+        for (String key : keys) {
+            if (!Arrays.equals(getAttributeValues(key), other.getAttributeValues(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The attributes of a waypoint, stored in the columns of the segment.
+     */
+    private final class Attributes extends AbstractMap<String, Object> {
+        private final int index;
+
+        Attributes(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return getAttribute(index, key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return setAttribute(index, Objects.requireNonNull(key, "key"), value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return key instanceof String ? setAttribute(index, (String) key, null) : null;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Object>>() {
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+                    final Iterator<String> keys = getAttributeKeys(index).iterator();
+                    return new Iterator<Map.Entry<String, Object>>() {
+                        private String next = advance();
+                        private String last;
+
+                        private String advance() {
+                            while (keys.hasNext()) {
+                                String key = keys.next();
+                                if (containsKey(key)) {
+                                    return key;
+                                }
+                            }
+                            return null;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next != null;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Object> next() {
+                            if (next == null) {
+                                throw new NoSuchElementException();
+                            }
+                            last = next;
+                            next = advance();
+                            return new AttributeEntry(last);
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last == null) {
+                                throw new IllegalStateException();
+                            }
+                            Attributes.this.remove(last);
+                            last = null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return getAttributeKeys(index).size();
+                }
+            };
+        }
+
+        /**
+         * An attribute of the waypoint, writing its changes to the columns.
+         */
+        private final class AttributeEntry extends SimpleEntry<String, Object> {
+            private static final long serialVersionUID = 1L;
+
+            AttributeEntry(String key) {
+                super(key, Attributes.this.get(key));
+            }
+
+            @Override
+            public Object setValue(Object value) {
+                put(getKey(), value);
+                return super.setValue(value);
+            }
+        }
+    }
+
+    /**
+     * The values of an attribute for all waypoints of the segment.
+     */
+    private abstract static class Column {
+
+        /**
+         * Returns the value of the attribute for the given waypoint.
+         * @param index the waypoint index
+         * @return the value, or {@code null} if the waypoint has no such attribute
+         */
+        abstract Object get(int index);
+
+        /**
+         * Sets the value of the attribute for the given waypoint, if this column can store it.
+         * @param index the waypoint index
+         * @param value the value, or {@code null} to remove the attribute
+         * @return {@code true} if the value has been set, {@code false} if this column cannot store it
+         */
+        abstract boolean set(int index, Object value);
+
+        /**
+         * Creates the most compact column able to store the given values.
+         * @param values the values, with {@code null} for the waypoints without such attribute
+         * @return the column
+         */
+        static Column of(List<Object> values) {
+            long count = values.stream().filter(Objects::nonNull).count();
+            // a sparse table takes less memory than an array of references if less than one value in eight is set
+            if (count * 8 < values.size()) {
+                return new SparseColumn(values);
+            } else if (values.stream().allMatch(v -> v == null || TimeColumn.accepts(v))) {
+                return new TimeColumn(values);
+            } else if (values.stream().allMatch(v -> v == null || FloatColumn.accepts(v))) {
+                return new FloatColumn(values);
+            } else if (values.stream().allMatch(v -> v == null || NumberColumn.accepts(v))
+                    // the strings which cannot be restored from their number are stored apart, this should be rare
+                    && values.stream().filter(v -> v != null && !NumberColumn.isRestored((String) v)).count() * 8 < count) {
+                return new NumberColumn(values);
+            }
+            return new ObjectColumn(values);
+        }
+    }
+
+    /**
+     * A column storing a few values in a map.
+     */
+    private static final class SparseColumn extends Column {
+        private final Map<Integer, Object> values = new HashMap<>();
+
+        SparseColumn(List<Object> values) {
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    this.values.put(i, values.get(i));
+                }
+            }
+        }
+
+        @Override
+        Object get(int index) {
+            return values.get(index);
+        }
+
+        @Override
+        boolean set(int index, Object value) {
+            if (value == null) {
+                values.remove(index);
+            } else {
+                values.put(index, value);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A column storing any values.
+     */
+    private static final class ObjectColumn extends Column {
+        private final Object[] values;
+
+        ObjectColumn(List<Object> values) {
+            this.values = values.toArray();
+        }
+
+        ObjectColumn(Column column, int size) {
+            this.values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                this.values[i] = column.get(i);
+            }
+        }
+
+        @Override
+        Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        boolean set(int index, Object value) {
+            values[index] = value;
+            return true;
+        }
+    }
+
+    /**
+     * A column storing instants with a precision of one millisecond, as milliseconds from the epoch.
+     */
+    private static final class TimeColumn extends Column {
+        private static final long NONE = Long.MIN_VALUE;
+        private static final Instant MIN = Instant.ofEpochMilli(NONE);
+        private static final Instant MAX = Instant.ofEpochMilli(Long.MAX_VALUE);
+        private final long[] values;
+
+        TimeColumn(List<Object> values) {
+            this.values = new long[values.size()];
+            for (int i = 0; i < this.values.length; i++) {
+                Object value = values.get(i);
+                this.values[i] = value == null ? NONE : ((Instant) value).toEpochMilli();
+            }
+        }
+
+        static boolean accepts(Object value) {
+            if (value instanceof Instant) {
+                Instant instant = (Instant) value;
+                return instant.getNano() % 1_000_000 == 0 && instant.isAfter(MIN) && !instant.isAfter(MAX);
+            }
+            return false;
+        }
+
+        @Override
+        Object get(int index) {
+            return values[index] == NONE ? null : Instant.ofEpochMilli(values[index]);
+        }
+
+        @Override
+        boolean set(int index, Object value) {
+            if (value != null && !accepts(value)) {
+                return false;
+            }
+            values[index] = value == null ? NONE : ((Instant) value).toEpochMilli();
+            return true;
+        }
+    }
+
+    /**
+     * A column storing {@link Float} values, such as dilutions of precision.
+     */
+    private static final class FloatColumn extends Column {
+        private final float[] values;
+
+        FloatColumn(List<Object> values) {
+            this.values = new float[values.size()];
+            for (int i = 0; i < this.values.length; i++) {
+                Object value = values.get(i);
+                this.values[i] = value == null ? Float.NaN : (Float) value;
+            }
+        }
+
+        static boolean accepts(Object value) {
+            return value instanceof Float && !((Float) value).isNaN();
+        }
+
+        @Override
+        Object get(int index) {
+            return Float.isNaN(values[index]) ? null : values[index];
+        }
+
+        @Override
+        boolean set(int index, Object value) {
+            if (value != null && !accepts(value)) {
+                return false;
+            }
+            values[index] = value == null ? Float.NaN : (Float) value;
+            return true;
+        }
+    }
+
+    /**
+     * A column storing numbers read as strings, such as elevations.
+     * The strings which cannot be restored from their number, e.g. {@code 45.50}, are stored apart.
+     */
+    private static final class NumberColumn extends Column {
+        private final double[] values;
+        private final Map<Integer, String> originals = new HashMap<>();
+
+        NumberColumn(List<Object> values) {
+            this.values = new double[values.size()];
+            for (int i = 0; i < this.values.length; i++) {
+                set(i, values.get(i));
+            }
+        }
+
+        static boolean accepts(Object value) {
+            if (value instanceof String) {
+                try {
+                    return !Double.isNaN(Double.parseDouble((String) value));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        static boolean isRestored(String value) {
+            return value.equals(toString(Double.parseDouble(value)));
+        }
+
+        static String toString(double d) {
+            if (d == Math.rint(d) && Math.abs(d) < 1e15) {
+                return Long.toString((long) d);
+            }
+            return Double.toString(d);
+        }
+
+        @Override
+        Object get(int index) {
+            if (Double.isNaN(values[index])) {
+                return null;
+            }
+            String original = originals.get(index);
+            return original != null ? original : toString(values[index]);
+        }
+
+        @Override
+        boolean set(int index, Object value) {
+            if (value != null && !accepts(value)) {
+                return false;
+            }
+            originals.remove(index);
+            if (value == null) {
+                values[index] = Double.NaN;
+            } else {
+                String string = (String) value;
+                values[index] = Double.parseDouble(string);
+                if (!isRestored(string)) {
+                    originals.put(index, string);
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.stream.Stream;
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.Data;
 import org.openstreetmap.josm.data.DataSource;
+import org.openstreetmap.josm.data.ProjectionBounds;
 import org.openstreetmap.josm.data.coor.EastNorth;
 import org.openstreetmap.josm.data.gpx.IGpxTrack.GpxTrackChangeListener;
 import org.openstreetmap.josm.data.projection.ProjectionRegistry;
@@ -149,6 +150,11 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
 
     private List<GpxTrackSegmentSpan> segSpans;
 
+    private volatile GpxSpatialIndex segmentIndex;
+    /** Incremented whenever the spatial index is dropped, so that an index built from outdated data is not kept */
+    private int segmentIndexGeneration;
+    private final Object segmentIndexLock = new Object();
+
     /**
      * Merges data from another object.
      * @param other existing GPX data
@@ -837,74 +843,82 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
         double px = p.east();
         double py = p.north();
         double rx = 0.0, ry = 0.0, sx, sy, x, y;
-        for (IGpxTrack track : privateTracks) {
-            for (IGpxTrackSegment seg : track.getSegments()) {
-                WayPoint r = null;
-                for (WayPoint wpSeg : seg.getWayPoints()) {
-                    EastNorth en = wpSeg.getEastNorth(ProjectionRegistry.getProjection());
-                    if (r == null) {
-                        r = wpSeg;
-                        rx = en.east();
-                        ry = en.north();
+        Collection<IGpxTrackSegment> segments;
+        if (tolerance > 0 && !Double.isInfinite(tolerance)) {
+            // only the segments whose bounding box is closer than the tolerance may contain the nearest point
+            Bounds searchBounds = ProjectionRegistry.getProjection().getLatLonBoundsBox(
+                    new ProjectionBounds(px - tolerance, py - tolerance, px + tolerance, py + tolerance));
+            segments = getSegmentIndex().search(searchBounds).stream()
+                    .map(GpxSpatialIndex.Entry::getSegment).collect(Collectors.toList());
+        } else {
+            segments = getTrackSegmentsStream().collect(Collectors.toList());
+        }
+        for (IGpxTrackSegment seg : segments) {
+            WayPoint r = null;
+            for (WayPoint wpSeg : seg.getWayPoints()) {
+                EastNorth en = wpSeg.getEastNorth(ProjectionRegistry.getProjection());
+                if (r == null) {
+                    r = wpSeg;
+                    rx = en.east();
+                    ry = en.north();
+                    x = px - rx;
+                    y = py - ry;
+                    double pRsq = x * x + y * y;
+                    if (pRsq < pnminsq) {
+                        pnminsq = pRsq;
+                        bestEN = en;
+                        if (r.hasDate()) {
+                            bestTime = r.getTime();
+                        }
+                    }
+                } else {
+                    sx = en.east();
+                    sy = en.north();
+                    double a = sy - ry;
+                    double b = rx - sx;
+                    double c = -a * rx - b * ry;
+                    double rssq = a * a + b * b;
+                    if (rssq == 0) {
+                        continue;
+                    }
+                    double pnsq = a * px + b * py + c;
+                    pnsq = pnsq * pnsq / rssq;
+                    if (pnsq < pnminsq) {
                         x = px - rx;
                         y = py - ry;
-                        double pRsq = x * x + y * y;
-                        if (pRsq < pnminsq) {
-                            pnminsq = pRsq;
-                            bestEN = en;
-                            if (r.hasDate()) {
-                                bestTime = r.getTime();
+                        double prsq = x * x + y * y;
+                        x = px - sx;
+                        y = py - sy;
+                        double pssq = x * x + y * y;
+                        if (prsq - pnsq <= rssq && pssq - pnsq <= rssq) {
+                            double rnoverRS = Math.sqrt((prsq - pnsq) / rssq);
+                            double nx = rx - rnoverRS * b;
+                            double ny = ry + rnoverRS * a;
+                            bestEN = new EastNorth(nx, ny);
+                            if (r.hasDate() && wpSeg.hasDate()) {
+                                bestTime = r.getTime() + rnoverRS * (wpSeg.getTime() - r.getTime());
                             }
+                            pnminsq = pnsq;
                         }
-                    } else {
-                        sx = en.east();
-                        sy = en.north();
-                        double a = sy - ry;
-                        double b = rx - sx;
-                        double c = -a * rx - b * ry;
-                        double rssq = a * a + b * b;
-                        if (rssq == 0) {
-                            continue;
-                        }
-                        double pnsq = a * px + b * py + c;
-                        pnsq = pnsq * pnsq / rssq;
-                        if (pnsq < pnminsq) {
-                            x = px - rx;
-                            y = py - ry;
-                            double prsq = x * x + y * y;
-                            x = px - sx;
-                            y = py - sy;
-                            double pssq = x * x + y * y;
-                            if (prsq - pnsq <= rssq && pssq - pnsq <= rssq) {
-                                double rnoverRS = Math.sqrt((prsq - pnsq) / rssq);
-                                double nx = rx - rnoverRS * b;
-                                double ny = ry + rnoverRS * a;
-                                bestEN = new EastNorth(nx, ny);
-                                if (r.hasDate() && wpSeg.hasDate()) {
-                                    bestTime = r.getTime() + rnoverRS * (wpSeg.getTime() - r.getTime());
-                                }
-                                pnminsq = pnsq;
-                            }
-                        }
-                        r = wpSeg;
-                        rx = sx;
-                        ry = sy;
                     }
+                    r = wpSeg;
+                    rx = sx;
+                    ry = sy;
                 }
-                if (r != null) {
-                    EastNorth c = r.getEastNorth(ProjectionRegistry.getProjection());
-                    /* if there is only one point in the seg, it will do this twice, but no matter */
-                    rx = c.east();
-                    ry = c.north();
-                    x = px - rx;
-                    y = py - ry;
-                    double prsq = x * x + y * y;
-                    if (prsq < pnminsq) {
-                        pnminsq = prsq;
-                        bestEN = c;
-                        if (r.hasDate()) {
-                            bestTime = r.getTime();
-                        }
+            }
+            if (r != null) {
+                EastNorth c = r.getEastNorth(ProjectionRegistry.getProjection());
+                /* if there is only one point in the seg, it will do this twice, but no matter */
+                rx = c.east();
+                ry = c.north();
+                x = px - rx;
+                y = py - ry;
+                double prsq = x * x + y * y;
+                if (prsq < pnminsq) {
+                    pnminsq = prsq;
+                    bestEN = c;
+                    if (r.hasDate()) {
+                        bestTime = r.getTime();
                     }
                 }
             }
@@ -930,6 +944,44 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
         return () -> new LinesIterator(this, trackVisibility);
     }
 
+    /**
+     * Returns the track segments whose bounding box intersects the given bounds, using the spatial index.
+     *
+     * @param bounds the area to search
+     * @param trackVisibility An array indicating which tracks should be
+     * included. Can be null, then all tracks are included.
+     * @return the lines of the matching track segments, in the same order as {@link #getLinesIterable}
+     */
+    public List<Line> getLinesInBounds(Bounds bounds, final boolean... trackVisibility) {
+        return getSegmentIndex().search(bounds).stream()
+                .filter(e -> trackVisibility == null
+                        || (e.getTrackIndex() < trackVisibility.length && trackVisibility[e.getTrackIndex()]))
+                .map(e -> new Line(e.getSegment(), e.getTrack().getAttributes(), e.getTrack().getColor()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the spatial index of the track segments. It is built when first needed, and dropped when the data changes.
+     * @return the spatial index of the track segments
+     */
+    public synchronized GpxSpatialIndex getSegmentIndex() {
+        GpxSpatialIndex index = segmentIndex;
+        if (index == null) {
+            final int generation;
+            synchronized (segmentIndexLock) {
+                generation = segmentIndexGeneration;
+            }
+            index = new GpxSpatialIndex(privateTracks);
+            synchronized (segmentIndexLock) {
+                // if the data has changed in the meantime, the index is only used by this call
+                if (generation == segmentIndexGeneration) {
+                    segmentIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     /**
      * Resets the internal caches of east/north coordinates.
      */
@@ -1153,6 +1205,10 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
     }
 
     private void fireInvalidate(boolean setModified) {
+        synchronized (segmentIndexLock) {
+            segmentIndexGeneration++;
+            segmentIndex = null;
+        }
         if (setModified) {
             setModified(true);
         }
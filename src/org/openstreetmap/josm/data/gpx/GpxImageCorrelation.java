@@ -4,6 +4,7 @@ package org.openstreetmap.josm.data.gpx;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
@@ -23,10 +24,59 @@ import org.openstreetmap.josm.tools.Utils;
  */
 public final class GpxImageCorrelation {
 
+    //list of differential GPS mode
+    //TODO move these lists in Gpx.Constants?
+    private static final List<String> DIFF_MODES = Arrays.asList("dgps", "float rtk", "rtk");
+    private static final List<String> POSITIONING_MODES = Arrays.asList("none", "manual", "estimated", "2d", "3d", "dgps", "float rtk", "rtk");
+
     private GpxImageCorrelation() {
         // Hide public constructor
     }
 
+    /**
+     * The images to match, sorted by their time in the selected time source.
+     * Times are stored as milliseconds in a primitive array, to be searched quickly for each track point.
+     */
+    private static final class ImageTimeIndex {
+        final List<GpxImageEntry> images;
+        final long[] times;
+
+        ImageTimeIndex(List<? extends GpxImageEntry> entries, TimeSource timeSource) {
+            images = new ArrayList<>(entries.size());
+            for (GpxImageEntry entry : entries) {
+                // images without time in the selected time source cannot be matched
+                if (entry.getTimeSourceInstant(timeSource) != null) {
+                    images.add(entry);
+                }
+            }
+            // the images are usually sorted by camera time already, in which case sorting is linear
+            images.sort(Comparator.comparing(entry -> entry.getTimeSourceInstant(timeSource)));
+            times = new long[images.size()];
+            for (int i = 0; i < times.length; i++) {
+                times[i] = images.get(i).getTimeSourceInstant(timeSource).toEpochMilli();
+            }
+        }
+
+        /**
+         * Finds the last image which is at or before the given time
+         * @param searchedTime time to search
+         * @return index of last image at or before given time, or -1 if there is none
+         */
+        int getLastIndexBefore(long searchedTime) {
+            int low = 0;
+            int high = times.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] <= searchedTime) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+    }
+
     /**
      * Match a list of photos to a gpx track with given settings.
      * All images need a exifTime attribute and the List must be sorted according to these times.
@@ -77,6 +127,7 @@ public final class GpxImageCorrelation {
         final GpxImageDatumSettings datumSettings = settings.getDatumSettings();
         final long offset = settings.getOffset();
         final TimeSource imgTimeSource = settings.getImgTimeSource();
+        final ImageTimeIndex index = new ImageTimeIndex(images, imgTimeSource);
 
         boolean isFirst = true;
         long prevWpTime = 0;
@@ -145,7 +196,7 @@ public final class GpxImageCorrelation {
                         }
                     }
                     WayPoint nextWp = i < size - 1 ? wps.get(i + 1) : null;
-                    ret += matchPoints(images, prevWp, prevWpTime, curWp, curWpTime, imgTimeSource, offset,
+                    ret += matchPoints(index, prevWp, prevWpTime, curWp, curWpTime, imgTimeSource, offset,
                                        interpolate, tagTime, nextWp, dirpos, datumSettings);
                     prevWp = curWp;
                     prevWpTime = curWpTime;
@@ -153,7 +204,7 @@ public final class GpxImageCorrelation {
             }
         }
         if (trkTag && prevWp != null) {
-            ret += matchPoints(images, prevWp, prevWpTime, prevWp, prevWpTime, imgTimeSource, offset,
+            ret += matchPoints(index, prevWp, prevWpTime, prevWp, prevWpTime, imgTimeSource, offset,
                                false, trkTagTime, null, dirpos, datumSettings);
         }
         Logging.debug("Correlated {0} total points", ret);
@@ -356,8 +407,7 @@ public final class GpxImageCorrelation {
     }
 
     // CHECKSTYLE.OFF: ParameterNumber
-    private static int matchPoints(List<? extends GpxImageEntry>
-                                        images,
+    private static int matchPoints(ImageTimeIndex index,
                                         WayPoint prevWp,
                                         long prevWpTime,
                                         WayPoint curWp,
@@ -375,9 +425,9 @@ public final class GpxImageCorrelation {
         // i is the index of the timewise last photo that has the same or earlier EXIF time
         int i;
         if (isLast) {
-            i = images.size() - 1;
+            i = index.times.length - 1;
         } else {
-            i = getLastIndexOfListBefore(images, curWpTime, imgTimeSource);
+            i = index.getLastIndexBefore(curWpTime);
         }
 
         if (Logging.isDebugEnabled()) {
@@ -385,8 +435,9 @@ public final class GpxImageCorrelation {
                     i, curWp, curWpTime, prevWp, prevWpTime, nextWp, tagTime, interpolate);
         }
 
-        // no photos match
-        if (i < 0) {
+        // no photos match. Most track points have no photo taken since the previous point:
+        // return before reading the attributes of the points.
+        if (i < 0 || index.times[i] < prevWpTime) {
             Logging.debug("Correlated nothing, no photos match");
             return 0;
         }
@@ -398,11 +449,6 @@ public final class GpxImageCorrelation {
         Double prevGpsDop = null;
         Double prevGpsTrack = null;
         String prevGpsFixMode = null;
-        //list of differential GPS mode
-        //TODO move these lists in Gpx.Constants?
-        final List<String> diffMode = Arrays.asList("dgps", "float rtk", "rtk");
-        final List<String> positioningModes = Arrays.asList("none", "manual", "estimated", "2d", "3d", "dgps", "float rtk", "rtk");
-
 
         if (prevWp != null && interpolate) {
             double distance = prevWp.greatCircleDistance(curWp);
@@ -426,9 +472,9 @@ public final class GpxImageCorrelation {
         if (!interpolate || isLast) {
             final long half = Math.abs(curWpTime - prevWpTime) / 2;
             while (i >= 0) {
-                final GpxImageEntry curImg = images.get(i);
+                final GpxImageEntry curImg = index.images.get(i);
                 final GpxImageEntry curTmp = curImg.getTmp();
-                final long time = curImg.getTimeSourceInstant(imgTimeSource).toEpochMilli();
+                final long time = index.times[i];
                 if ((!isLast && time > curWpTime) || time < prevWpTime) {
                     break;
                 }
@@ -460,8 +506,8 @@ public final class GpxImageCorrelation {
             @SuppressWarnings("null")
             LatLon nextCoorForDirection = nextWp.getCoor();
             while (i >= 0) {
-                final GpxImageEntry curImg = images.get(i);
-                final long imgTime = curImg.getTimeSourceInstant(imgTimeSource).toEpochMilli();
+                final GpxImageEntry curImg = index.images.get(i);
+                final long imgTime = index.times[i];
                 if (imgTime < prevWpTime) {
                     break;
                 }
@@ -504,7 +550,7 @@ public final class GpxImageCorrelation {
                     // Get previous and current waypoint differential. As no interpolation is possible,
                     // set differential mode to 0 if any waypoint isn't in differential mode.
                     if (prevGpsFixMode != null) {
-                        if (diffMode.contains(prevGpsFixMode) && diffMode.contains(curGpsFixMode)) {
+                        if (DIFF_MODES.contains(prevGpsFixMode) && DIFF_MODES.contains(curGpsFixMode)) {
                             curTmp.setGpsDiffMode(1);
                         } else {
                             curTmp.setGpsDiffMode(0);
@@ -513,7 +559,7 @@ public final class GpxImageCorrelation {
 
                     // Add exif GpsMeasureMode
                     if (prevGpsFixMode != null && curGpsFixMode != null) {
-                        Integer gps2d3dMode = getGps2d3dMode(prevGpsFixMode, curGpsFixMode, positioningModes);
+                        Integer gps2d3dMode = getGps2d3dMode(prevGpsFixMode, curGpsFixMode, POSITIONING_MODES);
                         if (gps2d3dMode != null) {
                             curTmp.setGps2d3dMode(gps2d3dMode);
                         }
@@ -522,7 +568,7 @@ public final class GpxImageCorrelation {
                     // Add exif GpsProcessingMethod. As no interpolation is possible,
                     // set processing method to the "lowest" previous and current processing method value.
                     if (prevGpsFixMode != null && curGpsFixMode != null) {
-                        String gpsProcMethod = getGpsProcMethod(prevGpsFixMode, curGpsFixMode, positioningModes);                       
+                        String gpsProcMethod = getGpsProcMethod(prevGpsFixMode, curGpsFixMode, POSITIONING_MODES);                       
                         if (gpsProcMethod != null) {
                             curTmp.setExifGpsProcMethod(gpsProcMethod);
                         }
@@ -543,7 +589,7 @@ public final class GpxImageCorrelation {
                     
                     // Add GpsDatum tag
                     if (datumSettings.isSetImageGpsDatum()) {
-                        if (diffMode.contains(prevGpsFixMode) && diffMode.contains(curGpsFixMode)) {
+                        if (DIFF_MODES.contains(prevGpsFixMode) && DIFF_MODES.contains(curGpsFixMode)) {
                             curTmp.setExifGpsDatum(datumSettings.getImageGpsDatum());
                         } else //without differential mode, datum is WGS-84
                             curTmp.setExifGpsDatum("WGS-84");
@@ -573,44 +619,4 @@ public final class GpxImageCorrelation {
     private static double computeDirection(double direction, double angleOffset) {
         return (Utils.toDegrees(direction) + angleOffset) % 360d;
     }
-
-    /**
-     * Finds the last image in the sorted image list which is before the given time
-     * @param images list of images
-     * @param searchedTime time to search
-     * @return index of last image before given time
-     */
-    private static int getLastIndexOfListBefore(List<? extends GpxImageEntry> images, long searchedTime, TimeSource imgTimeSource) {
-        int lstSize = images.size();
-
-        // No photos or the first photo taken is later than the search period
-        if (lstSize == 0 || searchedTime < images.get(0).getTimeSourceInstant(imgTimeSource).toEpochMilli())
-            return -1;
-
-        // The search period is later than the last photo
-        if (searchedTime > images.get(lstSize - 1).getTimeSourceInstant(imgTimeSource).toEpochMilli())
-            return lstSize-1;
-
-        // The searched index is somewhere in the middle, do a binary search from the beginning
-        int curIndex;
-        int startIndex = 0;
-        int endIndex = lstSize-1;
-        while (endIndex - startIndex > 1) {
-            curIndex = (endIndex + startIndex) / 2;
-            if (searchedTime > images.get(curIndex).getTimeSourceInstant(imgTimeSource).toEpochMilli()) {
-                startIndex = curIndex;
-            } else {
-                endIndex = curIndex;
-            }
-        }
-        if (searchedTime < images.get(endIndex).getTimeSourceInstant(imgTimeSource).toEpochMilli())
-            return startIndex;
-
-        // This final loop is to check if photos with the exact same EXIF time follows
-        while ((endIndex < (lstSize - 1)) && (images.get(endIndex).getTimeSourceInstant(imgTimeSource).toEpochMilli()
-                == images.get(endIndex + 1).getTimeSourceInstant(imgTimeSource).toEpochMilli())) {
-            endIndex++;
-        }
-        return endIndex;
-    }
 }
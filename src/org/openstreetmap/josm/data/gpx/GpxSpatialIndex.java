@@ -0,0 +1,112 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.IQuadBucketType;
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.QuadBuckets;
+
+/**
+ * A spatial index of the track segments of a {@link GpxData}, based on their bounding boxes.
+ * <p>
+ * It allows to find the segments intersecting an area without iterating over all their waypoints.
+ * The index is immutable: {@link GpxData} drops it when the data changes, and builds a new one when needed.
+ * @see GpxData#getSegmentIndex()
+ */
+public final class GpxSpatialIndex {
+
+    /**
+     * A track segment in the index.
+     */
+    public static final class Entry implements IQuadBucketType {
+        private final IGpxTrack track;
+        private final int trackIndex;
+        private final IGpxTrackSegment segment;
+        private final int order;
+        private final BBox bbox;
+
+        Entry(IGpxTrack track, int trackIndex, IGpxTrackSegment segment, int order, Bounds bounds) {
+            this.track = track;
+            this.trackIndex = trackIndex;
+            this.segment = segment;
+            this.order = order;
+            this.bbox = bounds.toBBox();
+        }
+
+        /**
+         * Returns the track of the segment.
+         * @return the track of the segment
+         */
+        public IGpxTrack getTrack() {
+            return track;
+        }
+
+        /**
+         * Returns the index of the track in {@link GpxData#getTracks()}.
+         * @return the index of the track
+         */
+        public int getTrackIndex() {
+            return trackIndex;
+        }
+
+        /**
+         * Returns the track segment.
+         * @return the track segment
+         */
+        public IGpxTrackSegment getSegment() {
+            return segment;
+        }
+
+        @Override
+        public BBox getBBox() {
+            return bbox;
+        }
+    }
+
+    private final QuadBuckets<Entry> buckets = new QuadBuckets<>();
+
+    /**
+     * Constructs a new {@code GpxSpatialIndex}.
+     * @param tracks the tracks to index
+     */
+    GpxSpatialIndex(Collection<IGpxTrack> tracks) {
+        int trackIndex = 0;
+        int order = 0;
+        for (IGpxTrack track : tracks) {
+            for (IGpxTrackSegment segment : track.getSegments()) {
+                Bounds bounds = segment.getBounds();
+                if (bounds != null) {
+                    buckets.add(new Entry(track, trackIndex, segment, order, bounds));
+                }
+                order++;
+            }
+            trackIndex++;
+        }
+    }
+
+    /**
+     * Returns the track segments whose bounding box intersects the given bounds.
+     * @param bounds the area to search
+     * @return the matching segments, in the order of the tracks and segments of the data
+     */
+    public List<Entry> search(Bounds bounds) {
+        List<Entry> result;
+        synchronized (buckets) {
+            result = buckets.search(bounds.toBBox());
+        }
+        result.sort(Comparator.comparingInt(e -> e.order));
+        return result;
+    }
+
+    /**
+     * Returns the number of indexed track segments.
+     * @return the number of indexed track segments
+     */
+    public int size() {
+        return buckets.size();
+    }
+}
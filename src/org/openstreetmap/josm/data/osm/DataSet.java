@@ -1135,15 +1135,19 @@ public final class DataSet implements OsmData<OsmPrimitive, Node, Way, Relation>
     }
 
     void fireNodeMoved(Node node, LatLon newCoor, EastNorth eastNorth) {
+        final BBox oldBBox = node.isLatLonKnown() ? new BBox(node) : null;
         store.reindexNode(node, n -> n.setCoorInternal(newCoor, eastNorth), Way::updatePosition, Relation::updatePosition);
-        fireEvent(new NodeMovedEvent(this, node));
+        fireEvent(new NodeMovedEvent(this, node, oldBBox));
     }
 
     void fireWayNodesChanged(Way way) {
+        BBox oldBBox = null;
         if (!way.isEmpty()) {
+            // the bounding box is still the one of the old nodes, until the way is reindexed
+            oldBBox = new BBox(way.getBBox());
             store.reindexWay(way, Way::updatePosition, Relation::updatePosition);
         }
-        fireEvent(new WayNodesChangedEvent(this, way));
+        fireEvent(new WayNodesChangedEvent(this, way, oldBBox));
     }
 
     void fireChangesetIdChanged(OsmPrimitive primitive, int oldChangesetId, int newChangesetId) {
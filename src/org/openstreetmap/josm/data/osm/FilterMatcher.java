@@ -117,6 +117,18 @@ public class FilterMatcher {
         return !hiddenFilters.isEmpty() || !disabledFilters.isEmpty();
     }
 
+    /**
+     * Determines if at least one enabled filter uses an expression whose result depends on related primitives
+     * (parents, children, roles in relations, ...). In this case, a change of a primitive may affect the filter
+     * state of any primitive connected to it.
+     * @return {@code true} if at least one enabled filter depends on related primitives
+     * @see Match#dependsOnRelatedPrimitives()
+     */
+    public boolean dependsOnRelatedPrimitives() {
+        return hiddenFilters.stream().anyMatch(fi -> fi.match.dependsOnRelatedPrimitives())
+            || disabledFilters.stream().anyMatch(fi -> fi.match.dependsOnRelatedPrimitives());
+    }
+
     /**
      * Adds a filter to the currently used filters
      * @param filter the filter to add
@@ -158,36 +158,96 @@ public class FilterModel implements SortableModel<Filter> {
         List<OsmPrimitive> deselect = new ArrayList<>();
 
         ds.update(() -> {
-            for (int i = 0; i < 2; i++) {
-                for (OsmPrimitive primitive: primitives) {
+            // first relations, then ways and nodes last; this is required to resolve dependencies
+            for (OsmPrimitive primitive : primitives) {
+                if (primitive instanceof Relation) {
+                    executeFilter(primitive, deselect);
+                }
+            }
+            for (OsmPrimitive primitive : primitives) {
+                if (primitive instanceof Way) {
+                    executeFilter(primitive, deselect);
+                }
+            }
+            for (OsmPrimitive primitive : primitives) {
+                if (primitive instanceof Node) {
+                    executeFilter(primitive, deselect);
+                }
+            }
+        });
 
-                    if (i == 0 && primitive instanceof Node) {
-                        continue;
-                    }
+        if (!deselect.isEmpty()) {
+            ds.clearSelection(deselect);
+        }
+        if (changed) {
+            updateMap();
+        }
+    }
 
-                    if (i == 1 && !(primitive instanceof Node)) {
-                        continue;
-                    }
+    /**
+     * Runs the filters incrementally after the given primitives of the edit data set have been added, removed or modified.
+     * <p>
+     * Only the changed primitives and their parents are evaluated at first. The children of a primitive
+     * (nodes of a way, member ways of a multipolygon) are only evaluated again if the primitive is one of the
+     * changed primitives, whose children may have changed, or if its filter state has actually changed,
+     * since the filter state of the children is derived from it.
+     * If an enabled filter depends on related primitives (e.g. a {@code parent} or {@code child} expression),
+     * all primitives connected to the changed ones are evaluated, see {@link #getAffectedPrimitives(Collection)}.
+     * @param primitives the primitives that have been added, removed or modified
+     */
+    public void executeFiltersIncremental(Collection<? extends OsmPrimitive> primitives) {
+        if (filterMatcher.dependsOnRelatedPrimitives()) {
+            executeFilters(getAffectedPrimitives(primitives));
+            return;
+        }
+        DataSet ds = OsmDataManager.getInstance().getActiveDataSet();
+        if (ds == null)
+            return;
 
-                    if (primitive.isDisabled()) {
-                        disabledCount--;
-                    }
-                    if (primitive.isDisabledAndHidden()) {
-                        disabledAndHiddenCount--;
-                    }
-                    changed |= FilterWorker.executeFilters(primitive, filterMatcher);
-                    if (primitive.isDisabled()) {
-                        disabledCount++;
-                    }
-                    if (primitive.isDisabledAndHidden()) {
-                        disabledAndHiddenCount++;
-                    }
+        changed = false;
+        List<OsmPrimitive> deselect = new ArrayList<>();
 
-                    if (primitive.isSelected() && primitive.isDisabled()) {
-                        deselect.add(primitive);
+        Set<OsmPrimitive> modified = new HashSet<>(primitives);
+        ds.update(() -> {
+            // Parents are evaluated as well, as expressions like areasize or waylength depend on the geometry of the children
+            Set<OsmPrimitive> relations = new HashSet<>();
+            Set<OsmPrimitive> ways = new HashSet<>();
+            Set<OsmPrimitive> nodes = new HashSet<>();
+            Stack<OsmPrimitive> stack = new Stack<>();
+            stack.addAll(primitives);
+            while (!stack.isEmpty()) {
+                OsmPrimitive p = stack.pop();
+                boolean added;
+                if (p instanceof Relation) {
+                    added = relations.add(p);
+                } else if (p instanceof Way) {
+                    added = ways.add(p);
+                } else {
+                    added = nodes.add(p);
+                }
+                if (added) {
+                    stack.addAll(p.getReferrers(true));
+                }
+            }
+
+            // first relations, then ways and nodes last; this is required to resolve dependencies
+            for (OsmPrimitive r : relations) {
+                if ((executeFilter(r, deselect) || modified.contains(r)) && r.isMultipolygon()) {
+                    for (OsmPrimitive member : ((Relation) r).getMemberPrimitivesList()) {
+                        if (member instanceof Way) {
+                            ways.add(member);
+                        }
                     }
                 }
             }
+            for (OsmPrimitive w : ways) {
+                if (executeFilter(w, deselect) || modified.contains(w)) {
+                    nodes.addAll(((Way) w).getNodes());
+                }
+            }
+            for (OsmPrimitive n : nodes) {
+                executeFilter(n, deselect);
+            }
         });
 
         if (!deselect.isEmpty()) {
@@ -198,6 +258,46 @@ public class FilterModel implements SortableModel<Filter> {
         }
     }
 
+    /**
+     * Runs the filters on a single primitive and updates the counters accordingly.
+     * Filter flags of deleted or incomplete primitives are cleared.
+     * @param primitive the primitive
+     * @param deselect collection receiving the primitive if it is selected and becomes disabled
+     * @return {@code true} if the primitives depending on this one have to be evaluated again,
+     * i.e. if the filter state of the primitive has changed or the primitive has been removed
+     */
+    private boolean executeFilter(OsmPrimitive primitive, Collection<OsmPrimitive> deselect) {
+        int oldState = getFilterState(primitive);
+        if (primitive.isDisabledAndHidden()) {
+            disabledAndHiddenCount--;
+        } else if (primitive.isDisabled()) {
+            disabledCount--;
+        }
+        boolean removed = primitive.isDeleted() || primitive.isIncomplete() || primitive.getDataSet() == null;
+        if (removed) {
+            changed |= primitive.unsetDisabledState();
+        } else {
+            changed |= FilterWorker.executeFilters(primitive, filterMatcher);
+        }
+        if (primitive.isDisabledAndHidden()) {
+            disabledAndHiddenCount++;
+        } else if (primitive.isDisabled()) {
+            disabledCount++;
+        }
+
+        if (primitive.isSelected() && primitive.isDisabled()) {
+            deselect.add(primitive);
+        }
+        return removed || getFilterState(primitive) != oldState;
+    }
+
+    private static int getFilterState(OsmPrimitive primitive) {
+        return (primitive.isDisabled() ? 1 : 0)
+             | (primitive.isDisabledAndHidden() ? 2 : 0)
+             | (primitive.getDisabledType() ? 4 : 0)
+             | (primitive.getHiddenType() ? 8 : 0);
+    }
+
     private static void updateMap() {
         MainApplication.getLayerManager().invalidateEditLayer();
     }
@@ -1,12 +1,18 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.data.osm;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.openstreetmap.josm.data.osm.FilterMatcher.FilterType;
 import org.openstreetmap.josm.data.osm.search.SearchParseError;
+import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.SubclassFilteredCollection;
+import org.openstreetmap.josm.tools.Utils;
 
 /**
  * Class for applying {@link Filter}s to {@link IPrimitive}s.
@@ -17,6 +23,29 @@ import org.openstreetmap.josm.tools.SubclassFilteredCollection;
  */
 public final class FilterWorker {
 
+    /**
+     * Minimum number of primitives for which the filters are evaluated in parallel.
+     */
+    private static final int PARALLEL_EXECUTION_THRESHOLD = 10_000;
+
+    private static final FilterType[] FILTER_TYPES = FilterType.values();
+
+    /**
+     * Lazily creates the thread pool, so that it is only created if large collections are filtered.
+     */
+    private static final class ThreadPoolHolder {
+        static final ForkJoinPool THREAD_POOL = newForkJoinPool();
+
+        private static ForkJoinPool newForkJoinPool() {
+            try {
+                return Utils.newForkJoinPool("filter.numberOfThreads", "filter-worker-%d", Thread.NORM_PRIORITY);
+            } catch (SecurityException e) {
+                Logging.log(Logging.LEVEL_ERROR, "Unable to create new ForkJoinPool", e);
+                return null;
+            }
+        }
+    }
+
     private FilterWorker() {
         // Hide default constructor for utils classes
     }
@@ -38,6 +67,11 @@ public final class FilterWorker {
 
     /**
      * Apply the filters to the primitives of the data set.
+     * <p>
+     * Large collections are evaluated in parallel. The filter state of all primitives of the same type is
+     * computed concurrently first, and applied afterwards by the calling thread in one batch.
+     * The {@link org.openstreetmap.josm.data.osm.search.SearchCompiler.Match Match} implementations used
+     * by the filters must thus be thread-safe.
      *
      * @param <T> The primitive type
      * @param all the collection of primitives for that the filter state should be updated
@@ -46,34 +80,109 @@ public final class FilterWorker {
      * @since 17862 (generics)
      */
     public static <T extends IPrimitive & IFilterablePrimitive> boolean executeFilters(Collection<T> all, FilterMatcher filterMatcher) {
+        final ForkJoinPool pool = all.size() >= PARALLEL_EXECUTION_THRESHOLD ? ThreadPoolHolder.THREAD_POOL : null;
         boolean changed;
         // first relations, then ways and nodes last; this is required to resolve dependencies
-        changed = doExecuteFilters(SubclassFilteredCollection.filter(all, IRelation.class::isInstance), filterMatcher);
-        changed |= doExecuteFilters(SubclassFilteredCollection.filter(all, IWay.class::isInstance), filterMatcher);
-        changed |= doExecuteFilters(SubclassFilteredCollection.filter(all, INode.class::isInstance), filterMatcher);
+        changed = doExecuteFilters(SubclassFilteredCollection.filter(all, IRelation.class::isInstance), filterMatcher, pool);
+        changed |= doExecuteFilters(SubclassFilteredCollection.filter(all, IWay.class::isInstance), filterMatcher, pool);
+        changed |= doExecuteFilters(SubclassFilteredCollection.filter(all, INode.class::isInstance), filterMatcher, pool);
         return changed;
     }
 
-    private static <T extends IPrimitive & IFilterablePrimitive> boolean doExecuteFilters(Collection<T> all, FilterMatcher filterMatcher) {
+    private static <T extends IPrimitive & IFilterablePrimitive> boolean doExecuteFilters(Collection<T> all, FilterMatcher filterMatcher,
+            ForkJoinPool pool) {
+        if (pool != null && pool.getParallelism() > 1) {
+            // The filter state of a primitive only depends on the state of its parents, which has already been set,
+            // so all primitives of the same type can be evaluated concurrently
+            final List<T> primitives = new ArrayList<>(all);
+            final int[] results = new int[primitives.size()];
+            pool.invoke(new FilterTask<>(primitives, filterMatcher, results, 0, primitives.size(),
+                    Math.max(1000, primitives.size() / pool.getParallelism() / 3)));
+            boolean changed = false;
+            for (int i = 0; i < results.length; i++) {
+                changed |= applyFilterResult(primitives.get(i), results[i]);
+            }
+            return changed;
+        }
+        return doExecuteFilters(all, filterMatcher);
+    }
 
+    private static <T extends IPrimitive & IFilterablePrimitive> boolean doExecuteFilters(Collection<T> all, FilterMatcher filterMatcher) {
         boolean changed = false;
-
         for (T primitive : all) {
-            FilterType hiddenType = filterMatcher.isHidden(primitive);
-            if (hiddenType != FilterType.NOT_FILTERED) {
-                changed |= primitive.setDisabledState(true);
-                primitive.setHiddenType(hiddenType == FilterType.EXPLICIT);
-            } else {
-                FilterType disabledType = filterMatcher.isDisabled(primitive);
-                if (disabledType != FilterType.NOT_FILTERED) {
-                    changed |= primitive.setDisabledState(false);
-                    primitive.setDisabledType(disabledType == FilterType.EXPLICIT);
-                } else {
-                    changed |= primitive.unsetDisabledState();
+            changed |= applyFilterResult(primitive, computeFilterResult(primitive, filterMatcher));
+        }
+        return changed;
+    }
+
+    /**
+     * Computes the filter state of a primitive without modifying it.
+     * @param <T> the primitive type
+     * @param primitive the primitive
+     * @param filterMatcher the FilterMatcher
+     * @return the hidden type in the upper bits, the disabled type in the lower bits
+     */
+    private static <T extends IPrimitive & IFilterablePrimitive> int computeFilterResult(T primitive, FilterMatcher filterMatcher) {
+        FilterType hiddenType = filterMatcher.isHidden(primitive);
+        if (hiddenType != FilterType.NOT_FILTERED) {
+            return hiddenType.ordinal() << 2;
+        }
+        return filterMatcher.isDisabled(primitive).ordinal();
+    }
+
+    private static <T extends IPrimitive & IFilterablePrimitive> boolean applyFilterResult(T primitive, int result) {
+        FilterType hiddenType = FILTER_TYPES[result >> 2];
+        if (hiddenType != FilterType.NOT_FILTERED) {
+            boolean changed = primitive.setDisabledState(true);
+            primitive.setHiddenType(hiddenType == FilterType.EXPLICIT);
+            return changed;
+        }
+        FilterType disabledType = FILTER_TYPES[result & 3];
+        if (disabledType != FilterType.NOT_FILTERED) {
+            boolean changed = primitive.setDisabledState(false);
+            primitive.setDisabledType(disabledType == FilterType.EXPLICIT);
+            return changed;
+        }
+        return primitive.unsetDisabledState();
+    }
+
+    /**
+     * Computes the filter state of a range of primitives, splitting it into subtasks if necessary.
+     * @param <T> the primitive type
+     */
+    private static final class FilterTask<T extends IPrimitive & IFilterablePrimitive> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<T> primitives;
+        private final transient FilterMatcher filterMatcher;
+        private final int[] results;
+        private final int fromIndex;
+        private final int toIndex;
+        private final int directExecutionTaskSize;
+
+        FilterTask(List<T> primitives, FilterMatcher filterMatcher, int[] results, int fromIndex, int toIndex,
+                int directExecutionTaskSize) {
+            this.primitives = primitives;
+            this.filterMatcher = filterMatcher;
+            this.results = results;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.directExecutionTaskSize = directExecutionTaskSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex <= directExecutionTaskSize) {
+                for (int i = fromIndex; i < toIndex; i++) {
+                    results[i] = computeFilterResult(primitives.get(i), filterMatcher);
                 }
+            } else {
+                final int middle = (fromIndex + toIndex) >>> 1;
+                invokeAll(new FilterTask<>(primitives, filterMatcher, results, fromIndex, middle, directExecutionTaskSize),
+                          new FilterTask<>(primitives, filterMatcher, results, middle, toIndex, directExecutionTaskSize));
             }
         }
-        return changed;
     }
 
     /**
@@ -80,7 +80,7 @@ public class DatasetEventManager implements ActiveLayerChangeListener, Listener
                                 evs.add(event);
                             }
                         } else {
-                            consolidatedEvent = new DataChangedEvent(dataSet, new ArrayList<>(Arrays.asList(consolidatedEvent)));
+                            consolidatedEvent = new DataChangedEvent(dataSet, new ArrayList<>(Arrays.asList(consolidatedEvent, event)));
                         }
                     }
                 }
@@ -336,6 +336,8 @@ public class SearchCompiler {
     /**
      * Base class for all search criteria. If the criterion only depends on an object's tags,
      * inherit from {@link org.openstreetmap.josm.data.osm.search.SearchCompiler.TaggedMatch}.
+     * <p>
+     * Implementations must be thread-safe, as filters evaluate them concurrently on large data sets.
      */
     public abstract static class Match implements Predicate<OsmPrimitive> {
 
@@ -369,6 +371,18 @@ public class SearchCompiler {
             // Default to no-op
             return this;
         }
+
+        /**
+         * Determines if the result of this criterion may depend on other primitives than the tested one,
+         * e.g. on its parents, its children or the roles it has in relations.
+         * Criteria depending only on the primitive itself and its own geometry should return {@code false},
+         * this allows filters to be re-evaluated incrementally when the data changes.
+         * @return {@code true} if the result may change when a related primitive is modified
+         */
+        public boolean dependsOnRelatedPrimitives() {
+            // Default to be on the safe side
+            return true;
+        }
     }
 
     /**
@@ -384,6 +398,11 @@ public class SearchCompiler {
             return match((Tagged) osm);
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         protected static Pattern compilePattern(String regex, int flags) throws SearchParseError {
             try {
                 return Pattern.compile(regex, flags);
@@ -418,6 +437,11 @@ public class SearchCompiler {
             return match;
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return match.dependsOnRelatedPrimitives();
+        }
+
         @Override
         public int hashCode() {
             return 31 + match.hashCode();
@@ -480,6 +504,11 @@ public class SearchCompiler {
             return operator.apply(mapper.apply(lhs), mapper.apply(rhs));
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return lhs.dependsOnRelatedPrimitives() || rhs.dependsOnRelatedPrimitives();
+        }
+
         protected static String parenthesis(Match m) {
             return '(' + m.toString() + ')';
         }
@@ -1207,6 +1236,11 @@ public class SearchCompiler {
             return type == osm.getType();
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         @Override
         public String toString() {
             return "type=" + type;
@@ -1254,6 +1288,11 @@ public class SearchCompiler {
                 return osm.getUser().hasName(user);
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         @Override
         public String toString() {
             return "user=" + (user == null ? "" : user);
@@ -1416,6 +1455,11 @@ public class SearchCompiler {
                 return (num >= min) && (num <= max);
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         @Override
         public String toString() {
             return getString() + '=' + min + '-' + max;
@@ -1490,6 +1534,11 @@ public class SearchCompiler {
             }
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return true;
+        }
+
         @Override
         protected String getString() {
             return "ways";
@@ -1603,6 +1652,11 @@ public class SearchCompiler {
             return osm instanceof Relation && ((Relation) osm).getMemberRoles().contains(role);
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         @Override
         public int hashCode() {
             return 31 + ((role == null) ? 0 : role.hashCode());
@@ -1628,6 +1682,11 @@ public class SearchCompiler {
             return osm.isNew();
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         @Override
         public String toString() {
             return "new";
@@ -1643,6 +1702,11 @@ public class SearchCompiler {
             return osm.isModified() || osm.isNewOrUndeleted();
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         @Override
         public String toString() {
             return MODIFIED;
@@ -1658,6 +1722,11 @@ public class SearchCompiler {
             return osm.isDeleted();
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         @Override
         public String toString() {
             return DELETED;
@@ -1673,6 +1742,11 @@ public class SearchCompiler {
             return osm.getDataSet().isSelected(osm);
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         @Override
         public String toString() {
             return SELECTED;
@@ -1707,6 +1781,11 @@ public class SearchCompiler {
             return !osm.isTagged() && !osm.isIncomplete();
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         @Override
         public String toString() {
             return UNTAGGED;
@@ -1722,6 +1801,11 @@ public class SearchCompiler {
             return osm instanceof Way && ((Way) osm).isClosed();
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         @Override
         public String toString() {
             return CLOSED;
@@ -1747,6 +1831,11 @@ public class SearchCompiler {
             }
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return true;
+        }
+
         @Override
         public String toString() {
             return "parent(" + match + ')';
@@ -1767,6 +1856,11 @@ public class SearchCompiler {
             return osm.getReferrers().stream().anyMatch(match::match);
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return true;
+        }
+
         @Override
         public String toString() {
             return "child(" + match + ')';
@@ -1964,6 +2058,11 @@ public class SearchCompiler {
             return this.presets.stream().anyMatch(preset -> preset.test(osm));
         }
 
+        @Override
+        public boolean dependsOnRelatedPrimitives() {
+            return false;
+        }
+
         private static boolean presetNameMatch(String name, TaggingPreset preset, boolean matchStrictly) {
             if (matchStrictly) {
                 return name.equalsIgnoreCase(preset.getRawName());
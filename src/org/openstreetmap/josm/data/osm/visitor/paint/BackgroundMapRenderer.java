@@ -0,0 +1,307 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm.visitor.paint;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.osm.OsmData;
+import org.openstreetmap.josm.data.osm.visitor.paint.StyledMapRenderer.StyleRecord;
+import org.openstreetmap.josm.data.preferences.BooleanProperty;
+import org.openstreetmap.josm.gui.MapView;
+import org.openstreetmap.josm.gui.MapViewState;
+import org.openstreetmap.josm.gui.NavigatableComponent;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Renders a data layer on a worker thread into an off-screen image, so that slow frames do not block the user interface.
+ * <p>
+ * The Event Dispatch Thread only paints the latest rendered frame, moved and scaled to the current viewport.
+ * When the viewport changed, a fast frame without labels is rendered first, followed by the complete frame.
+ * Frames which are outdated because the viewport or the data changed are cancelled.
+ */
+public final class BackgroundMapRenderer {
+
+    /**
+     * Property to render data layers in the background.
+     */
+    public static final BooleanProperty PROP_ENABLED = new BooleanProperty("mappaint.render.background", false);
+
+    // A single thread, as the renderers compute the styles with their own thread pool
+    private static final ExecutorService EXECUTOR =
+            Executors.newSingleThreadExecutor(Utils.newThreadFactory("background-renderer-%d", Thread.NORM_PRIORITY));
+
+    private final Runnable repaint;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Frame lastFrame;
+    private volatile RenderJob currentJob;
+
+    /**
+     * Constructs a new {@code BackgroundMapRenderer}.
+     * @param repaint called when a new frame is available. This is called in the render thread, not in the Event Dispatch Thread.
+     */
+    public BackgroundMapRenderer(Runnable repaint) {
+        this.repaint = Objects.requireNonNull(repaint, "repaint");
+    }
+
+    /**
+     * Determines if data layers should be rendered in the background.
+     * @return {@code true} if data layers should be rendered in the background
+     */
+    public static boolean isEnabled() {
+        return PROP_ENABLED.get();
+    }
+
+    /**
+     * Paints the latest rendered frame, and starts the rendering of a new frame if it is outdated.
+     * Must be called in the Event Dispatch Thread.
+     * @param g the graphics context to paint on
+     * @param mv the map view
+     * @param data the data to render
+     * @param bounds the area to render
+     * @param inactive if {@code true}, the data is rendered such that it looks inactive
+     * @param virtual if {@code true}, virtual nodes are rendered
+     */
+    public void paint(Graphics2D g, MapView mv, OsmData<?, ?, ?, ?> data, Bounds bounds, boolean inactive, boolean virtual) {
+        final MapViewState state = mv.getState();
+        final long gen = generation.get();
+        final Frame frame = lastFrame;
+        if (frame == null || !frame.isUpToDate(state, gen, inactive, virtual)) {
+            RenderJob job = currentJob;
+            if (job == null || !job.matches(state, gen, inactive, virtual)) {
+                if (job != null) {
+                    job.cancelled = true;
+                }
+                currentJob = new RenderJob(data, new Bounds(bounds), state, mv.getGraphicsConfiguration(), gen, inactive, virtual);
+                EXECUTOR.execute(currentJob);
+            }
+        }
+        if (frame != null) {
+            frame.paint(g, state);
+        }
+    }
+
+    /**
+     * Marks the rendered frames as outdated, e.g., because the data has changed.
+     * The latest frame is still painted until a new one is available. The current rendering is cancelled.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        final RenderJob job = currentJob;
+        if (job != null) {
+            job.cancelled = true;
+        }
+    }
+
+    /**
+     * Cancels the rendering and drops the latest frame. Must be called in the Event Dispatch Thread.
+     */
+    public void cancel() {
+        if (currentJob != null) {
+            currentJob.cancelled = true;
+            currentJob = null;
+        }
+        lastFrame = null;
+    }
+
+    /**
+     * Determines if the latest render job has been cancelled.
+     * @return {@code true} if the latest render job has been cancelled, {@code false} if there is none or it is still valid
+     */
+    boolean isCancelled() {
+        final RenderJob job = currentJob;
+        return job != null && job.cancelled;
+    }
+
+    /**
+     * A rendered frame.
+     */
+    private static final class Frame {
+        final BufferedImage image;
+        /** The state of the map view when the frame was requested */
+        final MapViewState requestedState;
+        /** The state actually used to render the frame */
+        final MapViewState renderedState;
+        final long generation;
+        final boolean inactive;
+        final boolean virtual;
+        /** {@code false} if the frame has been rendered without the slow operations, e.g., labels */
+        final boolean complete;
+
+        Frame(BufferedImage image, RenderJob job, MapViewState renderedState, boolean complete) {
+            this.image = image;
+            this.requestedState = job.state;
+            this.renderedState = renderedState;
+            this.generation = job.generation;
+            this.inactive = job.inactive;
+            this.virtual = job.virtual;
+            this.complete = complete;
+        }
+
+        boolean isUpToDate(MapViewState state, long gen, boolean inactive, boolean virtual) {
+            return complete && generation == gen && this.inactive == inactive && this.virtual == virtual
+                    && requestedState.equalsInWindow(state);
+        }
+
+        void paint(Graphics2D g, MapViewState state) {
+            if (!Objects.equals(renderedState.getProjection(), state.getProjection())) {
+                return;
+            }
+            final int width = image.getWidth();
+            final int height = image.getHeight();
+            final Point2D topLeft = state.getPointFor(renderedState.getForView(0, 0).getEastNorth()).getInView();
+            final Point2D bottomRight = state.getPointFor(renderedState.getForView(width, height).getEastNorth()).getInView();
+            g.drawImage(image, (int) Math.round(topLeft.getX()), (int) Math.round(topLeft.getY()),
+                    (int) Math.round(bottomRight.getX()), (int) Math.round(bottomRight.getY()), 0, 0, width, height, null);
+        }
+    }
+
+    /**
+     * A job rendering the frames for a given viewport and data generation.
+     */
+    private final class RenderJob implements Runnable {
+        final OsmData<?, ?, ?, ?> data;
+        final Bounds bounds;
+        final MapViewState state;
+        final GraphicsConfiguration gc;
+        final long generation;
+        final boolean inactive;
+        final boolean virtual;
+        volatile boolean cancelled;
+
+        RenderJob(OsmData<?, ?, ?, ?> data, Bounds bounds, MapViewState state, GraphicsConfiguration gc,
+                long generation, boolean inactive, boolean virtual) {
+            this.data = data;
+            this.bounds = bounds;
+            this.state = state;
+            this.gc = gc;
+            this.generation = generation;
+            this.inactive = inactive;
+            this.virtual = virtual;
+        }
+
+        boolean matches(MapViewState state, long gen, boolean inactive, boolean virtual) {
+            return !cancelled && generation == gen && this.inactive == inactive && this.virtual == virtual
+                    && this.state.equalsInWindow(state);
+        }
+
+        @Override
+        public void run() {
+            final Frame previous = lastFrame;
+            // Only render a fast frame first if the latest frame does not show the same area
+            if (previous == null || !previous.requestedState.equalsInWindow(state)) {
+                if (!renderFrame(false)) {
+                    return;
+                }
+            }
+            renderFrame(true);
+        }
+
+        /**
+         * Renders a frame and publishes it.
+         * @param complete if {@code false}, the slow operations are skipped
+         * @return {@code true} if the frame has been rendered, {@code false} if the job has been cancelled
+         */
+        private boolean renderFrame(boolean complete) {
+            if (cancelled) {
+                return false;
+            }
+            final int width = (int) state.getViewWidth();
+            final int height = (int) state.getViewHeight();
+            if (width <= 0 || height <= 0) {
+                return false;
+            }
+            // Render with a detached view, as the map view may change in the meantime
+            final NavigatableComponent view = new NavigatableComponent() {
+                @Override
+                public int getWidth() {
+                    return width;
+                }
+
+                @Override
+                public int getHeight() {
+                    return height;
+                }
+            };
+            view.zoomTo(state.getCenter().getEastNorth(), state.getScale(), true);
+            final BufferedImage image = gc == null
+                    ? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+                    : gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+            final Graphics2D g2d = image.createGraphics();
+            try {
+                final AbstractMapRenderer painter = MapRendererFactory.getInstance().createActiveRenderer(g2d, view, inactive);
+                if (painter instanceof StyledMapRenderer) {
+                    final Supplier<RenderBenchmarkCollector> benchmark = RenderBenchmarkCollector.defaultBenchmarkSupplier();
+                    ((StyledMapRenderer) painter).setBenchmarkFactory(() -> new CancellableBenchmark(benchmark.get(), this));
+                }
+                painter.enableSlowOperations(complete);
+                painter.render(data, virtual, bounds);
+            } finally {
+                g2d.dispose();
+            }
+            if (cancelled) {
+                return false;
+            }
+            lastFrame = new Frame(image, this, view.getState(), complete);
+            repaint.run();
+            return true;
+        }
+    }
+
+    /**
+     * A benchmark collector which stops the rendering when the job has been cancelled.
+     */
+    private static final class CancellableBenchmark extends RenderBenchmarkCollector {
+        private final RenderBenchmarkCollector delegate;
+        private final RenderJob job;
+
+        CancellableBenchmark(RenderBenchmarkCollector delegate, RenderJob job) {
+            this.delegate = delegate;
+            this.job = job;
+        }
+
+        @Override
+        public void renderStart(double circum) {
+            delegate.renderStart(circum);
+        }
+
+        @Override
+        public boolean renderSort() {
+            return delegate.renderSort() && !job.cancelled;
+        }
+
+        @Override
+        public boolean renderDraw(List<StyleRecord> allStyleElems) {
+            return delegate.renderDraw(allStyleElems) && !job.cancelled;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return job.cancelled || delegate.isCancelled();
+        }
+
+        @Override
+        public boolean isRecordTimingEnabled() {
+            return delegate.isRecordTimingEnabled();
+        }
+
+        @Override
+        public void renderRecordPainted(StyleRecord styleRecord, long nanos) {
+            delegate.renderRecordPainted(styleRecord, nanos);
+        }
+
+        @Override
+        public void renderDone() {
+            delegate.renderDone();
+        }
+    }
+}
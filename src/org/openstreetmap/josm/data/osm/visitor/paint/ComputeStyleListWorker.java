@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
 
 import org.openstreetmap.josm.data.osm.INode;
 import org.openstreetmap.josm.data.osm.IPrimitive;
@@ -46,6 +47,7 @@ public class ComputeStyleListWorker extends RecursiveTask<List<StyleRecord>> imp
     private final boolean drawArea;
     private final boolean drawMultipolygon;
     private final boolean drawRestriction;
+    private final transient BooleanSupplier cancelled;
 
     /**
      * Constructs a new {@code ComputeStyleListWorker}.
@@ -75,12 +77,29 @@ public class ComputeStyleListWorker extends RecursiveTask<List<StyleRecord>> imp
     ComputeStyleListWorker(double circum, NavigatableComponent nc,
             final List<? extends IPrimitive> input, List<StyleRecord> output, int directExecutionTaskSize,
             ElemStyles styles) {
+        this(circum, nc, input, output, directExecutionTaskSize, styles, () -> false);
+    }
+
+    /**
+     * Constructs a new {@code ComputeStyleListWorker}.
+     * @param circum distance on the map in meters that 100 screen pixels represent
+     * @param nc navigable component
+     * @param input the primitives to process
+     * @param output the list of styles to which styles will be added
+     * @param directExecutionTaskSize the threshold deciding whether to subdivide the tasks
+     * @param styles the {@link ElemStyles} instance used to generate primitive {@link StyleElement}s.
+     * @param cancelled determines if the rendering has been cancelled, in which case the remaining primitives are skipped
+     */
+    ComputeStyleListWorker(double circum, NavigatableComponent nc,
+            final List<? extends IPrimitive> input, List<StyleRecord> output, int directExecutionTaskSize,
+            ElemStyles styles, BooleanSupplier cancelled) {
         this.circum = circum;
         this.nc = nc;
         this.input = input;
         this.output = output;
         this.directExecutionTaskSize = directExecutionTaskSize;
         this.styles = styles;
+        this.cancelled = cancelled;
         this.drawArea = circum <= Config.getPref().getInt("mappaint.fillareas", 10_000_000);
         this.drawMultipolygon = drawArea && Config.getPref().getBoolean("mappaint.multipolygon", true);
         this.drawRestriction = Config.getPref().getBoolean("mappaint.restriction", true);
@@ -96,7 +115,7 @@ public class ComputeStyleListWorker extends RecursiveTask<List<StyleRecord>> imp
             for (int fromIndex = 0; fromIndex < input.size(); fromIndex += directExecutionTaskSize) {
                 final int toIndex = Math.min(fromIndex + directExecutionTaskSize, input.size());
                 tasks.add(new ComputeStyleListWorker(circum, nc, input.subList(fromIndex, toIndex),
-                        new ArrayList<>(directExecutionTaskSize), directExecutionTaskSize, styles).fork());
+                        new ArrayList<>(directExecutionTaskSize), directExecutionTaskSize, styles, cancelled).fork());
             }
             for (ForkJoinTask<List<StyleRecord>> task : tasks) {
                 output.addAll(task.join());
@@ -113,6 +132,9 @@ public class ComputeStyleListWorker extends RecursiveTask<List<StyleRecord>> imp
         MapCSSStyleSource.STYLE_SOURCE_LOCK.readLock().lock();
         try {
             for (final IPrimitive osm : input) {
+                if (cancelled.getAsBoolean()) {
+                    break;
+                }
                 acceptDrawable(osm);
             }
             return output;
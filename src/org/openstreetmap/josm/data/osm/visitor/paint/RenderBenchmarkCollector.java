@@ -5,6 +5,8 @@ import java.io.PrintStream;
 import java.util.List;
 import java.util.function.Supplier;
 
+import javax.swing.SwingUtilities;
+
 import org.openstreetmap.josm.data.osm.visitor.paint.StyledMapRenderer.StyleRecord;
 import org.openstreetmap.josm.gui.mappaint.mapcss.Selector;
 import org.openstreetmap.josm.spi.preferences.Config;
@@ -45,6 +47,33 @@ public class RenderBenchmarkCollector {
         return true;
     }
 
+    /**
+     * Determines if the renderer should measure the time needed to paint each style record
+     * and report it using {@link #renderRecordPainted(StyleRecord, long)}.
+     * @return <code>true</code> if the paint time of each style record should be measured
+     */
+    public boolean isRecordTimingEnabled() {
+        return false;
+    }
+
+    /**
+     * Notified when a style record has been painted, if {@link #isRecordTimingEnabled()} returns <code>true</code>.
+     * @param styleRecord The style record that has been painted
+     * @param nanos The time needed to paint it, in nanoseconds
+     */
+    public void renderRecordPainted(StyleRecord styleRecord, long nanos) {
+        // nop
+    }
+
+    /**
+     * Determines if the rendering has been cancelled, e.g., because the rendered frame is already outdated.
+     * The renderer checks it while computing the styles and while painting.
+     * @return <code>true</code> if the renderer should stop rendering
+     */
+    public boolean isCancelled() {
+        return false;
+    }
+
     /**
      * Notified when the render method is done.
      */
@@ -146,12 +175,47 @@ public class RenderBenchmarkCollector {
         }
     }
 
+    /**
+     * A benchmark implementation that feeds the {@link RenderStatistics}.
+     */
+    public static class StatisticsBenchmark extends RenderBenchmarkCollector.CapturingBenchmark {
+        private final RenderStatistics statistics = RenderStatistics.getInstance();
+        private boolean inEdt;
+
+        @Override
+        public void renderStart(double circum) {
+            inEdt = SwingUtilities.isEventDispatchThread();
+            super.renderStart(circum);
+        }
+
+        @Override
+        public boolean isRecordTimingEnabled() {
+            return true;
+        }
+
+        @Override
+        public void renderRecordPainted(StyleRecord styleRecord, long nanos) {
+            statistics.addPaintedElement(styleRecord, nanos);
+        }
+
+        @Override
+        public void renderDone() {
+            super.renderDone();
+            statistics.addFrame(getGenerateTime(), getSortTime(), timeFinished - timeSortingDone, inEdt);
+        }
+    }
+
     /**
      * A supplier that gets the default benchmark class.
-     * @return A supplier that returns a nop or a logging benchmark.
+     * @return A supplier that returns a nop, a logging or a statistics benchmark.
      */
     public static Supplier<RenderBenchmarkCollector> defaultBenchmarkSupplier() {
-        return () -> Logging.isTraceEnabled() || Config.getPref().getBoolean("mappaint.render.benchmark", false)
-                ? new LoggingBenchmark() : new RenderBenchmarkCollector();
+        return () -> {
+            if (RenderStatistics.isEnabled()) {
+                return new StatisticsBenchmark();
+            }
+            return Logging.isTraceEnabled() || Config.getPref().getBoolean("mappaint.render.benchmark", false)
+                    ? new LoggingBenchmark() : new RenderBenchmarkCollector();
+        };
     }
 }
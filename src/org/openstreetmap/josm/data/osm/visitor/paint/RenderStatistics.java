@@ -0,0 +1,336 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm.visitor.paint;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openstreetmap.josm.data.osm.visitor.paint.StyledMapRenderer.StyleRecord;
+import org.openstreetmap.josm.data.preferences.BooleanProperty;
+import org.openstreetmap.josm.gui.mappaint.mapcss.Selector;
+import org.openstreetmap.josm.gui.mappaint.styleelement.StyleElement;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+
+/**
+ * Collects rendering statistics over many frames, in order to find out which styles make rendering slow.
+ * <p>
+ * The statistics are only recorded if {@link #isEnabled()} returns {@code true}:
+ * <ul>
+ * <li>the time spent to compute the styles, to sort them and to draw them, for each frame,
+ * and the time the Event Dispatch Thread was blocked by rendering</li>
+ * <li>the number of painted elements and the time spent to paint them, for each {@link StyleElement} type</li>
+ * <li>the number of evaluations and matches of each MapCSS selector</li>
+ * <li>the hits and misses of the style cache</li>
+ * </ul>
+ * All methods are thread-safe, as styles are computed by several threads.
+ *
+ * @see RenderBenchmarkCollector.StatisticsBenchmark
+ */
+public final class RenderStatistics {
+
+    /**
+     * Property to enable the recording of rendering statistics.
+     */
+    public static final BooleanProperty PROP_ENABLED = new BooleanProperty("mappaint.render.statistics", false);
+
+    private static final RenderStatistics INSTANCE = new RenderStatistics();
+
+    private static volatile boolean enabled;
+
+    static {
+        // read once and cache in a volatile field, as it is queried by all rendering threads for each primitive
+        if (Config.getPref() != null) {
+            PROP_ENABLED.addListener(e -> enabled = Boolean.TRUE.equals(e.getProperty().get()));
+            enabled = PROP_ENABLED.get();
+        }
+    }
+
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder generateTime = new LongAdder();
+    private final LongAdder sortTime = new LongAdder();
+    private final LongAdder drawTime = new LongAdder();
+    private final LongAdder edtTime = new LongAdder();
+    private final LongAccumulator maxFrameTime = new LongAccumulator(Math::max, 0);
+    private final LongAdder styleCacheHits = new LongAdder();
+    private final LongAdder styleCacheMisses = new LongAdder();
+    private final Map<Class<?>, Counter> elements = new ConcurrentHashMap<>();
+    /** The counters of the selectors of the current styles */
+    private final Map<Selector, SelectorCounter> selectors = new ConcurrentHashMap<>();
+    /** The counters of the selectors of the styles before they were reloaded, by {@link SelectorCounter#getId} */
+    private final Map<String, SelectorCounter> formerSelectors = new ConcurrentHashMap<>();
+
+    /**
+     * Counts the occurrences of an event and the time spent in it.
+     */
+    private static class Counter {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+
+    /**
+     * Counts the evaluations and matches of a selector. It does not reference the selector, so that the styles
+     * can be released when they are reloaded.
+     */
+    private static final class SelectorCounter {
+        final String source;
+        final String selector;
+        final LongAdder evaluations = new LongAdder();
+        final LongAdder matches = new LongAdder();
+
+        SelectorCounter(String source, String selector) {
+            this.source = source;
+            this.selector = selector;
+        }
+
+        String getId() {
+            return source + '\n' + selector;
+        }
+
+        void add(SelectorCounter other) {
+            evaluations.add(other.evaluations.sum());
+            matches.add(other.matches.sum());
+        }
+    }
+
+    private RenderStatistics() {
+        // Hide default constructor for singleton
+    }
+
+    /**
+     * Returns the unique instance.
+     * @return the unique instance
+     */
+    public static RenderStatistics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Determines if rendering statistics are currently recorded.
+     * @return {@code true} if rendering statistics are currently recorded
+     * @see #PROP_ENABLED
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the recording of rendering statistics.
+     * @param enable {@code true} to record rendering statistics
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+        if (Config.getPref() != null) {
+            PROP_ENABLED.put(enable);
+        }
+    }
+
+    /**
+     * Records a rendered frame.
+     * @param generate time spent to compute the styles, in milliseconds
+     * @param sort time spent to sort the styles, in milliseconds
+     * @param draw time spent to draw the styles, in milliseconds
+     * @param inEdt {@code true} if the frame has been rendered in the Event Dispatch Thread
+     */
+    public void addFrame(long generate, long sort, long draw, boolean inEdt) {
+        final long total = generate + sort + draw;
+        frames.increment();
+        generateTime.add(generate);
+        sortTime.add(sort);
+        drawTime.add(draw);
+        maxFrameTime.accumulate(total);
+        if (inEdt) {
+            edtTime.add(total);
+        }
+    }
+
+    /**
+     * Records the painting of a style record.
+     * @param record the style record that has been painted
+     * @param nanos the time needed to paint it, in nanoseconds
+     */
+    public void addPaintedElement(StyleRecord record, long nanos) {
+        Counter counter = elements.computeIfAbsent(record.getStyle().getClass(), k -> new Counter());
+        counter.count.increment();
+        counter.nanos.add(nanos);
+    }
+
+    /**
+     * Records the evaluation of a MapCSS selector.
+     * @param source the title of the style source the selector belongs to
+     * @param selector the selector
+     * @param matched {@code true} if the selector matched
+     */
+    public void addSelectorEvaluation(String source, Selector selector, boolean matched) {
+        SelectorCounter counter = selectors.computeIfAbsent(selector, k -> new SelectorCounter(source, String.valueOf(k)));
+        counter.evaluations.increment();
+        if (matched) {
+            counter.matches.increment();
+        }
+    }
+
+    /**
+     * Releases the selectors of the current styles, as they are reloaded. Their statistics are kept, and merged with
+     * the statistics of the same selectors once reloaded.
+     */
+    public void releaseSelectors() {
+        for (Iterator<SelectorCounter> it = selectors.values().iterator(); it.hasNext();) {
+            SelectorCounter counter = it.next();
+            it.remove();
+            formerSelectors.computeIfAbsent(counter.getId(), k -> new SelectorCounter(counter.source, counter.selector)).add(counter);
+        }
+    }
+
+    /**
+     * Records a lookup in the style cache.
+     * @param hit {@code true} if the styles were found in the cache
+     */
+    public void addStyleCacheLookup(boolean hit) {
+        (hit ? styleCacheHits : styleCacheMisses).increment();
+    }
+
+    /**
+     * Clears all recorded statistics.
+     */
+    public void reset() {
+        frames.reset();
+        generateTime.reset();
+        sortTime.reset();
+        drawTime.reset();
+        edtTime.reset();
+        maxFrameTime.reset();
+        styleCacheHits.reset();
+        styleCacheMisses.reset();
+        elements.clear();
+        selectors.clear();
+        formerSelectors.clear();
+    }
+
+    /**
+     * Returns the number of recorded frames.
+     * @return the number of recorded frames
+     */
+    public long getFrameCount() {
+        return frames.sum();
+    }
+
+    /**
+     * Returns the ratio of style cache hits among all style cache lookups.
+     * @return the style cache hit rate, between 0 and 1, or 0 if there was no lookup
+     */
+    public double getStyleCacheHitRate() {
+        long hits = styleCacheHits.sum();
+        long total = hits + styleCacheMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns the recorded statistics as a JSON object.
+     * @param maxSelectors maximum number of selectors to include, sorted by decreasing number of evaluations
+     * @return the recorded statistics
+     */
+    public JsonObject toJson(int maxSelectors) {
+        JsonObjectBuilder frameStats = Json.createObjectBuilder()
+                .add("count", frames.sum())
+                .add("generateMs", generateTime.sum())
+                .add("sortMs", sortTime.sum())
+                .add("drawMs", drawTime.sum())
+                .add("edtMs", edtTime.sum())
+                .add("maxMs", maxFrameTime.get());
+
+        JsonObjectBuilder elementStats = Json.createObjectBuilder();
+        elements.entrySet().stream()
+                .sorted(Comparator.comparing(e -> e.getKey().getSimpleName()))
+                .forEach(e -> elementStats.add(e.getKey().getSimpleName(), Json.createObjectBuilder()
+                        .add("count", e.getValue().count.sum())
+                        .add("drawMs", e.getValue().nanos.sum() / 1_000_000)));
+
+        JsonArrayBuilder selectorStats = Json.createArrayBuilder();
+        getSortedSelectors(maxSelectors).forEach(e -> selectorStats.add(Json.createObjectBuilder()
+                .add("source", String.valueOf(e.source))
+                .add("selector", e.selector)
+                .add("evaluations", e.evaluations.sum())
+                .add("matches", e.matches.sum())));
+
+        return Json.createObjectBuilder()
+                .add("frames", frameStats)
+                .add("styleCache", Json.createObjectBuilder()
+                        .add("hits", styleCacheHits.sum())
+                        .add("misses", styleCacheMisses.sum()))
+                .add("elements", elementStats)
+                .add("selectors", selectorStats)
+                .build();
+    }
+
+    /**
+     * Returns a HTML summary of the recorded statistics, as displayed to the user.
+     * @param maxSelectors maximum number of selectors to include, sorted by decreasing number of evaluations
+     * @return a HTML summary of the recorded statistics
+     */
+    public String toHtml(int maxSelectors) {
+        long frameCount = Math.max(1, frames.sum());
+        StringBuilder sb = new StringBuilder(1024)
+                .append("<table cellpadding=2>")
+                .append(row(tr("Frames"), frames.sum()))
+                .append(row(tr("Average style generation (ms)"), generateTime.sum() / frameCount))
+                .append(row(tr("Average sort (ms)"), sortTime.sum() / frameCount))
+                .append(row(tr("Average draw (ms)"), drawTime.sum() / frameCount))
+                .append(row(tr("Slowest frame (ms)"), maxFrameTime.get()))
+                .append(row(tr("Total Event Dispatch Thread stall (ms)"), edtTime.sum()))
+                .append(row(tr("Style cache hit rate (%)"), Math.round(getStyleCacheHitRate() * 100)))
+                .append("</table><h3>").append(tr("Style elements")).append("</h3><table cellpadding=2><tr><th>")
+                .append(tr("Type")).append("</th><th>").append(tr("Count")).append("</th><th>").append(tr("Draw (ms)"))
+                .append("</th></tr>");
+        elements.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<Class<?>, Counter> e) -> e.getValue().nanos.sum()).reversed())
+                .forEach(e -> sb.append("<tr><td>").append(e.getKey().getSimpleName())
+                        .append("</td><td>").append(e.getValue().count.sum())
+                        .append("</td><td>").append(e.getValue().nanos.sum() / 1_000_000).append("</td></tr>"));
+        sb.append("</table><h3>").append(tr("Most evaluated selectors")).append("</h3><table cellpadding=2><tr><th>")
+          .append(tr("Style")).append("</th><th>").append(tr("Selector")).append("</th><th>").append(tr("Evaluations"))
+          .append("</th><th>").append(tr("Matches")).append("</th></tr>");
+        getSortedSelectors(maxSelectors).forEach(e -> sb.append("<tr><td>")
+                .append(Utils.escapeReservedCharactersHTML(e.source))
+                .append("</td><td>").append(Utils.escapeReservedCharactersHTML(e.selector))
+                .append("</td><td>").append(e.evaluations.sum())
+                .append("</td><td>").append(e.matches.sum()).append("</td></tr>"));
+        return sb.append("</table>").toString();
+    }
+
+    /**
+     * Writes the recorded statistics as JSON to the log.
+     */
+    public void dumpToLog() {
+        Logging.info("Rendering statistics: {0}", toJson(Integer.MAX_VALUE));
+    }
+
+    private List<SelectorCounter> getSortedSelectors(int maxSelectors) {
+        // merge the statistics of the selectors before and after the styles were reloaded
+        Map<String, SelectorCounter> merged = new HashMap<>();
+        Stream.concat(formerSelectors.values().stream(), selectors.values().stream()).forEach(counter ->
+                merged.computeIfAbsent(counter.getId(), k -> new SelectorCounter(counter.source, counter.selector)).add(counter));
+        return merged.values().stream()
+                .sorted(Comparator.comparing((SelectorCounter counter) -> counter.evaluations.sum()).reversed())
+                .limit(maxSelectors)
+                .collect(Collectors.toList());
+    }
+
+    private static String row(String label, long value) {
+        return "<tr><td><b>" + label + "</b></td><td>" + value + "</td></tr>";
+    }
+}
@@ -0,0 +1,334 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm.visitor.paint;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.INode;
+import org.openstreetmap.josm.data.osm.IWay;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
+import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
+import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
+import org.openstreetmap.josm.data.osm.event.TagsChangedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
+import org.openstreetmap.josm.data.projection.Projection;
+import org.openstreetmap.josm.data.projection.ProjectionChangeListener;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerAddEvent;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerChangeListener;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerOrderChangeEvent;
+import org.openstreetmap.josm.gui.layer.LayerManager.LayerRemoveEvent;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+
+/**
+ * A memory cache for the simplified geometry of ways, used to paint them at low zoom levels.
+ * <p>
+ * When zoomed out, many consecutive nodes of a way are painted on the same pixel. The simplified
+ * geometry only keeps the nodes needed to paint the way with an error lower than half a pixel,
+ * using the Douglas-Peucker algorithm. It is computed once per way and zoom level bucket
+ * (a power of two of the map scale), and dropped when the way or one of its nodes is modified.
+ * <p>
+ * The cache listens to the changes of every data set it has simplified ways of, not only to those of the data layers.
+ * The simplified ways of a data set are kept by its listener, and the cache only references the data set and the listener
+ * weakly, so that they are released with the data set, even if it never belonged to a layer.
+ */
+public final class SimplifiedWayCache implements LayerChangeListener, ProjectionChangeListener {
+
+    /**
+     * Ways with less nodes than this are never simplified.
+     */
+    static final int MIN_NODES = 16;
+
+    /**
+     * The maximum error allowed by the simplification, in pixels.
+     */
+    private static final double TOLERANCE = 0.5;
+
+    /**
+     * The maximum number of zoom level buckets kept for a way, so that tiles rendered at several zoom levels
+     * do not replace each other's simplified geometry.
+     */
+    static final int MAX_ZOOM_BUCKETS = 4;
+
+    private static final SimplifiedWayCache INSTANCE = new SimplifiedWayCache();
+
+    /** The caches of the data sets, guarded by itself */
+    private final Map<DataSet, WeakReference<DataSetCache>> cache = new WeakHashMap<>();
+
+    /**
+     * The simplified nodes of a way for a zoom level bucket, followed by the entries of the other zoom level buckets,
+     * most recently computed first. Entries are immutable, so that they can be read by several rendering threads.
+     */
+    private static final class Entry {
+        final int zoomBucket;
+        /** The simplified nodes, or {@code null} if the way cannot be simplified at this zoom level */
+        final List<INode> nodes;
+        final Entry next;
+
+        Entry(int zoomBucket, List<INode> nodes, Entry next) {
+            this.zoomBucket = zoomBucket;
+            this.nodes = nodes;
+            this.next = next;
+        }
+
+        static Entry find(Entry entry, int zoomBucket) {
+            for (Entry e = entry; e != null; e = e.next) {
+                if (e.zoomBucket == zoomBucket) {
+                    return e;
+                }
+            }
+            return null;
+        }
+
+        static Entry truncate(Entry entry, int count) {
+            return entry == null || count == 0 ? null : new Entry(entry.zoomBucket, entry.nodes, truncate(entry.next, count - 1));
+        }
+    }
+
+    /**
+     * The simplified ways of a data set, listening to its changes. It is only referenced by the data set.
+     */
+    private static final class DataSetCache implements DataSetListener {
+        final Map<Way, Entry> ways = new ConcurrentHashMap<>();
+
+        @Override
+        public void primitivesAdded(PrimitivesAddedEvent event) {
+            // Do nothing
+        }
+
+        @Override
+        public void primitivesRemoved(PrimitivesRemovedEvent event) {
+            for (OsmPrimitive p : event.getPrimitives()) {
+                if (p instanceof Way) {
+                    ways.remove(p);
+                }
+            }
+        }
+
+        @Override
+        public void tagsChanged(TagsChangedEvent event) {
+            // Do nothing
+        }
+
+        @Override
+        public void nodeMoved(NodeMovedEvent event) {
+            for (OsmPrimitive ref : event.getNode().getReferrers()) {
+                if (ref instanceof Way) {
+                    ways.remove(ref);
+                }
+            }
+        }
+
+        @Override
+        public void wayNodesChanged(WayNodesChangedEvent event) {
+            ways.remove(event.getChangedWay());
+        }
+
+        @Override
+        public void relationMembersChanged(RelationMembersChangedEvent event) {
+            // Do nothing
+        }
+
+        @Override
+        public void otherDatasetChange(AbstractDatasetChangedEvent event) {
+            // Do nothing
+        }
+
+        @Override
+        public void dataChanged(DataChangedEvent event) {
+            // Sent when undoing a move of a large number of nodes (see #7195), without NodeMovedEvent
+            ways.clear();
+        }
+    }
+
+    private SimplifiedWayCache() {
+        ProjectionRegistry.addProjectionChangeListener(this);
+        MainApplication.getLayerManager().addLayerChangeListener(this);
+    }
+
+    /**
+     * Replies the unique instance.
+     * @return the unique instance
+     */
+    public static SimplifiedWayCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the nodes needed to paint the given way at the given scale.
+     * @param way the way to paint
+     * @param scale the map scale, in east/north units per pixel
+     * @return the simplified nodes of the way, or all its nodes if it cannot be simplified
+     */
+    public List<? extends INode> getNodes(IWay<?> way, double scale) {
+        if (!(way instanceof Way) || way.getNodesCount() < MIN_NODES || !(scale > 0)) {
+            return way.getNodes();
+        }
+        DataSet ds = ((Way) way).getDataSet();
+        if (ds == null) {
+            return way.getNodes();
+        }
+        int zoomBucket = getZoomBucket(scale);
+        Map<Way, Entry> map2 = getCache(ds).ways;
+        Entry entries = map2.get(way);
+        Entry entry = Entry.find(entries, zoomBucket);
+        List<? extends INode> nodes = way.getNodes();
+        if (entry == null) {
+            List<INode> simplified = simplify(nodes, Math.scalb(TOLERANCE, zoomBucket));
+            entry = new Entry(zoomBucket, simplified != null && simplified.size() < nodes.size() ? simplified : null,
+                    Entry.truncate(entries, MAX_ZOOM_BUCKETS - 1));
+            map2.put((Way) way, entry);
+        }
+        return entry.nodes != null ? entry.nodes : nodes;
+    }
+
+    private DataSetCache getCache(DataSet ds) {
+        synchronized (cache) {
+            WeakReference<DataSetCache> ref = cache.get(ds);
+            DataSetCache dsCache = ref != null ? ref.get() : null;
+            if (dsCache == null) {
+                dsCache = new DataSetCache();
+                ds.addDataSetListener(dsCache);
+                cache.put(ds, new WeakReference<>(dsCache));
+            }
+            return dsCache;
+        }
+    }
+
+    /**
+     * Returns the zoom level bucket of the given scale, which is the largest power of two lower than the scale.
+     * @param scale the map scale, in east/north units per pixel
+     * @return the exponent of the zoom level bucket
+     */
+    static int getZoomBucket(double scale) {
+        return Math.getExponent(scale);
+    }
+
+    /**
+     * Simplifies a list of nodes with the Douglas-Peucker algorithm. The first and last nodes are always kept.
+     * @param nodes the nodes to simplify
+     * @param tolerance the maximum distance between a removed node and the simplified line, in east/north units
+     * @return the simplified nodes, or {@code null} if one of the nodes has no coordinates
+     */
+    static List<INode> simplify(List<? extends INode> nodes, double tolerance) {
+        int size = nodes.size();
+        EastNorth[] points = new EastNorth[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = nodes.get(i).getEastNorth();
+            if (points[i] == null) {
+                return null;
+            }
+        }
+        boolean[] keep = new boolean[size];
+        keep[0] = true;
+        keep[size - 1] = true;
+        double toleranceSq = tolerance * tolerance;
+        // iterative instead of recursive, as ways may have several thousands of nodes
+        Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[] {0, size - 1});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int from = range[0];
+            int to = range[1];
+            int imax = -1;
+            double dmax = toleranceSq;
+            for (int i = from + 1; i < to; i++) {
+                double d = distanceSq(points[i], points[from], points[to]);
+                if (d > dmax) {
+                    dmax = d;
+                    imax = i;
+                }
+            }
+            if (imax >= 0) {
+                keep[imax] = true;
+                ranges.push(new int[] {from, imax});
+                ranges.push(new int[] {imax, to});
+            }
+        }
+        List<INode> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (keep[i]) {
+                result.add(nodes.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static double distanceSq(EastNorth p, EastNorth a, EastNorth b) {
+        double ldx = b.east() - a.east();
+        double ldy = b.north() - a.north();
+        double pdx = p.east() - a.east();
+        double pdy = p.north() - a.north();
+        double lengthSq = ldx * ldx + ldy * ldy;
+        if (lengthSq == 0) {
+            return pdx * pdx + pdy * pdy;
+        }
+        double offset = Math.max(0, Math.min(1, (pdx * ldx + pdy * ldy) / lengthSq));
+        double dx = pdx - offset * ldx;
+        double dy = pdy - offset * ldy;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Clears the cache for the given dataset.
+     * @param ds the data set
+     */
+    public void clear(DataSet ds) {
+        WeakReference<DataSetCache> ref;
+        synchronized (cache) {
+            ref = cache.remove(ds);
+        }
+        DataSetCache dsCache = ref != null ? ref.get() : null;
+        if (dsCache != null) {
+            ds.removeDataSetListener(dsCache);
+        }
+    }
+
+    /**
+     * Clears the whole cache.
+     */
+    public void clear() {
+        List<DataSet> dataSets;
+        synchronized (cache) {
+            dataSets = new ArrayList<>(cache.keySet());
+        }
+        dataSets.forEach(this::clear);
+    }
+
+    @Override
+    public void layerAdded(LayerAddEvent e) {
+        // Do nothing
+    }
+
+    @Override
+    public void layerOrderChanged(LayerOrderChangeEvent e) {
+        // Do nothing
+    }
+
+    @Override
+    public void layerRemoving(LayerRemoveEvent e) {
+        if (e.getRemovedLayer() instanceof OsmDataLayer) {
+            clear(((OsmDataLayer) e.getRemovedLayer()).data);
+        }
+    }
+
+    @Override
+    public void projectionChanged(Projection oldValue, Projection newValue) {
+        clear();
+    }
+}
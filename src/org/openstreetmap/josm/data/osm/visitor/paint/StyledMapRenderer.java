@@ -28,12 +28,12 @@ import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -240,7 +240,7 @@ public class StyledMapRenderer extends AbstractMapRenderer {
         }
     }
 
-    private static final Map<Font, Boolean> IS_GLYPH_VECTOR_DOUBLE_TRANSLATION_BUG = new HashMap<>();
+    private static final Map<Font, Boolean> IS_GLYPH_VECTOR_DOUBLE_TRANSLATION_BUG = new ConcurrentHashMap<>();
 
     /**
      * Check, if this System has the GlyphVector double translation bug.
@@ -329,6 +329,11 @@ public class StyledMapRenderer extends AbstractMapRenderer {
      */
     private static final AbstractProperty<Boolean> PREFERENCE_LEFT_HAND_TRAFFIC
             = new BooleanProperty("mappaint.lefthandtraffic", false).cached();
+    /**
+     * If we should paint ways with a simplified geometry at low zoom levels.
+     */
+    private static final AbstractProperty<Boolean> PREFERENCE_SIMPLIFY_WAYS
+            = new BooleanProperty("mappaint.simplify-ways", true).cached();
     /**
      * Indicates that the renderer should enable anti-aliasing
      * @since 11758
@@ -361,6 +366,7 @@ public class StyledMapRenderer extends AbstractMapRenderer {
     private boolean isOutlineOnly;
 
     private boolean leftHandTraffic;
+    private boolean simplifyWays;
     private Object antialiasing;
 
     private Supplier<RenderBenchmarkCollector> benchmarkFactory = RenderBenchmarkCollector.defaultBenchmarkSupplier();
@@ -572,14 +578,15 @@ public class StyledMapRenderer extends AbstractMapRenderer {
      */
     public void drawArea(IWay<?> w, Color color, MapImage fillImage, Float extent, Float extentThreshold, boolean disabled) {
         MapViewPath pfClip = null;
+        List<? extends INode> nodes = getNodesToPaint(w);
         if (extent != null) {
-            if (!usePartialFill(Geometry.getAreaAndPerimeter(w.getNodes()), extent, extentThreshold)) {
+            if (!usePartialFill(Geometry.getAreaAndPerimeter(nodes), extent, extentThreshold)) {
                 extent = null;
             } else if (!w.isClosed()) {
-                pfClip = shapeEastNorthToMapView(getPFClip(w, extent * scale));
+                pfClip = shapeEastNorthToMapView(getPFClip(nodes, extent * scale));
             }
         }
-        drawArea(getPath(w), color, fillImage, extent, pfClip, disabled);
+        drawArea(getPath(w, nodes), color, fillImage, extent, pfClip, disabled);
     }
 
     /**
@@ -1283,8 +1290,11 @@ public class StyledMapRenderer extends AbstractMapRenderer {
             bounds.grow(100, 100);
         }
 
-        List<? extends INode> wayNodes = way.getNodes();
+        List<? extends INode> allNodes = way.getNodes();
+        List<? extends INode> wayNodes = getNodesToPaint(way);
         if (wayNodes.size() < 2) return;
+        // the arrows are placed along all the nodes of the way, so that the simplification of the line cannot be seen
+        boolean simplified = wayNodes.size() < allNodes.size();
 
         // only highlight the segment if the way itself is not highlighted
         if (!way.isHighlighted() && highlightWaySegments != null) {
@@ -1304,50 +1314,26 @@ public class StyledMapRenderer extends AbstractMapRenderer {
             drawPathHighlight(highlightSegs, line);
         }
 
-        MapViewPoint lastPoint = null;
-        Iterator<MapViewPoint> it = new OffsetIterator(mapState, wayNodes, offset);
-        boolean initialMoveToNeeded = true;
         ArrowPaintHelper drawArrowHelper = null;
         double minSegmentLenSq = 0;
         if (showOrientation) {
             drawArrowHelper = new ArrowPaintHelper(PHI, 10 + line.getLineWidth());
             minSegmentLenSq = Math.pow(drawArrowHelper.getOnLineLength() * 1.3, 2);
         }
-        while (it.hasNext()) {
-            MapViewPoint p = it.next();
-            if (lastPoint != null) {
-                MapViewPoint p1 = lastPoint;
-                MapViewPoint p2 = p;
-
-                if (initialMoveToNeeded) {
-                    initialMoveToNeeded = false;
-                    path.moveTo(p1);
-                }
-                path.lineTo(p2);
-
-                /* draw arrow */
-                if (drawArrowHelper != null) {
-                    final boolean drawArrow;
-                    if (way.isSelected()) {
-                        // always draw last arrow - no matter how short the segment is
-                        drawArrow = !it.hasNext() || p1.distanceToInViewSq(p2) > minSegmentLenSq;
-                    } else {
-                        // not selected: only draw arrow when it fits
-                        drawArrow = (!showHeadArrowOnly || !it.hasNext()) && p1.distanceToInViewSq(p2) > minSegmentLenSq;
-                    }
-                    if (drawArrow) {
-                        drawArrowHelper.paintArrowAt(orientationArrows, p2, p1);
-                    }
-                }
-            }
-            lastPoint = p;
+        appendWay(path, wayNodes, offset, simplified ? null : orientationArrows, drawArrowHelper, minSegmentLenSq,
+                way.isSelected(), showHeadArrowOnly);
+        MapViewPath arrowPath = path;
+        if (simplified && (showOrientation || showOneway)) {
+            arrowPath = new MapViewPath(mapState);
+            appendWay(arrowPath, allNodes, offset, orientationArrows, drawArrowHelper, minSegmentLenSq,
+                    way.isSelected(), showHeadArrowOnly);
         }
         if (showOneway) {
             onewayArrows = new MapViewPath(mapState);
             onewayArrowsCasing = new MapViewPath(mapState);
             double interval = 60;
 
-            path.visitClippedLine(60, (inLineOffset, start, end, startIsOldEnd) -> {
+            arrowPath.visitClippedLine(60, (inLineOffset, start, end, startIsOldEnd) -> {
                 double segmentLength = start.distanceToInView(end);
                 if (segmentLength > 0.001) {
                     final double nx = (end.getInViewX() - start.getInViewX()) / segmentLength;
@@ -1374,6 +1360,53 @@ public class StyledMapRenderer extends AbstractMapRenderer {
         displaySegments(path, orientationArrows, onewayArrows, onewayArrowsCasing, color, line, dashes, dashedColor);
     }
 
+    /**
+     * Appends the nodes of a way to a path, with the orientation arrows of the segments.
+     * @param path the path receiving the way
+     * @param nodes the nodes of the way
+     * @param offset the offset of the line
+     * @param orientationArrows the path receiving the orientation arrows, or {@code null} to draw no arrow
+     * @param drawArrowHelper the helper painting the orientation arrows
+     * @param minSegmentLenSq the minimal squared length of a segment with an arrow
+     * @param selected if the way is selected
+     * @param showHeadArrowOnly if only the arrow at the end of the line should be displayed
+     */
+    private void appendWay(MapViewPath path, List<? extends INode> nodes, float offset, MapViewPath orientationArrows,
+            ArrowPaintHelper drawArrowHelper, double minSegmentLenSq, boolean selected, boolean showHeadArrowOnly) {
+        MapViewPoint lastPoint = null;
+        Iterator<MapViewPoint> it = new OffsetIterator(mapState, nodes, offset);
+        boolean initialMoveToNeeded = true;
+        while (it.hasNext()) {
+            MapViewPoint p = it.next();
+            if (lastPoint != null) {
+                MapViewPoint p1 = lastPoint;
+                MapViewPoint p2 = p;
+
+                if (initialMoveToNeeded) {
+                    initialMoveToNeeded = false;
+                    path.moveTo(p1);
+                }
+                path.lineTo(p2);
+
+                /* draw arrow */
+                if (orientationArrows != null) {
+                    final boolean drawArrow;
+                    if (selected) {
+                        // always draw last arrow - no matter how short the segment is
+                        drawArrow = !it.hasNext() || p1.distanceToInViewSq(p2) > minSegmentLenSq;
+                    } else {
+                        // not selected: only draw arrow when it fits
+                        drawArrow = (!showHeadArrowOnly || !it.hasNext()) && p1.distanceToInViewSq(p2) > minSegmentLenSq;
+                    }
+                    if (drawArrow) {
+                        drawArrowHelper.paintArrowAt(orientationArrows, p2, p1);
+                    }
+                }
+            }
+            lastPoint = p;
+        }
+    }
+
     private static void appendOnewayPath(boolean onewayReversed, MapViewPoint p1, double nx, double ny, double dist,
             double onewaySize, Path2D onewayPath) {
         // scale such that border is 1 px
@@ -1416,6 +1449,7 @@ public class StyledMapRenderer extends AbstractMapRenderer {
         scale = nc.getScale();
 
         leftHandTraffic = PREFERENCE_LEFT_HAND_TRAFFIC.get();
+        simplifyWays = PREFERENCE_SIMPLIFY_WAYS.get();
 
         useStrokes = paintSettings.getUseStrokesDistance() > circum;
         showNames = paintSettings.getShowNamesDistance() > circum;
@@ -1456,18 +1490,32 @@ public class StyledMapRenderer extends AbstractMapRenderer {
     }
 
     private MapViewPath getPath(IWay<?> w) {
+        return getPath(w, w.getNodes());
+    }
+
+    private MapViewPath getPath(IWay<?> w, List<? extends INode> nodes) {
         MapViewPath path = new MapViewPath(mapState);
         if (w.isClosed()) {
-            path.appendClosed(w.getNodes(), false);
+            path.appendClosed(nodes, false);
         } else {
-            path.append(w.getNodes(), false);
+            path.append(nodes, false);
         }
         return path;
     }
 
-    private static Path2D.Double getPFClip(IWay<?> w, double extent) {
+    /**
+     * Returns the nodes to paint for the given way. At low zoom levels, this is a simplified
+     * geometry of the way, see {@link SimplifiedWayCache}.
+     * @param w the way
+     * @return the nodes to paint
+     */
+    private List<? extends INode> getNodesToPaint(IWay<?> w) {
+        return simplifyWays ? SimplifiedWayCache.getInstance().getNodes(w, scale) : w.getNodes();
+    }
+
+    private static Path2D.Double getPFClip(List<? extends INode> nodes, double extent) {
         Path2D.Double clip = new Path2D.Double();
-        buildPFClip(clip, w.getNodes(), extent);
+        buildPFClip(clip, nodes, extent);
         return clip;
     }
 
@@ -1664,6 +1712,9 @@ public class StyledMapRenderer extends AbstractMapRenderer {
             List<? extends INode> nodes = data.searchNodes(bbox);
             List<? extends IWay<?>> ways = data.searchWays(bbox);
             List<? extends IRelation<?>> relations = data.searchRelations(bbox);
+            if (benchmark.isCancelled()) {
+                return;
+            }
 
             final List<StyleRecord> allStyleElems = new ArrayList<>(nodes.size()+ways.size()+relations.size());
 
@@ -1672,12 +1723,13 @@ public class StyledMapRenderer extends AbstractMapRenderer {
             // (Could be synchronized, but try to avoid this for performance reasons.)
             if (THREAD_POOL != null) {
                 THREAD_POOL.invoke(new ComputeStyleListWorker(circum, nc, relations, allStyleElems,
-                        Math.max(20, relations.size() / THREAD_POOL.getParallelism() / 3), styles));
+                        Math.max(20, relations.size() / THREAD_POOL.getParallelism() / 3), styles, benchmark::isCancelled));
                 THREAD_POOL.invoke(new ComputeStyleListWorker(circum, nc, new CompositeList<>(nodes, ways), allStyleElems,
-                        Math.max(100, (nodes.size() + ways.size()) / THREAD_POOL.getParallelism() / 3), styles));
+                        Math.max(100, (nodes.size() + ways.size()) / THREAD_POOL.getParallelism() / 3), styles, benchmark::isCancelled));
             } else {
-                new ComputeStyleListWorker(circum, nc, relations, allStyleElems, 0, styles).computeDirectly();
-                new ComputeStyleListWorker(circum, nc, new CompositeList<>(nodes, ways), allStyleElems, 0, styles).computeDirectly();
+                new ComputeStyleListWorker(circum, nc, relations, allStyleElems, 0, styles, benchmark::isCancelled).computeDirectly();
+                new ComputeStyleListWorker(circum, nc, new CompositeList<>(nodes, ways), allStyleElems, 0, styles,
+                        benchmark::isCancelled).computeDirectly();
             }
 
             if (!benchmark.renderSort()) {
@@ -1692,8 +1744,22 @@ public class StyledMapRenderer extends AbstractMapRenderer {
                 return;
             }
 
-            for (StyleRecord styleRecord : sorted) {
-                paintRecord(styleRecord);
+            if (benchmark.isRecordTimingEnabled()) {
+                for (StyleRecord styleRecord : sorted) {
+                    if (benchmark.isCancelled()) {
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    paintRecord(styleRecord);
+                    benchmark.renderRecordPainted(styleRecord, System.nanoTime() - start);
+                }
+            } else {
+                for (StyleRecord styleRecord : sorted) {
+                    if (benchmark.isCancelled()) {
+                        return;
+                    }
+                    paintRecord(styleRecord);
+                }
             }
 
             drawVirtualNodes(data, bbox);
@@ -24,6 +24,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -37,10 +38,13 @@ import org.openstreetmap.josm.gui.MapView;
 import org.openstreetmap.josm.gui.NavigatableComponent;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
 
 /**
  * A styled render that does the rendering on a tile basis. Note: this is currently experimental!
  * It may be extracted to an interface at a later date.
+ * <p>
+ * The tiles are rendered concurrently on a dedicated thread pool, each of them with its own {@link StyledMapRenderer}.
  * @since 19176
  */
 public final class StyledTiledMapRenderer extends StyledMapRenderer {
@@ -48,6 +52,10 @@ public final class StyledTiledMapRenderer extends StyledMapRenderer {
     private static final int BUFFER_TILES = 2;
     // The number of extra pixels to render per tile (avoids black lines in render result)
     private static final int BUFFER_PIXELS = 16;
+    /**
+     * The thread pool used to render the tiles, or {@code null} if it cannot be created
+     */
+    private static final ForkJoinPool THREAD_POOL = newForkJoinPool();
     private CacheAccess<TileZXY, ImageCache> cache;
     private int zoom;
     private Consumer<TileZXY> notifier;
@@ -65,7 +73,16 @@ public final class StyledTiledMapRenderer extends StyledMapRenderer {
      */
     public StyledTiledMapRenderer(Graphics2D g, NavigatableComponent nc, boolean isInactiveMode) {
         super(g, nc, isInactiveMode);
-        this.worker = MainApplication.worker;
+        this.worker = THREAD_POOL != null ? THREAD_POOL : MainApplication.worker;
+    }
+
+    private static ForkJoinPool newForkJoinPool() {
+        try {
+            return Utils.newForkJoinPool("mappaint.fast_render.numberOfThreads", "tiled-map-renderer-%d", Thread.NORM_PRIORITY);
+        } catch (SecurityException e) {
+            Logging.log(Logging.LEVEL_ERROR, "Unable to create new ForkJoinPool", e);
+            return null;
+        }
     }
 
     @Override
@@ -112,7 +129,7 @@ public final class StyledTiledMapRenderer extends StyledMapRenderer {
         }
 
         // We want to prioritize where the mouse is, but having some in the queue will reduce overall paint time
-        int submittedTile = 5;
+        int submittedTile = THREAD_POOL != null ? Math.max(5, 2 * THREAD_POOL.getParallelism()) : 5;
         int painted = 0;
         for (TileZXY tile : toRender) {
             final Image tileImage;
@@ -120,24 +137,26 @@ public final class StyledTiledMapRenderer extends StyledMapRenderer {
             final ImageCache tImg = this.cache.get(tile);
             final boolean wasDirty = tImg != null && tImg.isDirty();
             if (tImg != null && !tImg.isDirty() && tImg.imageFuture() != null) {
-                submittedTile = 0; // Don't submit new tiles if there are futures already in the queue. Not perfect.
+                submittedTile--; // Don't submit too many new tiles if there are futures already in the queue. Not perfect.
             }
             if (submittedTile > 0 && (tImg == null || tImg.isDirty())) {
-                // Ensure that we don't add a large number of render calls
-                if (tImg != null && tImg.imageFuture() != null) {
-                    tImg.imageFuture().cancel();
-                }
                 submittedTile--;
-                // Note that the paint code is *not* thread safe, so all tiles must be painted on the same thread.
-                // FIXME figure out how to make this thread safe? Probably not necessary, since UI isn't blocked, but it would be a nice to have
+                // Each tile is painted by its own renderer, so tiles can be painted concurrently
                 TileLoader loader = new TileLoader(data, tile, tileSize, new ArrayList<>());
-                worker.execute(loader);
-                if (tImg == null) {
-                    this.cache.put(tile, new ImageCache(null, loader, false));
-                } else {
-                    // This might cause some extra renders, but *probably* ok
-                    this.cache.put(tile, new ImageCache(tImg.image(), loader, true));
+                // the entry is replaced before the loader runs, so that the superseded loader does not store its image
+                synchronized (this.cache) {
+                    // Ensure that we don't add a large number of render calls
+                    if (tImg != null && tImg.imageFuture() != null) {
+                        tImg.imageFuture().cancel();
+                    }
+                    if (tImg == null) {
+                        this.cache.put(tile, new ImageCache(null, loader, false));
+                    } else {
+                        // This might cause some extra renders, but *probably* ok
+                        this.cache.put(tile, new ImageCache(tImg.image(), loader, true));
+                    }
                 }
+                worker.execute(loader);
                 tileImage = tImg != null ? tImg.image() : null;
             } else if (tImg != null) {
                 tileImage = tImg.image();
@@ -161,7 +180,7 @@ public final class StyledTiledMapRenderer extends StyledMapRenderer {
         }
         // Force another render pass if there may be more tiles to render
         if (submittedTile <= 0) {
-            worker.execute(nc::invalidate);
+            MainApplication.worker.execute(nc::invalidate);
         }
         final double percentDrawn = 100 * painted / (double) toRender.size();
         if (percentDrawn < 99.99) {
@@ -208,11 +227,13 @@ public final class StyledTiledMapRenderer extends StyledMapRenderer {
      */
     private static void cancelImageFuture(CacheAccess<TileZXY, ImageCache> cache, TileZXY key, ImageCache value) {
         if (value.imageFuture() != null) {
-            value.imageFuture().cancel();
-            if (value.image() == null) {
-                cache.remove(key);
-            } else {
-                cache.put(key, new ImageCache(value.image(), null, value.isDirty()));
+            synchronized (cache) {
+                value.imageFuture().cancel();
+                if (value.image() == null) {
+                    cache.remove(key);
+                } else {
+                    cache.put(key, new ImageCache(value.image(), null, value.isDirty()));
+                }
             }
         }
     }
@@ -298,9 +319,9 @@ public final class StyledTiledMapRenderer extends StyledMapRenderer {
         private final TileZXY tile;
         private final int tileSize;
         private final OsmData<?, ?, ?, ?> data;
-        private boolean cancel;
+        private volatile boolean cancel;
         private final Collection<TileLoader> tileCollection;
-        private boolean done;
+        private volatile boolean done;
 
         /**
          * Create a new tile loader
@@ -341,12 +362,22 @@ public final class StyledTiledMapRenderer extends StyledMapRenderer {
         }
 
         /**
-         * Finish a tile generation job
+         * Finish a tile generation job. The image is only stored if the job was not cancelled and the cache entry of the
+         * tile still belongs to it: another job may have been started for the tile, or the cache may have been cleared.
+         * If the entry was marked as dirty during the job, the image is stored as dirty.
+         * <p>
+         * The cache entries are replaced while synchronized on the cache.
          * @param tImage The tile image for this job
          */
         private void cacheTile(BufferedImage tImage) {
-            cache.put(tile, new ImageCache(tImage, null, false));
             done = true;
+            synchronized (cache) {
+                final ImageCache current = cache.get(tile);
+                if (cancel || current == null || current.imageFuture() != this) {
+                    return;
+                }
+                cache.put(tile, new ImageCache(tImage, null, current.isDirty()));
+            }
             notifier.accept(tile);
         }
 
@@ -5,11 +5,14 @@ import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -573,76 +576,100 @@ public class Multipolygon {
     public static Collection<JoinedWay> joinWays(Collection<Way> waysToJoin) {
         final Collection<JoinedWay> result = new ArrayList<>();
         final Way[] joinArray = waysToJoin.toArray(new Way[0]);
-        int left = waysToJoin.size();
-        while (left > 0) {
-            boolean selected = false;
-            List<Node> nodes = null;
+        // the positions of the ways in joinArray by end node, in ascending order
+        final Map<Node, List<Integer>> waysByEndNode = new HashMap<>();
+        for (int i = 0; i < joinArray.length; i++) {
+            Way w = joinArray[i];
+            if (w.isEmpty()) {
+                joinArray[i] = null;
+                continue;
+            }
+            waysByEndNode.computeIfAbsent(w.firstNode(), k -> new ArrayList<>(2)).add(i);
+            if (w.lastNode() != w.firstNode()) {
+                waysByEndNode.computeIfAbsent(w.lastNode(), k -> new ArrayList<>(2)).add(i);
+            }
+        }
+        int start = 0;
+        while (true) {
+            // new ring, starting with the first remaining way
+            while (start < joinArray.length && joinArray[start] == null) {
+                start++;
+            }
+            if (start == joinArray.length) {
+                break;
+            }
+            Way first = joinArray[start];
+            joinArray[start] = null;
+            boolean selected = first.isSelected();
+            List<Node> nodes = new ArrayList<>(first.getNodes());
             Set<Long> wayIds = new HashSet<>();
-            boolean joined = true;
-            while (joined && left > 0) {
-                joined = false;
-                for (int i = 0; i < joinArray.length && left != 0; ++i) {
-                    Way c = joinArray[i];
-                    if (c != null && c.isEmpty()) {
-                        joinArray[i] = null;
-                        left--;
-                    } else if (c != null && !c.isEmpty()) {
-                        if (nodes == null) {
-                            // new ring
-                            selected = c.isSelected();
-                            joinArray[i] = null;
-                            --left;
-                            nodes = new ArrayList<>(c.getNodes());
-                            wayIds.add(c.getUniqueId());
-                        } else {
-                            int cl = c.getNodesCount() - 1;
-                            int nl = nodes.size() - 1;
-                            int mode = 0;
-                            if (nodes.get(nl) == c.getNode(0)) {
-                                mode = 21;
-                            } else if (nodes.get(0) == c.getNode(cl)) {
-                                mode = 12;
-                            } else if (nodes.get(0) == c.getNode(0)) {
-                                mode = 11;
-                            } else if (nodes.get(nl) == c.getNode(cl)) {
-                                mode = 22;
-                            }
-                            if (mode != 0) {
-                                // found a connection
-                                joinArray[i] = null;
-                                joined = true;
-                                if (c.isSelected()) {
-                                    selected = true;
-                                }
-                                --left;
-                                if (mode == 21) {
-                                    nodes.addAll(c.getNodes().subList(1, cl + 1));
-                                } else if (mode == 12) {
-                                    nodes.addAll(0, c.getNodes().subList(0, cl));
-                                } else {
-                                    ArrayList<Node> reversed = new ArrayList<>(c.getNodes());
-                                    Collections.reverse(reversed);
-                                    if (mode == 22) {
-                                        nodes.addAll(reversed.subList(1, cl + 1));
-                                    } else /* mode == 11 */ {
-                                        nodes.addAll(0, reversed.subList(0, cl));
-                                    }
-                                }
-                                wayIds.add(c.getUniqueId());
-                            }
-                        }
+            wayIds.add(first.getUniqueId());
+            // The ways are joined in the order of a scan of the remaining ways, repeated as long as a way was joined.
+            // The index only avoids looking at the ways which are not connected to the ends of the ring.
+            int position = start + 1;
+            boolean joined = false;
+            while (true) {
+                int next = findConnectedWay(joinArray, waysByEndNode, nodes, position);
+                if (next < 0 && joined) {
+                    joined = false;
+                    next = findConnectedWay(joinArray, waysByEndNode, nodes, 0);
+                }
+                if (next < 0) {
+                    break;
+                }
+                Way c = joinArray[next];
+                joinArray[next] = null;
+                joined = true;
+                position = next + 1;
+                if (c.isSelected()) {
+                    selected = true;
+                }
+                int cl = c.getNodesCount() - 1;
+                int nl = nodes.size() - 1;
+                if (nodes.get(nl) == c.getNode(0)) {
+                    nodes.addAll(c.getNodes().subList(1, cl + 1));
+                } else if (nodes.get(0) == c.getNode(cl)) {
+                    nodes.addAll(0, c.getNodes().subList(0, cl));
+                } else {
+                    List<Node> reversed = new ArrayList<>(c.getNodes());
+                    Collections.reverse(reversed);
+                    if (nodes.get(0) == c.getNode(0)) {
+                        nodes.addAll(0, reversed.subList(0, cl));
+                    } else {
+                        nodes.addAll(reversed.subList(1, cl + 1));
                     }
                 }
+                wayIds.add(c.getUniqueId());
             }
-
-            if (nodes != null) {
-                result.add(new JoinedWay(nodes, wayIds, selected));
-            }
+            result.add(new JoinedWay(nodes, wayIds, selected));
         }
 
         return result;
     }
 
+    /**
+     * Finds the first remaining way connected to an end of a ring, from a given position.
+     * @param joinArray the ways, {@code null} for the ways already joined
+     * @param waysByEndNode the positions of the ways by end node
+     * @param nodes the nodes of the ring
+     * @param position the position to start from
+     * @return the position of the way, or {@code -1}
+     */
+    private static int findConnectedWay(Way[] joinArray, Map<Node, List<Integer>> waysByEndNode, List<Node> nodes, int position) {
+        int found = -1;
+        for (Node end : Arrays.asList(nodes.get(0), nodes.get(nodes.size() - 1))) {
+            for (int i : waysByEndNode.getOrDefault(end, Collections.emptyList())) {
+                if (i >= position && joinArray[i] != null) {
+                    if (found < 0 || i < found) {
+                        found = i;
+                    }
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
     /**
      * Find a matching outer polygon for the inner one
      * @param inner The inner polygon to search the outer for
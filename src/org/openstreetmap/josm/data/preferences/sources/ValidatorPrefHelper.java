@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.openstreetmap.josm.data.preferences.BooleanProperty;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
 import org.openstreetmap.josm.data.validation.tests.MapCSSTagChecker;
 import org.openstreetmap.josm.tools.ImageProvider;
 
@@ -77,6 +78,13 @@ public class ValidatorPrefHelper extends SourcePrefHelper {
      */
     public static final BooleanProperty PREF_UNFURL = new BooleanProperty(PREFIX + ".force.unfurl.window", true);
 
+    /**
+     * The preferences key for the time budget of each test before upload, in milliseconds.
+     * A test whose average time during the previous upload validations exceeds it is skipped. The average decreases each time
+     * the test is skipped, so that it is run and measured again after some uploads. {@code 0} disables the budget.
+     */
+    public static final IntegerProperty PREF_UPLOAD_TIME_BUDGET = new IntegerProperty(PREFIX + ".upload.timeBudget", 0);
+
     /**
      * Constructs a new {@code PresetPrefHelper}.
      */
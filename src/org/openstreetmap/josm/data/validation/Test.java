@@ -82,6 +82,9 @@ public class Test implements OsmPrimitiveVisitor {
 
     private boolean showElementCount;
 
+    /** The number of primitives visited since the start of the test, see {@link #getVisitedCount()} */
+    private int visitedCount;
+
     /**
      * Constructor
      * @param name Name of the test
@@ -167,6 +170,7 @@ public class Test implements OsmPrimitiveVisitor {
         Logging.debug(startMessage);
         this.errors = new ArrayList<>(30);
         this.stopwatch = Stopwatch.createStarted();
+        this.visitedCount = 0;
     }
 
     /**
@@ -217,6 +221,7 @@ public class Test implements OsmPrimitiveVisitor {
             }
             if (isPrimitiveUsable(p)) {
                 p.accept(this);
+                visitedCount++;
             }
             if (progressMonitor != null) {
                 progressMonitor.worked(1);
@@ -230,6 +235,22 @@ public class Test implements OsmPrimitiveVisitor {
         }
     }
 
+    /**
+     * Adds primitives to the number of visited primitives, for tests which do not visit them with {@link #visit(Collection)}.
+     * @param count the number of primitives visited by the test
+     */
+    protected void addVisitedCount(int count) {
+        visitedCount += count;
+    }
+
+    /**
+     * Returns the number of primitives the test visited since its start, that is the primitives it could test.
+     * @return the number of visited primitives
+     */
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
     /**
      * Determines if the primitive is usable for tests.
      * @param p The primitive
@@ -0,0 +1,116 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The statistics of a {@link Test} run by a {@link ValidationTask}: wall time, visited primitives and produced errors.
+ * <p>
+ * The statistics of several runs of the same test, for instance the tiles of the validator command line, can be added.
+ */
+public final class TestStatistics {
+
+    private final String name;
+    private long elapsed;
+    private int primitives;
+    private int errors;
+    private int skipped;
+    /** The number of errors by rule, for tests made of rules like the MapCSS tag checker */
+    private final Map<String, Integer> errorsByRule = new TreeMap<>();
+
+    /**
+     * Constructs new empty statistics.
+     * @param name the name of the test
+     */
+    public TestStatistics(String name) {
+        this.name = name;
+    }
+
+    TestStatistics(String name, long elapsed, int primitives, int errors) {
+        this(name);
+        this.elapsed = elapsed;
+        this.primitives = primitives;
+        this.errors = errors;
+    }
+
+    static TestStatistics skipped(String name) {
+        TestStatistics statistics = new TestStatistics(name);
+        statistics.skipped = 1;
+        return statistics;
+    }
+
+    void addRuleError(String rule) {
+        errorsByRule.merge(rule, 1, Integer::sum);
+    }
+
+    /**
+     * Adds the statistics of another run of the same test.
+     * @param other the statistics of the other run
+     */
+    public void add(TestStatistics other) {
+        elapsed += other.elapsed;
+        primitives += other.primitives;
+        errors += other.errors;
+        skipped += other.skipped;
+        other.errorsByRule.forEach((rule, count) -> errorsByRule.merge(rule, count, Integer::sum));
+    }
+
+    /**
+     * Returns the name of the test.
+     * @return the name of the test
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the wall time of the test, from {@link Test#startTest} to {@link Test#endTest()}.
+     * @return the wall time in milliseconds
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns the number of primitives visited by the test, see {@link Test#getVisitedCount()}.
+     * @return the number of visited primitives
+     */
+    public int getPrimitives() {
+        return primitives;
+    }
+
+    /**
+     * Returns the number of errors produced by the test.
+     * @return the number of errors
+     */
+    public int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the number of runs where the test was skipped because it exceeded its time budget.
+     * @return the number of skipped runs
+     * @see org.openstreetmap.josm.data.preferences.sources.ValidatorPrefHelper#PREF_UPLOAD_TIME_BUDGET
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Returns the number of errors by rule, for tests made of rules like the MapCSS tag checker.
+     * @return the number of errors by rule, sorted by rule. Empty for other tests
+     */
+    public Map<String, Integer> getErrorsByRule() {
+        return Collections.unmodifiableMap(errorsByRule);
+    }
+
+    @Override
+    public String toString() {
+        return tr("{0}: {1} ms, {2} primitives, {3} errors", name, elapsed, primitives, errors)
+                + (skipped > 0 ? ", " + tr("skipped {0} times", skipped) : "");
+    }
+}
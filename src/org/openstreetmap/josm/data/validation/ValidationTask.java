@@ -9,7 +9,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -18,6 +20,7 @@ import javax.swing.JOptionPane;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.data.preferences.sources.ValidatorPrefHelper;
+import org.openstreetmap.josm.data.validation.tests.MapCSSTagChecker;
 import org.openstreetmap.josm.data.validation.util.AggregatePrimitivesVisitor;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.MapFrame;
@@ -27,12 +30,21 @@ import org.openstreetmap.josm.gui.dialogs.ValidatorDialog;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.gui.progress.swing.PleaseWaitProgressMonitor;
 import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Stopwatch;
 import org.openstreetmap.josm.tools.Utils;
 
 /**
  * Asynchronous task for running a collection of tests against a collection of primitives
  */
 public class ValidationTask extends PleaseWaitRunnable {
+    /** The average wall time of the tests during the upload validations, see {@link ValidatorPrefHelper#PREF_UPLOAD_TIME_BUDGET} */
+    private static final Map<Class<? extends Test>, Double> UPLOAD_DURATIONS = new ConcurrentHashMap<>();
+    /** The weight of the last wall time of a test in its average, so that a single slow upload validation does not skip it */
+    private static final double UPLOAD_DURATION_WEIGHT = 0.25;
+    /** The factor applied to the average wall time of a test each time it is skipped, so that it is run again later */
+    private static final double SKIPPED_DURATION_DECAY = 0.75;
+
     private final Consumer<List<TestError>> onFinish;
     private Collection<Test> tests;
     private final Collection<OsmPrimitive> initialPrimitives;
@@ -40,6 +52,7 @@ public class ValidationTask extends PleaseWaitRunnable {
     private final boolean beforeUpload;
     private boolean canceled;
     private final List<TestError> errors = new ArrayList<>();
+    private final List<TestStatistics> statistics = new ArrayList<>();
     private BiConsumer<ValidationTask, Test> testConsumer;
 
     /**
@@ -139,6 +152,7 @@ public class ValidationTask extends PleaseWaitRunnable {
             MapFrame map = MainApplication.getMap();
             // update GUI on Swing EDT
             GuiHelper.runInEDT(() -> {
+                map.validatorDialog.setStatistics(statistics);
                 // see #23440 why this is inside the EDT
                 if (!map.validatorDialog.isShowing() && errors.isEmpty() && beforeUpload)
                     return;
@@ -179,22 +193,40 @@ public class ValidationTask extends PleaseWaitRunnable {
             filter.addAll(other);
         }
         getProgressMonitor().setTicksCount(tests.size() * validatedPrimitives.size());
+        final int timeBudget = this.beforeUpload ? ValidatorPrefHelper.PREF_UPLOAD_TIME_BUDGET.get() : 0;
 
         for (Test test : tests) {
             if (canceled)
                 return;
             testCounter++;
+            final double duration = UPLOAD_DURATIONS.getOrDefault(test.getClass(), 0d);
+            if (timeBudget > 0 && duration > timeBudget) {
+                // defer the test to a later upload
+                UPLOAD_DURATIONS.put(test.getClass(), duration * SKIPPED_DURATION_DECAY);
+                Logging.warn(tr("Skipping test ''{0}'' before upload, it took {1} ms on average during the previous uploads, more than {2} ms",
+                        test.getName(), Math.round(duration), timeBudget));
+                statistics.add(TestStatistics.skipped(test.getName()));
+                getProgressMonitor().worked(validatedPrimitives.size());
+                continue;
+            }
             getProgressMonitor().setCustomText(tr("Test {0}/{1}: Starting {2}", testCounter, tests.size(), test.getName()));
             test.setBeforeUpload(this.beforeUpload);
             // Pre-upload checks only run on a partial selection.
             test.setPartialSelection(isPartial);
+            final Stopwatch stopwatch = Stopwatch.createStarted();
             test.startTest(getProgressMonitor().createSubTaskMonitor(validatedPrimitives.size(), false));
             test.visit(validatedPrimitives);
             test.endTest();
+            final long elapsed = stopwatch.elapsed();
+            if (this.beforeUpload) {
+                UPLOAD_DURATIONS.merge(test.getClass(), (double) elapsed,
+                        (average, last) -> average + UPLOAD_DURATION_WEIGHT * (last - average));
+            }
             if (isPartial && Boolean.TRUE.equals(ValidatorPrefHelper.PREF_REMOVE_IRRELEVANT.get())) {
                 // #23397: remove errors for objects which were not in the initial list of primitives
                 test.removeIrrelevantErrors(filter);
             }
+            statistics.add(getStatistics(test, elapsed));
 
             errors.addAll(test.getErrors());
             if (this.testConsumer != null) {
@@ -224,6 +256,19 @@ public class ValidationTask extends PleaseWaitRunnable {
         }
     }
 
+    private static TestStatistics getStatistics(Test test, long elapsed) {
+        final TestStatistics testStatistics = new TestStatistics(test.getName(), elapsed, test.getVisitedCount(), test.getErrors().size());
+        if (test instanceof MapCSSTagChecker) {
+            for (TestError error : test.getErrors()) {
+                final String rule = MapCSSTagChecker.getRule(error);
+                if (rule != null) {
+                    testStatistics.addRuleError(rule);
+                }
+            }
+        }
+        return testStatistics;
+    }
+
     /**
      * Gets the validation errors accumulated until this moment.
      * @return The list of errors
@@ -232,6 +277,14 @@ public class ValidationTask extends PleaseWaitRunnable {
         return errors;
     }
 
+    /**
+     * Gets the statistics of the tests run until this moment, in the order of the tests.
+     * @return The wall time, visited primitives and produced errors of each test
+     */
+    public List<TestStatistics> getStatistics() {
+        return Collections.unmodifiableList(statistics);
+    }
+
     /**
      * A test consumer to avoid filling up memory. A test consumer <i>may</i> remove tests it has consumed.
      * @param testConsumer The consumer which takes a {@link ValidationTask} ({@code this}) and the test that finished.
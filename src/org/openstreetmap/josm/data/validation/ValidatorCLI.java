@@ -16,12 +16,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
@@ -29,7 +37,11 @@ import java.util.stream.Collectors;
 import org.openstreetmap.josm.actions.ExtensionFileFilter;
 import org.openstreetmap.josm.cli.CLIModule;
 import org.openstreetmap.josm.data.Preferences;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.BBox;
 import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.Relation;
 import org.openstreetmap.josm.data.preferences.JosmBaseDirectories;
 import org.openstreetmap.josm.data.preferences.JosmUrls;
 import org.openstreetmap.josm.data.projection.ProjectionRegistry;
@@ -43,6 +55,7 @@ import org.openstreetmap.josm.gui.mappaint.MapPaintStyles;
 import org.openstreetmap.josm.gui.mappaint.mapcss.MapCSSStyleSource;
 import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.ParseException;
 import org.openstreetmap.josm.gui.progress.CLIProgressMonitor;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.io.Compression;
 import org.openstreetmap.josm.io.GeoJSONMapRouletteWriter;
@@ -81,12 +94,30 @@ public class ValidatorCLI implements CLIModule {
     private final Map<String, List<String>> changeFiles = new HashMap<>();
     /** The output file(s). If {@code null}, use input filename as base (replace extension with geojson). input → output */
     private final Map<String, String> output = new HashMap<>();
+    /** The validation results cache files. input → cache */
+    private final Map<String, String> resultCaches = new HashMap<>();
 
     private static final Supplier<ProgressMonitor> progressMonitorFactory = CLIProgressMonitor::new;
 
     /** The log level */
     private Level logLevel;
 
+    /** {@code true} to log the statistics of the tests of each input file */
+    private boolean profile;
+    /** The statistics of the tests of the current input file, by test name */
+    private final Map<String, TestStatistics> testStatistics = new LinkedHashMap<>();
+
+    /** The size of the tiles in degrees, or {@code 0} to validate the input files in one pass */
+    private double tileSize;
+
+    /**
+     * The margin around the primitives of a tile in degrees, about 100 m. The primitives in the margin are validated
+     * together with the primitives of the tile, so that errors involving nearby primitives are found.
+     */
+    private static final double TILE_MARGIN = 0.001;
+    /** The tile of primitives without location, validated last */
+    private static final long NO_TILE = Long.MAX_VALUE;
+
     private enum Option {
         /** --help                                    Show the help for validate */
         HELP(false, 'h'),
@@ -107,7 +138,13 @@ public class ValidatorCLI implements CLIModule {
         /** --load-preferences=&lt;url-to-xml&gt;     Changes preferences according to the XML file */
         LOAD_PREFERENCES(true, 'p'),
         /** --set=&lt;key&gt;=&lt;value&gt;           Set preference key to value */
-        SET(true, 's');
+        SET(true, 's'),
+        /** --tile-size=&lt;degrees&gt;               Validate the input files tile by tile */
+        TILE_SIZE(true, '*'),
+        /** --result-cache=&lt;cache-file&gt;       Set the validation results cache for the current input file */
+        RESULT_CACHE(true, '*', OptionParser.OptionCount.MULTIPLE),
+        /** --profile                                 Log the time, visited primitives and errors of each test */
+        PROFILE(false, '*');
 
         private final String name;
         private final boolean requiresArgument;
@@ -279,35 +316,227 @@ public class ValidatorCLI implements CLIModule {
             final GeoJSONMapRouletteWriter geoJSONMapRouletteWriter = new GeoJSONMapRouletteWriter(dataSet);
             OsmValidator.initializeTests();
 
+            final Collection<Test> tests = OsmValidator.getEnabledTests(false);
+            final File cacheFile = Optional.ofNullable(this.resultCaches.get(inputFile)).map(File::new).orElse(null);
+            final ValidatorResultCache cache = cacheFile == null ? null
+                    : ValidatorResultCache.load(cacheFile, ValidatorResultCache.getFingerprint(tests));
             try (OutputStream fileOutputStream = Files.newOutputStream(path)) {
-                // The first writeErrors catches anything that was written, for whatever reason. This is probably never
-                // going to be called.
-                final ValidationTask validationTask =
-                        new ValidationTask(errors -> writeErrors(geoJSONMapRouletteWriter, fileOutputStream, errors),
-                        progressMonitorFactory.get(), OsmValidator.getEnabledTests(false),
-                        dataSet.allPrimitives(), Collections.emptyList(), false);
-                // This avoids keeping errors in memory
-                validationTask.setTestConsumer((t, test) -> {
-                    writeErrors(geoJSONMapRouletteWriter, fileOutputStream, test.getErrors());
-                    t.getErrors().removeIf(test.getErrors()::contains);
-                });
-                validationTask.run();
+                if (cache != null && !cache.isComplete()) {
+                    final Map<Boolean, List<Test>> localTests = tests.stream()
+                            .collect(Collectors.partitioningBy(ValidatorResultCache::isLocal));
+                    final Set<OsmPrimitive> affected = cache.getAffectedPrimitives(dataSet);
+                    Logging.info(tr("Validating {0} of {1} primitives, using the results cache {2}",
+                            affected.size(), dataSet.allPrimitives().size(), cacheFile));
+                    for (String error : cache.getUnaffectedErrors()) {
+                        writeToFile(fileOutputStream, error.getBytes(StandardCharsets.UTF_8));
+                    }
+                    validate(affected, dataSet, localTests.get(true), geoJSONMapRouletteWriter, fileOutputStream,
+                            cache::isAffected, cache);
+                    if (!localTests.get(false).isEmpty()) {
+                        // these tests may pair affected primitives with any other primitive
+                        Logging.info(trn("Validating all primitives with {0} test which is not cached",
+                                "Validating all primitives with {0} tests which are not cached",
+                                localTests.get(false).size(), localTests.get(false).size()));
+                        validate(dataSet.allPrimitives(), dataSet, localTests.get(false), geoJSONMapRouletteWriter, fileOutputStream,
+                                error -> true, cache);
+                    }
+                } else {
+                    validate(dataSet.allPrimitives(), dataSet, tests, geoJSONMapRouletteWriter, fileOutputStream, error -> true, cache);
+                }
+            }
+            if (cache != null) {
+                try {
+                    cache.store(cacheFile, dataSet);
+                } catch (IOException e) {
+                    // the results are written, the next run will just validate all primitives again
+                    Logging.warn("Unable to write validation results cache " + cacheFile);
+                    Logging.warn(e);
+                }
             }
         } finally {
             if (dataLayer != null) {
                 MainApplication.getLayerManager().removeLayer(dataLayer);
             }
+            if (this.profile) {
+                this.testStatistics.values().stream()
+                        .sorted(Comparator.comparingLong(TestStatistics::getElapsed).reversed())
+                        .forEach(ValidatorCLI::logStatistics);
+            }
+            this.testStatistics.clear();
             Logging.info(stopwatch.toString(task));
         }
     }
 
+    /**
+     * Validate primitives, tile by tile if a tile size is set
+     * @param primitives The primitives to validate
+     * @param dataSet The data set of the primitives
+     * @param tests The tests to run
+     * @param geoJSONMapRouletteWriter The writer of errors
+     * @param fileOutputStream The output stream
+     * @param filter The filter of errors to write
+     * @param cache The validation results cache recording the written errors, may be {@code null}
+     */
+    private void validate(Collection<OsmPrimitive> primitives, DataSet dataSet, Collection<Test> tests,
+            GeoJSONMapRouletteWriter geoJSONMapRouletteWriter, OutputStream fileOutputStream, Predicate<TestError> filter,
+            ValidatorResultCache cache) {
+        if (this.tileSize > 0) {
+            validateTiles(primitives, dataSet, tests, geoJSONMapRouletteWriter, fileOutputStream, filter, cache);
+        } else {
+            validate(primitives, progressMonitorFactory.get(), tests, geoJSONMapRouletteWriter, fileOutputStream, filter, cache);
+        }
+    }
+
+    /**
+     * Validate primitives, writing the errors as soon as each test is finished
+     * @param primitives The primitives to validate
+     * @param progressMonitor The progress monitor
+     * @param tests The tests to run
+     * @param geoJSONMapRouletteWriter The writer of errors
+     * @param fileOutputStream The output stream
+     * @param filter The filter of errors to write
+     * @param cache The validation results cache recording the written errors, may be {@code null}
+     */
+    private void validate(Collection<OsmPrimitive> primitives, ProgressMonitor progressMonitor, Collection<Test> tests,
+            GeoJSONMapRouletteWriter geoJSONMapRouletteWriter, OutputStream fileOutputStream, Predicate<TestError> filter,
+            ValidatorResultCache cache) {
+        // The first writeErrors catches anything that was written, for whatever reason. This is probably never
+        // going to be called.
+        final ValidationTask validationTask =
+                new ValidationTask(errors -> writeErrors(geoJSONMapRouletteWriter, fileOutputStream, errors, filter, cache),
+                progressMonitor, tests, primitives, Collections.emptyList(), false);
+        // This avoids keeping errors in memory
+        validationTask.setTestConsumer((t, test) -> {
+            writeErrors(geoJSONMapRouletteWriter, fileOutputStream, test.getErrors(), filter, cache);
+            t.getErrors().removeIf(test.getErrors()::contains);
+        });
+        validationTask.run();
+        for (TestStatistics statistics : validationTask.getStatistics()) {
+            this.testStatistics.computeIfAbsent(statistics.getName(), TestStatistics::new).add(statistics);
+        }
+    }
+
+    /**
+     * Log the statistics of a test, and the number of errors of each of its rules
+     * @param statistics The statistics of the test
+     */
+    private static void logStatistics(TestStatistics statistics) {
+        Logging.info(statistics.toString());
+        statistics.getErrorsByRule().entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(rule -> Logging.info("\t" + tr("{0}: {1} errors", rule.getKey(), rule.getValue())));
+    }
+
+    /**
+     * Validate primitives of a data set tile by tile, so that the tests only index the data of one tile at once.
+     * <p>
+     * Each primitive belongs to the tile containing the center of its bounding box. The primitives of a tile are validated
+     * together with the primitives within {@link #TILE_MARGIN} of the bounding box of each of them, which may be beyond
+     * the tile for long ways. An error is written by the tiles of its primitives only, and errors involving primitives of
+     * several tiles, or no primitive, are written once.
+     * <p>
+     * The data set is still read at once, only the tests index the data of one tile at a time.
+     * @param toValidate The primitives to validate
+     * @param dataSet The data set of the primitives
+     * @param tests The tests to run
+     * @param geoJSONMapRouletteWriter The writer of errors
+     * @param fileOutputStream The output stream
+     * @param filter The filter of errors to write, in addition to the tile filter
+     * @param cache The validation results cache recording the written errors, may be {@code null}
+     */
+    private void validateTiles(Collection<OsmPrimitive> toValidate, DataSet dataSet, Collection<Test> tests,
+            GeoJSONMapRouletteWriter geoJSONMapRouletteWriter, OutputStream fileOutputStream, Predicate<TestError> filter,
+            ValidatorResultCache cache) {
+        final SortedMap<Long, List<OsmPrimitive>> tiles = new TreeMap<>();
+        for (OsmPrimitive primitive : toValidate) {
+            tiles.computeIfAbsent(getTile(primitive), k -> new ArrayList<>()).add(primitive);
+        }
+        final Set<String> crossTileErrors = new HashSet<>();
+        final ProgressMonitor tileMonitor = progressMonitorFactory.get();
+        tileMonitor.beginTask(trn("Validating {0} tile", "Validating {0} tiles", tiles.size(), tiles.size()), tiles.size());
+        while (!tiles.isEmpty()) {
+            final long tile = tiles.firstKey();
+            // remove the tile, so that its list can be freed once validated
+            final List<OsmPrimitive> tilePrimitives = tiles.remove(tile);
+            final Set<OsmPrimitive> primitives = new LinkedHashSet<>(tilePrimitives);
+            for (OsmPrimitive primitive : tilePrimitives) {
+                // relations may be large, their members are validated in their own tiles
+                if (!(primitive instanceof Relation) && primitive.getBBox().isValid()) {
+                    // each primitive on its own: the union of the areas of long ways would cover much more than them
+                    final BBox area = new BBox();
+                    area.addPrimitive(primitive, TILE_MARGIN);
+                    primitives.addAll(dataSet.searchPrimitives(area));
+                }
+            }
+            validate(primitives, NullProgressMonitor.INSTANCE, tests, geoJSONMapRouletteWriter, fileOutputStream,
+                    error -> filter.test(error) && isInTile(error, tile, crossTileErrors), cache);
+            tileMonitor.worked(1);
+        }
+        tileMonitor.finishTask();
+    }
+
+    /**
+     * Get the tile of a primitive
+     * @param primitive The primitive
+     * @return The tile containing the center of the bounding box of the primitive, or {@link #NO_TILE}.
+     * Tiles are sorted by row, then by column.
+     */
+    private long getTile(OsmPrimitive primitive) {
+        final BBox bbox = primitive.getBBox();
+        if (!bbox.isValid() || !bbox.isInWorld()) {
+            return NO_TILE;
+        }
+        final LatLon center = bbox.getCenter();
+        final long row = (long) Math.floor((center.lat() + 90) / this.tileSize);
+        final long column = (long) Math.floor((center.lon() + 180) / this.tileSize);
+        return (row << 32) | column;
+    }
+
+    /**
+     * Determine if an error should be written by a tile
+     * @param error The error
+     * @param tile The tile
+     * @param crossTileErrors The errors involving primitives of several tiles, which were already written
+     * @return {@code true} if one of the primitives of the error belongs to the tile, or the error has no primitive,
+     * and the error was not written yet
+     */
+    private boolean isInTile(TestError error, long tile, Set<String> crossTileErrors) {
+        if (error.getPrimitives().isEmpty()) {
+            // found by the tests of every tile
+            return crossTileErrors.add(error.getCode() + ":" + error.getDescription() + ":" + error.getMessage());
+        }
+        boolean inTile = false;
+        boolean inOtherTile = false;
+        for (OsmPrimitive primitive : error.getPrimitives()) {
+            if (getTile(primitive) == tile) {
+                inTile = true;
+            } else {
+                inOtherTile = true;
+            }
+        }
+        if (!inTile || !inOtherTile) {
+            return inTile;
+        }
+        return crossTileErrors.add(error.getPrimitives().stream()
+                .map(primitive -> primitive.getType().getAPIName() + primitive.getUniqueId())
+                .sorted()
+                .collect(Collectors.joining(",", error.getCode() + ":" + error.getDescription() + ":" + error.getMessage() + ":", "")));
+    }
+
     private void writeErrors(GeoJSONMapRouletteWriter geoJSONMapRouletteWriter, OutputStream fileOutputStream,
-            Collection<TestError> errors) {
+            Collection<TestError> errors, Predicate<TestError> filter, ValidatorResultCache cache) {
         for (TestError error : errors) {
+            if (!filter.test(error)) {
+                continue;
+            }
             Optional<JsonObject> object = geoJSONMapRouletteWriter.write(error);
             if (object.isPresent()) {
+                final String json = object.get().toString();
+                if (cache != null) {
+                    cache.record(error, json);
+                }
                 try {
-                    writeToFile(fileOutputStream, object.get().toString().getBytes(StandardCharsets.UTF_8));
+                    writeToFile(fileOutputStream, json.getBytes(StandardCharsets.UTF_8));
                 } catch (IOException e) {
                     throw new JosmRuntimeException(e);
                 }
@@ -423,6 +652,9 @@ public class ValidatorCLI implements CLIModule {
         case TRACE:
             this.logLevel = Logging.LEVEL_TRACE;
             break;
+        case PROFILE:
+            this.profile = true;
+            break;
         default:
             throw new AssertionError("Unexpected option: " + option);
         }
@@ -466,6 +698,19 @@ public class ValidatorCLI implements CLIModule {
                 throw new JosmRuntimeException(tr("Preferences are not the expected type"));
             }
             break;
+        case TILE_SIZE:
+            try {
+                this.tileSize = Double.parseDouble(argument);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(tr("Invalid tile size: {0}", argument), e);
+            }
+            if (!(this.tileSize > 0)) {
+                throw new IllegalArgumentException(tr("Invalid tile size: {0}", argument));
+            }
+            break;
+        case RESULT_CACHE:
+            this.resultCaches.put(currentInput, argument);
+            break;
         case SET:
 
         default:
@@ -495,7 +740,15 @@ public class ValidatorCLI implements CLIModule {
                 "\t--output|-o <file>        " + tr("Output data file name (.geojson, line-by-line delimited for MapRoulette). Optional.")
                                                + '\n' +
                 "\t--change-file|-c <file>   " + tr("Change file name (.osc). Can be specified multiple times per input.") + '\n' +
-                helpPadding                    + tr("Changes will be applied in the specified order. Optional.");
+                helpPadding                    + tr("Changes will be applied in the specified order. Optional.") + '\n' +
+                "\t--tile-size <degrees>     " + tr("Validate OSM files tile by tile, with tiles of the given size in degrees.") + '\n' +
+                helpPadding                    + tr("The tests index the data of one tile at a time. Optional.") + '\n' +
+                "\t--result-cache <file>     " + tr("Validation results cache file name. Can be specified once per input.") + '\n' +
+                helpPadding                    + tr("Only the data changed since the previous run with the same cache") + '\n' +
+                helpPadding                    + tr("is validated again, tile by tile if --tile-size is set.") + '\n' +
+                helpPadding                    + tr("Tests which may pair distant primitives, like the addresses, similar names") + '\n' +
+                helpPadding                    + tr("or relation tests, and the tests of plugins validate all the data. Optional.") + '\n' +
+                "\t--profile                 " + tr("Log the time, visited primitives and errors of each test. Optional.");
         // CHECKSTYLE.ON: SingleSpaceSeparator
     }
 }
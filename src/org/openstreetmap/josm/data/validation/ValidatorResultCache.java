@@ -0,0 +1,477 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.openstreetmap.josm.data.Version;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.preferences.sources.SourceEntry;
+import org.openstreetmap.josm.data.preferences.sources.ValidatorPrefHelper;
+import org.openstreetmap.josm.data.validation.tests.ApiCapabilitiesTest;
+import org.openstreetmap.josm.data.validation.tests.BarriersEntrances;
+import org.openstreetmap.josm.data.validation.tests.ConditionalKeys;
+import org.openstreetmap.josm.data.validation.tests.CrossingWays;
+import org.openstreetmap.josm.data.validation.tests.DirectionNodes;
+import org.openstreetmap.josm.data.validation.tests.DuplicateNode;
+import org.openstreetmap.josm.data.validation.tests.DuplicateWay;
+import org.openstreetmap.josm.data.validation.tests.DuplicatedWayNodes;
+import org.openstreetmap.josm.data.validation.tests.Highways;
+import org.openstreetmap.josm.data.validation.tests.InternetTags;
+import org.openstreetmap.josm.data.validation.tests.Lanes;
+import org.openstreetmap.josm.data.validation.tests.LongSegment;
+import org.openstreetmap.josm.data.validation.tests.MapCSSTagChecker;
+import org.openstreetmap.josm.data.validation.tests.NameMismatch;
+import org.openstreetmap.josm.data.validation.tests.OpeningHourTest;
+import org.openstreetmap.josm.data.validation.tests.OverlappingWays;
+import org.openstreetmap.josm.data.validation.tests.RightAngleBuildingTest;
+import org.openstreetmap.josm.data.validation.tests.SelfIntersectingWay;
+import org.openstreetmap.josm.data.validation.tests.SharpAngles;
+import org.openstreetmap.josm.data.validation.tests.TagChecker;
+import org.openstreetmap.josm.data.validation.tests.UnclosedWays;
+import org.openstreetmap.josm.data.validation.tests.UnconnectedWays;
+import org.openstreetmap.josm.data.validation.tests.UntaggedNode;
+import org.openstreetmap.josm.data.validation.tests.UntaggedWay;
+import org.openstreetmap.josm.data.validation.tests.WayConnectedToArea;
+import org.openstreetmap.josm.data.validation.tests.WronglyOrderedWays;
+import org.openstreetmap.josm.io.CachedFile;
+import org.openstreetmap.josm.spi.preferences.AbstractPreferences;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * A persistent cache of validation results, so that only the primitives which changed since the previous validation
+ * of the same data have to be validated again.
+ * <p>
+ * For each primitive, the cache stores a signature of its content and of the primitives it depends on (the nodes of
+ * a way, the members of a relation), see {@link #getSignature}, and its bounding box. A primitive is affected by the
+ * changes if its signature changed, if it is new or modified, if it is near the current or former location of such
+ * a primitive or of a deleted primitive, or if a previous error involves it and an affected primitive. The errors of
+ * the previous validation are reused if none of their primitives is affected.
+ * <p>
+ * Only the errors of local tests are cached, see {@link #isLocal}. The other tests may pair primitives farther apart than
+ * {@link #MARGIN}, like the addresses or similar names tests, or compare the members of relations, so they have to
+ * validate all primitives.
+ * <p>
+ * The cache is only used if the JOSM version, the enabled tests, the validator preferences and rules are the same,
+ * see {@link #getFingerprint}.
+ */
+final class ValidatorResultCache {
+
+    /** The margin around changed primitives in degrees, about 100 m. Primitives within it are validated again */
+    static final double MARGIN = 0.001;
+
+    private static final int MAGIC = 0x4A56524C; // "JVRL"
+    private static final int VERSION = 3;
+
+    /** The local tests, which only pair primitives within {@link #MARGIN} of each other or sharing nodes */
+    private static final List<Class<? extends Test>> LOCAL_TESTS = Arrays.asList(ApiCapabilitiesTest.class,
+            BarriersEntrances.class, ConditionalKeys.class, CrossingWays.class, DirectionNodes.class, DuplicatedWayNodes.class,
+            DuplicateNode.class, DuplicateWay.class, Highways.class, InternetTags.class, Lanes.class, LongSegment.class,
+            MapCSSTagChecker.class, NameMismatch.class, OpeningHourTest.class, OverlappingWays.class,
+            RightAngleBuildingTest.class, SelfIntersectingWay.class, SharpAngles.class, TagChecker.class, UnclosedWays.class,
+            UnconnectedWays.class, UntaggedNode.class, UntaggedWay.class, WayConnectedToArea.class, WronglyOrderedWays.class);
+
+    private final String fingerprint;
+    /** The keys of the primitives of the previous validation, sorted, see {@link #getKey} */
+    private long[] keys = new long[0];
+    /** The signatures of the primitives of the previous validation, indexed like {@link #keys} */
+    private long[] signatures = new long[0];
+    /** The bounding boxes of the primitives of the previous validation, four values per primitive */
+    private float[] bboxes = new float[0];
+    /** The errors of the previous validation */
+    private List<CachedError> previousErrors = Collections.emptyList();
+    /** The keys of the affected primitives, {@code null} if all primitives are affected */
+    private Set<Long> affectedKeys;
+    /** The errors of the current validation */
+    private final List<CachedError> errors = new ArrayList<>();
+
+    /**
+     * An error, as written to the output, with the keys of its primitives
+     */
+    private static final class CachedError {
+        final String json;
+        final long[] keys;
+
+        CachedError(String json, long[] keys) {
+            this.json = json;
+            this.keys = keys;
+        }
+    }
+
+    private ValidatorResultCache(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Loads a cache.
+     * @param file the cache file
+     * @param fingerprint the fingerprint of the current configuration, see {@link #getFingerprint}
+     * @return the cache, which is empty if the file does not exist, cannot be read or has another fingerprint
+     */
+    static ValidatorResultCache load(File file, String fingerprint) {
+        ValidatorResultCache cache = new ValidatorResultCache(fingerprint);
+        if (!file.isFile()) {
+            return cache;
+        }
+        try (InputStream is = Files.newInputStream(file.toPath());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !fingerprint.equals(in.readUTF())) {
+                Logging.info("Validation results cache {0} is outdated", file);
+                return cache;
+            }
+            int count = in.readInt();
+            long[] keys = new long[count];
+            long[] signatures = new long[count];
+            float[] bboxes = new float[4 * count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = in.readLong();
+                signatures[i] = in.readLong();
+                for (int j = 0; j < 4; j++) {
+                    bboxes[4 * i + j] = in.readFloat();
+                }
+            }
+            int errorCount = in.readInt();
+            List<CachedError> errors = new ArrayList<>(errorCount);
+            for (int i = 0; i < errorCount; i++) {
+                byte[] json = new byte[in.readInt()];
+                in.readFully(json);
+                long[] errorKeys = new long[in.readInt()];
+                for (int j = 0; j < errorKeys.length; j++) {
+                    errorKeys[j] = in.readLong();
+                }
+                errors.add(new CachedError(new String(json, StandardCharsets.UTF_8), errorKeys));
+            }
+            cache.keys = keys;
+            cache.signatures = signatures;
+            cache.bboxes = bboxes;
+            cache.previousErrors = errors;
+        } catch (IOException | RuntimeException e) {
+            Logging.warn("Unable to read validation results cache " + file);
+            Logging.warn(e);
+        }
+        return cache;
+    }
+
+    /**
+     * Stores the cache, with the signatures of the primitives of the data set and the errors recorded by {@link #record}.
+     * @param file the cache file
+     * @param dataSet the validated data set
+     * @throws IOException if the cache cannot be written
+     */
+    void store(File file, DataSet dataSet) throws IOException {
+        Map<Long, OsmPrimitive> primitives = new TreeMap<>();
+        for (OsmPrimitive primitive : dataSet.allPrimitives()) {
+            primitives.put(getKey(primitive), primitive);
+        }
+        Path directory = file.getAbsoluteFile().getParentFile().toPath();
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, file.getName(), ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(fingerprint);
+                out.writeInt(primitives.size());
+                for (Map.Entry<Long, OsmPrimitive> entry : primitives.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeLong(getSignature(entry.getValue()));
+                    BBox bbox = entry.getValue().getBBox();
+                    boolean valid = bbox.isValid();
+                    out.writeFloat(valid ? (float) bbox.getTopLeftLon() : Float.NaN);
+                    out.writeFloat(valid ? (float) bbox.getBottomRightLat() : Float.NaN);
+                    out.writeFloat(valid ? (float) bbox.getBottomRightLon() : Float.NaN);
+                    out.writeFloat(valid ? (float) bbox.getTopLeftLat() : Float.NaN);
+                }
+                synchronized (this) {
+                    out.writeInt(errors.size());
+                    for (CachedError error : errors) {
+                        byte[] json = error.json.getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(json.length);
+                        out.write(json);
+                        out.writeInt(error.keys.length);
+                        for (long key : error.keys) {
+                            out.writeLong(key);
+                        }
+                    }
+                }
+            }
+            Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+        } finally {
+            if (tmp != null) {
+                Utils.deleteFile(tmp.toFile());
+            }
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the configuration of the validator: JOSM version, enabled tests, validator and preset
+     * preferences, and the content of the validator rules and TagChecker data files.
+     * @param tests the enabled tests
+     * @return the fingerprint
+     */
+    static String getFingerprint(Collection<Test> tests) {
+        StringBuilder sb = new StringBuilder(Version.getInstance().getVersionString()).append('\n');
+        tests.stream().map(test -> test.getClass().getName()).sorted().forEach(name -> sb.append(name).append('\n'));
+        if (Config.getPref() instanceof AbstractPreferences) {
+            new TreeMap<>(((AbstractPreferences) Config.getPref()).getAllSettings()).forEach((key, setting) -> {
+                if (key.startsWith("validator") || key.startsWith("taggingpreset")) {
+                    sb.append(key).append('=').append(setting.getValue()).append('\n');
+                }
+            });
+        }
+        List<String> sources = new ArrayList<>();
+        for (SourceEntry source : new ValidatorPrefHelper().get()) {
+            if (source.active) {
+                sources.add(source.url);
+            }
+        }
+        sources.addAll(Config.getPref().getList(TagChecker.PREF_SOURCES,
+                Arrays.asList(TagChecker.IGNORE_FILE, TagChecker.SPELL_FILE)));
+        for (String source : sources) {
+            sb.append(source).append('=');
+            try (CachedFile cf = new CachedFile(source)) {
+                sb.append(Arrays.hashCode(cf.getByteContent()));
+            } catch (IOException e) {
+                Logging.trace(e);
+                sb.append('?');
+            }
+            sb.append('\n');
+        }
+        return Utils.md5Hex(sb.toString());
+    }
+
+    /**
+     * Determines if a test is local, so that its errors are cached and it only validates the primitives affected by
+     * the changes. Tests of plugins are never local.
+     * @param test the test
+     * @return {@code true} if the test only pairs primitives within {@link #MARGIN} of each other or sharing nodes
+     */
+    static boolean isLocal(Test test) {
+        return LOCAL_TESTS.stream().anyMatch(type -> type.isInstance(test));
+    }
+
+    /**
+     * Returns the key of a primitive, made of its type and id.
+     * @param primitive the primitive
+     * @return the key
+     */
+    static long getKey(OsmPrimitive primitive) {
+        return (primitive.getUniqueId() << 2) | primitive.getType().ordinal();
+    }
+
+    /**
+     * Returns the signature of a primitive, which changes when the primitive or the primitives it depends on change.
+     * <p>
+     * The signature is made of the version and tags of the primitive, the coordinates of a node, the signatures of
+     * the nodes of a way, and the roles and signatures of the members of a relation. Changes which keep the version,
+     * like local edits of the input file, change the signature too.
+     * @param primitive the primitive
+     * @return the signature
+     */
+    static long getSignature(OsmPrimitive primitive) {
+        long signature = mix(mix(getKey(primitive), primitive.getVersion()), getTagsSignature(primitive));
+        if (primitive instanceof Node) {
+            LatLon coor = ((Node) primitive).getCoor();
+            if (coor != null) {
+                signature = mix(mix(signature, Double.doubleToLongBits(coor.lat())), Double.doubleToLongBits(coor.lon()));
+            }
+        } else if (primitive instanceof Way) {
+            for (Node node : ((Way) primitive).getNodes()) {
+                signature = mix(signature, getSignature(node));
+            }
+        } else if (primitive instanceof Relation) {
+            for (RelationMember member : ((Relation) primitive).getMembers()) {
+                OsmPrimitive memberPrimitive = member.getMember();
+                // the members of member relations are handled by the signatures of these relations
+                signature = mix(mix(signature, member.getRole().hashCode()),
+                        memberPrimitive instanceof Relation ? mix(getKey(memberPrimitive), memberPrimitive.getVersion())
+                                : getSignature(memberPrimitive));
+            }
+        }
+        return signature;
+    }
+
+    private static long getTagsSignature(OsmPrimitive primitive) {
+        // the sum does not depend on the order of the tags
+        long signature = 0;
+        for (Map.Entry<String, String> tag : primitive.getKeys().entrySet()) {
+            signature += mix(tag.getKey().hashCode(), tag.getValue().hashCode());
+        }
+        return signature;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x9E37_79B9_7F4A_7C15L + 0x632B_E59B_D9B4_E019L;
+    }
+
+    /**
+     * Determines if all primitives are affected, because the cache is empty.
+     * @return {@code true} if all primitives have to be validated
+     */
+    boolean isComplete() {
+        return keys.length == 0;
+    }
+
+    /**
+     * Computes the primitives affected by the changes since the previous validation.
+     * @param dataSet the data set to validate
+     * @return the affected primitives, which have to be validated again
+     */
+    Set<OsmPrimitive> getAffectedPrimitives(DataSet dataSet) {
+        if (isComplete()) {
+            affectedKeys = null;
+            return new LinkedHashSet<>(dataSet.allPrimitives());
+        }
+        Set<OsmPrimitive> affected = new LinkedHashSet<>();
+        List<BBox> areas = new ArrayList<>();
+        boolean[] present = new boolean[keys.length];
+        for (OsmPrimitive primitive : dataSet.allPrimitives()) {
+            int i = Arrays.binarySearch(keys, getKey(primitive));
+            if (i >= 0) {
+                present[i] = true;
+            }
+            if (i < 0 || primitive.isNew() || primitive.isModified() || signatures[i] != getSignature(primitive)) {
+                affected.add(primitive);
+                // relations may be large, their changed members are handled on their own
+                if (!(primitive instanceof Relation)) {
+                    if (i >= 0) {
+                        addArea(areas, i);
+                    }
+                    if (primitive.getBBox().isValid()) {
+                        areas.add(new BBox(primitive.getBBox()));
+                    }
+                }
+            }
+        }
+        affectedKeys = new HashSet<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (!present[i]) {
+                // deleted primitive
+                affectedKeys.add(keys[i]);
+                if ((keys[i] & 3) != OsmPrimitiveType.RELATION.ordinal()) {
+                    addArea(areas, i);
+                }
+            }
+        }
+        for (BBox area : areas) {
+            BBox extended = new BBox(area.getTopLeftLon() - MARGIN, area.getBottomRightLat() - MARGIN,
+                    area.getBottomRightLon() + MARGIN, area.getTopLeftLat() + MARGIN);
+            affected.addAll(dataSet.searchPrimitives(extended));
+        }
+        for (OsmPrimitive primitive : affected) {
+            affectedKeys.add(getKey(primitive));
+        }
+        addErrorPartners(dataSet, affected);
+        return affected;
+    }
+
+    /**
+     * Adds the primitives of the previous errors involving an affected primitive to the affected primitives.
+     * These errors are not reused, so all their primitives have to be validated again to find them again,
+     * for instance the crossing way far from the changes of a way crossing it.
+     * @param dataSet the data set to validate
+     * @param affected the affected primitives
+     */
+    private void addErrorPartners(DataSet dataSet, Set<OsmPrimitive> affected) {
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (CachedError error : previousErrors) {
+                if (Arrays.stream(error.keys).anyMatch(affectedKeys::contains)) {
+                    for (long key : error.keys) {
+                        if (affectedKeys.add(key)) {
+                            added = true;
+                            OsmPrimitive primitive = dataSet.getPrimitiveById(
+                                    new SimplePrimitiveId(key >> 2, OsmPrimitiveType.values()[(int) (key & 3)]));
+                            if (primitive != null) {
+                                affected.add(primitive);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void addArea(List<BBox> areas, int i) {
+        BBox bbox = new BBox(bboxes[4 * i], bboxes[4 * i + 1], bboxes[4 * i + 2], bboxes[4 * i + 3]);
+        if (bbox.isValid()) {
+            areas.add(bbox);
+        }
+    }
+
+    /**
+     * Determines if an error involves a primitive affected by the changes, see {@link #getAffectedPrimitives}.
+     * @param error the error
+     * @return {@code true} if one of the primitives of the error is affected
+     */
+    boolean isAffected(TestError error) {
+        return affectedKeys == null || error.getPrimitives().stream().anyMatch(p -> affectedKeys.contains(getKey(p)));
+    }
+
+    /**
+     * Returns the errors of the previous validation which do not involve any affected primitive, and records them.
+     * @return the errors, as written to the output
+     */
+    List<String> getUnaffectedErrors() {
+        List<String> result = new ArrayList<>();
+        if (affectedKeys == null) {
+            return result;
+        }
+        for (CachedError error : previousErrors) {
+            if (Arrays.stream(error.keys).noneMatch(affectedKeys::contains)) {
+                result.add(error.json);
+                synchronized (this) {
+                    errors.add(error);
+                }
+            }
+        }
+        previousErrors = Collections.emptyList();
+        return result;
+    }
+
+    /**
+     * Records an error of the current validation, if it was found by a local test, see {@link #isLocal}.
+     * @param error the error
+     * @param json the error, as written to the output
+     */
+    synchronized void record(TestError error, String json) {
+        if (!isLocal(error.getTester())) {
+            return;
+        }
+        errors.add(new CachedError(json, error.getPrimitives().stream().mapToLong(ValidatorResultCache::getKey).toArray()));
+    }
+}
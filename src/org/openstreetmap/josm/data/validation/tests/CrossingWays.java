@@ -24,10 +24,12 @@ import org.openstreetmap.josm.data.osm.OsmUtils;
 import org.openstreetmap.josm.data.osm.Relation;
 import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.data.osm.WaySegment;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.data.validation.OsmValidator;
 import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.Test;
 import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.data.validation.util.GridIndex;
 import org.openstreetmap.josm.data.validation.util.ValUtil;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.tools.CheckParameterUtil;
@@ -81,7 +83,7 @@ public abstract class CrossingWays extends Test {
     }
 
     /** All way segments, grouped by cells */
-    private final Map<Point2D, List<WaySegment>> cellSegments = new HashMap<>(1000);
+    private final GridIndex<WaySegment> cellSegments = new GridIndex<>();
     /** The already detected ways in error */
     private final Map<List<Way>, List<WaySegment>> seenWays = new HashMap<>(50);
     private final Set<Way> waysToTest = new HashSet<>();
@@ -406,8 +408,9 @@ public abstract class CrossingWays extends Test {
                 Logging.warn("Crossing ways test skipped " + es1);
                 continue;
             }
-            for (List<WaySegment> segments : getSegments(cellSegments, es1.getFirstNode(), es1.getSecondNode())) {
-                for (WaySegment es2 : segments) {
+            for (int cell : getSegments(cellSegments, es1.getFirstNode(), es1.getSecondNode())) {
+                for (int j = 0, size = cellSegments.size(cell); j < size; j++) {
+                    final WaySegment es2 = cellSegments.get(cell, j);
                     List<Way> prims;
                     List<WaySegment> highlight;
 
@@ -437,7 +440,7 @@ public abstract class CrossingWays extends Test {
                         highlight.add(es2);
                     }
                 }
-                segments.add(es1);
+                cellSegments.add(cell, es1);
             }
         }
     }
@@ -454,7 +457,9 @@ public abstract class CrossingWays extends Test {
      * @param n1 The first EastNorth
      * @param n2 The second EastNorth
      * @return A list with all the cells the segment crosses
+     * @deprecated Use {@link #getSegments(GridIndex, EastNorth, EastNorth)}
      */
+    @Deprecated
     public static List<List<WaySegment>> getSegments(Map<Point2D, List<WaySegment>> cellSegments, EastNorth n1, EastNorth n2) {
         return ValUtil.getSegmentCells(n1, n2, OsmValidator.getGridDetail()).stream()
                 .map(cell -> cellSegments.computeIfAbsent(cell, k -> new ArrayList<>()))
@@ -469,20 +474,49 @@ public abstract class CrossingWays extends Test {
      * @param n2 The second EastNorth
      * @return A list with all the cells the segment crosses
      * @since 18553
+     * @deprecated Use {@link #getSegments(GridIndex, ILatLon, ILatLon)}
      */
+    @Deprecated
     public static List<List<WaySegment>> getSegments(Map<Point2D, List<WaySegment>> cellSegments, ILatLon n1, ILatLon n2) {
         return ValUtil.getSegmentCells(n1, n2, OsmValidator.getGridDetail()).stream()
                 .map(cell -> cellSegments.computeIfAbsent(cell, k -> new ArrayList<>()))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns all the cells this segment crosses, creating them if needed. Each cell contains the segments already processed
+     * @param cellSegments index with already collected way segments
+     * @param n1 The first EastNorth
+     * @param n2 The second EastNorth
+     * @return The numbers of all the cells the segment crosses in {@code cellSegments}
+     */
+    public static int[] getSegments(GridIndex<WaySegment> cellSegments, EastNorth n1, EastNorth n2) {
+        return cellSegments.cells(ValUtil.getSegmentCellKeys(n1, n2, OsmValidator.getGridDetail()));
+    }
+
+    /**
+     * Returns all the cells this segment crosses, creating them if needed. Each cell contains the segments already processed
+     * @param cellSegments index with already collected way segments
+     * @param n1 The first latlon
+     * @param n2 The second latlon
+     * @return The numbers of all the cells the segment crosses in {@code cellSegments}
+     */
+    public static int[] getSegments(GridIndex<WaySegment> cellSegments, ILatLon n1, ILatLon n2) {
+        CheckParameterUtil.ensureParameterNotNull(n1, "n1");
+        CheckParameterUtil.ensureParameterNotNull(n2, "n2");
+        return getSegments(cellSegments, n1.getEastNorth(ProjectionRegistry.getProjection()),
+                n2.getEastNorth(ProjectionRegistry.getProjection()));
+    }
+
     /**
      * Find ways which are crossing without sharing a node.
      * @param w way that is to be checked
      * @param cellSegments map with already collected way segments
      * @param crossingWays map to collect crossing ways and related segments
      * @param findSharedWaySegments true: find shared way segments instead of crossings
+     * @deprecated Use {@link #findIntersectingWay(Way, GridIndex, Map, boolean)}
      */
+    @Deprecated
     public static void findIntersectingWay(Way w, Map<Point2D, List<WaySegment>> cellSegments,
             Map<List<Way>, List<WaySegment>> crossingWays, boolean findSharedWaySegments) {
         int nodesSize = w.getNodesCount();
@@ -496,29 +530,60 @@ public abstract class CrossingWays extends Test {
             }
             for (List<WaySegment> segments : CrossingWays.getSegments(cellSegments, en1, en2)) {
                 for (WaySegment es2 : segments) {
-
-                    List<WaySegment> highlight;
-                    if (es2.getWay() == w // reported by CrossingWays.SelfIntersection
-                            || (findSharedWaySegments && !es1.isSimilar(es2))
-                            || (!findSharedWaySegments && !es1.intersects(es2)))
-                        continue;
-
-                    List<Way> prims = Arrays.asList(es1.getWay(), es2.getWay());
-                    if ((highlight = crossingWays.get(prims)) == null) {
-                        highlight = new ArrayList<>(2);
-                        highlight.add(es1);
-                        highlight.add(es2);
-                        crossingWays.put(prims, highlight);
-                    } else {
-                        highlight.add(es1);
-                        highlight.add(es2);
-                    }
+                    addIntersection(w, es1, es2, crossingWays, findSharedWaySegments);
                 }
                 segments.add(es1);
             }
         }
     }
 
+    /**
+     * Find ways which are crossing without sharing a node.
+     * @param w way that is to be checked
+     * @param cellSegments index with already collected way segments
+     * @param crossingWays map to collect crossing ways and related segments
+     * @param findSharedWaySegments true: find shared way segments instead of crossings
+     */
+    public static void findIntersectingWay(Way w, GridIndex<WaySegment> cellSegments,
+            Map<List<Way>, List<WaySegment>> crossingWays, boolean findSharedWaySegments) {
+        int nodesSize = w.getNodesCount();
+        for (int i = 0; i < nodesSize - 1; i++) {
+            final WaySegment es1 = new WaySegment(w, i);
+            final EastNorth en1 = es1.getFirstNode().getEastNorth();
+            final EastNorth en2 = es1.getSecondNode().getEastNorth();
+            if (en1 == null || en2 == null) {
+                Logging.warn("Crossing ways test skipped " + es1);
+                continue;
+            }
+            for (int cell : CrossingWays.getSegments(cellSegments, en1, en2)) {
+                for (int j = 0, size = cellSegments.size(cell); j < size; j++) {
+                    addIntersection(w, es1, cellSegments.get(cell, j), crossingWays, findSharedWaySegments);
+                }
+                cellSegments.add(cell, es1);
+            }
+        }
+    }
+
+    private static void addIntersection(Way w, WaySegment es1, WaySegment es2,
+            Map<List<Way>, List<WaySegment>> crossingWays, boolean findSharedWaySegments) {
+        List<WaySegment> highlight;
+        if (es2.getWay() == w // reported by CrossingWays.SelfIntersection
+                || (findSharedWaySegments && !es1.isSimilar(es2))
+                || (!findSharedWaySegments && !es1.intersects(es2)))
+            return;
+
+        List<Way> prims = Arrays.asList(es1.getWay(), es2.getWay());
+        if ((highlight = crossingWays.get(prims)) == null) {
+            highlight = new ArrayList<>(2);
+            highlight.add(es1);
+            highlight.add(es2);
+            crossingWays.put(prims, highlight);
+        } else {
+            highlight.add(es1);
+            highlight.add(es2);
+        }
+    }
+
     /**
      * Check if the given way is self crossing
      * @param way the way to check
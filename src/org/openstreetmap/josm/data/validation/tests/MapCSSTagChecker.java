@@ -2,6 +2,7 @@
 package org.openstreetmap.josm.data.validation.tests;
 
 import static org.openstreetmap.josm.tools.I18n.tr;
+import static org.openstreetmap.josm.tools.I18n.trn;
 
 import java.awt.geom.Area;
 import java.io.BufferedReader;
@@ -11,16 +12,19 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.ZipFile;
 
@@ -38,6 +42,7 @@ import org.openstreetmap.josm.data.validation.Test;
 import org.openstreetmap.josm.data.validation.TestError;
 import org.openstreetmap.josm.gui.mappaint.Environment;
 import org.openstreetmap.josm.gui.mappaint.MultiCascade;
+import org.openstreetmap.josm.gui.mappaint.mapcss.Declaration;
 import org.openstreetmap.josm.gui.mappaint.mapcss.MapCSSRule;
 import org.openstreetmap.josm.gui.mappaint.mapcss.MapCSSStyleIndex;
 import org.openstreetmap.josm.gui.mappaint.mapcss.Selector;
@@ -61,14 +66,36 @@ import org.openstreetmap.josm.tools.Utils;
  * @since 6506
  */
 public class MapCSSTagChecker extends Test.TagTest {
-    private MapCSSStyleIndex indexData;
-    private final Map<MapCSSRule, MapCSSTagCheckerAndRule> ruleToCheckMap = new HashMap<>();
-    private static final Map<IPrimitive, Area> mpAreaCache = new HashMap<>();
-    private static final Map<IRelation<?>, Pair<List<JoinedPolygon>, List<JoinedPolygon>>> mpJoinedAreaCache = new HashMap<>();
-    private static final Set<IPrimitive> toMatchForSurrounding = new HashSet<>();
+    /** The compiled rules, replaced as a whole when the checks change */
+    private volatile CheckIndex indexData;
+    private final Map<Declaration, MapCSSTagCheckerAndRule> ruleToCheckMap = new ConcurrentHashMap<>();
+    private static final Map<IPrimitive, Area> mpAreaCache = new ConcurrentHashMap<>();
+    private static final Map<IRelation<?>, Pair<List<JoinedPolygon>, List<JoinedPolygon>>> mpJoinedAreaCache = new ConcurrentHashMap<>();
+    private static final Set<IPrimitive> toMatchForSurrounding = ConcurrentHashMap.newKeySet();
     static final boolean ALL_TESTS = true;
     static final boolean ONLY_SELECTED_TESTS = false;
 
+    /**
+     * Minimum number of primitives for which the checks are evaluated in parallel.
+     */
+    private static final int PARALLEL_EXECUTION_THRESHOLD = 1000;
+
+    /**
+     * Lazily creates the thread pool, so that it is only created if large collections are validated.
+     */
+    private static final class ThreadPoolHolder {
+        static final ForkJoinPool THREAD_POOL = newForkJoinPool();
+
+        private static ForkJoinPool newForkJoinPool() {
+            try {
+                return Utils.newForkJoinPool("validator.mapcss.numberOfThreads", "mapcss-checker-%d", Thread.NORM_PRIORITY);
+            } catch (SecurityException e) {
+                Logging.log(Logging.LEVEL_ERROR, "Unable to create new ForkJoinPool", e);
+                return null;
+            }
+        }
+    }
+
     /**
      * Cached version of {@link ValidatorPrefHelper#PREF_OTHER}, see #20745.
      */
@@ -90,7 +117,7 @@ public class MapCSSTagChecker extends Test.TagTest {
     final MultiMap<String, MapCSSTagCheckerRule> checks = new MultiMap<>();
 
     /** maps the source URL for a test to the title shown in the dialog where known */
-    private final Map<String, String> urlTitles = new HashMap<>();
+    private final Map<String, String> urlTitles = new ConcurrentHashMap<>();
 
     /**
      * Result of {@link MapCSSTagCheckerRule#readMapCSS}
@@ -141,6 +168,44 @@ public class MapCSSTagChecker extends Test.TagTest {
         }
     }
 
+    /**
+     * Returns the rule which produced an error, for the statistics of the validation.
+     * @param error the error
+     * @return the selectors of the rule followed by the title of its source,
+     * or {@code null} if the error was not produced by a MapCSS rule
+     */
+    public static String getRule(TestError error) {
+        if (!(error.getTester() instanceof MapCSSTagCheckerAndRule)) {
+            return null;
+        }
+        MapCSSTagCheckerAndRule tester = (MapCSSTagCheckerAndRule) error.getTester();
+        String selectors = tester.rule.selectors.stream().map(String::valueOf).collect(Collectors.joining(", "));
+        return Utils.isEmpty(tester.source) ? selectors : selectors + " (" + tester.source + ')';
+    }
+
+    /**
+     * The compiled rules of a set of checks. It is not modified once built, so that it can be used by several threads.
+     */
+    private static final class CheckIndex {
+        final MapCSSStyleIndex rules;
+        /**
+         * The checks and the title of their source, by declaration.
+         * The rules of the index might have other selectors than those of the checks, but the declarations are the same objects.
+         */
+        final Map<Declaration, Pair<MapCSSTagCheckerRule, String>> checks = new IdentityHashMap<>();
+
+        CheckIndex(MultiMap<String, MapCSSTagCheckerRule> checks, Map<String, String> urlTitles,
+                boolean includeOtherSeverity, boolean allTests) {
+            this.rules = createMapCSSTagCheckerIndex(checks, includeOtherSeverity, allTests);
+            for (Entry<String, Set<MapCSSTagCheckerRule>> e : checks.entrySet()) {
+                String title = urlTitles.getOrDefault(e.getKey(), tr("unknown"));
+                for (MapCSSTagCheckerRule c : e.getValue()) {
+                    this.checks.putIfAbsent(c.rule.declaration, new Pair<>(c, title));
+                }
+            }
+        }
+    }
+
     static MapCSSStyleIndex createMapCSSTagCheckerIndex(
             MultiMap<String, MapCSSTagCheckerRule> checks, boolean includeOtherSeverity, boolean allTests) {
         final MapCSSStyleIndex index = new MapCSSStyleIndex();
@@ -160,10 +225,17 @@ public class MapCSSTagChecker extends Test.TagTest {
      * @param includeOtherSeverity if {@code true}, errors of severity {@link Severity#OTHER} (info) will also be returned
      * @return all errors for the given primitive, with or without those of "info" severity
      */
-    public synchronized Collection<TestError> getErrorsForPrimitive(OsmPrimitive p, boolean includeOtherSeverity) {
+    public Collection<TestError> getErrorsForPrimitive(OsmPrimitive p, boolean includeOtherSeverity) {
         final List<TestError> res = new ArrayList<>();
-        if (indexData == null) {
-            indexData = createMapCSSTagCheckerIndex(checks, includeOtherSeverity, ALL_TESTS);
+        CheckIndex index = indexData;
+        if (index == null) {
+            synchronized (this) {
+                index = indexData;
+                if (index == null) {
+                    index = new CheckIndex(checks, urlTitles, includeOtherSeverity, ALL_TESTS);
+                    indexData = index;
+                }
+            }
         }
 
         final Environment env = new Environment(p, new MultiCascade(), Environment.DEFAULT_LAYER, null);
@@ -171,7 +243,7 @@ public class MapCSSTagChecker extends Test.TagTest {
         env.mpJoinedAreaCache = mpJoinedAreaCache;
         env.toMatchForSurrounding = toMatchForSurrounding;
 
-        Iterator<MapCSSRule> candidates = indexData.getRuleCandidates(p);
+        Iterator<MapCSSRule> candidates = index.rules.getRuleCandidates(p);
         while (candidates.hasNext()) {
             MapCSSRule r = candidates.next();
             for (Selector selector : r.selectors) {
@@ -179,18 +251,11 @@ public class MapCSSTagChecker extends Test.TagTest {
                 if (!selector.matches(env)) { // as side effect env.parent will be set (if s is a child selector)
                     continue;
                 }
-                MapCSSTagCheckerAndRule test = ruleToCheckMap.computeIfAbsent(r, rule -> checks.entrySet().stream()
-                        .map(e -> e.getValue().stream()
-                                // rule.selectors might be different due to MapCSSStyleIndex, however, the declarations are the same object
-                                .filter(c -> c.rule.declaration == rule.declaration)
-                                .findFirst()
-                                .map(c -> new MapCSSTagCheckerAndRule(c, getTitle(e.getKey())))
-                                .orElse(null))
-                        .filter(Objects::nonNull)
-                        .findFirst()
-                        .orElse(null));
-                MapCSSTagCheckerRule check = test == null ? null : test.tagCheck;
-                if (check != null) {
+                Pair<MapCSSTagCheckerRule, String> checkAndTitle = index.checks.get(r.declaration);
+                if (checkAndTitle != null) {
+                    MapCSSTagCheckerRule check = checkAndTitle.a;
+                    MapCSSTagCheckerAndRule test = ruleToCheckMap.computeIfAbsent(r.declaration,
+                            d -> new MapCSSTagCheckerAndRule(check, checkAndTitle.b));
                     r.declaration.execute(env);
                     if (!check.errors.isEmpty()) {
                         for (TestError e: check.getErrorsForPrimitive(p, selector, env, test)) {
@@ -207,6 +272,10 @@ public class MapCSSTagChecker extends Test.TagTest {
         return urlTitles.getOrDefault(url, tr("unknown"));
     }
 
+    private CheckIndex createIndex(MultiMap<String, MapCSSTagCheckerRule> checks, boolean includeOtherSeverity, boolean allTests) {
+        return new CheckIndex(checks, urlTitles, includeOtherSeverity, allTests);
+    }
+
     /**
      * See #12627
      * Add error to given list if list doesn't already contain a similar error.
@@ -375,13 +444,13 @@ public class MapCSSTagChecker extends Test.TagTest {
     }
 
     @Override
-    public synchronized void startTest(ProgressMonitor progressMonitor) {
+    public void startTest(ProgressMonitor progressMonitor) {
         super.startTest(progressMonitor);
         super.setShowElements(true);
     }
 
     @Override
-    public synchronized void endTest() {
+    public void endTest() {
         // no need to keep the index, it is quickly build and doubles the memory needs
         indexData = null;
         // always clear the cache to make sure that we catch changes in geometry
@@ -403,63 +472,67 @@ public class MapCSSTagChecker extends Test.TagTest {
      * @param urlPredicate a predicate deciding whether the rules from the given URL shall be executed
      */
     void visit(Collection<OsmPrimitive> selection, Predicate<String> urlPredicate) {
+        // the rules of all URLs are indexed together, so that the tags of each primitive are looked up only once
+        MultiMap<String, MapCSSTagCheckerRule> currentCheck = new MultiMap<>();
+        for (Entry<String, Set<MapCSSTagCheckerRule>> entry : checks.entrySet()) {
+            if (urlPredicate == null || urlPredicate.test(entry.getKey())) {
+                currentCheck.putAll(entry.getKey(), entry.getValue());
+            }
+        }
         if (urlPredicate == null && progressMonitor != null) {
-            progressMonitor.setTicksCount(selection.size() * checks.size());
+            progressMonitor.setTicksCount(selection.size());
         }
 
         mpAreaCache.clear();
         mpJoinedAreaCache.clear();
         toMatchForSurrounding.clear();
 
-        Set<OsmPrimitive> surrounding = new HashSet<>();
-        for (Entry<String, Set<MapCSSTagCheckerRule>> entry : checks.entrySet()) {
-            if (isCanceled()) {
-                break;
-            }
-            if (urlPredicate != null && !urlPredicate.test(entry.getKey())) {
-                continue;
-            }
-            visit(entry.getKey(), entry.getValue(), selection, surrounding);
+        if (!currentCheck.isEmpty() && !isCanceled()) {
+            visit(currentCheck, selection, new HashSet<>());
         }
     }
 
     /**
-     * Perform the checks for one check url
-     * @param url the url for the checks
-     * @param checksForUrl the checks to perform
+     * Perform the checks of several check urls
+     * @param currentCheck the checks to perform, by url
      * @param selection collection primitives
      * @param surrounding surrounding primitives, evtl. filled by this routine
      */
-    private void visit(String url, Set<MapCSSTagCheckerRule> checksForUrl, Collection<OsmPrimitive> selection, Set<OsmPrimitive> surrounding) {
-        MultiMap<String, MapCSSTagCheckerRule> currentCheck = new MultiMap<>();
-        currentCheck.putAll(url, checksForUrl);
-        indexData = createMapCSSTagCheckerIndex(currentCheck, includeOtherSeverityChecks(), ALL_TESTS);
+    private void visit(MultiMap<String, MapCSSTagCheckerRule> currentCheck, Collection<OsmPrimitive> selection,
+            Set<OsmPrimitive> surrounding) {
+        indexData = createIndex(currentCheck, includeOtherSeverityChecks(), ALL_TESTS);
         Set<OsmPrimitive> tested = new HashSet<>();
 
-
-        String title = getTitle(url);
+        String title = currentCheck.size() == 1 ? getTitle(currentCheck.keySet().iterator().next())
+                : trn("{0} rule file", "{0} rule files", currentCheck.size(), currentCheck.size());
         if (progressMonitor != null) {
             progressMonitor.setExtraText(tr(" {0}", title));
         }
-        long cnt = 0;
-        Stopwatch stopwatch = Stopwatch.createStarted();
-        for (OsmPrimitive p : selection) {
-            if (isCanceled()) {
-                break;
-            }
-            if (isPrimitiveUsable(p)) {
-                check(p);
-                if (partialSelection) {
-                    tested.add(p);
+        final ForkJoinPool pool = selection.size() >= PARALLEL_EXECUTION_THRESHOLD ? ThreadPoolHolder.THREAD_POOL : null;
+        if (pool != null && pool.getParallelism() > 1) {
+            visitInParallel(pool, title, new ArrayList<>(selection), tested);
+        } else {
+            long cnt = 0;
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            for (OsmPrimitive p : selection) {
+                if (isCanceled()) {
+                    break;
                 }
-            }
-            if (progressMonitor != null) {
-                progressMonitor.worked(1);
-                cnt++;
-                // add frequently changing info to progress monitor so that it
-                // doesn't seem to hang when test takes longer than 0.5 seconds
-                if (cnt % 10_000 == 0 && stopwatch.elapsed() >= 500) {
-                    progressMonitor.setExtraText(tr(" {0}: {1} of {2} elements done", title, cnt, selection.size()));
+                if (isPrimitiveUsable(p)) {
+                    check(p);
+                    addVisitedCount(1);
+                    if (partialSelection) {
+                        tested.add(p);
+                    }
+                }
+                if (progressMonitor != null) {
+                    progressMonitor.worked(1);
+                    cnt++;
+                    // add frequently changing info to progress monitor so that it
+                    // doesn't seem to hang when test takes longer than 0.5 seconds
+                    if (cnt % 10_000 == 0 && stopwatch.elapsed() >= 500) {
+                        progressMonitor.setExtraText(tr(" {0}: {1} of {2} elements done", title, cnt, selection.size()));
+                    }
                 }
             }
         }
@@ -469,6 +542,81 @@ public class MapCSSTagChecker extends Test.TagTest {
         }
     }
 
+    /**
+     * Evaluates the checks for the primitives concurrently, in batches so that the progress is updated and the test can be canceled.
+     * The errors are added by the calling thread in the order of the primitives, so that the result does not depend on scheduling.
+     * @param pool the thread pool
+     * @param title the title of the checks
+     * @param primitives the primitives to check
+     * @param tested the set collecting the tested primitives, if {@link #partialSelection} is set
+     */
+    private void visitInParallel(ForkJoinPool pool, String title, List<OsmPrimitive> primitives, Set<OsmPrimitive> tested) {
+        final boolean includeOtherSeverity = PREF_OTHER.get();
+        final int batchSize = pool.getParallelism() * PARALLEL_EXECUTION_THRESHOLD;
+        final int directExecutionTaskSize = Math.max(16, batchSize / pool.getParallelism() / 8);
+        for (int from = 0; from < primitives.size() && !isCanceled(); from += batchSize) {
+            final int to = Math.min(primitives.size(), from + batchSize);
+            @SuppressWarnings("unchecked")
+            final Collection<TestError>[] results = new Collection[to - from];
+            pool.invoke(new CheckTask(primitives, includeOtherSeverity, results, from, from, to, directExecutionTaskSize));
+            for (int i = from; i < to; i++) {
+                if (results[i - from] != null) {
+                    for (TestError e : results[i - from]) {
+                        addIfNotSimilar(e, errors);
+                    }
+                    addVisitedCount(1);
+                    if (partialSelection) {
+                        tested.add(primitives.get(i));
+                    }
+                }
+            }
+            if (progressMonitor != null) {
+                progressMonitor.worked(to - from);
+                progressMonitor.setExtraText(tr(" {0}: {1} of {2} elements done", title, to, primitives.size()));
+            }
+        }
+    }
+
+    private final class CheckTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<OsmPrimitive> primitives;
+        private final boolean includeOtherSeverity;
+        private final transient Collection<TestError>[] results;
+        private final int offset;
+        private final int fromIndex;
+        private final int toIndex;
+        private final int directExecutionTaskSize;
+
+        CheckTask(List<OsmPrimitive> primitives, boolean includeOtherSeverity, Collection<TestError>[] results,
+                int offset, int fromIndex, int toIndex, int directExecutionTaskSize) {
+            this.primitives = primitives;
+            this.includeOtherSeverity = includeOtherSeverity;
+            this.results = results;
+            this.offset = offset;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.directExecutionTaskSize = directExecutionTaskSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex <= directExecutionTaskSize) {
+                for (int i = fromIndex; i < toIndex && !isCanceled(); i++) {
+                    OsmPrimitive p = primitives.get(i);
+                    if (isPrimitiveUsable(p)) {
+                        results[i - offset] = getErrorsForPrimitive(p, includeOtherSeverity);
+                    }
+                }
+            } else {
+                final int middle = (fromIndex + toIndex) >>> 1;
+                invokeAll(new CheckTask(primitives, includeOtherSeverity, results, offset, fromIndex, middle, directExecutionTaskSize),
+                          new CheckTask(primitives, includeOtherSeverity, results, offset, middle, toIndex, directExecutionTaskSize));
+            }
+        }
+    }
+
     private void testPartial(MultiMap<String, MapCSSTagCheckerRule> currentCheck, Set<OsmPrimitive> tested, Set<OsmPrimitive> surrounding) {
 
         // #14287: see https://josm.openstreetmap.de/ticket/14287#comment:15
@@ -477,8 +625,9 @@ public class MapCSSTagChecker extends Test.TagTest {
         final boolean includeOtherSeverity = includeOtherSeverityChecks();
         // rebuild index with a reduced set of rules (those that use ChildOrParentSelector) and thus may have left selectors
         // matching the previously tested elements
-        indexData = createMapCSSTagCheckerIndex(currentCheck, includeOtherSeverity, ONLY_SELECTED_TESTS);
-        if (indexData.isEmpty())
+        CheckIndex index = createIndex(currentCheck, includeOtherSeverity, ONLY_SELECTED_TESTS);
+        indexData = index;
+        if (index.rules.isEmpty())
             return; // performance: some *.mapcss rule files don't use ChildOrParentSelector
 
         if (surrounding.isEmpty()) {
@@ -5,16 +5,18 @@ import static org.openstreetmap.josm.tools.I18n.marktr;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.awt.geom.Area;
-import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -33,11 +35,13 @@ import org.openstreetmap.josm.data.osm.visitor.paint.relations.Multipolygon.Poly
 import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.Test;
 import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.data.validation.util.GridIndex;
 import org.openstreetmap.josm.gui.mappaint.ElemStyles;
 import org.openstreetmap.josm.gui.mappaint.MapPaintStyles;
 import org.openstreetmap.josm.gui.mappaint.styleelement.AreaElement;
 import org.openstreetmap.josm.tools.Geometry;
 import org.openstreetmap.josm.tools.Geometry.PolygonIntersection;
+import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Utils;
 
 /**
@@ -83,6 +87,27 @@ public class MultipolygonTest extends Test {
     private static final int FOUND_INSIDE = 1;
     private static final int FOUND_OUTSIDE = 2;
 
+    /**
+     * Minimum number of multipolygons for which the relations are checked in parallel.
+     */
+    private static final int PARALLEL_EXECUTION_THRESHOLD = 100;
+
+    /**
+     * Lazily creates the thread pool, so that it is only created if many multipolygons are validated.
+     */
+    private static final class ThreadPoolHolder {
+        static final ForkJoinPool THREAD_POOL = newForkJoinPool();
+
+        private static ForkJoinPool newForkJoinPool() {
+            try {
+                return Utils.newForkJoinPool("validator.multipolygon.numberOfThreads", "multipolygon-checker-%d", Thread.NORM_PRIORITY);
+            } catch (SecurityException e) {
+                Logging.log(Logging.LEVEL_ERROR, "Unable to create new ForkJoinPool", e);
+                return null;
+            }
+        }
+    }
+
     /** set when used to build a multipolygon relation */
     private Relation createdRelation;
     /** might be set when creating a relation and touching rings were found. */
@@ -97,33 +122,91 @@ public class MultipolygonTest extends Test {
     }
 
     @Override
-    public void visit(Relation r) {
-        if (r.isMultipolygon() && !r.isEmpty()) {
-            List<TestError> tmpErrors = new ArrayList<>(30);
-            boolean hasUnexpectedWayRoles = checkMembersAndRoles(r, tmpErrors);
-            boolean hasRepeatedMembers = checkRepeatedWayMembers(r);
-            if (r.isModified() && r.hasIncompleteMembers()) {
-                errors.add(TestError.builder(this, Severity.WARNING, MODIFIED_INCOMPLETE)
-                        .message(tr("Incomplete multipolygon relation was modified"))
-                        .primitives(r)
-                        .build());
+    public void visit(Collection<OsmPrimitive> selection) {
+        final List<Relation> multipolygons = new ArrayList<>();
+        int usable = 0;
+        for (OsmPrimitive p : selection) {
+            if (isPrimitiveUsable(p)) {
+                usable++;
+                if (p instanceof Relation && isMultipolygonToCheck((Relation) p)) {
+                    multipolygons.add((Relation) p);
+                }
             }
-            // Rest of checks is only for complete multipolygon
-            if (!hasUnexpectedWayRoles && !hasRepeatedMembers) {
-                if (r.hasIncompleteMembers()) {
-                    findIntersectingWaysIncomplete(r);
-                } else {
-                    Multipolygon polygon = new Multipolygon(r);
-                    checkStyleConsistency(r, polygon);
-                    checkGeometryAndRoles(r, polygon);
-                    // see #17010: don't report problems twice
-                    tmpErrors.removeIf(e -> e.getCode() == WRONG_MEMBER_ROLE);
+        }
+        final ForkJoinPool pool = multipolygons.size() >= PARALLEL_EXECUTION_THRESHOLD ? ThreadPoolHolder.THREAD_POOL : null;
+        if (pool == null || pool.getParallelism() <= 1) {
+            super.visit(selection);
+            return;
+        }
+        // like super.visit, all usable primitives are counted, the other primitives than multipolygons have nothing to check
+        addVisitedCount(usable - multipolygons.size());
+        if (progressMonitor != null) {
+            progressMonitor.setTicksCount(multipolygons.size());
+        }
+        // The relations are checked concurrently, their errors are added in the order of the relations
+        final List<ForkJoinTask<List<TestError>>> tasks = new ArrayList<>(multipolygons.size());
+        for (Relation r : multipolygons) {
+            tasks.add(pool.submit(() -> isCanceled() ? Collections.<TestError>emptyList() : checkMultipolygon(r)));
+        }
+        try {
+            for (ForkJoinTask<List<TestError>> task : tasks) {
+                if (isCanceled()) {
+                    break;
+                }
+                errors.addAll(task.join());
+                addVisitedCount(1);
+                if (progressMonitor != null) {
+                    progressMonitor.worked(1);
                 }
             }
-            errors.addAll(tmpErrors);
+        } finally {
+            tasks.forEach(task -> task.cancel(false));
+        }
+    }
+
+    @Override
+    public void visit(Relation r) {
+        if (isMultipolygonToCheck(r)) {
+            errors.addAll(checkMultipolygon(r));
         }
     }
 
+    private static boolean isMultipolygonToCheck(Relation r) {
+        return r.isMultipolygon() && !r.isEmpty();
+    }
+
+    /**
+     * Checks a multipolygon. This method does not modify the state of the test, so that it can be called concurrently.
+     * @param r the multipolygon relation
+     * @return the errors found
+     */
+    private List<TestError> checkMultipolygon(Relation r) {
+        List<TestError> relationErrors = new ArrayList<>();
+        List<TestError> tmpErrors = new ArrayList<>(30);
+        boolean hasUnexpectedWayRoles = checkMembersAndRoles(r, tmpErrors);
+        boolean hasRepeatedMembers = checkRepeatedWayMembers(r, relationErrors);
+        if (r.isModified() && r.hasIncompleteMembers()) {
+            relationErrors.add(TestError.builder(this, Severity.WARNING, MODIFIED_INCOMPLETE)
+                    .message(tr("Incomplete multipolygon relation was modified"))
+                    .primitives(r)
+                    .build());
+        }
+        // Rest of checks is only for complete multipolygon
+        if (!hasUnexpectedWayRoles && !hasRepeatedMembers) {
+            if (r.hasIncompleteMembers()) {
+                findIntersectingWaysIncomplete(r, relationErrors);
+            } else {
+                Multipolygon polygon = new Multipolygon(r);
+                checkStyleConsistency(r, polygon, relationErrors);
+                checkGeometryAndRoles(r, polygon, relationErrors);
+                // see #17010: don't report problems twice
+                tmpErrors.removeIf(e -> e.getCode() == WRONG_MEMBER_ROLE);
+            }
+        }
+        relationErrors.addAll(tmpErrors);
+        return relationErrors;
+    }
+
     /**
      * Various style-related checks:<ul>
      * <li>{@link #NO_STYLE}: No area style for multipolygon</li>
@@ -133,19 +216,20 @@ public class MultipolygonTest extends Test {
      * </ul>
      * @param r relation
      * @param polygon multipolygon
+     * @param relationErrors list that will contain found errors
      */
-    private void checkStyleConsistency(Relation r, Multipolygon polygon) {
+    private void checkStyleConsistency(Relation r, Multipolygon polygon, List<TestError> relationErrors) {
         if (MapPaintStyles.getStyles() != null && !r.isBoundary()) {
             AreaElement area = ElemStyles.getAreaElemStyle(r, false);
             if (area == null) {
-                errors.add(TestError.builder(this, Severity.OTHER, NO_STYLE)
+                relationErrors.add(TestError.builder(this, Severity.OTHER, NO_STYLE)
                         .message(tr("No area style for multipolygon"))
                         .primitives(r)
                         .build());
             } else {
                 for (Way wInner : polygon.getInnerWays()) {
                     if (wInner.isClosed() && area.equals(ElemStyles.getAreaElemStyle(wInner, false))) {
-                        errors.add(TestError.builder(this, Severity.OTHER, INNER_STYLE_MISMATCH)
+                        relationErrors.add(TestError.builder(this, Severity.OTHER, INNER_STYLE_MISMATCH)
                                 .message(tr("With the currently used mappaint style the style for inner way equals the multipolygon style"))
                                 .primitives(Arrays.asList(r, wInner))
                                 .highlight(wInner)
@@ -158,13 +242,13 @@ public class MultipolygonTest extends Test {
                     AreaElement areaOuter = ElemStyles.getAreaElemStyle(wOuter, false);
                     if (areaOuter != null) {
                         if (!area.equals(areaOuter)) {
-                            errors.add(TestError.builder(this, Severity.OTHER, OUTER_STYLE_MISMATCH)
+                            relationErrors.add(TestError.builder(this, Severity.OTHER, OUTER_STYLE_MISMATCH)
                                     .message(tr("With the currently used mappaint style the style for outer way mismatches the area style"))
                                     .primitives(Arrays.asList(r, wOuter))
                                     .highlight(wOuter)
                                     .build());
                         } else { /* style on outer way of multipolygon, but equal to polygon */
-                            errors.add(TestError.builder(this, Severity.WARNING, OUTER_STYLE)
+                            relationErrors.add(TestError.builder(this, Severity.WARNING, OUTER_STYLE)
                                     .message(tr("Area style on outer way"))
                                     .primitives(Arrays.asList(r, wOuter))
                                     .highlight(wOuter)
@@ -184,16 +268,17 @@ public class MultipolygonTest extends Test {
      * </ul>
      * @param r relation
      * @param polygon multipolygon
+     * @param relationErrors list that will contain found errors
      */
-    private void checkGeometryAndRoles(Relation r, Multipolygon polygon) {
-        int oldErrorsSize = errors.size();
+    private void checkGeometryAndRoles(Relation r, Multipolygon polygon, List<TestError> relationErrors) {
+        int oldErrorsSize = relationErrors.size();
 
         Map<Long, RelationMember> wayMap = r.getMembers().stream()
                 .filter(RelationMember::isWay)
                 .collect(Collectors.toMap(mem -> mem.getWay().getUniqueId(), mem -> mem, (a, b) -> b));
         List<Node> openNodes = polygon.getOpenEnds();
         if (!openNodes.isEmpty() || wayMap.isEmpty()) {
-            errors.add(TestError.builder(this, Severity.ERROR, NON_CLOSED_WAY)
+            relationErrors.add(TestError.builder(this, Severity.ERROR, NON_CLOSED_WAY)
                     .message(tr("Multipolygon is not closed"))
                     .primitives(combineRelAndPrimitives(r, openNodes))
                     .highlight(openNodes)
@@ -214,12 +299,12 @@ public class MultipolygonTest extends Test {
         allPolygons.addAll(outerPolygons);
         allPolygons.addAll(innerPolygons);
 
-        Map<PolyData, List<PolyData>> crossingPolyMap = findIntersectingWays(r, innerPolygons, outerPolygons);
+        Map<PolyData, List<PolyData>> crossingPolyMap = findIntersectingWays(r, innerPolygons, outerPolygons, relationErrors);
 
         if (!sharedNodes.isEmpty()) {
             for (int i = 0; i < allPolygons.size(); i++) {
                 PolyData pd1 = allPolygons.get(i);
-                checkPolygonForSelfIntersection(r, pd1);
+                checkPolygonForSelfIntersection(r, pd1, relationErrors);
                 // check if this ring has a way that is known to intersect with another way
 
                 if (!hasIntersectionWay(pd1, intersectionWays))
@@ -228,17 +313,17 @@ public class MultipolygonTest extends Test {
                 for (int j = i + 1; j < allPolygons.size(); j++) {
                     PolyData pd2 = allPolygons.get(j);
                     if (!checkProblemMap(crossingPolyMap, pd1, pd2) && hasIntersectionWay(pd2, intersectionWays)) {
-                        checkPolygonsForSharedNodes(r, pd1, pd2, sharedNodes);
+                        checkPolygonsForSharedNodes(r, pd1, pd2, sharedNodes, relationErrors);
                     }
                 }
             }
         }
-        boolean checkRoles = IntStream.range(oldErrorsSize, errors.size())
-                .noneMatch(i -> errors.get(i).getSeverity() != Severity.OTHER);
+        boolean checkRoles = IntStream.range(oldErrorsSize, relationErrors.size())
+                .noneMatch(i -> relationErrors.get(i).getSeverity() != Severity.OTHER);
         if (checkRoles) {
             // we found no intersection or crossing between the polygons and they are closed
             // now we can calculate the nesting level to verify the roles with some simple node checks
-            checkOrSetRoles(r, allPolygons, wayMap, sharedNodes);
+            checkOrSetRoles(r, allPolygons, wayMap, sharedNodes, relationErrors);
         }
     }
 
@@ -257,8 +342,9 @@ public class MultipolygonTest extends Test {
      * An self intersection in a single way is checked in {@link SelfIntersectingWay}.
      * @param r the relation
      * @param pd the ring
+     * @param relationErrors list that will contain found errors
      */
-    private void checkPolygonForSelfIntersection(Relation r, PolyData pd) {
+    private void checkPolygonForSelfIntersection(Relation r, PolyData pd, List<TestError> relationErrors) {
         if (pd.getWayIds().size() == 1)
             return;
         List<Node> wayNodes = pd.getNodes();
@@ -279,7 +365,7 @@ public class MultipolygonTest extends Test {
             List<OsmPrimitive> prims = new ArrayList<>();
             prims.add(r);
             prims.addAll(isNodes);
-            errors.add(TestError.builder(this, Severity.WARNING, CROSSING_WAYS)
+            relationErrors.add(TestError.builder(this, Severity.WARNING, CROSSING_WAYS)
                     .message(tr("Self-intersecting polygon ring"))
                     .primitives(prims)
                     .highlight(isNodes)
@@ -324,7 +410,8 @@ public class MultipolygonTest extends Test {
         CROSSING
     }
 
-    private void checkPolygonsForSharedNodes(Relation r, PolyData pd1, PolyData pd2, Set<Node> allSharedNodes) {
+    private void checkPolygonsForSharedNodes(Relation r, PolyData pd1, PolyData pd2, Set<Node> allSharedNodes,
+            List<TestError> relationErrors) {
         Set<Node> sharedByPolygons = new HashSet<>(allSharedNodes);
         sharedByPolygons.retainAll(pd1.getNodes());
         sharedByPolygons.retainAll(pd2.getNodes());
@@ -355,13 +442,13 @@ public class MultipolygonTest extends Test {
                 }
             }
             if (errorCode == RINGS_SHARE_NODES) {
-                errors.add(TestError.builder(this, Severity.OTHER, errorCode)
+                relationErrors.add(TestError.builder(this, Severity.OTHER, errorCode)
                         .message(tr("Multipolygon rings share node"))
                         .primitives(prims)
                         .highlight(sharedByPolygons)
                         .build());
             } else {
-                errors.add(TestError.builder(this, Severity.WARNING, errorCode)
+                relationErrors.add(TestError.builder(this, Severity.WARNING, errorCode)
                         .message(errorCode == CROSSING_WAYS ? tr("Intersection between multipolygon ways") : tr("Multipolygon rings are equal"))
                         .primitives(prims)
                         .highlight(sharedByPolygons)
@@ -439,8 +526,10 @@ public class MultipolygonTest extends Test {
      * @param allPolygons list of polygon rings
      * @param wayMap maps way ids to relation members
      * @param sharedNodes all nodes shared by multiple ways of this multipolygon
+     * @param relationErrors list that will contain found errors
      */
-    private void checkOrSetRoles(Relation r, List<PolyData> allPolygons, Map<Long, RelationMember> wayMap, Set<Node> sharedNodes) {
+    private void checkOrSetRoles(Relation r, List<PolyData> allPolygons, Map<Long, RelationMember> wayMap, Set<Node> sharedNodes,
+            List<TestError> relationErrors) {
         PolygonLevelFinder levelFinder = new PolygonLevelFinder(sharedNodes);
         List<PolygonLevel> list = levelFinder.findOuterWays(allPolygons);
         if (Utils.isEmpty(list)) {
@@ -472,7 +561,7 @@ public class MultipolygonTest extends Test {
             for (long wayId : pol.outerWay.getWayIds()) {
                 RelationMember member = wayMap.get(wayId);
                 if (!calculatedRole.equals(member.getRole())) {
-                    errors.add(TestError.builder(this, Severity.ERROR, WRONG_MEMBER_ROLE)
+                    relationErrors.add(TestError.builder(this, Severity.ERROR, WRONG_MEMBER_ROLE)
                             .message(RelationChecker.ROLE_VERIF_PROBLEM_MSG,
                                     marktr("Role for ''{0}'' should be ''{1}''"),
                                     member.getMember().getDisplayName(DefaultNameFormatter.getInstance()),
@@ -482,7 +571,7 @@ public class MultipolygonTest extends Test {
                             .build());
                     if (pol.level == 0 && INNER.equals(member.getRole())) {
                         // maybe only add this error if we found an outer ring with correct role(s) ?
-                        errors.add(TestError.builder(this, Severity.ERROR, INNER_WAY_OUTSIDE)
+                        relationErrors.add(TestError.builder(this, Severity.ERROR, INNER_WAY_OUTSIDE)
                                 .message(tr("Multipolygon inner way is outside"))
                                 .primitives(Arrays.asList(r, member.getMember()))
                                 .highlight(member.getMember())
@@ -501,7 +590,8 @@ public class MultipolygonTest extends Test {
      */
     private static boolean checkIfNodeIsInsidePolygon(Node n, PolyData p) {
         EastNorth en = n.getEastNorth();
-        return en != null && p.get().contains(en.getX(), en.getY());
+        // the bounds are cached, they avoid iterating over the polygon for most nodes outside of it
+        return en != null && p.getBounds().contains(en.getX(), en.getY()) && p.get().contains(en.getX(), en.getY());
     }
 
     /**
@@ -510,10 +600,11 @@ public class MultipolygonTest extends Test {
      * @param r the relation (for error reporting)
      * @param innerPolygons list of inner polygons
      * @param outerPolygons list of outer polygons
+     * @param relationErrors list that will contain found errors
      * @return map with crossing polygons
      */
     private Map<PolyData, List<PolyData>> findIntersectingWays(Relation r, List<PolyData> innerPolygons,
-            List<PolyData> outerPolygons) {
+            List<PolyData> outerPolygons, List<TestError> relationErrors) {
         HashMap<PolyData, List<PolyData>> crossingPolygonsMap = new HashMap<>();
         HashMap<PolyData, List<PolyData>> sharedWaySegmentsPolygonsMap = new HashMap<>();
 
@@ -561,7 +652,7 @@ public class MultipolygonTest extends Test {
                         String msg = loop == 0 ? tr("Intersection between multipolygon ways")
                                 : samePoly ? tr("Multipolygon ring contains segment twice")
                                         : tr("Multipolygon outer way shares segment with other ring");
-                        errors.add(TestError.builder(this, Severity.ERROR, CROSSING_WAYS)
+                        relationErrors.add(TestError.builder(this, Severity.ERROR, CROSSING_WAYS)
                                 .message(msg)
                                 .primitives(Arrays.asList(r, ways.get(0), ways.get(1)))
                                 .highlightWaySegments(entry.getValue())
@@ -578,8 +669,9 @@ public class MultipolygonTest extends Test {
     * This should only be used for relations with incomplete members.
     * See also {@link CrossingWays}
     * @param r the relation (for error reporting)
+     * @param relationErrors list that will contain found errors
      */
-    private void findIntersectingWaysIncomplete(Relation r) {
+    private void findIntersectingWaysIncomplete(Relation r, List<TestError> relationErrors) {
         Set<OsmPrimitive> outerWays = r.getMembers().stream()
                 .filter(m -> m.getRole().isEmpty() || OUTER.equals(m.getRole()))
                 .map(RelationMember::getMember)
@@ -590,13 +682,13 @@ public class MultipolygonTest extends Test {
                 if (ways.size() != 2)
                     continue;
                 if (loop == 0) {
-                errors.add(TestError.builder(this, Severity.ERROR, CROSSING_WAYS)
+                relationErrors.add(TestError.builder(this, Severity.ERROR, CROSSING_WAYS)
                         .message(tr("Intersection between multipolygon ways"))
                         .primitives(Arrays.asList(r, ways.get(0), ways.get(1)))
                         .highlightWaySegments(entry.getValue())
                         .build());
                 } else if (outerWays.contains(ways.get(0)) || outerWays.contains(ways.get(1))) {
-                    errors.add(TestError.builder(this, Severity.ERROR, CROSSING_WAYS)
+                    relationErrors.add(TestError.builder(this, Severity.ERROR, CROSSING_WAYS)
                             .message(tr("Multipolygon outer way shares segment with other ring"))
                             .primitives(Arrays.asList(r, ways.get(0), ways.get(1)))
                             .highlightWaySegments(entry.getValue()).build());
@@ -614,7 +706,7 @@ public class MultipolygonTest extends Test {
      */
     private static Map<List<Way>, List<WaySegment>> findIntersectingWays(Relation r, boolean findSharedWaySegments) {
         /* All way segments, grouped by cells */
-        final Map<Point2D, List<WaySegment>> cellSegments = new HashMap<>(1000);
+        final GridIndex<WaySegment> cellSegments = new GridIndex<>();
         /* The detected crossing ways */
         final Map<List<Way>, List<WaySegment>> crossingWays = new HashMap<>(50);
 
@@ -692,9 +784,10 @@ public class MultipolygonTest extends Test {
      * <li>{@link #REPEATED_MEMBER_SAME_ROLE}: Multipolygon member repeated with same role</li>
      * </ul>
      * @param r relation
+     * @param relationErrors list that will contain found errors
      * @return true if repeated members have been detected, false otherwise
      */
-    private boolean checkRepeatedWayMembers(Relation r) {
+    private boolean checkRepeatedWayMembers(Relation r, List<TestError> relationErrors) {
         boolean hasDups = false;
         Map<OsmPrimitive, List<RelationMember>> seenMemberPrimitives = new HashMap<>();
         for (RelationMember rm : r.getMembers()) {
@@ -733,15 +826,18 @@ public class MultipolygonTest extends Test {
                     repeatedSameRole.addAll(primitives);
                 }
             }
-            addRepeatedMemberError(r, repeatedDiffRole, REPEATED_MEMBER_DIFF_ROLE, tr("Multipolygon member repeated with different role"));
-            addRepeatedMemberError(r, repeatedSameRole, REPEATED_MEMBER_SAME_ROLE, tr("Multipolygon member repeated with same role"));
+            addRepeatedMemberError(r, repeatedDiffRole, REPEATED_MEMBER_DIFF_ROLE, tr("Multipolygon member repeated with different role"),
+                    relationErrors);
+            addRepeatedMemberError(r, repeatedSameRole, REPEATED_MEMBER_SAME_ROLE, tr("Multipolygon member repeated with same role"),
+                    relationErrors);
         }
         return hasDups;
     }
 
-    private void addRepeatedMemberError(Relation r, List<OsmPrimitive> repeatedMembers, int errorCode, String msg) {
+    private void addRepeatedMemberError(Relation r, List<OsmPrimitive> repeatedMembers, int errorCode, String msg,
+            List<TestError> relationErrors) {
         if (!repeatedMembers.isEmpty()) {
-            errors.add(TestError.builder(this, Severity.ERROR, errorCode)
+            relationErrors.add(TestError.builder(this, Severity.ERROR, errorCode)
                     .message(msg)
                     .primitives(combineRelAndPrimitives(r, repeatedMembers))
                     .highlight(repeatedMembers)
@@ -838,6 +934,10 @@ public class MultipolygonTest extends Test {
                 if (!outerCandidate.getBounds().intersects(inner.getBounds())) {
                     continue;
                 }
+                // rings which don't cross can only be nested if the bounds of one contain the bounds of the other
+                if (!outerCandidate.getBounds().contains(inner.getBounds()) && !inner.getBounds().contains(outerCandidate.getBounds())) {
+                    continue;
+                }
                 boolean useIntersectionTest = false;
                 Node unsharedOuterNode = null;
                 Node unsharedInnerNode = getNonIntersectingNode(outerCandidate, inner);
@@ -909,11 +1009,11 @@ public class MultipolygonTest extends Test {
             repeatCheck = false;
             errors.clear();
             Multipolygon polygon = null;
-            boolean hasRepeatedMembers = checkRepeatedWayMembers(r);
+            boolean hasRepeatedMembers = checkRepeatedWayMembers(r, errors);
             if (!hasRepeatedMembers) {
                 polygon = new Multipolygon(r);
                 // don't check style consistency here
-                checkGeometryAndRoles(r, polygon);
+                checkGeometryAndRoles(r, polygon, errors);
             }
             createdRelation = null; // makes sure that repeatCheck is only set once
         } while (repeatCheck);
@@ -3,16 +3,13 @@ package org.openstreetmap.josm.data.validation.tests;
 
 import static org.openstreetmap.josm.tools.I18n.tr;
 
-import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.openstreetmap.josm.data.coor.ILatLon;
@@ -29,6 +26,7 @@ import org.openstreetmap.josm.data.preferences.sources.ValidatorPrefHelper;
 import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.Test;
 import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.data.validation.util.GridIndex;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.Geometry;
@@ -86,7 +84,7 @@ public class PowerLines extends Test {
 
     private final Collection<Way> foundPowerLines = new HashSet<>();
     /** All waterway segments, grouped by cells */
-    private final Map<Point2D, List<WaySegment>> cellSegmentsWater = new HashMap<>(32);
+    private final GridIndex<WaySegment> cellSegmentsWater = new GridIndex<>();
 
     /**
      * Constructs a new {@code PowerLines} test.
@@ -134,7 +132,9 @@ public class PowerLines extends Test {
             final Node second = es1.getSecondNode();
 
             if (first.isLatLonKnown() && second.isLatLonKnown()) {
-                CrossingWays.getSegments(this.cellSegmentsWater, first, second).forEach(list -> list.add(es1));
+                for (int cell : CrossingWays.getSegments(this.cellSegmentsWater, first, second)) {
+                    this.cellSegmentsWater.add(cell, es1);
+                }
             }
         }
     }
@@ -331,7 +331,7 @@ public class PowerLines extends Test {
      * @param crossingPositions collection of the crossing positions
      * @implNote Inspired by {@code utilsplugin2/selection/NodeWayUtils.java#addWaysIntersectingWay()}
      */
-    private static void findCrossings(Map<Point2D, List<WaySegment>> ways, Way parent, Set<Way> crossingWays,
+    private static void findCrossings(GridIndex<WaySegment> ways, Way parent, Set<Way> crossingWays,
                                       Set<ILatLon> crossingPositions) {
         int nodesSize = parent.getNodesCount();
         for (int i = 0; i < nodesSize - 1; i++) {
@@ -340,8 +340,9 @@ public class PowerLines extends Test {
                 Logging.warn("PowerLines crossing ways test section skipped " + es1);
                 continue;
             }
-            for (List<WaySegment> segments : CrossingWays.getSegments(ways, es1.getFirstNode(), es1.getSecondNode())) {
-                for (WaySegment segment : segments) {
+            for (int cell : CrossingWays.getSegments(ways, es1.getFirstNode(), es1.getSecondNode())) {
+                for (int j = 0; j < ways.size(cell); j++) {
+                    final WaySegment segment = ways.get(cell, j);
                     if (es1.intersects(segment)) {
                         final ILatLon ll = Geometry.getSegmentSegmentIntersection(es1.getFirstNode(), es1.getSecondNode(),
                                 segment.getFirstNode(), segment.getSecondNode());
@@ -5,13 +5,15 @@ import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static java.util.regex.Pattern.UNICODE_CASE;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
-import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -20,6 +22,8 @@ import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.Test;
 import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.data.validation.util.FuzzyIndex;
+import org.openstreetmap.josm.data.validation.util.GridIndex;
 import org.openstreetmap.josm.data.validation.util.ValUtil;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.tools.MultiMap;
@@ -27,7 +31,10 @@ import org.openstreetmap.josm.tools.Utils;
 
 /**
  * Checks for similar named ways, symptom of a possible typo. It uses the
- * Levenshtein distance to check for similarity
+ * Levenshtein distance to check for similarity.
+ * <p>
+ * Each distinct name is compared only with the names found by a {@link FuzzyIndex} of their normalized forms,
+ * so that the ways of a cell are not compared pairwise.
  *
  * @author frsantos
  */
@@ -35,8 +42,19 @@ public class SimilarNamedWays extends Test {
 
     protected static final int SIMILAR_NAMED = 701;
 
-    /** All ways, grouped by cells */
-    private Map<Point2D, List<Way>> cellWays;
+    /** The maximal Levenshtein distance of similar names */
+    private static final int MAX_DISTANCE = 2;
+
+    /** All cells of the grid, the ways of each cell are stored in {@link #cellNames} */
+    private GridIndex<Way> cellWays;
+    /** The ways of each cell, grouped by name, indexed by cell number */
+    private List<Map<SimilarName, List<Way>>> cellNames;
+    /** All names of the ways */
+    private Map<String, SimilarName> names;
+    /** The names, by normalized form, indexed by rule */
+    private List<FuzzyIndex<SimilarName>> normalizedNames;
+    /** The names, by folded form */
+    private Map<String, List<SimilarName>> foldedNames;
     /** The already detected errors */
     private MultiMap<Way, Way> errorWays;
 
@@ -62,13 +80,24 @@ public class SimilarNamedWays extends Test {
     @Override
     public void startTest(ProgressMonitor monitor) {
         super.startTest(monitor);
-        cellWays = new HashMap<>(1000);
+        cellWays = new GridIndex<>();
+        cellNames = new ArrayList<>();
+        names = new HashMap<>();
+        normalizedNames = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            normalizedNames.add(new FuzzyIndex<>(MAX_DISTANCE));
+        }
+        foldedNames = new HashMap<>();
         errorWays = new MultiMap<>();
     }
 
     @Override
     public void endTest() {
         cellWays = null;
+        cellNames = null;
+        names = null;
+        normalizedNames = null;
+        foldedNames = null;
         errorWays = null;
         super.endTest();
     }
@@ -82,19 +111,18 @@ public class SimilarNamedWays extends Test {
         if (name == null || name.length() < 6)
             return;
 
-        List<List<Way>> theCellWays = ValUtil.getWaysInCell(w, cellWays);
-        for (List<Way> ways : theCellWays) {
-            for (Way w2 : ways) {
-                if (errorWays.contains(w, w2) || errorWays.contains(w2, w)) {
-                    continue;
-                }
-
-                String name2 = w2.get("name");
-                if (name2 == null || name2.length() < 6) {
-                    continue;
-                }
-
-                if (similaryName(name, name2)) {
+        SimilarName similarName = getSimilarName(name);
+        for (int cell : ValUtil.getWaysInCell(w, cellWays)) {
+            while (cellNames.size() <= cell) {
+                cellNames.add(new HashMap<>());
+            }
+            Map<SimilarName, List<Way>> waysByName = cellNames.get(cell);
+            // only the ways with a similar name have to be compared, identical names are never similar
+            for (SimilarName similar : similarName.similarNames) {
+                for (Way w2 : waysByName.getOrDefault(similar, Collections.emptyList())) {
+                    if (errorWays.contains(w, w2) || errorWays.contains(w2, w)) {
+                        continue;
+                    }
                     List<OsmPrimitive> primitives = new ArrayList<>(2);
                     primitives.add(w);
                     primitives.add(w2);
@@ -105,10 +133,52 @@ public class SimilarNamedWays extends Test {
                     errorWays.put(w, w2);
                 }
             }
-            ways.add(w);
+            waysByName.computeIfAbsent(similarName, k -> new ArrayList<>()).add(w);
         }
     }
 
+    /**
+     * Returns the entry of a name, adding it to the index if needed.
+     * The similar names are looked up once, when the name is added.
+     * @param name the name
+     * @return the entry of the name
+     */
+    private SimilarName getSimilarName(String name) {
+        SimilarName similarName = names.get(name);
+        if (similarName == null) {
+            similarName = new SimilarName(name, rules);
+            for (SimilarName candidate : getCandidates(similarName)) {
+                if (isSimilar(similarName, candidate)) {
+                    similarName.similarNames.add(candidate);
+                    candidate.similarNames.add(similarName);
+                }
+            }
+            addToIndex(similarName);
+            names.put(name, similarName);
+        }
+        return similarName;
+    }
+
+    private void addToIndex(SimilarName similarName) {
+        foldedNames.computeIfAbsent(similarName.folded, k -> new ArrayList<>()).add(similarName);
+        for (int i = 0; i < similarName.views.length; i++) {
+            normalizedNames.get(i).add(similarName.views[i], similarName);
+        }
+    }
+
+    /**
+     * Returns the names which may be similar to a name. This includes all similar names, but also some names that are not.
+     * @param similarName the name
+     * @return the candidates
+     */
+    private Set<SimilarName> getCandidates(SimilarName similarName) {
+        Set<SimilarName> candidates = new LinkedHashSet<>(foldedNames.getOrDefault(similarName.folded, Collections.emptyList()));
+        for (int i = 0; i < similarName.views.length; i++) {
+            candidates.addAll(normalizedNames.get(i).getCandidates(similarName.views[i]));
+        }
+        return candidates;
+    }
+
     /**
      * Add a regular expression rule.
      * @param regExpr the regular expression to search for
@@ -139,15 +209,23 @@ public class SimilarNamedWays extends Test {
      * @return true if the normalized names are different but only a "little bit"
      */
     public boolean similaryName(String name, String name2) {
-        boolean similar = Utils.isSimilar(name, name2);
+        return isSimilar(new SimilarName(name, rules), new SimilarName(name2, rules));
+    }
+
+    private static boolean isSimilar(SimilarName name, SimilarName name2) {
+        // same as Utils.isSimilar, with the accents removed beforehand
+        int distance = Utils.getLevenshteinDistance(name.name, name2.name, MAX_DISTANCE);
+        boolean similar = distance > MAX_DISTANCE
+                ? name.name.length() == name2.name.length() && name.deAccented.equalsIgnoreCase(name2.deAccented)
+                : distance > 0;
 
         // try all rules
-        for (NormalizeRule rule : rules) {
-            int levenshteinDistance = Utils.getLevenshteinDistance(rule.normalize(name), rule.normalize(name2));
+        for (int i = 0; i < name.views.length; i++) {
+            int levenshteinDistance = Utils.getLevenshteinDistance(name.views[i], name2.views[i], MAX_DISTANCE);
             if (levenshteinDistance == 0)
                 // one rule results in identical names: identical
                 return false;
-            else if (levenshteinDistance <= 2) {
+            else if (levenshteinDistance <= MAX_DISTANCE) {
                 // 0 < distance <= 2
                 similar = true;
             }
@@ -155,6 +233,38 @@ public class SimilarNamedWays extends Test {
         return similar;
     }
 
+    /**
+     * A name, with its forms normalized by each {@link NormalizeRule}, and the similar names found so far
+     */
+    private static final class SimilarName {
+        final String name;
+        /** The name without accents */
+        final String deAccented;
+        /** The name without accents, with each character mapped to the same case as {@link String#equalsIgnoreCase} does */
+        final String folded;
+        /** The normalized forms of the name, indexed by rule */
+        final String[] views;
+        final List<SimilarName> similarNames = new ArrayList<>();
+
+        SimilarName(String name, List<NormalizeRule> rules) {
+            this.name = name;
+            this.deAccented = Utils.deAccent(name);
+            this.folded = deAccented.codePoints()
+                    .map(c -> Character.toLowerCase(Character.toUpperCase(c)))
+                    .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                    .toString();
+            this.views = new String[rules.size()];
+            for (int i = 0; i < views.length; i++) {
+                views[i] = rules.get(i).normalize(name);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
     /**
      * A normalization that is applied to names before testing them
      */
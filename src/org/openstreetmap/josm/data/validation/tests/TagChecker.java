@@ -27,6 +27,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -62,6 +63,7 @@ import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.Test.TagTest;
 import org.openstreetmap.josm.data.validation.TestError;
 import org.openstreetmap.josm.data.validation.util.Entities;
+import org.openstreetmap.josm.data.validation.util.FuzzyIndex;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.gui.tagging.presets.TaggingPreset;
 import org.openstreetmap.josm.gui.tagging.presets.TaggingPresetItem;
@@ -105,6 +107,8 @@ public class TagChecker extends TagTest implements TaggingPresetListener {
     /** often used tags which are not in presets */
     private static final MultiMap<String, String> oftenUsedTags = new MultiMap<>();
     private static final Map<TaggingPreset, List<TaggingPresetItem>> presetIndex = new LinkedHashMap<>();
+    /** The known values of each key, indexed for the spell check, built on demand */
+    private static final Map<String, ValueDictionary> valueDictionaries = new ConcurrentHashMap<>();
 
     private static final Pattern UNWANTED_NON_PRINTING_CONTROL_CHARACTERS = Pattern.compile(
             "[\\x00-\\x09\\x0B\\x0C\\x0E-\\x1F\\x7F\\u200e-\\u200f\\u202a-\\u202e]");
@@ -198,6 +202,11 @@ public class TagChecker extends TagTest implements TaggingPresetListener {
     protected boolean checkPresetsTypes;
     protected boolean checkRegions;
 
+    /** The spell checked keys of the current run, with the proposed key or an empty string */
+    private Map<String, String> spellCheckedKeys;
+    /** The guessed values of the current run, by key and harmonized value */
+    private Map<Tag, List<String>> guessedValues;
+
     protected JCheckBox prefCheckKeys;
     protected JCheckBox prefCheckValues;
     protected JCheckBox prefCheckComplex;
@@ -289,6 +298,7 @@ public class TagChecker extends TagTest implements TaggingPresetListener {
         ignoreForLevenshtein.clear();
         oftenUsedTags.clear();
         presetIndex.clear();
+        valueDictionaries.clear();
         ignoreForOuterMPSameTagCheck.clear();
 
         StringBuilder errorSources = new StringBuilder();
@@ -413,6 +423,8 @@ public class TagChecker extends TagTest implements TaggingPresetListener {
         if (!Config.getPref().getBoolean(PREF_CHECK_VALUES, true))
             return;
 
+        valueDictionaries.clear();
+
         Collection<TaggingPreset> presets = TaggingPresets.getTaggingPresets();
         if (!presets.isEmpty()) {
             initAdditionalPresetsValueData();
@@ -1104,7 +1116,12 @@ public class TagChecker extends TagTest implements TaggingPresetListener {
         }
     }
 
-    private void spellCheckKey(MultiMap<OsmPrimitive, String> withErrors, OsmPrimitive p, String key) {
+    /**
+     * Returns the key which should be used instead of a key not found in presets.
+     * @param key the key
+     * @return the proposed key, or an empty string
+     */
+    private static String getFixedKey(String key) {
         String prettifiedKey = harmonizeKey(key);
         String fixedKey;
         if (ignoreDataEquals.contains(prettifiedKey)) {
@@ -1115,6 +1132,11 @@ public class TagChecker extends TagTest implements TaggingPresetListener {
         if (fixedKey == null && ignoreDataTag.stream().anyMatch(a -> a.getKey().equals(prettifiedKey))) {
             fixedKey = prettifiedKey;
         }
+        return fixedKey == null ? "" : fixedKey;
+    }
+
+    private void spellCheckKey(MultiMap<OsmPrimitive, String> withErrors, OsmPrimitive p, String key) {
+        String fixedKey = spellCheckedKeys != null ? spellCheckedKeys.computeIfAbsent(key, TagChecker::getFixedKey) : getFixedKey(key);
 
         if (!Utils.isEmpty(fixedKey) && !Objects.equals(fixedKey, key)) {
             final String proposedKey = fixedKey;
@@ -1153,52 +1175,23 @@ public class TagChecker extends TagTest implements TaggingPresetListener {
         fixedValue = sets.stream().anyMatch(possibleValues -> possibleValues.contains(harmonizedValue))
                 ? harmonizedValue : null;
         if (fixedValue == null && !ignoreForLevenshtein.contains(key)) {
-            int maxPresetValueLen = 0;
-            List<String> fixVals = new ArrayList<>();
-            // use Levenshtein distance to find typical typos
-            int minDist = MAX_LEVENSHTEIN_DISTANCE + 1;
-            for (Set<String> possibleValues: sets) {
-                for (String possibleVal : possibleValues) {
-                    if (possibleVal.isEmpty())
-                        continue;
-                    maxPresetValueLen = Math.max(maxPresetValueLen, possibleVal.length());
-                    if (harmonizedValue.length() < 3 && possibleVal.length() >= harmonizedValue.length() + MAX_LEVENSHTEIN_DISTANCE) {
-                        // don't suggest fix value when given value is short and lengths are too different
-                        // for example surface=u would result in surface=mud
-                        continue;
-                    }
-                    int dist = Utils.getLevenshteinDistance(possibleVal, harmonizedValue);
-                    if (dist >= harmonizedValue.length()) {
-                        // short value, all characters are different. Don't warn, might say Value '10' for key 'fee' looks like 'no'.
-                        continue;
-                    }
-                    if (dist < minDist) {
-                        minDist = dist;
-                        fixVals.clear();
-                        fixVals.add(possibleVal);
-                    } else if (dist == minDist) {
-                        fixVals.add(possibleVal);
-                    }
-                }
-            }
-            if (minDist <= MAX_LEVENSHTEIN_DISTANCE && maxPresetValueLen > MAX_LEVENSHTEIN_DISTANCE
-                    && !fixVals.isEmpty()
-                    && (harmonizedValue.length() > 3 || minDist < MAX_LEVENSHTEIN_DISTANCE)) {
-                filterDeprecatedTags(p, key, fixVals);
-                if (!fixVals.isEmpty()) {
-                    if (fixVals.size() < 2) {
-                        fixedValue = fixVals.get(0);
-                    } else {
-                        Collections.sort(fixVals);
-                        // misspelled preset value with multiple good alternatives
-                        errors.add(TestError.builder(this, Severity.WARNING, MISSPELLED_VALUE_NO_FIX)
-                                .message(tr("Unknown property value"),
-                                        marktr("Value ''{0}'' for key ''{1}'' is unknown, maybe one of {2} is meant?"),
-                                        value, key, fixVals)
-                                .primitives(p).build());
-                        withErrors.put(p, "WPV");
-                        return;
-                    }
+            List<String> fixVals = new ArrayList<>(guessedValues != null
+                    ? guessedValues.computeIfAbsent(new Tag(key, harmonizedValue), t -> guessValues(t.getKey(), t.getValue()))
+                    : guessValues(key, harmonizedValue));
+            filterDeprecatedTags(p, key, fixVals);
+            if (!fixVals.isEmpty()) {
+                if (fixVals.size() < 2) {
+                    fixedValue = fixVals.get(0);
+                } else {
+                    Collections.sort(fixVals);
+                    // misspelled preset value with multiple good alternatives
+                    errors.add(TestError.builder(this, Severity.WARNING, MISSPELLED_VALUE_NO_FIX)
+                            .message(tr("Unknown property value"),
+                                    marktr("Value ''{0}'' for key ''{1}'' is unknown, maybe one of {2} is meant?"),
+                                    value, key, fixVals)
+                            .primitives(p).build());
+                    withErrors.put(p, "WPV");
+                    return;
                 }
             }
         }
@@ -1222,6 +1215,43 @@ public class TagChecker extends TagTest implements TaggingPresetListener {
         }
     }
 
+    /**
+     * Use Levenshtein distance to find typical typos of a value.
+     * @param key the key
+     * @param harmonizedValue the harmonized value, which is not a known value of the key
+     * @return the known values of the key at the smallest distance from the value, or an empty list if none is close enough
+     */
+    private static List<String> guessValues(String key, String harmonizedValue) {
+        ValueDictionary dictionary = valueDictionaries.computeIfAbsent(key, ValueDictionary::new);
+        if (dictionary.maxValueLength <= MAX_LEVENSHTEIN_DISTANCE)
+            return Collections.emptyList();
+        List<String> fixVals = new ArrayList<>();
+        int minDist = MAX_LEVENSHTEIN_DISTANCE + 1;
+        for (String possibleVal : dictionary.values.getCandidates(harmonizedValue)) {
+            if (harmonizedValue.length() < 3 && possibleVal.length() >= harmonizedValue.length() + MAX_LEVENSHTEIN_DISTANCE) {
+                // don't suggest fix value when given value is short and lengths are too different
+                // for example surface=u would result in surface=mud
+                continue;
+            }
+            int dist = Utils.getLevenshteinDistance(possibleVal, harmonizedValue, MAX_LEVENSHTEIN_DISTANCE);
+            if (dist >= harmonizedValue.length()) {
+                // short value, all characters are different. Don't warn, might say Value '10' for key 'fee' looks like 'no'.
+                continue;
+            }
+            if (dist < minDist) {
+                minDist = dist;
+                fixVals.clear();
+                fixVals.add(possibleVal);
+            } else if (dist == minDist) {
+                fixVals.add(possibleVal);
+            }
+        }
+        if (minDist <= MAX_LEVENSHTEIN_DISTANCE && (harmonizedValue.length() > 3 || minDist < MAX_LEVENSHTEIN_DISTANCE)) {
+            return Collections.unmodifiableList(fixVals);
+        }
+        return Collections.emptyList();
+    }
+
     // see #19180
     private void filterDeprecatedTags(OsmPrimitive p, String key, List<String> fixVals) {
         if (fixVals.isEmpty() || deprecatedChecker == null)
@@ -1308,12 +1338,16 @@ public class TagChecker extends TagTest implements TaggingPresetListener {
             checkRegions = checkRegions && Config.getPref().getBoolean(PREF_CHECK_REGIONS_BEFORE_UPLOAD, true);
         }
         deprecatedChecker = OsmValidator.getTest(MapCSSTagChecker.class);
+        spellCheckedKeys = new HashMap<>();
+        guessedValues = new HashMap<>();
         ignoreForOuterMPSameTagCheck.addAll(Config.getPref().getList(PREF_KEYS_IGNORE_OUTER_MP_SAME_TAG, Collections.emptyList()));
     }
 
     @Override
     public void endTest() {
         deprecatedChecker = null;
+        spellCheckedKeys = null;
+        guessedValues = null;
         super.endTest();
     }
 
@@ -1473,6 +1507,29 @@ public class TagChecker extends TagTest implements TaggingPresetListener {
         return false;
     }
 
+    /**
+     * The known values of a key, from presets and often used tags
+     */
+    private static final class ValueDictionary {
+        final FuzzyIndex<String> values = new FuzzyIndex<>(MAX_LEVENSHTEIN_DISTANCE);
+        final int maxValueLength;
+
+        ValueDictionary(String key) {
+            int maxLength = 0;
+            for (Set<String> possibleValues : Arrays.asList(getPresetValues(key), oftenUsedTags.get(key))) {
+                if (possibleValues == null)
+                    continue;
+                for (String possibleVal : possibleValues) {
+                    if (!possibleVal.isEmpty()) {
+                        values.add(possibleVal, possibleVal);
+                        maxLength = Math.max(maxLength, possibleVal.length());
+                    }
+                }
+            }
+            maxValueLength = maxLength;
+        }
+    }
+
     @Override
     public void taggingPresetsModified() {
         try {
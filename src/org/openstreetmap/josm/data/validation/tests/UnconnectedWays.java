@@ -19,7 +19,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.openstreetmap.josm.data.coor.EastNorth;
 import org.openstreetmap.josm.data.coor.LatLon;
@@ -37,6 +36,7 @@ import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.Test;
 import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.data.validation.util.WayGraph;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.Geometry;
@@ -218,6 +218,7 @@ public abstract class UnconnectedWays extends Test {
     private Set<Node> middlenodes; // nodes in middle of way
     private Set<Node> othernodes; // nodes appearing at least twice
     private QuadBuckets<Node> searchNodes;
+    private WayGraph wayGraph;
     private Set<Way> waysToTest;
     private Set<Node> nodesToTest;
     private Area dsArea;
@@ -386,6 +387,7 @@ public abstract class UnconnectedWays extends Test {
         if (ds == null)
             return;
 
+        wayGraph = new WayGraph(ds.getWays(), this::isWantedWay);
         for (Way w : ds.getWays()) {
             if (isWantedWay(w) && w.getRealNodesCount() > 1) {
                 waySegments.addAll(getWaySegments(w));
@@ -418,6 +420,7 @@ public abstract class UnconnectedWays extends Test {
         middlenodes = null;
         othernodes = null;
         searchNodes = null;
+        wayGraph = null;
         waysToTest = null;
         nodesToTest = null;
         dsArea = null;
@@ -454,7 +457,8 @@ public abstract class UnconnectedWays extends Test {
          * @return true if a reasonable connection was found
          */
         boolean isConnectedTo(Node startNode) {
-            return isConnectedTo(startNode, new LinkedHashSet<>(), 0, w);
+            // no need to search for a path if there is none at all
+            return wayGraph.isConnected(startNode, n1) && isConnectedTo(startNode, new LinkedHashSet<>(), 0, w);
         }
 
         /**
@@ -484,8 +488,7 @@ public abstract class UnconnectedWays extends Test {
             }
             if (visited != null) {
                 visited.add(node);
-                List<Way> wantedParents = node.getParentWays().stream().filter(UnconnectedWays.this::isWantedWay)
-                        .collect(Collectors.toList());
+                List<Way> wantedParents = new ArrayList<>(wayGraph.getWays(node));
                 if (wantedParents.size() > 1 && wantedParents.indexOf(parent) != wantedParents.size() - 1) {
                     // we want to find a different way. so move known way to the end of the list
                     wantedParents.remove(parent);
@@ -494,7 +497,7 @@ public abstract class UnconnectedWays extends Test {
 
                 for (final Way way : wantedParents) {
                     List<Node> nextNodes = new ArrayList<>();
-                    int pos = way.getNodes().indexOf(node);
+                    int pos = WayGraph.indexOf(way, node);
                     if (pos > 0) {
                         nextNodes.add(way.getNode(pos - 1));
                     }
@@ -0,0 +1,112 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of strings, to find the strings within a small Levenshtein distance of a given string.
+ * <p>
+ * Each string is split into {@code maxDistance + 1} segments. If two strings are within a Levenshtein distance of
+ * {@code maxDistance}, at least one segment of the first string is left untouched by the edits, and occurs in the
+ * second string at a position shifted by at most {@code maxDistance}. Looking up those segments yields all
+ * strings within the distance, plus some strings which are not: the candidates have to be checked, for instance with
+ * {@link org.openstreetmap.josm.tools.Utils#getLevenshteinDistance(String, String, int)}.
+ * <p>
+ * This class is not thread safe.
+ * @param <T> the type of values associated with the strings
+ */
+public final class FuzzyIndex<T> {
+
+    private final int maxDistance;
+    private final int segments;
+    /** The values, by string length, segment number and segment, see {@link #getKey} */
+    private final Map<String, List<T>> index = new HashMap<>();
+
+    /**
+     * Constructs a new, empty {@code FuzzyIndex}.
+     * @param maxDistance the maximal Levenshtein distance of the strings to find
+     */
+    public FuzzyIndex(int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException(Integer.toString(maxDistance));
+        }
+        this.maxDistance = maxDistance;
+        this.segments = maxDistance + 1;
+    }
+
+    /**
+     * Returns the key of a segment. Strings too short to be split have a {@code segment} of {@code -1}.
+     * @param length the length of the string
+     * @param segment the number of the segment
+     * @param text the segment
+     * @return the key
+     */
+    private static String getKey(int length, int segment, String text) {
+        return Integer.toString(length) + '/' + segment + '/' + text;
+    }
+
+    private int getSegmentStart(int length, int segment) {
+        return segment * (length / segments) + Math.max(0, segment - (segments - length % segments));
+    }
+
+    private int getSegmentLength(int length, int segment) {
+        return length / segments + (segment >= segments - length % segments ? 1 : 0);
+    }
+
+    /**
+     * Adds a string to the index.
+     * @param text the string
+     * @param value the value associated with the string
+     */
+    public void add(String text, T value) {
+        int length = text.length();
+        if (length < segments) {
+            index.computeIfAbsent(getKey(length, -1, ""), k -> new ArrayList<>()).add(value);
+            return;
+        }
+        for (int segment = 0; segment < segments; segment++) {
+            int start = getSegmentStart(length, segment);
+            String key = getKey(length, segment, text.substring(start, start + getSegmentLength(length, segment)));
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        }
+    }
+
+    /**
+     * Returns the values of the strings which may be within the maximal distance of a string.
+     * This includes the values of all strings within the distance, but also some values of strings which are not.
+     * @param text the string
+     * @return the candidates, in the order they have been found
+     */
+    public Set<T> getCandidates(String text) {
+        Set<T> candidates = new LinkedHashSet<>();
+        for (int length = Math.max(0, text.length() - maxDistance); length <= text.length() + maxDistance; length++) {
+            if (length < segments) {
+                candidates.addAll(index.getOrDefault(getKey(length, -1, ""), Collections.emptyList()));
+                continue;
+            }
+            for (int segment = 0; segment < segments; segment++) {
+                int start = getSegmentStart(length, segment);
+                int segmentLength = getSegmentLength(length, segment);
+                for (int i = Math.max(0, start - maxDistance); i <= start + maxDistance && i + segmentLength <= text.length(); i++) {
+                    String key = getKey(length, segment, text.substring(i, i + segmentLength));
+                    candidates.addAll(index.getOrDefault(key, Collections.emptyList()));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Determines if the index contains no string.
+     * @return {@code true} if the index contains no string
+     */
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+}
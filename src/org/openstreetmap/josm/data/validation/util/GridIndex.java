@@ -0,0 +1,215 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation.util;
+
+import java.util.Arrays;
+
+/**
+ * A grid of cells, each cell containing a list of values (e.g. way segments).
+ * <p>
+ * Cells are identified by their coordinates packed in a {@code long} key, see {@link #key(long, long)}, so that no object
+ * has to be created for a lookup. The cells are stored in an open-addressing hash table, and the values of each cell
+ * in an array. Each cell is given a number, which does not change until the index is {@link #clear() cleared}.
+ * <p>
+ * Once cleared, the index keeps its arrays, so that it can be reused by the next run of a test without reallocating them.
+ * This class is not thread safe.
+ * @param <T> the type of values
+ */
+public final class GridIndex<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The cell keys, indexed by hash slot */
+    private long[] keys;
+    /** The cell numbers plus one, indexed by hash slot. {@code 0} denotes an empty slot */
+    private int[] slots;
+    /** The values, indexed by cell number */
+    private Object[][] values;
+    /** The number of values, indexed by cell number */
+    private int[] sizes;
+    private int cellCount;
+
+    /**
+     * Constructs a new, empty {@code GridIndex}.
+     */
+    public GridIndex() {
+        keys = new long[INITIAL_CAPACITY];
+        slots = new int[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY / 2][];
+        sizes = new int[INITIAL_CAPACITY / 2];
+    }
+
+    /**
+     * Constructs a copy of another {@code GridIndex}. Cells keep their number.
+     * @param other the index to copy
+     */
+    public GridIndex(GridIndex<T> other) {
+        keys = other.keys.clone();
+        slots = other.slots.clone();
+        values = new Object[other.values.length][];
+        for (int i = 0; i < other.cellCount; i++) {
+            values[i] = other.values[i].clone();
+        }
+        sizes = other.sizes.clone();
+        cellCount = other.cellCount;
+    }
+
+    /**
+     * Returns the key of a cell.
+     * @param x the cell column
+     * @param y the cell row
+     * @return the key of the cell. Only the 32 lower bits of each coordinate are used.
+     */
+    public static long key(long x, long y) {
+        return (x << 32) | (y & 0xFFFF_FFFFL);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the number of a cell.
+     * @param key the cell key
+     * @return the number of the cell, or {@code -1} if the cell does not exist
+     */
+    public int find(long key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return slots[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of a cell, creating the cell if needed.
+     * @param key the cell key
+     * @return the number of the cell
+     */
+    public int cell(long key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        for (; slots[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return slots[i] - 1;
+            }
+        }
+        int cell = cellCount++;
+        keys[i] = key;
+        slots[i] = cell + 1;
+        if (cell == values.length) {
+            values = Arrays.copyOf(values, cell * 2);
+            sizes = Arrays.copyOf(sizes, cell * 2);
+        }
+        if (values[cell] == null) {
+            values[cell] = new Object[4];
+        }
+        if (cellCount * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return cell;
+    }
+
+    /**
+     * Returns the numbers of several cells, creating the cells if needed.
+     * @param keys the cell keys
+     * @return the numbers of the cells, in the same order
+     */
+    public int[] cells(long... keys) {
+        int[] cells = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            cells[i] = cell(keys[i]);
+        }
+        return cells;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[capacity];
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldSlots[j] != 0) {
+                int i = hash(oldKeys[j]) & mask;
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                slots[i] = oldSlots[j];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values in a cell.
+     * @param cell the cell number
+     * @return the number of values in the cell
+     */
+    public int size(int cell) {
+        return sizes[cell];
+    }
+
+    /**
+     * Returns a value of a cell.
+     * @param cell the cell number
+     * @param index the index of the value, between {@code 0} and {@link #size(int)} (excluded)
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int cell, int index) {
+        if (index >= sizes[cell]) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        return (T) values[cell][index];
+    }
+
+    /**
+     * Adds a value to a cell.
+     * @param cell the cell number
+     * @param value the value
+     */
+    public void add(int cell, T value) {
+        Object[] array = values[cell];
+        int size = sizes[cell];
+        if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+            values[cell] = array;
+        }
+        array[size] = value;
+        sizes[cell] = size + 1;
+    }
+
+    /**
+     * Returns the number of cells.
+     * @return the number of cells
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Determines if the index contains no cell.
+     * @return {@code true} if the index contains no cell
+     */
+    public boolean isEmpty() {
+        return cellCount == 0;
+    }
+
+    /**
+     * Removes all cells. The allocated arrays are kept for reuse.
+     */
+    public void clear() {
+        if (cellCount == 0) {
+            return;
+        }
+        Arrays.fill(slots, 0);
+        for (int i = 0; i < cellCount; i++) {
+            Arrays.fill(values[i], 0, sizes[i], null);
+            sizes[i] = 0;
+        }
+        cellCount = 0;
+    }
+}
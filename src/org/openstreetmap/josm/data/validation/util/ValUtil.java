@@ -3,11 +3,10 @@ package org.openstreetmap.josm.data.validation.util;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.openstreetmap.josm.data.coor.EastNorth;
 import org.openstreetmap.josm.data.coor.ILatLon;
@@ -33,63 +32,64 @@ public final class ValUtil {
      * @param w The way
      * @param cellWays The map with all cells
      * @return A list with all the cells the way starts or ends
+     * @deprecated Use {@link #getWaysInCell(Way, GridIndex)}
      */
+    @Deprecated
     public static List<List<Way>> getWaysInCell(Way w, Map<Point2D, List<Way>> cellWays) {
         if (w.isEmpty())
             return Collections.emptyList();
+        List<List<Way>> cells = new ArrayList<>(4);
+        for (long key : getWayEndCellKeys(w)) {
+            cells.add(cellWays.computeIfAbsent(new Point2D.Double(key >> 32, (int) key), k -> new ArrayList<>()));
+        }
+        return Collections.unmodifiableList(cells);
+    }
+
+    /**
+     * Returns the start and end cells of a way, creating them if needed.
+     * @param w The way
+     * @param cellWays The index with all cells
+     * @return The numbers of all the cells the way starts or ends in {@code cellWays}
+     */
+    public static int[] getWaysInCell(Way w, GridIndex<Way> cellWays) {
+        if (w.isEmpty())
+            return new int[0];
+        return cellWays.cells(getWayEndCellKeys(w));
+    }
 
+    /**
+     * Returns the keys of the start and end cells of a way, see {@link GridIndex#key(long, long)}.
+     * @param w The way, not empty
+     * @return The distinct keys of all the cells the way starts or ends
+     */
+    private static long[] getWayEndCellKeys(Way w) {
         Node n1 = w.getNode(0);
         Node n2 = w.getNode(w.getNodesCount() - 1);
-
-        List<List<Way>> cells = new ArrayList<>(2);
-        Set<Point2D> cellNodes = new HashSet<>();
-        Point2D cell;
         double griddetail = OsmValidator.getGridDetail();
 
         final EastNorth en1 = n1.getEastNorth();
         final EastNorth en2 = n2.getEastNorth();
-        // First, round coordinates
         // CHECKSTYLE.OFF: SingleSpaceSeparator
-        long x0 = Math.round(en1.east()  * griddetail);
-        long y0 = Math.round(en1.north() * griddetail);
-        long x1 = Math.round(en2.east()  * griddetail);
-        long y1 = Math.round(en2.north() * griddetail);
+        long[] keys = {
+            // First, round coordinates
+            GridIndex.key(Math.round(en1.east()  * griddetail), Math.round(en1.north() * griddetail)),
+            GridIndex.key(Math.round(en2.east()  * griddetail), Math.round(en2.north() * griddetail)),
+            // Then floor coordinates, in case the way is in the border of the cell.
+            GridIndex.key((long) Math.floor(en1.east()  * griddetail), (long) Math.floor(en1.north() * griddetail)),
+            GridIndex.key((long) Math.floor(en2.east()  * griddetail), (long) Math.floor(en2.north() * griddetail))
+        };
         // CHECKSTYLE.ON: SingleSpaceSeparator
-
-        // Start of the way
-        cell = new Point2D.Double(x0, y0);
-        cellNodes.add(cell);
-        cells.add(cellWays.computeIfAbsent(cell, k -> new ArrayList<>()));
-
-        // End of the way
-        cell = new Point2D.Double(x1, y1);
-        if (!cellNodes.contains(cell)) {
-            cellNodes.add(cell);
-            cells.add(cellWays.computeIfAbsent(cell, k -> new ArrayList<>()));
-        }
-
-        // Then floor coordinates, in case the way is in the border of the cell.
-        // CHECKSTYLE.OFF: SingleSpaceSeparator
-        x0 = (long) Math.floor(en1.east()  * griddetail);
-        y0 = (long) Math.floor(en1.north() * griddetail);
-        x1 = (long) Math.floor(en2.east()  * griddetail);
-        y1 = (long) Math.floor(en2.north() * griddetail);
-        // CHECKSTYLE.ON: SingleSpaceSeparator
-
-        // Start of the way
-        cell = new Point2D.Double(x0, y0);
-        if (!cellNodes.contains(cell)) {
-            cellNodes.add(cell);
-            cells.add(cellWays.computeIfAbsent(cell, k -> new ArrayList<>()));
-        }
-
-        // End of the way
-        cell = new Point2D.Double(x1, y1);
-        if (!cellNodes.contains(cell)) {
-            cellNodes.add(cell);
-            cells.add(cellWays.computeIfAbsent(cell, k -> new ArrayList<>()));
+        int count = 0;
+        for (long key : keys) {
+            boolean duplicate = false;
+            for (int i = 0; i < count && !duplicate; i++) {
+                duplicate = keys[i] == key;
+            }
+            if (!duplicate) {
+                keys[count++] = key;
+            }
         }
-        return Collections.unmodifiableList(cells);
+        return Arrays.copyOf(keys, count);
     }
 
     /**
@@ -136,9 +136,27 @@ public final class ValUtil {
      * @since 6869
      */
     public static List<Point2D> getSegmentCells(EastNorth en1, EastNorth en2, double gridDetail) {
+        long[] keys = getSegmentCellKeys(en1, en2, gridDetail);
+        List<Point2D> cells = new ArrayList<>(keys.length);
+        for (long key : keys) {
+            cells.add(new Point2D.Double(key >> 32, (int) key));
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the keys of all cells in a grid that a line between 2 points intersects with, see {@link GridIndex#key(long, long)}.
+     *
+     * @param en1 The first EastNorth.
+     * @param en2 The second EastNorth.
+     * @param gridDetail The detail of the grid. Bigger values give smaller
+     * cells, but a bigger number of them.
+     * @return The keys of all cells
+     * @throws IllegalArgumentException if en1 or en2 is {@code null}
+     */
+    public static long[] getSegmentCellKeys(EastNorth en1, EastNorth en2, double gridDetail) {
         CheckParameterUtil.ensureParameterNotNull(en1, "en1");
         CheckParameterUtil.ensureParameterNotNull(en2, "en2");
-        List<Point2D> cells = new ArrayList<>();
         double x0 = en1.east() * gridDetail;
         double x1 = en2.east() * gridDetail;
         double y0 = en1.north() * gridDetail + 1;
@@ -160,8 +178,13 @@ public final class ValUtil {
         long gridY1 = (long) Math.floor(y1);
 
         long maxSteps = (gridX1 - gridX0) + Math.abs(gridY1 - gridY0) + 1;
+        long[] cells = new long[(int) Math.max(1, Math.min(maxSteps, 16))];
+        int count = 0;
         while ((gridX0 <= gridX1 && (gridY0 - gridY1)*stepY <= 0) && maxSteps-- > 0) {
-            cells.add(new Point2D.Double(gridX0, gridY0));
+            if (count == cells.length) {
+                cells = Arrays.copyOf(cells, count * 2);
+            }
+            cells[count++] = GridIndex.key(gridX0, gridY0);
 
             // Is the cross between the segment and next vertical line nearer than the cross with next horizontal line?
             // Note: segment line formula: y=dy/dx(x-x1)+y1
@@ -178,6 +201,6 @@ public final class ValUtil {
                 gridY0 += stepY;
             }
         }
-        return cells;
+        return count == cells.length ? cells : Arrays.copyOf(cells, count);
     }
 }
@@ -0,0 +1,123 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+
+/**
+ * The graph of the ways matching a predicate, for instance the highways, built once per validation run.
+ * <p>
+ * It caches the matching parent ways of the nodes, and computes the connected components of the graph, so that
+ * tests searching a path between two nodes can exclude nodes which are not connected at all without searching.
+ * <p>
+ * The graph is not updated when the data changes. This class is not thread safe.
+ */
+public final class WayGraph {
+
+    private final Predicate<Way> predicate;
+    /** The matching parent ways of the nodes, in the order of {@link Node#getParentWays()} */
+    private final Map<Node, List<Way>> waysByNode = new HashMap<>();
+    /** The numbers of the nodes of the graph */
+    private final Map<Node, Integer> nodeNumbers = new HashMap<>();
+    /** The union-find forest of the connected components, indexed by node number */
+    private int[] parents = new int[16];
+
+    /**
+     * Constructs a new {@code WayGraph}.
+     * @param ways the ways of the data set. The ways which don't match the predicate are ignored
+     * @param predicate the predicate of the ways of the graph
+     */
+    public WayGraph(Iterable<Way> ways, Predicate<Way> predicate) {
+        this.predicate = predicate;
+        for (Way way : ways) {
+            if (predicate.test(way)) {
+                int first = -1;
+                for (int i = 0; i < way.getNodesCount(); i++) {
+                    int number = getNumber(way.getNode(i));
+                    if (first < 0) {
+                        first = number;
+                    } else {
+                        union(first, number);
+                    }
+                }
+            }
+        }
+    }
+
+    private int getNumber(Node node) {
+        return nodeNumbers.computeIfAbsent(node, n -> {
+            int number = nodeNumbers.size();
+            if (number == parents.length) {
+                parents = Arrays.copyOf(parents, number * 2);
+            }
+            parents[number] = number;
+            return number;
+        });
+    }
+
+    private int find(int number) {
+        int root = number;
+        while (parents[root] != root) {
+            // path halving
+            parents[root] = parents[parents[root]];
+            root = parents[root];
+        }
+        return root;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    /**
+     * Returns the parent ways of a node which match the predicate.
+     * @param node the node
+     * @return the parent ways matching the predicate, in the order of {@link Node#getParentWays()}
+     */
+    public List<Way> getWays(Node node) {
+        return waysByNode.computeIfAbsent(node, n -> Collections.unmodifiableList(
+                n.getParentWays().stream().filter(predicate).collect(Collectors.toList())));
+    }
+
+    /**
+     * Determines if there is a path between two nodes along the ways of the graph.
+     * @param a the first node
+     * @param b the second node
+     * @return {@code true} if the nodes are the same or belong to the same connected component
+     */
+    public boolean isConnected(Node a, Node b) {
+        if (a == b) {
+            return true;
+        }
+        Integer numberA = nodeNumbers.get(a);
+        Integer numberB = nodeNumbers.get(b);
+        return numberA != null && numberB != null && find(numberA) == find(numberB);
+    }
+
+    /**
+     * Returns the position of a node in a way, without copying the nodes of the way.
+     * @param way the way
+     * @param node the node
+     * @return the position of the first occurrence of the node in the way, or {@code -1}
+     */
+    public static int indexOf(Way way, Node node) {
+        for (int i = 0; i < way.getNodesCount(); i++) {
+            if (node.equals(way.getNode(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
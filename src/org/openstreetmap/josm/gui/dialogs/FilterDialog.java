@@ -9,7 +9,9 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -30,7 +32,7 @@ import org.openstreetmap.josm.actions.JosmAction;
 import org.openstreetmap.josm.actions.mapmode.MapMode;
 import org.openstreetmap.josm.actions.search.SearchAction;
 import org.openstreetmap.josm.data.osm.Filter;
-import org.openstreetmap.josm.data.osm.FilterModel;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
 import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent.DatasetEventType;
 import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
@@ -375,12 +377,49 @@ public class FilterDialog extends ToggleDialog implements DataSetListener, MapMo
 
     @Override
     public void dataChanged(DataChangedEvent event) {
-        filterModel.executeFilters();
+        Set<OsmPrimitive> primitives = new HashSet<>();
+        if (collectChangedPrimitives(event, primitives)) {
+            filterModel.executeFiltersIncremental(primitives);
+        } else {
+            filterModel.executeFilters();
+        }
+    }
+
+    /**
+     * Collects the primitives changed by a consolidated event, so that filters can be run incrementally.
+     * @param event the consolidated event
+     * @param primitives the set receiving the changed primitives
+     * @return {@code false} if the event contains a change that requires to run the filters on the whole data set
+     */
+    private static boolean collectChangedPrimitives(DataChangedEvent event, Set<OsmPrimitive> primitives) {
+        if (event.getEvents() == null)
+            return false;
+        for (AbstractDatasetChangedEvent e : event.getEvents()) {
+            switch (e.getType()) {
+            case DATA_CHANGED:
+                if (!(e instanceof DataChangedEvent) || !collectChangedPrimitives((DataChangedEvent) e, primitives))
+                    return false;
+                break;
+            case NODE_MOVED:
+            case PRIMITIVES_ADDED:
+            case PRIMITIVES_REMOVED:
+            case RELATION_MEMBERS_CHANGED:
+            case TAGS_CHANGED:
+            case WAY_NODES_CHANGED:
+                primitives.addAll(e.getPrimitives());
+                break;
+            case FILTERS_CHANGED:
+                break;
+            default:
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public void nodeMoved(NodeMovedEvent event) {
-        filterModel.executeFilters();
+        filterModel.executeFiltersIncremental(event.getPrimitives());
     }
 
     @Override
@@ -392,27 +431,27 @@ public class FilterDialog extends ToggleDialog implements DataSetListener, MapMo
 
     @Override
     public void primitivesAdded(PrimitivesAddedEvent event) {
-        filterModel.executeFilters(event.getPrimitives());
+        filterModel.executeFiltersIncremental(event.getPrimitives());
     }
 
     @Override
     public void primitivesRemoved(PrimitivesRemovedEvent event) {
-        filterModel.executeFilters();
+        filterModel.executeFiltersIncremental(event.getPrimitives());
     }
 
     @Override
     public void relationMembersChanged(RelationMembersChangedEvent event) {
-        filterModel.executeFilters(FilterModel.getAffectedPrimitives(event.getPrimitives()));
+        filterModel.executeFiltersIncremental(event.getPrimitives());
     }
 
     @Override
     public void tagsChanged(TagsChangedEvent event) {
-        filterModel.executeFilters(FilterModel.getAffectedPrimitives(event.getPrimitives()));
+        filterModel.executeFiltersIncremental(event.getPrimitives());
     }
 
     @Override
     public void wayNodesChanged(WayNodesChangedEvent event) {
-        filterModel.executeFilters(FilterModel.getAffectedPrimitives(event.getPrimitives()));
+        filterModel.executeFiltersIncremental(event.getPrimitives());
     }
 
     @Override
@@ -117,6 +117,19 @@ public class FilterTableModel extends AbstractTableModel implements SortableTabl
         }
     }
 
+    /**
+     * Runs the filters incrementally after the given primitives of the edit data set have been added, removed or modified.
+     * Does nothing if no filter is enabled.
+     * @param primitives the primitives that have been added, removed or modified
+     * @see FilterModel#executeFiltersIncremental(Collection)
+     */
+    public void executeFiltersIncremental(Collection<? extends OsmPrimitive> primitives) {
+        if (AutoFilterManager.getInstance().getCurrentAutoFilter() == null && model.hasFilters()) {
+            model.executeFiltersIncremental(primitives);
+            updateMap();
+        }
+    }
+
     private void updateMap() {
         MapFrame map = MainApplication.getMap();
         if (map != null && model.isChanged()) {
@@ -54,6 +54,7 @@ import javax.swing.table.TableCellRenderer;
 import org.openstreetmap.josm.actions.ExtensionFileFilter;
 import org.openstreetmap.josm.actions.JosmAction;
 import org.openstreetmap.josm.actions.PreferencesAction;
+import org.openstreetmap.josm.data.osm.visitor.paint.RenderStatistics;
 import org.openstreetmap.josm.data.preferences.sources.SourceEntry;
 import org.openstreetmap.josm.gui.ExtendedDialog;
 import org.openstreetmap.josm.gui.MainApplication;
@@ -636,6 +637,46 @@ public class MapPaintDialog extends ToggleDialog {
         }
     }
 
+    /**
+     * Displays the rendering statistics, in order to find out which styles make rendering slow.
+     * @see RenderStatistics
+     */
+    protected static class RenderStatisticsAction extends AbstractAction {
+
+        /**
+         * Constructs a new {@code RenderStatisticsAction}.
+         */
+        public RenderStatisticsAction() {
+            putValue(NAME, tr("Rendering statistics"));
+            putValue(SHORT_DESCRIPTION, tr("view the time spent to render the map, per style element and selector"));
+            new ImageProvider("info").getResource().attachImageIcon(this);
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            final RenderStatistics statistics = RenderStatistics.getInstance();
+            final JCheckBox cbEnabled = new JCheckBox(tr("Record rendering statistics"), RenderStatistics.isEnabled());
+            int answer;
+            do {
+                JPanel p = new JPanel(new GridBagLayout());
+                p.add(cbEnabled, GBC.eol());
+                p.add(new JScrollPane(new HtmlPanel(statistics.toHtml(50))), GBC.eol().fill(GridBagConstraints.BOTH));
+                ExtendedDialog dialog = new ExtendedDialog(MainApplication.getMainFrame(), tr("Rendering statistics"),
+                        tr("Close"), tr("Reset"), tr("Write to log"));
+                dialog.setPreferredSize(new Dimension(700, 500));
+                dialog.setButtonIcons("ok", "purge", "save");
+                dialog.setContent(p, false);
+                answer = dialog.showDialog().getValue();
+                RenderStatistics.setEnabled(cbEnabled.isSelected());
+                if (answer == 2) {
+                    statistics.reset();
+                } else if (answer == 3) {
+                    statistics.dumpToLog();
+                }
+            } while (answer == 2 || answer == 3);
+        }
+    }
+
     class PopupMenuHandler extends PopupMenuLauncher {
         @Override
         public void launch(MouseEvent evt) {
@@ -683,6 +724,7 @@ public class MapPaintDialog extends ToggleDialog {
 
             addSeparator();
             add(new InfoAction());
+            add(new RenderStatisticsAction());
         }
     }
 }
@@ -10,10 +10,12 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -22,9 +24,12 @@ import javax.swing.Action;
 import javax.swing.JComponent;
 import javax.swing.JOptionPane;
 import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
 import javax.swing.SwingUtilities;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
+import javax.swing.table.DefaultTableModel;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreePath;
 
@@ -52,7 +57,9 @@ import org.openstreetmap.josm.data.preferences.sources.ValidatorPrefHelper;
 import org.openstreetmap.josm.data.validation.OsmValidator;
 import org.openstreetmap.josm.data.validation.Severity;
 import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.data.validation.TestStatistics;
 import org.openstreetmap.josm.data.validation.ValidatorVisitor;
+import org.openstreetmap.josm.gui.ExtendedDialog;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.PleaseWaitRunnable;
 import org.openstreetmap.josm.gui.PopupMenuHandler;
@@ -103,6 +110,8 @@ public class ValidatorDialog extends ToggleDialog
     /** The lookup action */
     private final transient LookupAction lookupAction;
     private final transient JosmAction ignoreForNowAction;
+    /** The test statistics action */
+    private final transient StatisticsAction statisticsAction = new StatisticsAction();
 
     private final JPopupMenu popupMenu = new JPopupMenu();
     private final transient PopupMenuHandler popupMenuHandler = new PopupMenuHandler(popupMenu);
@@ -143,6 +152,7 @@ public class ValidatorDialog extends ToggleDialog
         popupMenuHandler.addAction(MainApplication.getMenu().autoScaleActions.get(AutoScaleAction.AutoScaleMode.PROBLEM));
         popupMenuHandler.addAction(new EditRelationAction());
         popupMenuHandler.addAction(ignoreForNowAction);
+        popupMenuHandler.addAction(statisticsAction);
 
         List<SideButton> buttons = new LinkedList<>();
 
@@ -216,6 +226,57 @@ public class ValidatorDialog extends ToggleDialog
         }
     }
 
+    /**
+     * The action to show the statistics of the tests of the last validation.
+     */
+    static class StatisticsAction extends AbstractAction {
+        private transient List<TestStatistics> statistics = new ArrayList<>();
+
+        StatisticsAction() {
+            putValue(NAME, tr("Test statistics"));
+            putValue(SHORT_DESCRIPTION, tr("Show the time, visited primitives and errors of each test of the last validation"));
+            new ImageProvider("info").getResource().attachImageIcon(this, true);
+            setEnabled(false);
+        }
+
+        void setStatistics(List<TestStatistics> statistics) {
+            this.statistics = new ArrayList<>(statistics);
+            this.statistics.sort(Comparator.comparingLong(TestStatistics::getElapsed).reversed());
+            setEnabled(!statistics.isEmpty());
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            DefaultTableModel model = new DefaultTableModel(
+                    new Object[] {tr("Test"), tr("Time (ms)"), tr("Primitives"), tr("Errors"), tr("Skipped")}, 0) {
+                @Override
+                public boolean isCellEditable(int row, int column) {
+                    return false;
+                }
+            };
+            for (TestStatistics testStatistics : statistics) {
+                model.addRow(new Object[] {testStatistics.getName(), testStatistics.getElapsed(), testStatistics.getPrimitives(),
+                        testStatistics.getErrors(), testStatistics.getSkipped()});
+                // the errors of each rule, for the MapCSS tag checker
+                testStatistics.getErrorsByRule().entrySet().stream()
+                        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                        .forEach(rule -> model.addRow(new Object[] {"    " + rule.getKey(), null, null, rule.getValue(), null}));
+            }
+            new ExtendedDialog(MainApplication.getMainFrame(), tr("Test statistics"), tr("Close"))
+                    .setButtonIcons("cancel")
+                    .setContent(new JScrollPane(new JTable(model)), false)
+                    .showDialog();
+        }
+    }
+
+    /**
+     * Sets the statistics of the tests of the last validation, shown by the "Test statistics" action.
+     * @param statistics the statistics of the tests
+     */
+    public void setStatistics(List<TestStatistics> statistics) {
+        statisticsAction.setStatistics(statistics);
+    }
+
     /**
      * The action to lookup the selection in the error tree.
      */
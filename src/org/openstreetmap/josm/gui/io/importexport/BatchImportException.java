@@ -0,0 +1,40 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.io.importexport;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openstreetmap.josm.gui.progress.ProgressMonitor;
+
+/**
+ * Thrown by a batch importer when some files could not be imported, while the other files have been imported.
+ * @see FileImporter#importData(List, ProgressMonitor)
+ */
+public class BatchImportException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<File> failedFiles;
+
+    /**
+     * Constructs a new {@code BatchImportException}.
+     * @param message the detail message
+     * @param cause the error of the first file which could not be imported
+     * @param failedFiles the files which could not be imported
+     */
+    public BatchImportException(String message, Throwable cause, List<File> failedFiles) {
+        super(message, cause);
+        this.failedFiles = new ArrayList<>(failedFiles);
+    }
+
+    /**
+     * Returns the files which could not be imported.
+     * @return the files which could not be imported
+     */
+    public List<File> getFailedFiles() {
+        return Collections.unmodifiableList(failedFiles);
+    }
+}
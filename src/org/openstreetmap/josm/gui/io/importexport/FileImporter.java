@@ -5,6 +5,8 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
@@ -147,11 +149,27 @@ public abstract class FileImporter implements Comparable<FileImporter> {
      * @return true if data import was successful
      */
     public boolean importDataHandleExceptions(List<File> files, ProgressMonitor progressMonitor) {
+        return importFilesHandleExceptions(files, progressMonitor).size() == files.size();
+    }
+
+    /**
+     * Wrapper to {@link #importData(List, ProgressMonitor)} to give meaningful output if things go wrong.
+     * Unlike {@link #importDataHandleExceptions(List, ProgressMonitor)}, the files which have been imported are known
+     * when the others failed, if the importer reports them with a {@link BatchImportException}.
+     * @param files data files to import
+     * @param progressMonitor progress monitor
+     * @return the files which have been imported successfully, none if the import is canceled
+     */
+    public List<File> importFilesHandleExceptions(List<File> files, ProgressMonitor progressMonitor) {
         try {
             Logging.info("Open "+files.size()+" files");
             importData(files, progressMonitor);
-            return true;
+            return files;
         } catch (IOException | IllegalDataException e) {
+            if (e instanceof ImportCancelException || e.getCause() instanceof ImportCancelException) {
+                displayCancel(e instanceof ImportCancelException ? e : e.getCause());
+                return Collections.emptyList();
+            }
             Logging.error(e);
             HelpAwareOptionPane.showMessageDialogInEDT(
                     MainApplication.getMainFrame(),
@@ -159,10 +177,25 @@ public abstract class FileImporter implements Comparable<FileImporter> {
                     tr("Error"),
                     JOptionPane.ERROR_MESSAGE, null
             );
-            return false;
+            if (e instanceof BatchImportException) {
+                List<File> imported = new ArrayList<>(files);
+                imported.removeAll(((BatchImportException) e).getFailedFiles());
+                return imported;
+            }
+            return Collections.emptyList();
         }
     }
 
+    /**
+     * Determines if the files imported by this importer are recorded in the history of recently opened files,
+     * when the import is done with {@link Options#RECORD_HISTORY}.
+     * @return {@code true} if the imported files are recorded in the history. By default, only the files of importers
+     * which are not batch importers are recorded
+     */
+    public boolean isRecordedInHistory() {
+        return !isBatchImporter();
+    }
+
     /**
      * If multiple files (with multiple file formats) are selected,
      * they are opened in the order of their priorities.
@@ -2,15 +2,23 @@
 package org.openstreetmap.josm.gui.io.importexport;
 
 import static org.openstreetmap.josm.tools.I18n.tr;
+import static org.openstreetmap.josm.tools.I18n.trn;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import javax.swing.JOptionPane;
 
 import org.openstreetmap.josm.actions.ExtensionFileFilter;
 import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.Notification;
 import org.openstreetmap.josm.gui.layer.GpxLayer;
@@ -23,9 +31,12 @@ import org.openstreetmap.josm.gui.layer.markerlayer.MarkerLayer;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.io.Compression;
+import org.openstreetmap.josm.io.GpxBinaryCache;
 import org.openstreetmap.josm.io.GpxReader;
+import org.openstreetmap.josm.io.ImportCancelException;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
 import org.xml.sax.SAXException;
 
 /**
@@ -34,6 +45,59 @@ import org.xml.sax.SAXException;
  */
 public class GpxImporter extends FileImporter {
 
+    /**
+     * Minimum number of GPX files opened at once to merge them into a single layer. A negative value disables merging.
+     */
+    public static final IntegerProperty PROP_MERGE_THRESHOLD = new IntegerProperty("gpx.import.merge-threshold", 10);
+
+    /**
+     * Lazily creates the thread pool, so that it is only created if several files are opened at once.
+     */
+    private static final class ThreadPoolHolder {
+        static final ForkJoinPool THREAD_POOL = newForkJoinPool();
+
+        private static ForkJoinPool newForkJoinPool() {
+            try {
+                return Utils.newForkJoinPool("gpx.import.numberOfThreads", "gpx-importer-%d", Thread.NORM_PRIORITY);
+            } catch (SecurityException e) {
+                Logging.log(Logging.LEVEL_ERROR, "Unable to create new ForkJoinPool", e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Exception thrown when the import of several files is canceled by the user, before any layer is added.
+     */
+    private static final class GpxImportCanceledException extends IOException implements ImportCancelException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs a new {@code GpxImportCanceledException}.
+         * @param message the detail message
+         */
+        GpxImportCanceledException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The result of the parsing of a GPX file.
+     */
+    private static final class ParsedFile {
+        final File file;
+        final GpxData data;
+        final boolean parsedProperly;
+        final IOException error;
+
+        ParsedFile(File file, GpxData data, boolean parsedProperly, IOException error) {
+            this.file = file;
+            this.data = data;
+            this.parsedProperly = parsedProperly;
+            this.error = error;
+        }
+    }
+
     /**
      * Utility class containing imported GPX and marker layers, and a task to run after they are added to MapView.
      */
@@ -118,18 +182,134 @@ public class GpxImporter extends FileImporter {
                 Config.getPref().get("save.extension.gpx", "gpx"), tr("GPX Files"), true);
     }
 
+    @Override
+    public boolean isBatchImporter() {
+        return true;
+    }
+
+    @Override
+    public boolean isRecordedInHistory() {
+        return true;
+    }
+
     @Override
     public void importData(File file, ProgressMonitor progressMonitor) throws IOException {
-        final String fileName = file.getName();
+        ParsedFile parsed = parseFile(file);
+        if (parsed.error != null) {
+            throw parsed.error;
+        }
+        addLayers(loadLayers(parsed.data, parsed.parsedProperly, file.getName()));
+    }
 
+    /**
+     * Imports several GPX files. The files are parsed concurrently. If their number is at least
+     * {@link #PROP_MERGE_THRESHOLD}, they are merged into a single layer, otherwise a layer is created for each file.
+     * Files which cannot be read are skipped, and reported once all other files have been imported.
+     * @param files files to import
+     * @param progressMonitor progress monitor
+     * @throws IOException if one of the files cannot be read: a {@link BatchImportException} listing the unreadable files,
+     * or an {@link ImportCancelException} if the import is canceled, in which case no file is imported
+     */
+    @Override
+    public void importData(List<File> files, ProgressMonitor progressMonitor) throws IOException {
+        if (files.size() == 1) {
+            importData(files.get(0), progressMonitor);
+            return;
+        }
+        progressMonitor.beginTask(tr("Opening {0} files...", files.size()), files.size());
+        try {
+            List<ParsedFile> parsedFiles = parseFiles(files, progressMonitor);
+            if (progressMonitor.isCanceled()) {
+                throw new GpxImportCanceledException(tr("Reading was canceled"));
+            }
+            List<ParsedFile> failedFiles = new ArrayList<>();
+            List<ParsedFile> succeededFiles = new ArrayList<>();
+            for (ParsedFile parsed : parsedFiles) {
+                (parsed.error != null ? failedFiles : succeededFiles).add(parsed);
+            }
+            int mergeThreshold = PROP_MERGE_THRESHOLD.get();
+            if (mergeThreshold >= 0 && succeededFiles.size() >= mergeThreshold) {
+                GpxData merged = new GpxData(true);
+                boolean parsedProperly = true;
+                for (ParsedFile parsed : succeededFiles) {
+                    merged.mergeFrom(parsed.data);
+                    parsedProperly &= parsed.parsedProperly;
+                }
+                // the merged data cannot be saved back to one of the files
+                merged.storageFile = null;
+                merged.endUpdate();
+                addLayers(loadLayers(merged, parsedProperly, tr("{0} GPX files", succeededFiles.size())));
+            } else {
+                for (ParsedFile parsed : succeededFiles) {
+                    addLayers(loadLayers(parsed.data, parsed.parsedProperly, parsed.file.getName()));
+                }
+            }
+            if (!failedFiles.isEmpty()) {
+                ParsedFile failed = failedFiles.get(0);
+                throw new BatchImportException(trn("Could not read file ''{0}'': {1}", "Could not read {2} files, including ''{0}'': {1}",
+                        failedFiles.size(), failed.file.getName(), failed.error.getMessage(), failedFiles.size()), failed.error,
+                        failedFiles.stream().map(parsed -> parsed.file).collect(Collectors.toList()));
+            }
+        } finally {
+            progressMonitor.finishTask();
+        }
+    }
+
+    private static List<ParsedFile> parseFiles(List<File> files, ProgressMonitor progressMonitor) throws IOException {
+        List<ParsedFile> result = new ArrayList<>(files.size());
+        ForkJoinPool pool = ThreadPoolHolder.THREAD_POOL;
+        if (pool == null) {
+            for (File file : files) {
+                if (progressMonitor.isCanceled()) {
+                    break;
+                }
+                result.add(parseFile(file));
+                progressMonitor.worked(1);
+            }
+            return result;
+        }
+        List<Future<ParsedFile>> futures = new ArrayList<>(files.size());
+        for (File file : files) {
+            futures.add(pool.submit(() -> parseFile(file)));
+        }
+        try {
+            for (Future<ParsedFile> future : futures) {
+                if (progressMonitor.isCanceled()) {
+                    break;
+                }
+                result.add(future.get());
+                progressMonitor.worked(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(false));
+        }
+        return result;
+    }
+
+    private static ParsedFile parseFile(File file) {
+        GpxData cached = GpxBinaryCache.load(file);
+        if (cached != null) {
+            cached.storageFile = file;
+            return new ParsedFile(file, cached, true, null);
+        }
         try (InputStream is = Compression.getUncompressedFileInputStream(file)) {
             GpxReader r = new GpxReader(is);
             boolean parsedProperly = r.parse(true);
             r.getGpxData().storageFile = file;
-            addLayers(loadLayers(r.getGpxData(), parsedProperly, fileName));
+            if (parsedProperly) {
+                GpxBinaryCache.store(file, r.getGpxData());
+            }
+            return new ParsedFile(file, r.getGpxData(), parsedProperly, null);
         } catch (SAXException e) {
             Logging.error(e);
-            throw new IOException(e.getLocalizedMessage(), e);
+            return new ParsedFile(file, null, false, new IOException(e.getLocalizedMessage(), e));
+        } catch (IOException e) {
+            return new ParsedFile(file, null, false, e);
         }
     }
 
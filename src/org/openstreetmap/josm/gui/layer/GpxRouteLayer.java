@@ -93,6 +93,11 @@ public class GpxRouteLayer extends AbstractModifiableLayer {
             protected Iterable<Line> getLinesIterable(boolean[] trackVisibility) {
                 return () -> routes.stream().map(Line::new).iterator();
             }
+
+            @Override
+            protected Iterable<Line> getLinesIterable(Bounds box, boolean[] trackVisibility) {
+                return getLinesIterable(trackVisibility);
+            }
         };
     }
 }
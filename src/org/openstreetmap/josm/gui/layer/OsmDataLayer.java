@@ -34,6 +34,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -58,7 +59,6 @@ import org.openstreetmap.josm.actions.ToggleUploadDiscouragedLayerAction;
 import org.openstreetmap.josm.data.APIDataSet;
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.Data;
-import org.openstreetmap.josm.data.IBounds;
 import org.openstreetmap.josm.data.ProjectionBounds;
 import org.openstreetmap.josm.data.UndoRedoHandler;
 import org.openstreetmap.josm.data.cache.JCSCacheManager;
@@ -94,13 +94,18 @@ import org.openstreetmap.josm.data.osm.Tagged;
 import org.openstreetmap.josm.data.osm.UploadPolicy;
 import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
 import org.openstreetmap.josm.data.osm.event.DataSetListenerAdapter;
 import org.openstreetmap.josm.data.osm.event.DataSetListenerAdapter.Listener;
+import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
 import org.openstreetmap.josm.data.osm.visitor.BoundingXYVisitor;
 import org.openstreetmap.josm.data.osm.visitor.OsmPrimitiveVisitor;
 import org.openstreetmap.josm.data.osm.visitor.paint.AbstractMapRenderer;
+import org.openstreetmap.josm.data.osm.visitor.paint.BackgroundMapRenderer;
 import org.openstreetmap.josm.data.osm.visitor.paint.ImageCache;
 import org.openstreetmap.josm.data.osm.visitor.paint.MapRendererFactory;
+import org.openstreetmap.josm.data.osm.visitor.paint.StyledMapRenderer;
 import org.openstreetmap.josm.data.osm.visitor.paint.StyledTiledMapRenderer;
 import org.openstreetmap.josm.data.osm.visitor.paint.TileZXY;
 import org.openstreetmap.josm.data.osm.visitor.paint.relations.MultipolygonCache;
@@ -162,6 +167,10 @@ public class OsmDataLayer extends AbstractOsmDataLayer
     private static final int MAX_ZOOM = 30;
     private static final int OVER_ZOOM = 2;
     private static final int HATCHED_SIZE = 15;
+    /** The number of pixels around modified primitives which are invalidated, for labels, icons and line widths */
+    private static final int DIRTY_TILE_BUFFER_PIXELS = 64;
+    /** The maximum number of tiles marked dirty one by one, for a zoom level */
+    private static final int MAX_DIRTY_TILES = 100;
     // U+2205 EMPTY SET
     private static final String IS_EMPTY_SYMBOL = "\u2205";
     /** Property used to know if this layer has to be uploaded */
@@ -177,8 +186,10 @@ public class OsmDataLayer extends AbstractOsmDataLayer
     private final CacheAccess<TileZXY, ImageCache> cache = JCSCacheManager.getCache("osmDataLayer:" + System.identityHashCode(this));
     /** The map paint index that was painted (used to invalidate {@link #cache}) */
     private int lastDataIdx;
-    /** The last zoom level (we invalidate all tiles when switching layers) */
-    private int lastZoom;
+    /** The zoom levels of the tiles in {@link #cache} (dirty tiles are invalidated on all of them) */
+    private final Set<Integer> cachedZooms = ConcurrentHashMap.newKeySet();
+    /** Renders this layer on a worker thread, see {@link BackgroundMapRenderer#PROP_ENABLED} */
+    private final BackgroundMapRenderer backgroundRenderer = new BackgroundMapRenderer(this::repaintBackgroundFrame);
     private boolean hoverListenerAdded;
 
     /**
@@ -574,13 +585,14 @@ public class OsmDataLayer extends AbstractOsmDataLayer
     private void paintData(final Graphics2D g, final MapView mv, Bounds box, boolean inactive, boolean virtual) {
         // Used to invalidate cache
         int zoom = getZoom(mv);
-        if (zoom != lastZoom) {
-            // We just mark the previous zoom as dirty before moving in.
-            // It means we don't have to traverse up/down z-levels marking tiles as dirty (this can get *very* expensive).
-            this.cache.getMatching("TileZXY\\{" + lastZoom + "/.*")
-                    .forEach((tile, imageCache) -> this.cache.put(tile, imageCache.becomeDirty()));
+        // Tiles of the other zoom levels are kept, as they are marked dirty when the data changes
+        cachedZooms.add(zoom);
+        if (BackgroundMapRenderer.isEnabled() && MapRendererFactory.getInstance().isMapRendererActive(StyledMapRenderer.class)) {
+            backgroundRenderer.paint(g, mv, this.data, box, inactive, virtual);
+            MainApplication.getMap().conflictDialog.paintConflicts(g, mv);
+            return;
         }
-        lastZoom = zoom;
+        backgroundRenderer.cancel();
         AbstractMapRenderer painter = MapRendererFactory.getInstance().createActiveRenderer(g, mv, inactive);
         if (!(painter instanceof StyledTiledMapRenderer) || zoom - OVER_ZOOM > Config.getPref().getInt("mappaint.fast_render.zlevel", 16)) {
             painter.enableSlowOperations(mv.getMapMover() == null || !mv.getMapMover().movementInProgress()
@@ -600,7 +612,7 @@ public class OsmDataLayer extends AbstractOsmDataLayer
             });
 
             if (this.data.getMappaintCacheIndex() != this.lastDataIdx) {
-                this.cache.clear();
+                clearTiles();
                 this.lastDataIdx = this.data.getMappaintCacheIndex();
                 Logging.trace("OsmDataLayer {0} paint cache cleared", this.getName());
             }
@@ -609,6 +621,23 @@ public class OsmDataLayer extends AbstractOsmDataLayer
         MainApplication.getMap().conflictDialog.paintConflicts(g, mv);
     }
 
+    @Override
+    public void invalidate() {
+        // null during construction, as the name is set in the super constructor
+        if (backgroundRenderer != null) {
+            backgroundRenderer.invalidate();
+        }
+        super.invalidate();
+    }
+
+    /**
+     * Repaints this layer with the latest frame of the background renderer, without rendering it again.
+     * Called in the render thread, the invalidation listeners are notified in the Event Dispatch Thread.
+     */
+    private void repaintBackgroundFrame() {
+        GuiHelper.runInEDT(super::invalidate);
+    }
+
     @Override public String getToolTipText() {
         DataCountVisitor counter = new DataCountVisitor();
         for (final OsmPrimitive osm : data.allPrimitives()) {
@@ -1213,6 +1242,7 @@ public class OsmDataLayer extends AbstractOsmDataLayer
         data.removeHighlightUpdateListener(this);
         data.removeDataSetListener(dataSetListenerAdapter);
         data.removeDataSetListener(MultipolygonCache.getInstance());
+        backgroundRenderer.cancel();
         data.clearSelection();
         validationErrors.clear();
         removeClipboardDataFor(this);
@@ -1240,6 +1270,7 @@ public class OsmDataLayer extends AbstractOsmDataLayer
     @Override
     public void processDatasetEvent(AbstractDatasetChangedEvent event) {
         resetTiles(event.getPrimitives());
+        resetOldTiles(event);
         invalidate();
         setRequiresSaveToFile(true);
         setRequiresUploadToServer(event.getDataset().requiresUploadToServer());
@@ -1256,7 +1287,7 @@ public class OsmDataLayer extends AbstractOsmDataLayer
     private void resetTiles(Collection<? extends IPrimitive> primitives) {
         // Clear the cache if we aren't using tiles. And return.
         if (!MapRendererFactory.getInstance().isMapRendererActive(StyledTiledMapRenderer.class)) {
-            this.cache.clear();
+            clearTiles();
             return;
         }
         // Don't use anything that uses filtered collections. It becomes slow at large datasets.
@@ -1286,19 +1317,39 @@ public class OsmDataLayer extends AbstractOsmDataLayer
             }
         }
         if (box != null) {
-            resetBounds(box.getMinLat(), box.getMinLon(), box.getMaxLat(), box.getMaxLon());
+            resetBounds(box);
         }
     }
 
     private void resetTiles(IPrimitive p) {
         if (p instanceof INode) {
-            resetBounds(getInvalidatedBBox((INode) p, null));
+            final INode node = (INode) p;
+            resetBounds(new BBox(node));
+            for (IPrimitive referrer : node.getReferrers()) {
+                if (referrer instanceof IWay) {
+                    resetSegments((IWay<?>) referrer, node, null);
+                }
+            }
         } else if (p instanceof IWay) {
             IWay<?> way = (IWay<?>) p;
-            for (int i = 0; i < way.getNodesCount() - 1; i++) {
-                resetBounds(getInvalidatedBBox(way.getNode(i), way.getNode(i + 1)));
+            if (way.isClosed()) {
+                // The area is filled, and labelled around its center
+                resetBounds(way.getBBox());
+            } else {
+                for (int i = 0; i < way.getNodesCount() - 1; i++) {
+                    resetBounds(getInvalidatedBBox(way.getNode(i), way.getNode(i + 1)));
+                }
+            }
+            for (IPrimitive referrer : way.getReferrers()) {
+                if (referrer.isMultipolygon()) {
+                    resetBounds(referrer.getBBox());
+                }
             }
         } else if (p instanceof IRelation<?>) {
+            if (p.isMultipolygon()) {
+                resetBounds(p.getBBox());
+                return;
+            }
             for (IPrimitive member : ((IRelation<?>) p).getMemberPrimitivesList()) {
                 if (member instanceof IRelation) {
                     resetBounds(member.getBBox()); // Avoid recursive relation issues
@@ -1312,6 +1363,60 @@ public class OsmDataLayer extends AbstractOsmDataLayer
         }
     }
 
+    /**
+     * Marks the tiles showing the old geometry of the primitives modified by an event as dirty.
+     * The tiles showing the new geometry are marked dirty by {@link #resetTiles(Collection)}.
+     * @param event the dataset event
+     */
+    private void resetOldTiles(AbstractDatasetChangedEvent event) {
+        if (event instanceof NodeMovedEvent) {
+            final NodeMovedEvent nodeMovedEvent = (NodeMovedEvent) event;
+            if (nodeMovedEvent.getOldBBox() != null) {
+                for (OsmPrimitive referrer : nodeMovedEvent.getNode().getReferrers()) {
+                    if (referrer instanceof Way) {
+                        resetSegments((Way) referrer, nodeMovedEvent.getNode(), nodeMovedEvent.getOldBBox());
+                    }
+                }
+                resetBounds(nodeMovedEvent.getOldBBox());
+            }
+        } else if (event instanceof WayNodesChangedEvent) {
+            final BBox oldBBox = ((WayNodesChangedEvent) event).getOldBBox();
+            if (oldBBox != null) {
+                resetBounds(oldBBox);
+            }
+        } else if (event instanceof DataChangedEvent && ((DataChangedEvent) event).getEvents() != null) {
+            for (AbstractDatasetChangedEvent e : ((DataChangedEvent) event).getEvents()) {
+                resetOldTiles(e);
+            }
+        }
+    }
+
+    /**
+     * Marks the tiles showing the segments of a way around one of its nodes as dirty.
+     * @param way the way
+     * @param node the node of the way
+     * @param nodeBBox the position of the node to use, or {@code null} for its current position
+     */
+    private void resetSegments(IWay<?> way, INode node, BBox nodeBBox) {
+        final int count = way.getNodesCount();
+        for (int i = 0; i < count; i++) {
+            if (way.getNode(i) == node) {
+                final BBox bbox = nodeBBox != null ? new BBox(nodeBBox) : new BBox(node);
+                if (i > 0) {
+                    bbox.add(way.getNode(i - 1));
+                }
+                if (i < count - 1) {
+                    bbox.add(way.getNode(i + 1));
+                }
+                resetBounds(bbox);
+            }
+        }
+        if (way.isClosed()) {
+            // The area label may move anywhere in the area
+            resetBounds(way.getBBox());
+        }
+    }
+
     private BBox getInvalidatedBBox(INode first, INode second) {
         final BBox bbox = new BBox(first);
         if (second != null) {
@@ -1320,31 +1425,58 @@ public class OsmDataLayer extends AbstractOsmDataLayer
         return bbox;
     }
 
-    private void resetBounds(IBounds bbox) {
-        resetBounds(bbox.getMinLat(), bbox.getMinLon(), bbox.getMaxLat(), bbox.getMaxLon());
+    private void resetBounds(BBox bbox) {
+        if (bbox.isValid()) {
+            resetBounds(bbox.getMinLat(), bbox.getMinLon(), bbox.getMaxLat(), bbox.getMaxLon());
+        }
     }
 
+    /**
+     * Marks the tiles intersecting the given area as dirty, on every cached zoom level.
+     * The area is extended by {@link #DIRTY_TILE_BUFFER_PIXELS}, for what is painted around the primitives.
+     */
     private void resetBounds(double minLat, double minLon, double maxLat, double maxLon) {
-        // Get the current zoom. Hopefully we aren't painting with a different navigatable component
-        final int currentZoom = lastZoom;
-        final AtomicInteger counter = new AtomicInteger();
-        TileZXY.boundsToTiles(minLat, minLon, maxLat, maxLon, currentZoom, 1).limit(100).forEach(tile -> {
-            final ImageCache imageCache = this.cache.get(tile);
-            if (imageCache != null && !imageCache.isDirty()) {
-                this.cache.put(tile, imageCache.becomeDirty());
+        final int tileSize = Config.getPref().getInt("mappaint.fast_render.tile_size", 256);
+        for (int zoom : cachedZooms) {
+            // Degrees of longitude per tile, which is an upper bound for the degrees of latitude per tile
+            final double buffer = 360 / Math.pow(2, zoom) * DIRTY_TILE_BUFFER_PIXELS / tileSize;
+            final List<TileZXY> tiles = TileZXY.boundsToTiles(Math.max(-90, minLat - buffer), minLon - buffer,
+                    Math.min(90, maxLat + buffer), maxLon + buffer, zoom).limit(MAX_DIRTY_TILES + 1L).collect(Collectors.toList());
+            if (tiles.size() > MAX_DIRTY_TILES) {
+                dirtyZoom(zoom);
+            } else {
+                // synchronized like the tile loaders of the renderer, so that they do not store their images as clean
+                synchronized (this.cache) {
+                    for (TileZXY tile : tiles) {
+                        final ImageCache imageCache = this.cache.get(tile);
+                        if (imageCache != null && !imageCache.isDirty()) {
+                            this.cache.put(tile, imageCache.becomeDirty());
+                        }
+                    }
+                }
             }
-            counter.incrementAndGet();
-        });
-        if (counter.get() > 100) {
-            dirtyAll();
+        }
+    }
+
+    private void dirtyZoom(int zoom) {
+        synchronized (this.cache) {
+            this.cache.getMatching("TileZXY\\{" + zoom + "/.*")
+                    .forEach((tile, imageCache) -> this.cache.put(tile, imageCache.becomeDirty()));
         }
     }
 
     private void dirtyAll() {
-        this.cache.getMatching(".*").forEach((key, value) -> {
-            this.cache.remove(key);
-            this.cache.put(key, value.becomeDirty());
-        });
+        synchronized (this.cache) {
+            this.cache.getMatching(".*").forEach((key, value) -> {
+                this.cache.remove(key);
+                this.cache.put(key, value.becomeDirty());
+            });
+        }
+    }
+
+    private void clearTiles() {
+        this.cache.clear();
+        this.cachedZooms.clear();
     }
 
     /**
@@ -0,0 +1,264 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.geoimage;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openstreetmap.josm.data.imagery.street_level.IImageEntry;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * A bounded cache of decoded images, used by {@link ImageDisplay} to display the images of a sequence without delay.
+ * <p>
+ * The images following and preceding the displayed image are decoded in the background, see {@link #prefetch}.
+ * The least recently used images are evicted when the cache exceeds {@link #PROP_MAX_MEMORY}.
+ * Images are cached by URI, target dimension and modification date, so that a resized display or a modified file
+ * does not show an outdated image.
+ */
+final class DecodedImageCache {
+
+    /**
+     * Maximum memory used by decoded images, in megabytes. {@code 0} disables the cache and prefetching.
+     * Defaults to an eighth of the maximum heap size, at most 256 megabytes.
+     */
+    static final IntegerProperty PROP_MAX_MEMORY = new IntegerProperty("geoimage.prefetch.max-memory",
+            (int) Math.min(256, Runtime.getRuntime().maxMemory() / 8 / 1024 / 1024));
+
+    // A single thread, decoding one image at a time at a low priority
+    private static final ExecutorService EXECUTOR =
+            Executors.newSingleThreadExecutor(Utils.newThreadFactory("image-prefetch-%d", Thread.MIN_PRIORITY));
+
+    /** The decoded images, in access order */
+    private final Map<Key, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+    /** The images being prefetched */
+    private final Map<Key, Future<?>> pending = new HashMap<>();
+    /** The images requested by the last call to {@link #prefetch} */
+    private Set<Key> wanted = new HashSet<>();
+    private long size;
+
+    /**
+     * The key of a decoded image: the same image decoded for another dimension, or modified since, is another image.
+     */
+    static final class Key {
+        private final URI uri;
+        private final int width;
+        private final int height;
+        private final long lastModified;
+
+        /**
+         * Constructs a new {@code Key}.
+         * @param uri the image URI
+         * @param target the desired dimension used for subsampling
+         * @param lastModified the modification date of the image file, {@code 0} if unknown
+         */
+        Key(URI uri, Dimension target, long lastModified) {
+            this.uri = Objects.requireNonNull(uri);
+            this.width = target != null ? target.width : -1;
+            this.height = target != null ? target.height : -1;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Returns the key of an image entry.
+         * @param entry the image entry
+         * @param target the desired dimension used for subsampling
+         * @return the key, or {@code null} if the image has no URI
+         */
+        static Key of(IImageEntry<?> entry, Dimension target) {
+            URI uri = entry.getImageURI();
+            if (uri == null) {
+                return null;
+            }
+            File file = entry.getFile();
+            return new Key(uri, target, file != null ? file.lastModified() : 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uri, width, height, lastModified);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            Key other = (Key) obj;
+            return width == other.width && height == other.height && lastModified == other.lastModified
+                    && uri.equals(other.uri);
+        }
+    }
+
+    /**
+     * Returns a decoded image from the cache.
+     * @param key the image key
+     * @return the decoded image, or {@code null} if it is not in the cache
+     */
+    synchronized BufferedImage get(Key key) {
+        return images.get(key);
+    }
+
+    /**
+     * Adds a decoded image to the cache, evicting the least recently used images if needed.
+     * Images larger than the cache are not added.
+     * @param key the image key
+     * @param image the decoded image
+     */
+    synchronized void put(Key key, BufferedImage image) {
+        long maxSize = getMaxSize();
+        long imageSize = getSize(image);
+        if (imageSize > maxSize) {
+            return;
+        }
+        BufferedImage previous = images.put(key, image);
+        size += imageSize - (previous != null ? getSize(previous) : 0);
+        for (Iterator<BufferedImage> it = images.values().iterator(); size > maxSize && it.hasNext();) {
+            BufferedImage eldest = it.next();
+            if (eldest != image) {
+                size -= getSize(eldest);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the memory used by the cached images.
+     * @return the memory used by the cached images, in bytes
+     */
+    synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Removes all images from the cache, and cancels prefetching.
+     */
+    synchronized void clear() {
+        images.clear();
+        size = 0;
+        wanted = new HashSet<>();
+        pending.values().forEach(f -> f.cancel(false));
+        pending.clear();
+    }
+
+    /**
+     * Reads an image, from the cache if possible. If the image is being prefetched, waits for it.
+     * @param entry the image entry
+     * @param target the desired dimension used for subsampling
+     * @return the read image, or {@code null}
+     * @throws IOException if any I/O error occurs
+     * @see IImageEntry#read(Dimension)
+     */
+    BufferedImage read(IImageEntry<?> entry, Dimension target) throws IOException {
+        if (getMaxSize() <= 0) {
+            return entry.read(target);
+        }
+        Key key = Key.of(entry, target);
+        if (key == null) {
+            return entry.read(target);
+        }
+        Future<?> future;
+        synchronized (this) {
+            BufferedImage image = images.get(key);
+            if (image != null) {
+                return image;
+            }
+            future = pending.get(key);
+        }
+        if (future != null) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Logging.trace(e);
+            } catch (ExecutionException | CancellationException e) {
+                Logging.trace(e);
+            }
+            BufferedImage image = get(key);
+            if (image != null) {
+                return image;
+            }
+        }
+        BufferedImage image = entry.read(target);
+        if (image != null) {
+            put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Decodes the given images in the background, so that they can be displayed without delay.
+     * Images requested by a previous call and not yet decoded are skipped.
+     * @param entries the image entries, {@code null} entries are ignored
+     * @param target the desired dimension used for subsampling
+     */
+    synchronized void prefetch(Collection<? extends IImageEntry<?>> entries, Dimension target) {
+        wanted = new HashSet<>();
+        if (getMaxSize() <= 0) {
+            return;
+        }
+        for (IImageEntry<?> entry : entries) {
+            Key key = entry != null ? Key.of(entry, target) : null;
+            if (key == null) {
+                continue;
+            }
+            wanted.add(key);
+            if (!images.containsKey(key) && !pending.containsKey(key)) {
+                pending.put(key, EXECUTOR.submit(() -> prefetch(entry, key, target)));
+            }
+        }
+    }
+
+    private void prefetch(IImageEntry<?> entry, Key key, Dimension target) {
+        try {
+            synchronized (this) {
+                if (!wanted.contains(key)) {
+                    return; // the user has moved on to other images
+                }
+            }
+            BufferedImage image = entry.read(target);
+            if (image != null) {
+                put(key, image);
+            }
+        } catch (IOException | RuntimeException e) {
+            Logging.debug(e);
+        } finally {
+            synchronized (this) {
+                pending.remove(key);
+            }
+        }
+    }
+
+    private static long getMaxSize() {
+        return PROP_MAX_MEMORY.get() * 1024L * 1024L;
+    }
+
+    /**
+     * Returns the memory used by an image.
+     * @param image the image
+     * @return the memory used by the image pixels, in bytes
+     */
+    static long getSize(BufferedImage image) {
+        DataBuffer buffer = Objects.requireNonNull(image).getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+}
@@ -19,6 +19,7 @@ import java.awt.event.MouseWheelEvent;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.concurrent.Future;
 
@@ -114,6 +115,9 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
     /** Show a background for the error text (may be hard on eyes) */
     private static final BooleanProperty ERROR_MESSAGE_BACKGROUND = new BooleanProperty("geoimage.message.error.background", false);
 
+    /** The decoded images, including the prefetched ones */
+    private final DecodedImageCache imageCache = new DecodedImageCache();
+
     private UpdateImageThread updateImageThreadInstance;
 
     private boolean destroyed;
@@ -282,8 +286,7 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
         @Override
         public void run() {
             try {
-                Dimension target = new Dimension(MAX_WIDTH.get(), MAX_WIDTH.get());
-                BufferedImage img = entry.read(target);
+                BufferedImage img = imageCache.read(entry, getTargetDimension());
                 if (img == null) {
                     synchronized (ImageDisplay.this) {
                         errorLoading = true;
@@ -629,10 +632,15 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
             if (imageProcessor instanceof ImageryFilterSettings) {
                 ((ImageryFilterSettings) imageProcessor).removeFilterChangeListener(this);
             }
+            imageCache.clear();
         }
         destroyed = true;
     }
 
+    private static Dimension getTargetDimension() {
+        return new Dimension(MAX_WIDTH.get(), MAX_WIDTH.get());
+    }
+
     /**
      * Sets a new source image to be displayed by this {@code ImageDisplay}.
      * @param entry new source image
@@ -659,6 +667,15 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
         return entry != null ? new LoadImageRunnable(entry) : null;
     }
 
+    /**
+     * Decodes the given images in the background, so that they are displayed without delay when selected,
+     * e.g. the next and previous images of a sequence.
+     * @param entries the images likely to be displayed next, {@code null} entries are ignored
+     */
+    public void prefetch(IImageEntry<?>... entries) {
+        imageCache.prefetch(Arrays.asList(entries), getTargetDimension());
+    }
+
     /**
      * Set the message displayed when there is no image to display.
      * By default it display a simple No image
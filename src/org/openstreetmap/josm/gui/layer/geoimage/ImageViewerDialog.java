@@ -1006,6 +1006,7 @@ public final class ImageViewerDialog extends ToggleDialog implements LayerChange
             // Set only if the image is new to preserve zoom and position if the same image is redisplayed
             // (e.g. to update the OSD).
             imgLoadingFuture = imgDisplay.setImage(entry);
+            imgDisplay.prefetch(entry.getNextImage(), entry.getPreviousImage());
         }
 
         // Update buttons after setting the new entry
@@ -10,11 +10,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import javax.swing.JOptionPane;
@@ -46,6 +50,19 @@ final class ImagesLoader extends PleaseWaitRunnable {
 
     private static final BooleanProperty PROP_ONE_LAYER_PER_FOLDER = new BooleanProperty("geoimage.one-layer-per-folder", false);
 
+    private static final class ThreadPoolHolder {
+        static final ForkJoinPool THREAD_POOL = newForkJoinPool();
+
+        private static ForkJoinPool newForkJoinPool() {
+            try {
+                return Utils.newForkJoinPool("geoimage.import.numberOfThreads", "image-importer-%d", Thread.NORM_PRIORITY);
+            } catch (SecurityException e) {
+                Logging.log(Logging.LEVEL_ERROR, "Unable to create new ForkJoinPool", e);
+                return null;
+            }
+        }
+    }
+
     /**
      * Constructs a new {@code ImagesLoader}.
      * @param selection image files to load
@@ -63,7 +80,6 @@ final class ImagesLoader extends PleaseWaitRunnable {
     }
 
     @Override
-    @SuppressWarnings("PMD.PreserveStackTrace")
     protected void realRun() throws IOException {
         progressMonitor.subTask(tr("Starting directory scan"));
         Collection<File> files = new ArrayList<>();
@@ -82,25 +98,8 @@ final class ImagesLoader extends PleaseWaitRunnable {
         // read the image files
         Map<String, List<ImageEntry>> entries = new TreeMap<>();
 
-        for (File f : files) {
-
-            if (canceled) {
-                break;
-            }
-
-            progressMonitor.subTask(tr("Reading {0}...", f.getName()));
-            progressMonitor.worked(1);
-
-            ImageEntry e = new ImageEntry(f);
-            try {
-                e.extractExif();
-            } catch (UncheckedIOException uncheckedIOException) {
-                // We want to throw the actual IOException that is wrapped, not the unchecked IO exception.
-                // See #23866
-                Logging.trace(uncheckedIOException);
-                throw uncheckedIOException.getCause();
-            }
-            File parentFile = f.getParentFile();
+        for (ImageEntry e : readImages(files)) {
+            File parentFile = e.getFile().getParentFile();
             entries.computeIfAbsent(parentFile != null ? parentFile.getName() : "", x -> new ArrayList<>()).add(e);
         }
         if (Boolean.TRUE.equals(PROP_ONE_LAYER_PER_FOLDER.get())) {
@@ -111,6 +110,73 @@ final class ImagesLoader extends PleaseWaitRunnable {
         files.clear();
     }
 
+    /**
+     * Reads the metadata of the given image files, concurrently if possible.
+     * @param files the image files
+     * @return the image entries, in the order of the files. Stops at the first unread file if the task has been canceled
+     * @throws IOException if an image file cannot be read
+     */
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private List<ImageEntry> readImages(Collection<File> files) throws IOException {
+        List<ImageEntry> result = new ArrayList<>(files.size());
+        ForkJoinPool pool = ThreadPoolHolder.THREAD_POOL;
+        if (pool == null) {
+            for (File f : files) {
+                if (canceled) {
+                    break;
+                }
+                progressMonitor.subTask(tr("Reading {0}...", f.getName()));
+                progressMonitor.worked(1);
+                try {
+                    result.add(readImage(f));
+                } catch (UncheckedIOException uncheckedIOException) {
+                    // We want to throw the actual IOException that is wrapped, not the unchecked IO exception.
+                    // See #23866
+                    Logging.trace(uncheckedIOException);
+                    throw uncheckedIOException.getCause();
+                }
+            }
+            return result;
+        }
+        List<Future<ImageEntry>> futures = new ArrayList<>(files.size());
+        for (File f : files) {
+            futures.add(pool.submit(() -> readImage(f)));
+        }
+        try {
+            Iterator<File> it = files.iterator();
+            for (Future<ImageEntry> future : futures) {
+                if (canceled) {
+                    break;
+                }
+                progressMonitor.subTask(tr("Reading {0}...", it.next().getName()));
+                progressMonitor.worked(1);
+                result.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                // We want to throw the actual IOException that is wrapped, not the unchecked IO exception.
+                // See #23866
+                Logging.trace(e);
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(false));
+        }
+        return result;
+    }
+
+    private static ImageEntry readImage(File f) {
+        ImageEntry e = new ImageEntry(f);
+        e.extractExif();
+        return e;
+    }
+
     private void addRecursiveFiles(Collection<File> files, Collection<File> sel) {
         boolean nullFile = false;
 
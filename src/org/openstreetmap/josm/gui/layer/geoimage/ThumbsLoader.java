@@ -2,30 +2,62 @@
 package org.openstreetmap.josm.gui.layer.geoimage;
 
 import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.imageio.ImageIO;
 
 import org.apache.commons.jcs3.access.behavior.ICacheAccess;
 import org.apache.commons.jcs3.engine.behavior.ICache;
 import org.openstreetmap.josm.data.cache.BufferedImageCacheEntry;
 import org.openstreetmap.josm.data.cache.JCSCacheManager;
+import org.openstreetmap.josm.data.preferences.BooleanProperty;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.ExifReader;
 import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Stopwatch;
+import org.openstreetmap.josm.tools.Utils;
 
 /**
  * Loads thumbnail previews for a list of images from a {@link GeoImageLayer}.
  *
- * Thumbnails are loaded in the background and cached on disk for the next session.
+ * Thumbnails are loaded in the background, on several threads, and cached on disk for the next session.
+ * The thumbnails embedded in the EXIF metadata of the images are used when they are large enough,
+ * otherwise the images are decoded with subsampling.
  */
 public class ThumbsLoader implements Runnable {
     public static final int maxSize = 120;
     public static final int minSize = 22;
+
+    /**
+     * Determines if the thumbnails embedded in the EXIF metadata of the images are used.
+     */
+    private static final BooleanProperty PROP_USE_EMBEDDED_THUMBNAILS = new BooleanProperty("geoimage.use-embedded-thumbnails", true);
+
+    private static final class ThreadPoolHolder {
+        static final ForkJoinPool THREAD_POOL = newForkJoinPool();
+
+        private static ForkJoinPool newForkJoinPool() {
+            try {
+                return Utils.newForkJoinPool("geoimage.thumbnails.numberOfThreads", "thumbnail-worker-%d", Thread.MIN_PRIORITY);
+            } catch (SecurityException e) {
+                Logging.log(Logging.LEVEL_ERROR, "Unable to create new ForkJoinPool", e);
+                return null;
+            }
+        }
+    }
+
     public volatile boolean stop;
     private final Collection<ImageEntry> data;
     private final GeoImageLayer layer;
@@ -66,29 +98,49 @@ public class ThumbsLoader implements Runnable {
 
     @Override
     public void run() {
-        int count = 0;
         Stopwatch stopwatch = Stopwatch.createStarted();
         Logging.debug("Loading {0} thumbnails", data.size());
-        for (ImageEntry entry : data) {
-            if (stop) return;
-
-            // Do not load thumbnails that were loaded before.
-            if (!entry.hasThumbnail()) {
-                entry.setThumbnail(loadThumb(entry));
-
-                if (layer != null && MainApplication.isDisplayingMapView()) {
-                    layer.updateBufferAndRepaint();
-                }
+        ForkJoinPool pool = ThreadPoolHolder.THREAD_POOL;
+        if (pool == null || data.size() < 2) {
+            for (ImageEntry entry : data) {
+                if (stop) return;
+                loadThumbIfNeeded(entry);
             }
-            count++;
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>(data.size());
+            for (ImageEntry entry : data) {
+                tasks.add(() -> {
+                    if (!stop) {
+                        try {
+                            loadThumbIfNeeded(entry);
+                        } catch (RuntimeException e) {
+                            Logging.error(e);
+                        }
+                    }
+                    return null;
+                });
+            }
+            pool.invokeAll(tasks);
+            if (stop) return;
         }
-        Logging.debug("Loaded {0} thumbnails in {1}", count, stopwatch);
+        Logging.debug("Loaded {0} thumbnails in {1}", data.size(), stopwatch);
         if (layer != null) {
             layer.thumbsLoaded();
             layer.updateBufferAndRepaint();
         }
     }
 
+    private void loadThumbIfNeeded(ImageEntry entry) {
+        // Do not load thumbnails that were loaded before.
+        if (!entry.hasThumbnail()) {
+            entry.setThumbnail(loadThumb(entry));
+
+            if (layer != null && MainApplication.isDisplayingMapView()) {
+                layer.updateBufferAndRepaint();
+            }
+        }
+    }
+
     private BufferedImage loadThumb(ImageEntry entry) {
         final String cacheIdent = entry.getFile().toString() + ICache.NAME_COMPONENT_DELIMITER + maxSize;
 
@@ -104,13 +156,15 @@ public class ThumbsLoader implements Runnable {
             }
         }
 
-        BufferedImage img;
-        try {
-            img = entry.read(new Dimension(maxSize, maxSize));
-        } catch (IOException e) {
-            Logging.warn("Failed to load geoimage thumb");
-            Logging.warn(e);
-            return null;
+        BufferedImage img = loadEmbeddedThumb(entry);
+        if (img == null) {
+            try {
+                img = entry.read(new Dimension(maxSize, maxSize));
+            } catch (IOException e) {
+                Logging.warn("Failed to load geoimage thumb");
+                Logging.warn(e);
+                return null;
+            }
         }
 
         if (img == null || img.getWidth() <= 0 || img.getHeight() <= 0) {
@@ -129,4 +183,46 @@ public class ThumbsLoader implements Runnable {
 
         return img;
     }
+
+    /**
+     * Loads the thumbnail embedded in the EXIF metadata of the image, scaled to {@link #maxSize}.
+     * @param entry the image entry
+     * @return the thumbnail, or {@code null} if the image has no embedded thumbnail, or if it is too small
+     * or does not have the aspect ratio of the image (some cameras add black bars to their thumbnails)
+     */
+    private static BufferedImage loadEmbeddedThumb(ImageEntry entry) {
+        if (!PROP_USE_EMBEDDED_THUMBNAILS.get() || entry.getFile() == null) {
+            return null;
+        }
+        byte[] bytes = ExifReader.readThumbnail(entry.getFile());
+        if (bytes == null) {
+            return null;
+        }
+        BufferedImage img;
+        try {
+            img = ImageIO.read(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            Logging.debug(e);
+            return null;
+        }
+        if (img == null || Math.max(img.getWidth(), img.getHeight()) < maxSize) {
+            return null;
+        }
+        if (entry.getWidth() > 0 && entry.getHeight() > 0) {
+            double ratio = (double) img.getWidth() / img.getHeight();
+            double imageRatio = (double) entry.getWidth() / entry.getHeight();
+            if (Math.abs(ratio - imageRatio) > 0.05 * imageRatio) {
+                return null;
+            }
+        }
+        double scale = (double) maxSize / Math.max(img.getWidth(), img.getHeight());
+        int width = Math.max(1, (int) Math.round(img.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(img.getHeight() * scale));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(img, 0, 0, width, height, null);
+        g.dispose();
+        return ImageUtils.applyExifRotation(scaled, entry.getExifOrientation());
+    }
 }
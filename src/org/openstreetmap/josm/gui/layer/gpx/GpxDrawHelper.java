@@ -35,14 +35,18 @@ import javax.swing.ImageIcon;
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.SystemOfMeasurement;
 import org.openstreetmap.josm.data.SystemOfMeasurement.SoMChangeListener;
+import org.openstreetmap.josm.data.coor.EastNorth;
 import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxData.GpxDataChangeEvent;
 import org.openstreetmap.josm.data.gpx.GpxData.GpxDataChangeListener;
 import org.openstreetmap.josm.data.gpx.Line;
 import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
 import org.openstreetmap.josm.data.preferences.NamedColorProperty;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.gui.MapView;
 import org.openstreetmap.josm.gui.MapViewState;
 import org.openstreetmap.josm.gui.layer.GpxLayer;
@@ -52,6 +56,7 @@ import org.openstreetmap.josm.gui.layer.MapViewPaintable.MapViewEvent;
 import org.openstreetmap.josm.gui.layer.MapViewPaintable.PaintableInvalidationEvent;
 import org.openstreetmap.josm.gui.layer.MapViewPaintable.PaintableInvalidationListener;
 import org.openstreetmap.josm.gui.preferences.display.GPXSettingsPanel;
+import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.io.CachedFile;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.ColorScale;
@@ -73,6 +78,12 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
      */
     public static final NamedColorProperty DEFAULT_COLOR_PROPERTY = new NamedColorProperty(marktr("gps point"), Color.magenta);
 
+    /**
+     * Minimum number of visible points to draw the heat map from precomputed density grids.
+     * A negative value disables the density grids.
+     */
+    public static final IntegerProperty PROP_HEATMAP_GRID_MIN_POINTS = new IntegerProperty("draw.rawgps.heatmap.grid.min-points", 100_000);
+
     private final GpxData data;
     private final GpxLayer layer;
 
@@ -173,6 +184,10 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
     Rectangle heatMapCacheScreenBounds = new Rectangle();
     MapViewState heatMapMapViewState;
     int heatMapCacheLineWith;
+    GpxHeatMapPyramid.Level heatMapCacheLevel;
+
+    // precomputed density grids, used for large track collections
+    private final GpxHeatMapPyramid heatMapPyramid;
 
     // copied value for line drawing
     private final List<Integer> heatMapPolyX = new ArrayList<>();
@@ -322,6 +337,7 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
         layer = gpxLayer;
         data = gpxLayer.data;
         data.addChangeListener(this);
+        heatMapPyramid = new GpxHeatMapPyramid(data, () -> GuiHelper.runInEDT(layer::invalidate));
 
         layer.addInvalidationListener(this);
         SystemOfMeasurement.addSoMChangeListener(this);
@@ -429,8 +445,9 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
         LinkedList<WayPoint> visibleSegments = new LinkedList<>();
 
         ensureTrackVisibilityLength();
-        for (Line segment : getLinesIterable(layer.trackVisibility)) {
-
+        for (Line segment : getLinesIterable(box, layer.trackVisibility)) {
+            // segments outside the box are skipped, so do not connect to the previous segment
+            last = null;
             for (WayPoint pt : segment) {
                 Bounds b = new Bounds(pt.getCoor());
                 if (pt.drawLine && last != null) {
@@ -459,6 +476,16 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
         return data.getLinesIterable(trackVisibility);
     }
 
+    /**
+     * Returns the lines which may intersect the given bounds.
+     * @param box the bounds
+     * @param trackVisibility An array indicating which tracks should be included. Can be null, then all tracks are included.
+     * @return the lines which may intersect the given bounds
+     */
+    protected Iterable<Line> getLinesIterable(Bounds box, final boolean[] trackVisibility) {
+        return data.getLinesInBounds(box, trackVisibility);
+    }
+
     /** ensures the trackVisibility array has the correct length without losing data.
      * TODO: Make this nicer by syncing the trackVisibility automatically.
      * additional entries are initialized to true;
@@ -660,9 +687,17 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
             if (!forceLines) { // don't draw lines between segments, unless forced to
                 oldWp = null;
             }
+            // the waypoints of compact segments are created on each read, their drawing state is kept by the segment
+            final CompactGpxTrackSegment compactSegment = segment.getTrackSegment() instanceof CompactGpxTrackSegment
+                    ? (CompactGpxTrackSegment) segment.getTrackSegment() : null;
+            int index = -1;
             for (WayPoint trkPnt : segment) {
+                index++;
                 trkPnt.customColoring = segment.getColor();
                 if (Double.isNaN(trkPnt.lat()) || Double.isNaN(trkPnt.lon())) {
+                    if (compactSegment != null) {
+                        compactSegment.setDrawingState(index, trkPnt);
+                    }
                     continue;
                 }
                 // now we are sure some color will be assigned
@@ -728,6 +763,9 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
                 if (color != null) {
                     trkPnt.customColoring = color;
                 }
+                if (compactSegment != null) {
+                    compactSegment.setDrawingState(index, trkPnt);
+                }
                 oldWp = trkPnt;
             }
         }
@@ -1448,10 +1486,23 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
 
         // 3rd Calculate the heat map data by draw GPX traces with alpha value ----------
 
+        // use the precomputed density grids for large track collections, with cells about as large as the lines
+        GpxHeatMapPyramid.Pyramid pyramid = null;
+        GpxHeatMapPyramid.Level level = null;
+        final int gridMinPoints = PROP_HEATMAP_GRID_MIN_POINTS.get();
+        if (gridMinPoints >= 0 && visibleSegments.size() >= gridMinPoints) {
+            heatMapPyramid.update(ProjectionRegistry.getProjection(), layer.trackVisibility);
+            pyramid = heatMapPyramid.getPyramid();
+            if (pyramid != null && Objects.equals(pyramid.projectionCacheKey, mapViewState.getProjection().getCacheKey())) {
+                level = pyramid.getLevel(mapViewState.getScale() * lineWidthB);
+            }
+        }
+
         // recalculation of image needed
         final boolean imageRecalc = !mapViewState.equalsInWindow(heatMapMapViewState)
                 || gpxLayerInvalidated
-                || heatMapCacheLineWith != globalLineWidth;
+                || heatMapCacheLineWith != globalLineWidth
+                || heatMapCacheLevel != level;
 
         // need re-generation of gray image ?
         if (imageSetup || imageRecalc) {
@@ -1459,8 +1510,12 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
             // clear background
             heatMapGraph2d.clearRect(0, 0, heatMapImgGray.getWidth(), heatMapImgGray.getHeight());
 
-            // point or line blending
-            if (heatMapDrawPointMode) {
+            // density grid, point or line blending
+            if (level != null) {
+                drawHeatGrayGridMap(heatMapImgGray, mapViewState, pyramid, level,
+                        heatMapDrawPointMode ? lineAlphaBPoint : lineAlphaBLine);
+
+            } else if (heatMapDrawPointMode) {
                 heatMapGraph2d.setComposite(AlphaComposite.SrcOver.derive(lineAlphaBPoint));
                 drawHeatGrayDotMap(heatMapGraph2d, mv, visibleSegments, lineWidthB);
 
@@ -1475,6 +1530,7 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
             // remember draw parameter
             heatMapMapViewState = mapViewState;
             heatMapCacheLineWith = globalLineWidth;
+            heatMapCacheLevel = level;
             gpxLayerInvalidated = false;
         }
 
@@ -1482,6 +1538,48 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
         drawHeatMapGrayMap(g, heatMapImgGray, lineWidthB > 2 ? (int) (lineWidthB*1.25f) : 1, lineWidth > 2 ? (lineWidth - 2) : 1);
     }
 
+    /**
+     * Draw gray heat map from a precomputed density grid
+     * @param imgGray         gray scale output image
+     * @param mapViewState    the current state of the map view
+     * @param pyramid         the density grids
+     * @param level           the density grid to use
+     * @param alpha           alpha value a single line would be drawn with
+     */
+    private static void drawHeatGrayGridMap(BufferedImage imgGray, MapViewState mapViewState,
+                                            GpxHeatMapPyramid.Pyramid pyramid, GpxHeatMapPyramid.Level level, float alpha) {
+
+        final int[] imgPixels = ((DataBufferInt) imgGray.getRaster().getDataBuffer()).getData();
+        final int maxPixelX = imgGray.getWidth();
+        final int maxPixelY = imgGray.getHeight();
+
+        // gray value of a cell crossed by n lines, as if the n lines were blended with the given alpha value
+        // (the value is 255 beyond the table, once 255 * (1 - alpha)^n < 0.5)
+        final int lutSize = (int) Math.min(65_536, Math.ceil(Math.log(0.5 / 255) / Math.log(1 - alpha)) + 1);
+        final int[] grayLut = new int[lutSize];
+        for (int n = 0; n < lutSize; n++) {
+            grayLut[n] = (int) Math.round(255 * (1 - Math.pow(1 - alpha, n)));
+        }
+
+        // cell column of each pixel column
+        final EastNorth topLeft = mapViewState.getForView(0, 0).getEastNorth();
+        final double scale = mapViewState.getScale();
+        final int[] cellX = new int[maxPixelX];
+        for (int x = 0; x < maxPixelX; x++) {
+            cellX[x] = (int) Math.floor((topLeft.east() + (x + 0.5) * scale - pyramid.minEast) / level.cellSize);
+        }
+
+        for (int y = 0; y < maxPixelY; y++) {
+            final int cellY = (int) Math.floor((topLeft.north() - (y + 0.5) * scale - pyramid.minNorth) / level.cellSize);
+            final int lineOffset = maxPixelX * y;
+            for (int x = 0; x < maxPixelX; x++) {
+                final int count = level.getCount(cellX[x], cellY);
+                final int gray = count < grayLut.length ? grayLut[count] : 255;
+                imgPixels[lineOffset + x] = 0xFF000000 | (gray << 16) | (gray << 8) | gray;
+            }
+        }
+    }
+
     /**
      * Draw a dotted heat map
      *
@@ -1632,6 +1730,7 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
     @Override
     public void gpxDataChanged(GpxDataChangeEvent e) {
         computeCacheInSync = false;
+        heatMapPyramid.invalidate();
     }
 
     /**
@@ -0,0 +1,357 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.gpx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
+import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.data.gpx.IGpxTrack;
+import org.openstreetmap.josm.data.gpx.IGpxTrackSegment;
+import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.projection.Projection;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * A multi-resolution grid of the track density of a {@link GpxData}, used to draw the heat map of large track collections.
+ * <p>
+ * Each level is a grid over the projected bounds of the tracks, whose cells count the track lines crossing them.
+ * The cells of a level are twice as large as those of the previous level. The grids are built in the background,
+ * and updated incrementally when tracks are added. While they are built, the previous grids (if any) remain available.
+ */
+final class GpxHeatMapPyramid {
+
+    /**
+     * The maximum number of cells along each side of the finest level.
+     */
+    static final int MAX_GRID_SIZE = 1024;
+
+    // A single thread, building one pyramid at a time at a low priority
+    private static final ExecutorService EXECUTOR =
+            Executors.newSingleThreadExecutor(Utils.newThreadFactory("gpx-heatmap-%d", Thread.MIN_PRIORITY));
+
+    private final GpxData data;
+    private final Runnable onUpdate;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Pyramid pyramid;
+    private long requestedGeneration = -1;
+    private boolean[] requestedVisibility;
+    private Object requestedProjection;
+
+    /**
+     * A density grid.
+     */
+    static final class Level {
+        /** The size of a cell, in east/north units */
+        final double cellSize;
+        final int width;
+        final int height;
+        final int[] counts;
+
+        Level(double cellSize, int width, int height) {
+            this.cellSize = cellSize;
+            this.width = width;
+            this.height = height;
+            this.counts = new int[width * height];
+        }
+
+        Level(Level other) {
+            this.cellSize = other.cellSize;
+            this.width = other.width;
+            this.height = other.height;
+            this.counts = other.counts.clone();
+        }
+
+        /**
+         * Returns the number of track lines crossing the given cell.
+         * @param x the cell column, from west to east
+         * @param y the cell row, from south to north
+         * @return the number of track lines crossing the cell, or 0 if the cell is outside of the grid
+         */
+        int getCount(int x, int y) {
+            return x < 0 || y < 0 || x >= width || y >= height ? 0 : counts[y * width + x];
+        }
+    }
+
+    /**
+     * The levels built for a set of tracks and a projection.
+     */
+    static final class Pyramid {
+        final Object projectionCacheKey;
+        /** The south-west corner of the grids */
+        final double minEast;
+        final double minNorth;
+        final double maxEast;
+        final double maxNorth;
+        final Level[] levels;
+        /** The visible tracks */
+        final Set<IGpxTrack> tracks;
+
+        Pyramid(Object projectionCacheKey, double minEast, double minNorth, double maxEast, double maxNorth,
+                Level[] levels, Set<IGpxTrack> tracks) {
+            this.projectionCacheKey = projectionCacheKey;
+            this.minEast = minEast;
+            this.minNorth = minNorth;
+            this.maxEast = maxEast;
+            this.maxNorth = maxNorth;
+            this.levels = levels;
+            this.tracks = tracks;
+        }
+
+        /**
+         * Returns the coarsest level whose cells are not larger than the given size.
+         * @param maxCellSize the maximum cell size, in east/north units
+         * @return the matching level, or {@code null} if the cells of the finest level are larger
+         */
+        Level getLevel(double maxCellSize) {
+            Level result = null;
+            for (Level level : levels) {
+                if (level.cellSize <= maxCellSize) {
+                    result = level;
+                } else {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        boolean contains(double east, double north) {
+            return east >= minEast && east <= maxEast && north >= minNorth && north <= maxNorth;
+        }
+    }
+
+    /**
+     * Constructs a new {@code GpxHeatMapPyramid}.
+     * @param data the GPX data
+     * @param onUpdate called when new grids are available. This is not called in the Event Dispatch Thread.
+     */
+    GpxHeatMapPyramid(GpxData data, Runnable onUpdate) {
+        this.data = Objects.requireNonNull(data, "data");
+        this.onUpdate = Objects.requireNonNull(onUpdate, "onUpdate");
+    }
+
+    /**
+     * Marks the grids as outdated, because the data has changed. They are rebuilt on the next call to {@link #update}.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Starts building the grids in the background, if they are outdated. Must be called in the Event Dispatch Thread.
+     * @param projection the current projection
+     * @param trackVisibility the visibility of the tracks, can be null if all tracks are visible
+     */
+    void update(Projection projection, boolean[] trackVisibility) {
+        final long gen = generation.get();
+        if (gen == requestedGeneration && Arrays.equals(trackVisibility, requestedVisibility)
+                && Objects.equals(projection.getCacheKey(), requestedProjection)) {
+            return;
+        }
+        requestedGeneration = gen;
+        requestedVisibility = trackVisibility == null ? null : trackVisibility.clone();
+        requestedProjection = projection.getCacheKey();
+        final List<IGpxTrack> tracks = new ArrayList<>(data.getTracks());
+        final boolean[] visibility = requestedVisibility;
+        EXECUTOR.execute(() -> {
+            if (gen != generation.get()) {
+                return; // outdated, another build has been requested
+            }
+            try {
+                pyramid = build(pyramid, tracks, visibility, projection);
+                onUpdate.run();
+            } catch (RuntimeException e) {
+                Logging.error(e);
+            }
+        });
+    }
+
+    /**
+     * Returns the latest built grids.
+     * @return the latest built grids, or {@code null} if they are not yet available
+     */
+    Pyramid getPyramid() {
+        return pyramid;
+    }
+
+    /**
+     * Builds the grids for the given tracks, reusing the previous grids if tracks have only been added or shown.
+     * @param previous the previous grids, can be null
+     * @param tracks the tracks
+     * @param visibility the visibility of the tracks, can be null if all tracks are visible
+     * @param projection the projection
+     * @return the new grids
+     */
+    static Pyramid build(Pyramid previous, List<IGpxTrack> tracks, boolean[] visibility, Projection projection) {
+        List<IGpxTrack> visibleTracks = new ArrayList<>(tracks.size());
+        for (int i = 0; i < tracks.size(); i++) {
+            if (visibility == null || (i < visibility.length && visibility[i])) {
+                visibleTracks.add(tracks.get(i));
+            }
+        }
+        Set<IGpxTrack> trackSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        trackSet.addAll(visibleTracks);
+
+        List<List<EastNorth>> lines = new ArrayList<>();
+        if (previous != null && Objects.equals(previous.projectionCacheKey, projection.getCacheKey())
+                && trackSet.containsAll(previous.tracks)) {
+            if (trackSet.size() == previous.tracks.size()) {
+                return previous; // the tracks are immutable, so the density did not change
+            }
+            // incremental update: only rasterize the tracks which have been added, if they fit in the grids
+            boolean fits = true;
+            for (IGpxTrack track : visibleTracks) {
+                if (!previous.tracks.contains(track)) {
+                    fits &= addLines(track, projection, lines, previous);
+                }
+            }
+            if (fits) {
+                Level[] levels = new Level[previous.levels.length];
+                for (int i = 0; i < levels.length; i++) {
+                    levels[i] = new Level(previous.levels[i]);
+                    rasterize(levels[i], previous.minEast, previous.minNorth, lines);
+                }
+                return new Pyramid(previous.projectionCacheKey, previous.minEast, previous.minNorth,
+                        previous.maxEast, previous.maxNorth, levels, trackSet);
+            }
+            lines.clear();
+        }
+
+        for (IGpxTrack track : visibleTracks) {
+            addLines(track, projection, lines, null);
+        }
+        double minEast = Double.POSITIVE_INFINITY;
+        double minNorth = Double.POSITIVE_INFINITY;
+        double maxEast = Double.NEGATIVE_INFINITY;
+        double maxNorth = Double.NEGATIVE_INFINITY;
+        for (List<EastNorth> line : lines) {
+            for (EastNorth en : line) {
+                minEast = Math.min(minEast, en.east());
+                minNorth = Math.min(minNorth, en.north());
+                maxEast = Math.max(maxEast, en.east());
+                maxNorth = Math.max(maxNorth, en.north());
+            }
+        }
+        if (minEast > maxEast) {
+            return new Pyramid(projection.getCacheKey(), 0, 0, 0, 0, new Level[0], trackSet);
+        }
+        // leave room around the tracks, so that tracks added later may still fit in the grids
+        double margin = Math.max(maxEast - minEast, maxNorth - minNorth) * 0.05 + 1;
+        minEast -= margin;
+        minNorth -= margin;
+        maxEast += margin;
+        maxNorth += margin;
+        double cellSize = Math.max(maxEast - minEast, maxNorth - minNorth) / MAX_GRID_SIZE;
+        List<Level> levels = new ArrayList<>();
+        int width;
+        int height;
+        do {
+            width = (int) Math.ceil((maxEast - minEast) / cellSize);
+            height = (int) Math.ceil((maxNorth - minNorth) / cellSize);
+            Level level = new Level(cellSize, width, height);
+            rasterize(level, minEast, minNorth, lines);
+            levels.add(level);
+            cellSize *= 2;
+        } while (width > 1 || height > 1);
+        return new Pyramid(projection.getCacheKey(), minEast, minNorth, maxEast, maxNorth,
+                levels.toArray(new Level[0]), trackSet);
+    }
+
+    /**
+     * Projects the segments of a track.
+     * @param track the track
+     * @param projection the projection
+     * @param lines the list to which the projected segments are added
+     * @param bounds if not null, the grids the segments must fit in
+     * @return {@code true} if all segments fit in the given grids
+     */
+    private static boolean addLines(IGpxTrack track, Projection projection, List<List<EastNorth>> lines, Pyramid bounds) {
+        boolean fits = true;
+        for (IGpxTrackSegment segment : track.getSegments()) {
+            List<EastNorth> line = new ArrayList<>();
+            if (segment instanceof CompactGpxTrackSegment) {
+                // read the coordinates without creating the waypoints
+                CompactGpxTrackSegment compactSegment = (CompactGpxTrackSegment) segment;
+                for (int i = 0; i < compactSegment.size(); i++) {
+                    fits &= addPoint(projection.latlon2eastNorth(compactSegment.getCoor(i)), line, bounds);
+                }
+            } else {
+                for (WayPoint wpt : segment.getWayPoints()) {
+                    // do not use the east/north cache of the waypoints, which is not thread safe
+                    fits &= addPoint(projection.latlon2eastNorth(wpt), line, bounds);
+                }
+            }
+            lines.add(line);
+        }
+        return fits;
+    }
+
+    /**
+     * Adds a projected point to a line, if it is valid.
+     * @param en the projected point
+     * @param line the line
+     * @param bounds if not null, the grids the point must fit in
+     * @return {@code true} if the point fits in the given grids
+     */
+    private static boolean addPoint(EastNorth en, List<EastNorth> line, Pyramid bounds) {
+        if (en != null && en.isValid()) {
+            line.add(en);
+            return bounds == null || bounds.contains(en.east(), en.north());
+        }
+        return true;
+    }
+
+    /**
+     * Adds the given lines to the counts of a level. A line is counted once per cell it crosses.
+     * @param level the level
+     * @param minEast the west side of the grid
+     * @param minNorth the south side of the grid
+     * @param lines the lines
+     */
+    private static void rasterize(Level level, double minEast, double minNorth, List<List<EastNorth>> lines) {
+        final double cellSize = level.cellSize;
+        for (List<EastNorth> line : lines) {
+            int lastCell = -1;
+            EastNorth last = null;
+            for (EastNorth en : line) {
+                if (last == null) {
+                    lastCell = count(level, (en.east() - minEast) / cellSize, (en.north() - minNorth) / cellSize, lastCell);
+                } else {
+                    double x0 = (last.east() - minEast) / cellSize;
+                    double y0 = (last.north() - minNorth) / cellSize;
+                    double dx = (en.east() - minEast) / cellSize - x0;
+                    double dy = (en.north() - minNorth) / cellSize - y0;
+                    // sample the line twice per cell
+                    int steps = (int) Math.min(Math.ceil(2 * Math.max(Math.abs(dx), Math.abs(dy))), 4L * MAX_GRID_SIZE);
+                    for (int i = 1; i <= steps; i++) {
+                        lastCell = count(level, x0 + dx * i / steps, y0 + dy * i / steps, lastCell);
+                    }
+                }
+                last = en;
+            }
+        }
+    }
+
+    private static int count(Level level, double x, double y, int lastCell) {
+        int cx = (int) Math.floor(x);
+        int cy = (int) Math.floor(y);
+        if (cx < 0 || cy < 0 || cx >= level.width || cy >= level.height) {
+            return -1;
+        }
+        int cell = cy * level.width + cx;
+        if (cell != lastCell) {
+            level.counts[cell]++;
+        }
+        return cell;
+    }
+}
@@ -18,6 +18,7 @@ import org.openstreetmap.josm.data.osm.IRelation;
 import org.openstreetmap.josm.data.osm.IWay;
 import org.openstreetmap.josm.data.osm.Relation;
 import org.openstreetmap.josm.data.osm.visitor.paint.PaintColors;
+import org.openstreetmap.josm.data.osm.visitor.paint.RenderStatistics;
 import org.openstreetmap.josm.data.osm.visitor.paint.relations.Multipolygon;
 import org.openstreetmap.josm.data.osm.visitor.paint.relations.MultipolygonCache;
 import org.openstreetmap.josm.data.preferences.NamedColorProperty;
@@ -163,12 +164,20 @@ public class ElemStyles implements PreferenceChangedListener {
      */
     public Pair<StyleElementList, Range> getStyleCacheWithRange(IPrimitive osm, double scale, NavigatableComponent nc) {
         synchronized (osm.getStyleCacheSyncObject()) {
+            final boolean recordStatistics = RenderStatistics.isEnabled();
             if (!osm.isCachedStyleUpToDate() || scale <= 0) {
                 osm.setCachedStyle(StyleCache.EMPTY_STYLECACHE);
             } else {
                 Pair<StyleElementList, Range> lst = osm.getCachedStyle().getWithRange(scale, osm.isSelected());
-                if (lst.a != null)
+                if (lst.a != null) {
+                    if (recordStatistics) {
+                        RenderStatistics.getInstance().addStyleCacheLookup(true);
+                    }
                     return lst;
+                }
+            }
+            if (recordStatistics) {
+                RenderStatistics.getInstance().addStyleCacheLookup(false);
             }
             Pair<StyleElementList, Range> p = getImpl(osm, scale, nc);
             if (osm instanceof INode && isDefaultNodes()) {
@@ -28,6 +28,10 @@ import org.openstreetmap.josm.tools.Utils;
  * Rules with a {@link SimpleKeyValueCondition} [key=value] or rules that require a specific key to be set are
  * indexed. Now you only need to loop the tags of a primitive to retrieve the possibly matching rules.
  *
+ * In addition, the keys and tags required or forbidden by each selector are assigned numbers. While looping over
+ * the tags of a primitive, the numbers of the tags it has are collected in a bit set, so that the candidate rules whose
+ * selectors all require a missing key or tag are dropped without evaluating their conditions.
+ *
  * To use this index, you need to {@link #add(MapCSSRule)} all rules to it. You then need to call
  * {@link #initIndex()}. Afterwards, you can use {@link #getRuleCandidates(IPrimitive)} to get an iterator over
  * all rules that might be applied to that primitive.
@@ -40,6 +44,8 @@ public class MapCSSRuleIndex {
      */
     private final class RuleCandidatesIterator implements Iterator<MapCSSRule>, KeyValueVisitor {
         private final BitSet ruleCandidates;
+        /** The numbers of the keys and tags of the primitive, see {@link MapCSSKeyRules#keyNumber} */
+        private final BitSet tags = new BitSet(tagCount);
         private int next;
 
         private RuleCandidatesIterator(BitSet ruleCandidates) {
@@ -71,6 +77,13 @@ public class MapCSSRuleIndex {
             if (v != null) {
                 BitSet rs = v.get(value);
                 ruleCandidates.or(rs);
+                if (v.keyNumber >= 0) {
+                    tags.set(v.keyNumber);
+                }
+                Integer tagNumber = v.tagNumbers.get(value);
+                if (tagNumber != null) {
+                    tags.set(tagNumber);
+                }
             }
         }
 
@@ -78,6 +91,12 @@ public class MapCSSRuleIndex {
          * Call this before using the iterator.
          */
         public void prepare() {
+            for (int i = ruleCandidates.nextSetBit(0); i >= 0; i = ruleCandidates.nextSetBit(i + 1)) {
+                TagFilter[] ruleFilters = filters[i];
+                if (ruleFilters != null && !anyMatches(ruleFilters, tags)) {
+                    ruleCandidates.clear(i);
+                }
+            }
             next = ruleCandidates.nextSetBit(0);
         }
     }
@@ -99,6 +118,16 @@ public class MapCSSRuleIndex {
          */
         Map<String, BitSet> specialRules = new HashMap<>();
 
+        /**
+         * The number of this key if a selector requires or forbids it, {@code -1} otherwise.
+         */
+        int keyNumber = -1;
+
+        /**
+         * The numbers of the {@code key=value} tags required by selectors, by value.
+         */
+        Map<String, Integer> tagNumbers = Collections.emptyMap();
+
         public void addForKey(int ruleIndex) {
             generalRules.set(ruleIndex);
             for (BitSet r : specialRules.values()) {
@@ -121,6 +150,45 @@ public class MapCSSRuleIndex {
         }
     }
 
+    /**
+     * The keys and tags a selector requires and forbids. These are only necessary conditions: a primitive that passes
+     * the filter does not necessarily match the selector, but a primitive that does not pass it never matches.
+     */
+    private static final class TagFilter {
+        /** The numbers of the keys and tags the primitive must have */
+        final int[] required;
+        /** The numbers of the keys the primitive must not have */
+        final int[] forbidden;
+
+        TagFilter(int[] required, int[] forbidden) {
+            this.required = required;
+            this.forbidden = forbidden;
+        }
+
+        boolean matches(BitSet tags) {
+            for (int i : required) {
+                if (!tags.get(i)) {
+                    return false;
+                }
+            }
+            for (int i : forbidden) {
+                if (tags.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static boolean anyMatches(TagFilter[] filters, BitSet tags) {
+        for (TagFilter filter : filters) {
+            if (filter.matches(tags)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /** Valid key types for indexing (see {@link ConditionFactory.KeyMatchType}) */
     private static final EnumSet<ConditionFactory.KeyMatchType> VALID_INDEX_KEY_TYPES = EnumSet.of(
             ConditionFactory.KeyMatchType.EQ, ConditionFactory.KeyMatchType.TRUE, ConditionFactory.KeyMatchType.FALSE);
@@ -137,6 +205,14 @@ public class MapCSSRuleIndex {
      * Rules that do not require any key to be present. Only the index in the {@link #rules} array is stored.
      */
     private final BitSet remaining = new BitSet();
+    /**
+     * The tag filters of the selectors of each rule, by rule index. {@code null} if one of the selectors of the rule cannot be filtered.
+     */
+    private TagFilter[][] filters = new TagFilter[0][];
+    /**
+     * The number of keys and tags required or forbidden by the selectors.
+     */
+    private int tagCount;
 
     /**
      * Add a rule to this index. This needs to be called before {@link #initIndex()} is called.
@@ -153,14 +229,22 @@ public class MapCSSRuleIndex {
      */
     public void initIndex() {
         Collections.sort(rules);
+        filters = new TagFilter[rules.size()][];
         for (int ruleIndex = 0; ruleIndex < rules.size(); ruleIndex++) {
             MapCSSRule r = rules.get(ruleIndex);
+            List<TagFilter> ruleFilters = new ArrayList<>(r.selectors.size());
             for (Selector selector : r.selectors) {
                 Selector selRightmost = selector;
                 while (selRightmost instanceof Selector.ChildOrParentSelector) {
                     selRightmost = ((Selector.ChildOrParentSelector) selRightmost).right;
                 }
                 final List<Condition> conditions = selRightmost.getConditions();
+                TagFilter filter = Utils.isEmpty(conditions) ? null : createTagFilter(conditions);
+                if (ruleFilters != null && filter != null) {
+                    ruleFilters.add(filter);
+                } else {
+                    ruleFilters = null;
+                }
                 if (Utils.isEmpty(conditions)) {
                     remaining.set(ruleIndex);
                     continue;
@@ -179,7 +263,55 @@ public class MapCSSRuleIndex {
                     }
                 }
             }
+            filters[ruleIndex] = ruleFilters == null ? null : ruleFilters.toArray(new TagFilter[0]);
+        }
+    }
+
+    /**
+     * Creates the filter of the keys and tags required or forbidden by the conditions of a selector.
+     * @param conditions the conditions of the selector
+     * @return the filter, or {@code null} if the conditions do not require or forbid any key
+     */
+    private TagFilter createTagFilter(List<Condition> conditions) {
+        List<Integer> required = new ArrayList<>();
+        List<Integer> forbidden = new ArrayList<>();
+        for (Condition c : conditions) {
+            if (c instanceof SimpleKeyValueCondition) {
+                required.add(getTagNumber(((SimpleKeyValueCondition) c).k, ((SimpleKeyValueCondition) c).v));
+            } else if (c instanceof KeyCondition) {
+                KeyCondition keyCondition = (KeyCondition) c;
+                if (keyCondition.matchType == null || keyCondition.matchType == ConditionFactory.KeyMatchType.EQ) {
+                    // [key] or [!key]
+                    (keyCondition.negateResult ? forbidden : required).add(getKeyNumber(keyCondition.label));
+                } else if (!keyCondition.negateResult && VALID_INDEX_KEY_TYPES.contains(keyCondition.matchType)) {
+                    // [key?] or [key?!]
+                    required.add(getKeyNumber(keyCondition.label));
+                }
+            } else if (c instanceof KeyValueCondition && ((KeyValueCondition) c).requiresExactKeyMatch()) {
+                required.add(getKeyNumber(((KeyValueCondition) c).k));
+            }
+        }
+        if (required.isEmpty() && forbidden.isEmpty()) {
+            return null;
+        }
+        return new TagFilter(required.stream().mapToInt(Integer::intValue).toArray(),
+                forbidden.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private int getKeyNumber(String key) {
+        MapCSSKeyRules keyRules = getEntryInIndex(key);
+        if (keyRules.keyNumber < 0) {
+            keyRules.keyNumber = tagCount++;
+        }
+        return keyRules.keyNumber;
+    }
+
+    private int getTagNumber(String key, String value) {
+        MapCSSKeyRules keyRules = getEntryInIndex(key);
+        if (keyRules.tagNumbers.isEmpty()) {
+            keyRules.tagNumbers = new HashMap<>();
         }
+        return keyRules.tagNumbers.computeIfAbsent(value.intern(), v -> tagCount++);
     }
 
     /**
@@ -244,6 +376,8 @@ public class MapCSSRuleIndex {
         rules.clear();
         index.clear();
         remaining.clear();
+        filters = new TagFilter[0][];
+        tagCount = 0;
     }
 
     /**
@@ -29,6 +29,7 @@ import java.util.zip.ZipFile;
 import org.openstreetmap.josm.data.Version;
 import org.openstreetmap.josm.data.osm.IPrimitive;
 import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.visitor.paint.RenderStatistics;
 import org.openstreetmap.josm.data.preferences.sources.SourceEntry;
 import org.openstreetmap.josm.gui.mappaint.Cascade;
 import org.openstreetmap.josm.gui.mappaint.Environment;
@@ -158,6 +159,8 @@ public class MapCSSStyleSource extends StyleSource {
             init();
             rules.clear();
             ruleIndex.clear();
+            // the rendering statistics must not keep the former selectors
+            RenderStatistics.getInstance().releaseSelectors();
             // remove "areaStyle" pseudo classes intended only for validator (causes StackOverflowError otherwise), see #16183
             removeAreaStylePseudoClass = url == null || !url.contains("validator"); // resource://data/validator/ or xxx.validator.mapcss
             try (InputStream in = getSourceInputStream()) {
@@ -355,6 +358,8 @@ public class MapCSSStyleSource extends StyleSource {
         Environment env = new Environment(osm, mc, null, this);
         // the declaration indices are sorted, so it suffices to save the last used index
         int lastDeclUsed = -1;
+        final RenderStatistics statistics = RenderStatistics.isEnabled() ? RenderStatistics.getInstance() : null;
+        final String title = statistics != null ? getDisplayString() : null;
 
         Iterator<MapCSSRule> candidates = ruleIndex.getRuleCandidates(osm);
         while (candidates.hasNext()) {
@@ -363,7 +368,11 @@ public class MapCSSStyleSource extends StyleSource {
                 env.clearSelectorMatchingInformation();
                 env.layer = s.getSubpart().getId(env);
                 String sub = env.layer;
-                if (!s.matches(env)) { // as side effect env.parent will be set (if s is a child selector)
+                boolean matches = s.matches(env); // as side effect env.parent will be set (if s is a child selector)
+                if (statistics != null) {
+                    statistics.addSelectorEvaluation(title, s, matches);
+                }
+                if (!matches) {
                     continue;
                 }
                 if (s.getRange().contains(scale)) {
@@ -4,7 +4,6 @@ package org.openstreetmap.josm.gui.mappaint.mapcss;
 import static org.openstreetmap.josm.data.projection.Ellipsoid.WGS84;
 
 import java.awt.geom.Area;
-import java.awt.geom.Point2D;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -31,6 +30,7 @@ import org.openstreetmap.josm.data.osm.WaySegment;
 import org.openstreetmap.josm.data.osm.visitor.PrimitiveVisitor;
 import org.openstreetmap.josm.data.osm.visitor.paint.relations.MultipolygonCache;
 import org.openstreetmap.josm.data.validation.tests.CrossingWays;
+import org.openstreetmap.josm.data.validation.util.GridIndex;
 import org.openstreetmap.josm.gui.mappaint.Environment;
 import org.openstreetmap.josm.gui.mappaint.Range;
 import org.openstreetmap.josm.gui.mappaint.mapcss.ConditionFactory.IndexCondition;
@@ -332,7 +332,7 @@ public interface Selector {
             private final String layer;
             private Area area;
             /** Will contain all way segments, grouped by cells */
-            Map<Point2D, List<WaySegment>> cellSegments;
+            GridIndex<WaySegment> cellSegments;
 
             private CrossingFinder(Environment e) {
                 super(e);
@@ -353,7 +353,7 @@ public interface Selector {
             }
 
             private Map<List<Way>, List<WaySegment>> findCrossings(IPrimitive area,
-                    Map<Point2D, List<WaySegment>> cellSegments) {
+                    GridIndex<WaySegment> cellSegments) {
                 /* The detected crossing ways */
                 Map<List<Way>, List<WaySegment>> crossingWays = new HashMap<>(50);
                 if (area instanceof Way) {
@@ -418,11 +418,11 @@ public interface Selector {
             private void useFindCrossings(IPrimitive p) {
                 if (cellSegments == null) {
                     // lazy initialisation
-                    cellSegments = new HashMap<>();
+                    cellSegments = new GridIndex<>();
                     findCrossings(e.osm, cellSegments); // ignore self intersections etc. here
                 }
                 // need a copy
-                final Map<Point2D, List<WaySegment>> tmpCellSegments = new HashMap<>(cellSegments);
+                final GridIndex<WaySegment> tmpCellSegments = new GridIndex<>(cellSegments);
                 // calculate all crossings between e.osm and p
                 Map<List<Way>, List<WaySegment>> crossingWays = findCrossings(p, tmpCellSegments);
                 if (!crossingWays.isEmpty()) {
@@ -0,0 +1,541 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
+import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.data.gpx.GpxData.XMLNamespace;
+import org.openstreetmap.josm.data.gpx.GpxExtension;
+import org.openstreetmap.josm.data.gpx.GpxExtensionCollection;
+import org.openstreetmap.josm.data.gpx.GpxLink;
+import org.openstreetmap.josm.data.gpx.GpxRoute;
+import org.openstreetmap.josm.data.gpx.GpxTrack;
+import org.openstreetmap.josm.data.gpx.IGpxTrack;
+import org.openstreetmap.josm.data.gpx.IGpxTrackSegment;
+import org.openstreetmap.josm.data.gpx.IWithAttributes;
+import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * A cache of parsed GPX files, stored in a compact binary form in the cache directory.
+ * <p>
+ * Reading a cached file is much faster than parsing its XML, since the cache is memory-mapped and contains
+ * no text to parse but attribute values. The cache of a file is identified by its path, and is only used
+ * if the size and modification date of the file did not change since it has been written.
+ * <p>
+ * All GPX elements read by {@link GpxReader} are stored: metadata, waypoints, routes, tracks, segments,
+ * attributes and extensions. Data with attributes of other types is not cached.
+ */
+public final class GpxBinaryCache {
+
+    /**
+     * Minimum size of the GPX files to cache, in bytes. A negative value disables the cache.
+     */
+    public static final IntegerProperty PROP_MIN_FILE_SIZE = new IntegerProperty("gpx.cache.min-file-size", 5 * 1024 * 1024);
+
+    /**
+     * Maximum number of cached files. The least recently written files are removed first.
+     */
+    public static final IntegerProperty PROP_MAX_FILES = new IntegerProperty("gpx.cache.max-files", 50);
+
+    private static final int MAGIC = 0x4A475058; // "JGPX"
+    private static final int VERSION = 1;
+    private static final String EXTENSION = ".gpxbin";
+
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_FLOAT = 2;
+    private static final byte TYPE_DOUBLE = 3;
+    private static final byte TYPE_INTEGER = 4;
+    private static final byte TYPE_LONG = 5;
+    private static final byte TYPE_INSTANT = 6;
+    private static final byte TYPE_BOUNDS = 7;
+    private static final byte TYPE_LINK = 8;
+    private static final byte TYPE_LINKS = 9;
+
+    private GpxBinaryCache() {
+        // Hide default constructor for utils classes
+    }
+
+    /**
+     * Determines if the given file is large enough to be cached.
+     * @param file the GPX file
+     * @return {@code true} if the cache is enabled for this file
+     */
+    public static boolean isEnabled(File file) {
+        int minSize = PROP_MIN_FILE_SIZE.get();
+        return minSize >= 0 && file.isFile() && file.length() >= minSize;
+    }
+
+    /**
+     * Returns the cache file of a GPX file.
+     * @param file the GPX file
+     * @return the cache file, which may not exist
+     */
+    static File getCacheFile(File file) {
+        return new File(getCacheDirectory(), Utils.md5Hex(file.getAbsolutePath()) + EXTENSION);
+    }
+
+    private static File getCacheDirectory() {
+        return new File(Config.getDirs().getCacheDirectory(true), "gpx");
+    }
+
+    /**
+     * Loads the cached data of a GPX file.
+     * @param file the GPX file
+     * @return the cached data, or {@code null} if the file is not cached, or if it has changed since
+     */
+    public static GpxData load(File file) {
+        File cacheFile = getCacheFile(file);
+        if (!isEnabled(file) || !cacheFile.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            GpxData data = new Reader(buffer).read(file);
+            if (data != null) {
+                Logging.debug("Loaded {0} from cache {1}", file, cacheFile);
+            }
+            return data;
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            Logging.warn("Unable to read GPX cache " + cacheFile);
+            Logging.warn(e);
+            Utils.deleteFile(cacheFile);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the data parsed from a GPX file in the cache, if the file is large enough.
+     * @param file the GPX file
+     * @param data the data parsed from the file
+     */
+    public static void store(File file, GpxData data) {
+        if (!isEnabled(file)) {
+            return;
+        }
+        File directory = getCacheDirectory();
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            tmp = Files.createTempFile(directory.toPath(), "gpx", ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                new Writer(new DataOutputStream(new BufferedOutputStream(os))).write(file, data);
+            }
+            Files.move(tmp, getCacheFile(file).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+            removeOldFiles(directory);
+        } catch (IOException e) {
+            Logging.warn("Unable to write GPX cache for " + file);
+            Logging.warn(e);
+        } finally {
+            if (tmp != null) {
+                Utils.deleteFile(tmp.toFile());
+            }
+        }
+    }
+
+    private static void removeOldFiles(File directory) throws IOException {
+        List<File> files;
+        try (Stream<Path> stream = Files.list(directory.toPath())) {
+            files = stream.map(Path::toFile)
+                    .filter(f -> f.getName().endsWith(EXTENSION))
+                    .sorted(Comparator.comparingLong(File::lastModified).reversed())
+                    .collect(Collectors.toList());
+        }
+        for (int i = Math.max(0, PROP_MAX_FILES.get()); i < files.size(); i++) {
+            Utils.deleteFile(files.get(i));
+        }
+    }
+
+    /**
+     * Writes the cache. Strings are written once, and referenced by their index afterwards.
+     */
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void write(File file, GpxData data) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(file.getAbsolutePath());
+            out.writeLong(file.length());
+            out.writeLong(file.lastModified());
+
+            writeString(data.creator);
+            out.writeBoolean(data.fromServer);
+            writeVarInt(data.getNamespaces().size());
+            for (XMLNamespace namespace : data.getNamespaces()) {
+                writeString(namespace.getPrefix());
+                writeString(namespace.getURI());
+                writeString(namespace.getLocation());
+            }
+            writeVarInt(data.getLayerPrefs().size());
+            for (Map.Entry<String, String> e : data.getLayerPrefs().entrySet()) {
+                writeString(e.getKey());
+                writeString(e.getValue());
+            }
+            writeAttributesAndExtensions(data);
+
+            writeWayPoints(data.getWaypoints());
+            writeVarInt(data.getRoutes().size());
+            for (GpxRoute route : data.getRoutes()) {
+                writeAttributesAndExtensions(route);
+                writeWayPoints(route.routePoints);
+            }
+            writeVarInt(data.getTracks().size());
+            for (IGpxTrack track : data.getTracks()) {
+                writeAttributesAndExtensions(track);
+                writeVarInt(track.getSegments().size());
+                for (IGpxTrackSegment segment : track.getSegments()) {
+                    writeExtensions(segment);
+                    if (segment instanceof CompactGpxTrackSegment) {
+                        writeWayPoints((CompactGpxTrackSegment) segment);
+                    } else {
+                        writeWayPoints(segment.getWayPoints());
+                    }
+                }
+            }
+            out.flush();
+        }
+
+        private void writeWayPoints(Collection<WayPoint> wayPoints) throws IOException {
+            writeVarInt(wayPoints.size());
+            for (WayPoint wpt : wayPoints) {
+                out.writeDouble(wpt.lat());
+                out.writeDouble(wpt.lon());
+                writeAttributesAndExtensions(wpt);
+            }
+        }
+
+        /**
+         * Writes the waypoints of a compact segment like {@link #writeWayPoints(Collection)}, without creating them.
+         * @param segment the segment, whose waypoints have no extensions
+         * @throws IOException if an I/O error occurs
+         */
+        private void writeWayPoints(CompactGpxTrackSegment segment) throws IOException {
+            writeVarInt(segment.size());
+            for (int i = 0; i < segment.size(); i++) {
+                LatLon coor = segment.getCoor(i);
+                out.writeDouble(coor.lat());
+                out.writeDouble(coor.lon());
+                writeAttributes(segment.getWayPointAttributes(i));
+                writeVarInt(0);
+            }
+        }
+
+        private void writeAttributesAndExtensions(IWithAttributes element) throws IOException {
+            writeAttributes(element.getAttributes());
+            writeExtensions(element);
+        }
+
+        private void writeAttributes(Map<String, Object> attributes) throws IOException {
+            int count = (int) attributes.values().stream().filter(v -> v != null).count();
+            writeVarInt(count);
+            for (Map.Entry<String, Object> e : attributes.entrySet()) {
+                if (e.getValue() != null) {
+                    writeString(e.getKey());
+                    writeValue(e.getValue());
+                }
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value instanceof String) {
+                out.writeByte(TYPE_STRING);
+                writeString((String) value);
+            } else if (value instanceof Float) {
+                out.writeByte(TYPE_FLOAT);
+                out.writeFloat((Float) value);
+            } else if (value instanceof Double) {
+                out.writeByte(TYPE_DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(TYPE_INTEGER);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(TYPE_LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Instant) {
+                out.writeByte(TYPE_INSTANT);
+                out.writeLong(((Instant) value).getEpochSecond());
+                out.writeInt(((Instant) value).getNano());
+            } else if (value instanceof Bounds) {
+                Bounds b = (Bounds) value;
+                out.writeByte(TYPE_BOUNDS);
+                out.writeDouble(b.getMinLat());
+                out.writeDouble(b.getMinLon());
+                out.writeDouble(b.getMaxLat());
+                out.writeDouble(b.getMaxLon());
+            } else if (value instanceof GpxLink) {
+                out.writeByte(TYPE_LINK);
+                writeLink((GpxLink) value);
+            } else if (value instanceof Collection && ((Collection<?>) value).stream().allMatch(GpxLink.class::isInstance)) {
+                out.writeByte(TYPE_LINKS);
+                writeVarInt(((Collection<?>) value).size());
+                for (Object link : (Collection<?>) value) {
+                    writeLink((GpxLink) link);
+                }
+            } else {
+                throw new IOException("Unsupported attribute type: " + value.getClass().getName());
+            }
+        }
+
+        private void writeLink(GpxLink link) throws IOException {
+            writeString(link.uri);
+            writeString(link.text);
+            writeString(link.type);
+        }
+
+        private void writeExtensions(IWithAttributes element) throws IOException {
+            if (!element.hasExtensions()) {
+                writeVarInt(0);
+                return;
+            }
+            GpxExtensionCollection extensions = element.getExtensions();
+            writeVarInt(extensions.size());
+            for (GpxExtension extension : extensions) {
+                writeString(extension.getPrefix());
+                writeString(extension.getQualifiedName());
+                writeString(extension.getValue());
+                out.writeBoolean(extension.isVisible());
+                writeAttributes(extension.getAttributes());
+                writeExtensions(extension);
+            }
+        }
+
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer index = strings.get(s);
+            if (index != null) {
+                writeVarInt(index + 2);
+            } else {
+                strings.put(s, strings.size());
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(1);
+                writeVarInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            int v = value;
+            while ((v & ~0x7F) != 0) {
+                out.writeByte((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            out.writeByte(v);
+        }
+    }
+
+    /**
+     * Reads the cache, in the order it has been written by {@link Writer}.
+     */
+    private static final class Reader {
+        private final ByteBuffer in;
+        private final List<String> strings = new ArrayList<>();
+
+        Reader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        GpxData read(File file) throws IOException {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Unsupported GPX cache format");
+            }
+            if (!file.getAbsolutePath().equals(readString()) || in.getLong() != file.length() || in.getLong() != file.lastModified()) {
+                return null; // the file has changed
+            }
+
+            GpxData data = new GpxData(true);
+            data.creator = readString();
+            data.fromServer = in.get() != 0;
+            for (int i = readVarInt(); i > 0; i--) {
+                data.getNamespaces().add(new XMLNamespace(readString(), readString(), readString()));
+            }
+            for (int i = readVarInt(); i > 0; i--) {
+                data.getLayerPrefs().put(readString(), readString());
+            }
+            readAttributesAndExtensions(data);
+
+            for (WayPoint wpt : readWayPoints()) {
+                data.addWaypoint(wpt);
+            }
+            for (int i = readVarInt(); i > 0; i--) {
+                GpxRoute route = new GpxRoute();
+                readAttributesAndExtensions(route);
+                route.routePoints.addAll(readWayPoints());
+                data.addRoute(route);
+            }
+            for (int i = readVarInt(); i > 0; i--) {
+                Map<String, Object> attributes = readAttributes();
+                GpxExtensionCollection extensions = new GpxExtensionCollection();
+                readExtensions(extensions);
+                List<IGpxTrackSegment> segments = new ArrayList<>();
+                for (int j = readVarInt(); j > 0; j--) {
+                    GpxExtensionCollection segmentExtensions = new GpxExtensionCollection();
+                    readExtensions(segmentExtensions);
+                    IGpxTrackSegment segment = CompactGpxTrackSegment.create(readWayPoints());
+                    if (!segmentExtensions.isEmpty()) {
+                        segment.getExtensions().addAll(segmentExtensions);
+                    }
+                    segments.add(segment);
+                }
+                GpxTrack track = new GpxTrack(segments, attributes);
+                if (!extensions.isEmpty()) {
+                    track.getExtensions().addAll(extensions);
+                }
+                data.addTrack(track);
+            }
+            data.endUpdate();
+            return data;
+        }
+
+        private List<WayPoint> readWayPoints() throws IOException {
+            int size = readVarInt();
+            List<WayPoint> wayPoints = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                WayPoint wpt = new WayPoint(new LatLon(in.getDouble(), in.getDouble()));
+                readAttributesAndExtensions(wpt);
+                wayPoints.add(wpt);
+            }
+            return wayPoints;
+        }
+
+        private void readAttributesAndExtensions(IWithAttributes element) throws IOException {
+            element.getAttributes().putAll(readAttributes());
+            GpxExtensionCollection extensions = new GpxExtensionCollection();
+            readExtensions(extensions);
+            if (!extensions.isEmpty()) {
+                element.getExtensions().addAll(extensions);
+            }
+        }
+
+        private Map<String, Object> readAttributes() throws IOException {
+            int size = readVarInt();
+            Map<String, Object> attributes = new HashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                attributes.put(readString(), readValue());
+            }
+            return attributes;
+        }
+
+        private Object readValue() throws IOException {
+            byte type = in.get();
+            switch (type) {
+            case TYPE_STRING:
+                return readString();
+            case TYPE_FLOAT:
+                return in.getFloat();
+            case TYPE_DOUBLE:
+                return in.getDouble();
+            case TYPE_INTEGER:
+                return in.getInt();
+            case TYPE_LONG:
+                return in.getLong();
+            case TYPE_INSTANT:
+                return Instant.ofEpochSecond(in.getLong(), in.getInt());
+            case TYPE_BOUNDS:
+                return new Bounds(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+            case TYPE_LINK:
+                return readLink();
+            case TYPE_LINKS:
+                Collection<GpxLink> links = new LinkedList<>();
+                for (int i = readVarInt(); i > 0; i--) {
+                    links.add(readLink());
+                }
+                return links;
+            default:
+                throw new IOException("Unsupported attribute type: " + type);
+            }
+        }
+
+        private GpxLink readLink() throws IOException {
+            GpxLink link = new GpxLink(readString());
+            link.text = readString();
+            link.type = readString();
+            return link;
+        }
+
+        private void readExtensions(GpxExtensionCollection extensions) throws IOException {
+            for (int i = readVarInt(); i > 0; i--) {
+                String prefix = readString();
+                String qualifiedName = readString();
+                String value = readString();
+                boolean visible = in.get() != 0;
+                // the namespace of the extensions supported by JOSM determines their prefix, see GpxExtension#findPrefix
+                XMLNamespace namespace = GpxExtension.findNamespace(prefix);
+                GpxExtension extension = new GpxExtension(namespace != null ? namespace.getURI() : null, qualifiedName,
+                        new AttributesImpl());
+                extension.setValue(value);
+                extension.getAttributes().putAll(readAttributes());
+                readExtensions(extension.getExtensions());
+                extensions.add(extension);
+                if (!visible) {
+                    extension.hide();
+                }
+            }
+        }
+
+        private String readString() throws IOException {
+            int index = readVarInt();
+            if (index == 0) {
+                return null;
+            } else if (index > 1) {
+                return strings.get(index - 2);
+            }
+            byte[] bytes = new byte[readVarInt()];
+            in.get(bytes);
+            String s = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(s);
+            return s;
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable-length integer");
+        }
+    }
+}
@@ -28,13 +28,13 @@ import java.util.Stack;
 
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxExtensionCollection;
 import org.openstreetmap.josm.data.gpx.GpxLink;
 import org.openstreetmap.josm.data.gpx.GpxRoute;
 import org.openstreetmap.josm.data.gpx.GpxTrack;
-import org.openstreetmap.josm.data.gpx.GpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.IGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.WayPoint;
 import org.openstreetmap.josm.tools.Logging;
@@ -675,7 +675,7 @@ class GpxParser extends DefaultHandler {
         if ("trkseg".equals(localName)) {
             currentState = states.pop();
             if (!currentTrackSeg.isEmpty()) {
-                GpxTrackSegment seg = new GpxTrackSegment(currentTrackSeg);
+                IGpxTrackSegment seg = CompactGpxTrackSegment.create(currentTrackSeg);
                 if (!currentExtensionCollection.isEmpty()) {
                     seg.getExtensions().addAll(currentExtensionCollection);
                 }
@@ -2,8 +2,16 @@
 package org.openstreetmap.josm.tools;
 
 import java.awt.geom.AffineTransform;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.time.DateTimeException;
 import java.time.Instant;
 import java.util.List;
@@ -22,6 +30,7 @@ import com.drew.metadata.MetadataException;
 import com.drew.metadata.Tag;
 import com.drew.metadata.exif.ExifDirectoryBase;
 import com.drew.metadata.exif.ExifIFD0Directory;
+import com.drew.metadata.exif.ExifThumbnailDirectory;
 import com.drew.metadata.exif.GpsDirectory;
 import com.drew.metadata.iptc.IptcDirectory;
 
@@ -677,6 +686,95 @@ public final class ExifReader {
         return dirIptc == null ? null : dirIptc.getDescription(IptcDirectory.TAG_OBJECT_NAME);
     }
 
+    /**
+     * Returns the thumbnail embedded in the EXIF metadata of the given JPEG file.
+     * <p>
+     * Only the segments preceding the image data are read, so this is much faster than decoding the image.
+     * @param filename The JPEG file to read
+     * @return The JPEG-encoded thumbnail, or {@code null} if not found
+     */
+    public static byte[] readThumbnail(File filename) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(filename.toPath())))) {
+            return readThumbnail(in);
+        } catch (IOException | InvalidPathException e) {
+            Logging.debug(e);
+        }
+        return null;
+    }
+
+    private static byte[] readThumbnail(DataInputStream in) throws IOException {
+        if (in.readUnsignedShort() != 0xFFD8) {
+            return null; // not a JPEG file
+        }
+        while (true) {
+            int marker = in.readUnsignedShort();
+            // stop at the start of the image data (SOS), or at the end of the image (EOI)
+            if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                return null;
+            }
+            int length = in.readUnsignedShort() - 2;
+            if (length < 0) {
+                return null;
+            }
+            if (marker == 0xFFE1) { // APP1, used for EXIF and XMP
+                byte[] segment = new byte[length];
+                in.readFully(segment);
+                byte[] thumbnail = readExifThumbnail(segment);
+                if (thumbnail != null) {
+                    return thumbnail;
+                }
+            } else {
+                while (length > 0) {
+                    int skipped = in.skipBytes(length);
+                    if (skipped <= 0) {
+                        throw new EOFException();
+                    }
+                    length -= skipped;
+                }
+            }
+        }
+    }
+
+    private static byte[] readExifThumbnail(byte[] segment) {
+        if (segment.length < 14 || !"Exif\0\0".equals(new String(segment, 0, 6, StandardCharsets.ISO_8859_1))) {
+            return null;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        try {
+            // the thumbnail is described by the second image file directory (IFD1), following IFD0
+            int ifd0 = tiff.getInt(4);
+            int ifd1 = tiff.getInt(ifd0 + 2 + 12 * Short.toUnsignedInt(tiff.getShort(ifd0)));
+            if (ifd1 <= 0) {
+                return null;
+            }
+            int offset = -1;
+            int length = -1;
+            for (int i = Short.toUnsignedInt(tiff.getShort(ifd1)) - 1; i >= 0; i--) {
+                int entry = ifd1 + 2 + 12 * i;
+                int tag = Short.toUnsignedInt(tiff.getShort(entry));
+                // the value is either a SHORT (type 3) or a LONG
+                int value = tiff.getShort(entry + 2) == 3 ? Short.toUnsignedInt(tiff.getShort(entry + 8)) : tiff.getInt(entry + 8);
+                if (tag == ExifThumbnailDirectory.TAG_THUMBNAIL_OFFSET) {
+                    offset = value;
+                } else if (tag == ExifThumbnailDirectory.TAG_THUMBNAIL_LENGTH) {
+                    length = value;
+                }
+            }
+            if (offset <= 0 || length <= 2 || (long) offset + length > tiff.limit()
+                    || tiff.get(offset) != (byte) 0xFF || tiff.get(offset + 1) != (byte) 0xD8) {
+                return null;
+            }
+            byte[] thumbnail = new byte[length];
+            tiff.position(offset);
+            tiff.get(thumbnail);
+            return thumbnail;
+        } catch (IndexOutOfBoundsException e) {
+            Logging.trace(e);
+            return null;
+        }
+    }
+
     /**
      * Returns a Transform that fixes the image orientation.
      * <p>
@@ -1249,6 +1249,56 @@ public final class Utils {
         return d[n][m];
     }
 
+    /**
+     * Get the Levenshtein distance of two strings, if it does not exceed a limit.
+     * <p>
+     * Only the diagonal band of width {@code 2 * limit + 1} of the distance matrix is computed, and the computation
+     * stops as soon as a row exceeds the limit, so this is much faster than {@link #getLevenshteinDistance(String, String)}
+     * when only small distances are of interest.
+     * @param s First word
+     * @param t Second word
+     * @param limit The maximal distance of interest, not negative
+     * @return The distance between words, or {@code limit + 1} if it is greater than {@code limit}
+     */
+    public static int getLevenshteinDistance(String s, String t, int limit) {
+        final int n = s.length();
+        final int m = t.length();
+        final int exceeded = limit + 1;
+        if (Math.abs(n - m) > limit)
+            return exceeded;
+        if (n == 0 || m == 0)
+            return Math.max(n, m);
+
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = Math.min(j, exceeded);
+        }
+        for (int i = 1; i <= n; i++) {
+            final char si = s.charAt(i - 1);
+            final int from = Math.max(1, i - limit);
+            final int to = Math.min(m, i + limit);
+            current[0] = Math.min(i, exceeded);
+            current[from - 1] = from == 1 ? current[0] : exceeded;
+            int rowMin = current[from - 1];
+            for (int j = from; j <= to; j++) {
+                final int cost = si == t.charAt(j - 1) ? 0 : 1;
+                final int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                current[j] = Math.min(d, exceeded);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = exceeded;
+            }
+            if (rowMin >= exceeded)
+                return exceeded;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
     /**
      * Check if two strings are similar, but not identical, i.e., have a Levenshtein distance of 1 or 2.
      * @param string1 first string to compare
@@ -1259,7 +1309,7 @@ public final class Utils {
      */
     public static boolean isSimilar(String string1, String string2) {
         // check plain strings
-        int distance = getLevenshteinDistance(string1, string2);
+        int distance = getLevenshteinDistance(string1, string2, 2);
 
         // check if only the case differs, so we don't consider large distance as different strings
         if (distance > 2 && string1.length() == string2.length()) {
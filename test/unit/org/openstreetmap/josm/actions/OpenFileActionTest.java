@@ -0,0 +1,82 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.actions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.actions.OpenFileAction.OpenFileTask;
+import org.openstreetmap.josm.gui.io.importexport.Options;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.testutils.annotations.Main;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+import org.openstreetmap.josm.testutils.mockers.HelpAwareOptionPaneMocker;
+
+/**
+ * Unit tests of {@link OpenFileAction} class.
+ */
+@Main
+@Projection
+class OpenFileActionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File copyGpx(String name) throws IOException {
+        return Files.copy(new File(TestUtils.getTestDataRoot(), "minimal.gpx").toPath(), tempDir.resolve(name)).toFile();
+    }
+
+    private static OpenFileTask openFiles(List<File> files) {
+        OpenFileTask task = new OpenFileTask(files, null);
+        task.setOptions(Options.RECORD_HISTORY);
+        task.run();
+        return task;
+    }
+
+    /**
+     * Test that each GPX file opened at once is recorded in the file history
+     * @throws IOException if the files cannot be created
+     */
+    @Test
+    void testHistoryOfSeveralGpxFiles() throws IOException {
+        List<File> files = Arrays.asList(copyGpx("first.gpx"), copyGpx("second.gpx"));
+        OpenFileTask task = openFiles(files);
+        assertEquals(files, task.getSuccessfullyOpenedFiles());
+        List<String> history = Config.getPref().getList("file-open.history");
+        assertTrue(history.contains(files.get(0).getCanonicalPath()), history::toString);
+        assertTrue(history.contains(files.get(1).getCanonicalPath()), history::toString);
+    }
+
+    /**
+     * Test that a GPX file which cannot be read does not prevent the other files opened at once to be recorded in the history
+     * @throws IOException if the files cannot be created
+     */
+    @Test
+    void testHistoryWithFailingGpxFile() throws IOException {
+        new HelpAwareOptionPaneMocker() {
+            @Override
+            protected Object getMockResultForMessage(Object message) {
+                return "OK";
+            }
+        };
+        File broken = Files.write(tempDir.resolve("broken.gpx"), "<gpx><trk>".getBytes(StandardCharsets.UTF_8)).toFile();
+        File valid = copyGpx("valid.gpx");
+        OpenFileTask task = openFiles(Arrays.asList(broken, valid));
+        assertEquals(Collections.singletonList(valid), task.getSuccessfullyOpenedFiles());
+        List<String> history = Config.getPref().getList("file-open.history");
+        assertTrue(history.contains(valid.getCanonicalPath()), history::toString);
+        assertFalse(history.contains(broken.getCanonicalPath()), history::toString);
+    }
+}
@@ -0,0 +1,169 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.LatLon;
+
+/**
+ * Unit tests for class {@link CompactGpxTrackSegment}.
+ */
+class CompactGpxTrackSegmentTest {
+
+    private static List<WayPoint> createWayPoints(int count) {
+        List<WayPoint> wayPoints = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            WayPoint wpt = new WayPoint(new LatLon(47 + i * 1e-4, 8 - i * 1e-4));
+            wpt.setInstant(Instant.ofEpochSecond(1_600_000_000L + i, i % 2 == 0 ? 0 : 500_000_000));
+            wpt.put(GpxConstants.PT_ELE, i % 3 == 0 ? "412" : "412.5");
+            wpt.put(GpxConstants.PT_HDOP, 1.5f);
+            wpt.put(GpxConstants.PT_SAT, Integer.toString(i % 12));
+            if (i % 50 == 0) {
+                wpt.put(GpxConstants.GPX_NAME, "point " + i);
+            }
+            wayPoints.add(wpt);
+        }
+        return wayPoints;
+    }
+
+    /**
+     * Test that the waypoints are restored with all their attributes
+     */
+    @Test
+    void testGetWayPoints() {
+        List<WayPoint> wayPoints = createWayPoints(200);
+        CompactGpxTrackSegment segment = new CompactGpxTrackSegment(wayPoints);
+        assertEquals(200, segment.size());
+        List<WayPoint> restored = new ArrayList<>(segment.getWayPoints());
+        assertEquals(wayPoints, restored);
+        for (int i = 0; i < wayPoints.size(); i++) {
+            assertEquals(wayPoints.get(i).attr, restored.get(i).attr);
+        }
+    }
+
+    /**
+     * Test that attributes which cannot be stored in primitive arrays are restored unchanged
+     */
+    @Test
+    void testNonNumericAttributes() {
+        List<WayPoint> wayPoints = createWayPoints(20);
+        wayPoints.get(3).put(GpxConstants.PT_ELE, "412.50");
+        wayPoints.get(4).setInstant(Instant.ofEpochSecond(1_600_000_000L, 123));
+        wayPoints.get(5).put(GpxConstants.PT_HDOP, Float.NaN);
+        List<WayPoint> restored = new ArrayList<>(new CompactGpxTrackSegment(wayPoints).getWayPoints());
+        for (int i = 0; i < wayPoints.size(); i++) {
+            assertEquals(wayPoints.get(i).attr, restored.get(i).attr);
+        }
+    }
+
+    /**
+     * Test that bounds and length are the same as those of {@link GpxTrackSegment}
+     */
+    @Test
+    void testBoundsAndLength() {
+        List<WayPoint> wayPoints = createWayPoints(100);
+        GpxTrackSegment expected = new GpxTrackSegment(wayPoints);
+        CompactGpxTrackSegment segment = new CompactGpxTrackSegment(wayPoints);
+        assertEquals(expected.getBounds(), segment.getBounds());
+        assertEquals(expected.length(), segment.length(), 1e-9);
+    }
+
+    /**
+     * Test that elevations which are not restored from their number, like {@code 123.0} or {@code 45.50}, are kept unchanged
+     */
+    @Test
+    void testNumbersNotRestored() {
+        List<WayPoint> wayPoints = createWayPoints(20);
+        wayPoints.get(3).put(GpxConstants.PT_ELE, "123.0");
+        wayPoints.get(4).put(GpxConstants.PT_ELE, "45.50");
+        List<WayPoint> restored = new ArrayList<>(new CompactGpxTrackSegment(wayPoints).getWayPoints());
+        assertEquals("123.0", restored.get(3).get(GpxConstants.PT_ELE));
+        assertEquals("45.50", restored.get(4).get(GpxConstants.PT_ELE));
+        assertEquals("412", restored.get(6).get(GpxConstants.PT_ELE));
+    }
+
+    /**
+     * Test that the waypoints are created on each read, and keep the changes of their attributes and their drawing state
+     */
+    @Test
+    void testWayPointsView() {
+        CompactGpxTrackSegment segment = new CompactGpxTrackSegment(createWayPoints(10));
+        List<WayPoint> wayPoints = new ArrayList<>(segment.getWayPoints());
+        wayPoints.get(0).drawLine = true;
+        wayPoints.get(0).dir = 5;
+        wayPoints.get(0).customColoring = Color.RED;
+        segment.setDrawingState(0, wayPoints.get(0));
+        wayPoints.get(1).put(GpxConstants.PT_ELE, "not a number");
+        wayPoints.get(2).setInstant(Instant.ofEpochSecond(1_600_000_000L, 123));
+        wayPoints.get(3).put(GpxConstants.GPX_DESC, "description");
+        wayPoints.get(4).attr.remove(GpxConstants.PT_HDOP);
+
+        List<WayPoint> again = new ArrayList<>(segment.getWayPoints());
+        for (int i = 0; i < wayPoints.size(); i++) {
+            assertNotSame(wayPoints.get(i), again.get(i));
+        }
+        assertTrue(again.get(0).drawLine);
+        assertEquals(5, again.get(0).dir);
+        assertEquals(Color.RED, again.get(0).customColoring);
+        assertFalse(again.get(1).drawLine);
+        assertNull(again.get(1).customColoring);
+        assertEquals("not a number", again.get(1).get(GpxConstants.PT_ELE));
+        assertEquals("412.5", again.get(2).get(GpxConstants.PT_ELE));
+        assertEquals(Instant.ofEpochSecond(1_600_000_000L, 123), again.get(2).getInstant());
+        assertEquals("description", again.get(3).get(GpxConstants.GPX_DESC));
+        assertFalse(again.get(4).attr.containsKey(GpxConstants.PT_HDOP));
+        assertEquals(1.5f, again.get(5).get(GpxConstants.PT_HDOP));
+        assertEquals(new HashMap<>(again.get(6).attr), again.get(6).attr);
+        assertEquals(new LatLon(47 + 6 * 1e-4, 8 - 6 * 1e-4), segment.getCoor(6));
+        assertEquals(again.get(6).attr, segment.getWayPointAttributes(6));
+    }
+
+    /**
+     * Test that equality is based on the coordinates and the attributes of the waypoints
+     */
+    @Test
+    void testEquals() {
+        CompactGpxTrackSegment segment = new CompactGpxTrackSegment(createWayPoints(10));
+        CompactGpxTrackSegment other = new CompactGpxTrackSegment(createWayPoints(10));
+        assertEquals(segment, other);
+        assertEquals(segment.hashCode(), other.hashCode());
+
+        other.getWayPointAttributes(3).put(GpxConstants.GPX_DESC, "description");
+        assertNotEquals(segment, other);
+        other.getWayPointAttributes(3).remove(GpxConstants.GPX_DESC);
+        assertEquals(segment, other);
+        assertNotEquals(segment, new CompactGpxTrackSegment(createWayPoints(11)));
+    }
+
+    /**
+     * Test of {@link CompactGpxTrackSegment#canCompact} and {@link CompactGpxTrackSegment#create}
+     */
+    @Test
+    void testCreate() {
+        List<WayPoint> wayPoints = createWayPoints(CompactGpxTrackSegment.PROP_MIN_POINTS.getDefaultValue());
+        assertTrue(CompactGpxTrackSegment.canCompact(wayPoints));
+        assertInstanceOf(CompactGpxTrackSegment.class, CompactGpxTrackSegment.create(wayPoints));
+        assertInstanceOf(GpxTrackSegment.class, CompactGpxTrackSegment.create(wayPoints.subList(0, 10)));
+
+        wayPoints.get(0).getExtensions().add("josm", "from-server", "true");
+        assertFalse(CompactGpxTrackSegment.canCompact(wayPoints));
+        assertFalse(CompactGpxTrackSegment.canCompact(Collections.emptyList()));
+        assertInstanceOf(GpxTrackSegment.class, CompactGpxTrackSegment.create(wayPoints));
+        assertThrows(IllegalArgumentException.class, () -> new CompactGpxTrackSegment(wayPoints));
+    }
+}
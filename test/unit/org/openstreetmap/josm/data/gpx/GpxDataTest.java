@@ -4,7 +4,9 @@ package org.openstreetmap.josm.data.gpx;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -15,6 +17,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -389,6 +392,53 @@ class GpxDataTest {
         assertNull(data.nearestPointOnTrack(new EastNorth(5, 5), 1));
     }
 
+    /**
+     * Test method for {@link GpxData#getLinesInBounds} and {@link GpxData#getSegmentIndex()}.
+     */
+    @Test
+    void testGetLinesInBounds() {
+        GpxTrack track1 = waypointGpxTrack(new WayPoint(new LatLon(0, 0)), new WayPoint(new LatLon(1, 1)));
+        GpxTrack track2 = waypointGpxTrack(new WayPoint(new LatLon(10, 10)), new WayPoint(new LatLon(11, 11)));
+        data.addTrack(track1);
+        data.addTrack(track2);
+        assertEquals(2, data.getSegmentIndex().size());
+
+        List<Line> lines = data.getLinesInBounds(new Bounds(0.5, 0.5, 0.6, 0.6));
+        assertEquals(1, lines.size());
+        assertEquals(track1.getSegments().iterator().next().getWayPoints(), new ArrayList<>(lines.get(0)));
+        assertEquals(2, data.getLinesInBounds(new Bounds(-1, -1, 12, 12)).size());
+        assertEquals(1, data.getLinesInBounds(new Bounds(-1, -1, 12, 12), false, true).size());
+        assertTrue(data.getLinesInBounds(new Bounds(5, 5, 6, 6)).isEmpty());
+
+        // the index is rebuilt when the data changes
+        data.removeTrack(track1);
+        assertEquals(1, data.getSegmentIndex().size());
+        assertTrue(data.getLinesInBounds(new Bounds(0.5, 0.5, 0.6, 0.6)).isEmpty());
+    }
+
+    /**
+     * Test that a spatial index built while the data changes is not kept.
+     */
+    @Test
+    void testSegmentIndexInvalidatedWhileBuilding() {
+        AtomicBoolean invalidate = new AtomicBoolean();
+        GpxTrackSegment segment = new GpxTrackSegment(Arrays.asList(new WayPoint(new LatLon(0, 0)), new WayPoint(new LatLon(1, 1)))) {
+            @Override
+            public Bounds getBounds() {
+                if (invalidate.getAndSet(false)) {
+                    data.invalidate();
+                }
+                return super.getBounds();
+            }
+        };
+        data.addTrack(new GpxTrack(Collections.<IGpxTrackSegment>singletonList(segment), Collections.emptyMap()));
+        invalidate.set(true);
+        GpxSpatialIndex outdated = data.getSegmentIndex();
+        GpxSpatialIndex index = data.getSegmentIndex();
+        assertNotSame(outdated, index);
+        assertSame(index, data.getSegmentIndex());
+    }
+
     /**
      * Test method for {@link GpxData#getDataSources()}.
      */
@@ -335,6 +335,18 @@ class GpxImageCorrelationTest {
         assertEquals(6, GpxImageCorrelation.matchGpxTrack(images, gpx, new GpxImageCorrelationSettings(0, false)));
     }
 
+    /**
+     * Tests matching of images to a GPX track.
+     * <p>
+     * TEST #10: Use the GPS time of the images, which they do not have. No image is tagged.
+     */
+    @Test
+    void testMatchGpxTrack10() {
+        assertEquals(0, GpxImageCorrelation.matchGpxTrack(images, gpx, new GpxImageCorrelationSettings(0, true,
+                TimeSource.EXIFGPSTIME, new GpxImageDirectionPositionSettings(false, 0, false, 0, 0, 0))));
+        assertTrue(images.stream().noneMatch(GpxImageEntry::hasNewGpsData));
+    }
+
     /**
      * Unit test of {@link GpxImageCorrelation#getElevation}
      */
@@ -0,0 +1,154 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Unit tests of the incremental execution of {@link FilterModel}.
+ */
+@BasicPreferences
+@Projection
+class FilterModelTest {
+
+    private DataSet ds;
+    private FilterModel model;
+
+    /**
+     * Setup test.
+     */
+    @BeforeEach
+    void setUp() {
+        ds = new DataSet();
+        MainApplication.getLayerManager().addLayer(new OsmDataLayer(ds, "FilterModelTest", null));
+        model = new FilterModel();
+    }
+
+    private void addHidingFilter(String text) {
+        Filter filter = new Filter();
+        filter.text = text;
+        filter.hiding = true;
+        model.addFilter(filter);
+        model.executeFilters();
+    }
+
+    private Way newWay(String tags, LatLon... coordinates) {
+        Node[] nodes = new Node[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            nodes[i] = new Node(coordinates[i]);
+        }
+        Way way = TestUtils.newWay(tags, nodes);
+        ds.addPrimitiveRecursive(way);
+        return way;
+    }
+
+    /**
+     * Test that a tag change hides the way and, through the way, its untagged nodes
+     */
+    @Test
+    void testTagChange() {
+        Way way = newWay("", LatLon.ZERO, new LatLon(0, 1e-3));
+        addHidingFilter("highway");
+        assertFalse(way.isDisabledAndHidden());
+
+        way.put("highway", "residential");
+        model.executeFiltersIncremental(Collections.singletonList(way));
+        assertTrue(way.isDisabledAndHidden());
+        assertTrue(way.firstNode().isDisabledAndHidden());
+        assertTrue(way.lastNode().isDisabledAndHidden());
+        assertEquals(3, model.getDisabledAndHiddenCount());
+
+        way.remove("highway");
+        model.executeFiltersIncremental(Collections.singletonList(way));
+        assertFalse(way.isDisabled());
+        assertFalse(way.firstNode().isDisabled());
+        assertEquals(0, model.getDisabledAndHiddenCount());
+    }
+
+    /**
+     * Test that moving a node evaluates the geometry of its parent way again
+     */
+    @Test
+    void testNodeMove() {
+        Way way = newWay("highway=residential", LatLon.ZERO, new LatLon(0, 1e-4));
+        addHidingFilter("waylength:1000-");
+        assertFalse(way.isDisabled());
+
+        Node node = way.lastNode();
+        node.setCoor(new LatLon(0, 0.1));
+        model.executeFiltersIncremental(Collections.singletonList(node));
+        assertTrue(way.isDisabledAndHidden());
+        assertTrue(way.firstNode().isDisabledAndHidden());
+        assertTrue(node.isDisabledAndHidden());
+    }
+
+    /**
+     * Test that a node added to a hidden way is hidden, although the state of the way does not change
+     */
+    @Test
+    void testWayNodesChange() {
+        Way way = newWay("highway=residential", LatLon.ZERO, new LatLon(0, 1e-3));
+        addHidingFilter("highway");
+        Node node = new Node(new LatLon(0, 2e-3));
+        ds.addPrimitive(node);
+        model.executeFiltersIncremental(Collections.singletonList(node));
+        assertFalse(node.isDisabled());
+
+        way.addNode(node);
+        model.executeFiltersIncremental(Collections.singletonList(way));
+        assertTrue(node.isDisabledAndHidden());
+    }
+
+    /**
+     * Test that the untagged member ways of a hidden multipolygon, and their nodes, are hidden when they become members
+     */
+    @Test
+    void testMembershipChange() {
+        Way outer = newWay("", LatLon.ZERO, new LatLon(0, 1e-3), new LatLon(1e-3, 1e-3));
+        Relation multipolygon = TestUtils.newRelation("type=multipolygon building=yes");
+        ds.addPrimitive(multipolygon);
+        addHidingFilter("building");
+        assertTrue(multipolygon.isDisabledAndHidden());
+        assertFalse(outer.isDisabled());
+
+        multipolygon.addMember(new RelationMember("outer", outer));
+        model.executeFiltersIncremental(Collections.singletonList(multipolygon));
+        assertTrue(outer.isDisabledAndHidden());
+        assertTrue(outer.firstNode().isDisabledAndHidden());
+
+        multipolygon.remove("building");
+        model.executeFiltersIncremental(Collections.singletonList(multipolygon));
+        assertFalse(multipolygon.isDisabled());
+        assertFalse(outer.isDisabled());
+        assertFalse(outer.firstNode().isDisabled());
+    }
+
+    /**
+     * Test that filters depending on related primitives evaluate the connected primitives
+     */
+    @Test
+    void testRelatedPrimitives() {
+        Way way = newWay("highway=residential", LatLon.ZERO, new LatLon(0, 1e-3));
+        Node node = way.firstNode();
+        node.put("barrier", "gate");
+        addHidingFilter("parent barrier=bollard");
+        assertFalse(way.isDisabled());
+
+        node.put("barrier", "bollard");
+        model.executeFiltersIncremental(Collections.singletonList(node));
+        assertTrue(way.isDisabledAndHidden());
+        assertTrue(way.lastNode().isDisabledAndHidden());
+    }
+}
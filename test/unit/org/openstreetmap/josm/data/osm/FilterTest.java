@@ -23,6 +23,7 @@ import org.openstreetmap.josm.data.osm.search.SearchMode;
 import org.openstreetmap.josm.data.osm.search.SearchParseError;
 import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
 import org.openstreetmap.josm.io.OsmReader;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
 
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
@@ -57,6 +58,42 @@ class FilterTest {
         assertFalse(n1.isDisabled());
     }
 
+    /**
+     * Test that large collections, evaluated in parallel, give the same result as the sequential evaluation.
+     * @throws SearchParseError never
+     */
+    @Test
+    @BasicPreferences
+    void testParallel() throws SearchParseError {
+        DataSet ds = new DataSet();
+        for (int i = 0; i < 5_000; i++) {
+            Node n1 = new Node(new LatLon(i * 1e-4, 0));
+            Node n2 = new Node(new LatLon(i * 1e-4, 1e-4));
+            Way w = new Way();
+            w.setNodes(Arrays.asList(n1, n2));
+            w.put("highway", i % 3 == 0 ? "primary" : "residential");
+            if (i % 7 == 0) {
+                n1.put("fixme", "yes");
+            }
+            ds.addPrimitiveRecursive(w);
+        }
+
+        Filter f1 = new Filter();
+        f1.text = "highway=residential";
+        f1.hiding = true;
+        FilterMatcher filterMatcher = FilterMatcher.of(f1);
+
+        assertTrue(FilterWorker.executeFilters(ds.allPrimitives(), filterMatcher));
+        for (Way w : ds.getWays()) {
+            boolean residential = w.hasTag("highway", "residential");
+            assertEquals(residential, w.isDisabledAndHidden());
+            for (Node n : w.getNodes()) {
+                assertEquals(residential && !n.isTagged(), n.isDisabledAndHidden());
+            }
+        }
+        assertFalse(FilterWorker.executeFilters(ds.allPrimitives(), filterMatcher));
+    }
+
     @Test
     void testFilter() throws Exception {
         for (int i : new int[] {1, 2, 3, 11, 12, 13, 14, 15}) {
@@ -2,8 +2,16 @@
 package org.openstreetmap.josm.data.osm.event;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
 
 /**
  * Unit tests of {@link NodeMovedEvent} class.
@@ -16,4 +24,20 @@ class NodeMovedEventTest {
     void testToString() {
         assertEquals("NODE_MOVED", new NodeMovedEvent(null, null).toString());
     }
+
+    /**
+     * Unit test of {@link NodeMovedEvent#getOldBBox}.
+     */
+    @Test
+    void testGetOldBBox() {
+        DataSet ds = new DataSet();
+        Node node = new Node(new LatLon(1, 2));
+        ds.addPrimitive(node);
+        List<AbstractDatasetChangedEvent> events = new ArrayList<>();
+        ds.addDataSetListener(new DataSetListenerAdapter(events::add));
+        node.setCoor(new LatLon(3, 4));
+        NodeMovedEvent event = (NodeMovedEvent) events.get(0);
+        assertEquals(new BBox(new LatLon(1, 2)), event.getOldBBox());
+        assertNull(new NodeMovedEvent(ds, node).getOldBBox());
+    }
 }
@@ -3,7 +3,16 @@ package org.openstreetmap.josm.data.osm.event;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.BBox;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
 
 /**
  * Unit tests of {@link WayNodesChangedEvent} class.
@@ -16,4 +25,25 @@ class WayNodesChangedEventTest {
     void testToString() {
         assertEquals("WAY_NODES_CHANGED", new WayNodesChangedEvent(null, null).toString());
     }
+
+    /**
+     * Unit test of {@link WayNodesChangedEvent#getOldBBox}.
+     */
+    @Test
+    void testGetOldBBox() {
+        DataSet ds = new DataSet();
+        Node n1 = new Node(new LatLon(1, 1));
+        Node n2 = new Node(new LatLon(2, 2));
+        Node n3 = new Node(new LatLon(5, 5));
+        Way way = new Way();
+        way.setNodes(Arrays.asList(n1, n2));
+        ds.addPrimitiveRecursive(way);
+        ds.addPrimitive(n3);
+        List<AbstractDatasetChangedEvent> events = new ArrayList<>();
+        ds.addDataSetListener(new DataSetListenerAdapter(events::add));
+        way.setNodes(Arrays.asList(n2, n3));
+        WayNodesChangedEvent event = (WayNodesChangedEvent) events.get(0);
+        assertEquals(new BBox(1, 1, 2, 2), event.getOldBBox());
+        assertEquals(new BBox(2, 2, 5, 5), way.getBBox());
+    }
 }
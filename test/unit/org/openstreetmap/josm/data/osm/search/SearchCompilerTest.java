@@ -832,6 +832,26 @@ class SearchCompilerTest {
         sc.match(sc.n2, false);
     }
 
+    /**
+     * Test {@link SearchCompiler.Match#dependsOnRelatedPrimitives()}
+     * @param searchString search string to test
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"foo=bar", "-highway", "type:way AND closed", "areasize:100-", "user:foo OR new", "nodes:2-"})
+    void testNotDependsOnRelatedPrimitives(final String searchString) throws SearchParseError {
+        assertFalse(SearchCompiler.compile(searchString).dependsOnRelatedPrimitives());
+    }
+
+    /**
+     * Test {@link SearchCompiler.Match#dependsOnRelatedPrimitives()}
+     * @param searchString search string to test
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"parent foo=bar", "child highway", "foo=bar OR role:outer", "-(nth:1)", "ways:2-", "allindownloadedarea"})
+    void testDependsOnRelatedPrimitives(final String searchString) throws SearchParseError {
+        assertTrue(SearchCompiler.compile(searchString).dependsOnRelatedPrimitives());
+    }
+
     /**
      * Non-regression test for JOSM #21300
      * @param searchString search string to test
@@ -0,0 +1,54 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm.visitor.paint;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.MapView;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.testutils.annotations.Main;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Unit tests of {@link BackgroundMapRenderer} class.
+ */
+@Main
+@Projection
+class BackgroundMapRendererTest {
+
+    /**
+     * Test that invalidating the renderer cancels the current rendering, and that the next paint renders again
+     * @throws InterruptedException if the rendering is interrupted
+     */
+    @Test
+    void testInvalidateCancelsRendering() throws InterruptedException {
+        DataSet ds = new DataSet(new Node(LatLon.ZERO));
+        MainApplication.getLayerManager().addLayer(new OsmDataLayer(ds, "BackgroundMapRendererTest", null));
+        MapView mv = MainApplication.getMap().mapView;
+        mv.setBounds(0, 0, 200, 200);
+        CountDownLatch rendered = new CountDownLatch(1);
+        BackgroundMapRenderer renderer = new BackgroundMapRenderer(rendered::countDown);
+        try {
+            renderer.paint(TestUtils.newGraphics(), mv, ds, mv.getRealBounds(), false, false);
+            assertFalse(renderer.isCancelled());
+
+            renderer.invalidate();
+            assertTrue(renderer.isCancelled());
+
+            renderer.paint(TestUtils.newGraphics(), mv, ds, mv.getRealBounds(), false, false);
+            assertFalse(renderer.isCancelled());
+            assertTrue(rendered.await(10, TimeUnit.SECONDS));
+        } finally {
+            renderer.cancel();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm.visitor.paint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
+
+import org.awaitility.Awaitility;
+import org.awaitility.Durations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.gui.mappaint.mapcss.Selector;
+import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.MapCSSParser;
+import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.ParseException;
+
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+
+/**
+ * Unit tests of {@link RenderStatistics} class.
+ */
+class RenderStatisticsTest {
+
+    @AfterEach
+    void tearDown() {
+        RenderStatistics.getInstance().reset();
+    }
+
+    /**
+     * Test of {@link RenderStatistics#addFrame} and {@link RenderStatistics#toJson}
+     */
+    @Test
+    void testFrames() {
+        RenderStatistics statistics = RenderStatistics.getInstance();
+        statistics.addFrame(10, 2, 30, true);
+        statistics.addFrame(20, 3, 40, false);
+        assertEquals(2, statistics.getFrameCount());
+
+        JsonObject frames = statistics.toJson(10).getJsonObject("frames");
+        assertEquals(2, frames.getInt("count"));
+        assertEquals(30, frames.getInt("generateMs"));
+        assertEquals(5, frames.getInt("sortMs"));
+        assertEquals(70, frames.getInt("drawMs"));
+        assertEquals(42, frames.getInt("edtMs"));
+        assertEquals(63, frames.getInt("maxMs"));
+
+        statistics.reset();
+        assertEquals(0, statistics.getFrameCount());
+    }
+
+    /**
+     * Test of {@link RenderStatistics#getStyleCacheHitRate}
+     */
+    @Test
+    void testStyleCacheHitRate() {
+        RenderStatistics statistics = RenderStatistics.getInstance();
+        assertEquals(0, statistics.getStyleCacheHitRate());
+        statistics.addStyleCacheLookup(true);
+        statistics.addStyleCacheLookup(true);
+        statistics.addStyleCacheLookup(true);
+        statistics.addStyleCacheLookup(false);
+        assertEquals(0.75, statistics.getStyleCacheHitRate());
+    }
+
+    /**
+     * Test of {@link RenderStatistics#releaseSelectors}
+     * @throws ParseException if the selectors cannot be parsed
+     */
+    @Test
+    void testReleaseSelectors() throws ParseException {
+        RenderStatistics statistics = RenderStatistics.getInstance();
+        WeakReference<Selector> ref = new WeakReference<>(new MapCSSParser(new StringReader("way[highway]")).selector());
+        statistics.addSelectorEvaluation("style", ref.get(), true);
+        statistics.releaseSelectors();
+        // the same selector, once the style has been reloaded
+        statistics.addSelectorEvaluation("style", new MapCSSParser(new StringReader("way[highway]")).selector(), false);
+
+        JsonArray selectors = statistics.toJson(10).getJsonArray("selectors");
+        assertEquals(1, selectors.size());
+        assertEquals(2, selectors.getJsonObject(0).getInt("evaluations"));
+        assertEquals(1, selectors.getJsonObject(0).getInt("matches"));
+        Awaitility.await().atMost(Durations.FIVE_SECONDS).until(() -> {
+            System.gc();
+            return ref.get() == null;
+        });
+    }
+}
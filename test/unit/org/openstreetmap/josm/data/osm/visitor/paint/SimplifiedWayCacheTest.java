@@ -0,0 +1,130 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm.visitor.paint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.awaitility.Awaitility;
+import org.awaitility.Durations;
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.INode;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Unit tests of {@link SimplifiedWayCache} class.
+ */
+@Projection
+class SimplifiedWayCacheTest {
+
+    /**
+     * Test of {@link SimplifiedWayCache#simplify}
+     */
+    @Test
+    void testSimplify() {
+        Node n1 = new Node(new EastNorth(0, 0));
+        Node n2 = new Node(new EastNorth(10, 0.1));
+        Node n3 = new Node(new EastNorth(20, 0));
+        Node n4 = new Node(new EastNorth(30, 5));
+        Node n5 = new Node(new EastNorth(40, 0));
+        List<Node> nodes = Arrays.asList(n1, n2, n3, n4, n5);
+
+        assertEquals(Arrays.asList(n1, n3, n4, n5), SimplifiedWayCache.simplify(nodes, 1));
+        assertEquals(Arrays.asList(n1, n5), SimplifiedWayCache.simplify(nodes, 10));
+        assertEquals(nodes, SimplifiedWayCache.simplify(nodes, 0.01));
+    }
+
+    /**
+     * Test of {@link SimplifiedWayCache#simplify} with a closed way
+     */
+    @Test
+    void testSimplifyClosed() {
+        List<INode> nodes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            double angle = 2 * Math.PI * i / 100;
+            nodes.add(new Node(new EastNorth(100 * Math.cos(angle), 100 * Math.sin(angle))));
+        }
+        nodes.add(nodes.get(0));
+
+        List<INode> simplified = SimplifiedWayCache.simplify(nodes, 5);
+        assertEquals(nodes.get(0), simplified.get(0));
+        assertEquals(nodes.get(0), simplified.get(simplified.size() - 1));
+        assertTrue(simplified.size() < 20, simplified::toString);
+    }
+
+    /**
+     * Test of {@link SimplifiedWayCache#getZoomBucket}
+     */
+    @Test
+    void testGetZoomBucket() {
+        assertEquals(0, SimplifiedWayCache.getZoomBucket(1));
+        assertEquals(0, SimplifiedWayCache.getZoomBucket(1.9));
+        assertEquals(3, SimplifiedWayCache.getZoomBucket(8));
+        assertEquals(-2, SimplifiedWayCache.getZoomBucket(0.3));
+    }
+
+    /**
+     * Test of {@link SimplifiedWayCache#getNodes} with several zoom levels, and with a data set which does not belong to a layer
+     */
+    @Test
+    void testGetNodes() {
+        DataSet ds = new DataSet();
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 2 * SimplifiedWayCache.MIN_NODES; i++) {
+            Node node = new Node(new EastNorth(i * 10, (i % 2) * 0.01));
+            ds.addPrimitive(node);
+            nodes.add(node);
+        }
+        Way way = new Way();
+        way.setNodes(nodes);
+        ds.addPrimitive(way);
+        SimplifiedWayCache cache = SimplifiedWayCache.getInstance();
+        try {
+            List<? extends INode> simplified = cache.getNodes(way, 1);
+            assertEquals(Arrays.asList(nodes.get(0), nodes.get(nodes.size() - 1)), simplified);
+            assertEquals(nodes, cache.getNodes(way, 1e-6));
+            // both zoom levels are kept
+            assertSame(simplified, cache.getNodes(way, 1));
+
+            // the cache listens to the data set
+            nodes.get(5).setEastNorth(new EastNorth(50, 100));
+            assertTrue(cache.getNodes(way, 1).contains(nodes.get(5)));
+        } finally {
+            cache.clear(ds);
+        }
+    }
+
+    /**
+     * Test that {@link SimplifiedWayCache} does not keep a data set which does not belong to a layer
+     */
+    @Test
+    void testDataSetReleased() {
+        WeakReference<DataSet> ref = new WeakReference<>(simplifyWay());
+        Awaitility.await().atMost(Durations.FIVE_SECONDS).until(() -> {
+            System.gc();
+            return ref.get() == null;
+        });
+    }
+
+    private static DataSet simplifyWay() {
+        DataSet ds = new DataSet();
+        Way way = new Way();
+        for (int i = 0; i < 2 * SimplifiedWayCache.MIN_NODES; i++) {
+            Node node = new Node(new EastNorth(i * 10, (i % 2) * 0.01));
+            ds.addPrimitive(node);
+            way.addNode(node);
+        }
+        ds.addPrimitive(way);
+        assertEquals(2, SimplifiedWayCache.getInstance().getNodes(way, 1).size());
+        return ds;
+    }
+}
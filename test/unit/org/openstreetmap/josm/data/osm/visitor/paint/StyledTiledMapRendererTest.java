@@ -1,13 +1,22 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.data.osm.visitor.paint;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.openstreetmap.josm.testutils.ImageTestUtils.assertImageEquals;
 import static org.openstreetmap.josm.testutils.ImageTestUtils.writeDebugImages;
 
 import java.awt.Graphics2D;
+import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -19,6 +28,7 @@ import java.util.stream.Stream;
 
 import org.apache.commons.jcs3.access.CacheAccess;
 import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -123,6 +133,57 @@ class StyledTiledMapRendererTest {
         }
     }
 
+    /**
+     * Test that a cancelled or superseded tile loader finishing last does not replace the image of the current loader
+     */
+    @Test
+    void testSupersededLoader() {
+        final TileZXY tile = new TileZXY(16, 32768, 32768);
+        final Bounds viewArea = TileZXY.tileToBounds(tile);
+        final CacheAccess<TileZXY, ImageCache> cache = JCSCacheManager.getCache("StyledTiledMapRendererTest:testSupersededLoader");
+        cache.clear();
+        final NavigatableComponent nc = new NavigatableComponent() {
+            @Override
+            public int getWidth() {
+                return 256;
+            }
+
+            @Override
+            public int getHeight() {
+                return 256;
+            }
+        };
+        nc.zoomTo(viewArea);
+        final DataSet ds = new DataSet(new Node(viewArea.getCenter()));
+        final List<TileZXY> notified = new ArrayList<>();
+        final BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g2d = image.createGraphics();
+        try {
+            final StyledTiledMapRenderer renderer = new StyledTiledMapRenderer(g2d, nc, false);
+            renderer.setCache(viewArea, cache, tile.zoom(), notified::add);
+            final StyledTiledMapRenderer.TileLoader superseded = renderer.new TileLoader(ds, tile, 256, new ArrayList<>());
+            final StyledTiledMapRenderer.TileLoader cancelled = renderer.new TileLoader(ds, tile, 256, new ArrayList<>());
+            final StyledTiledMapRenderer.TileLoader current = renderer.new TileLoader(ds, tile, 256, new ArrayList<>());
+            cancelled.cancel();
+            cache.put(tile, new ImageCache(null, current, false));
+
+            current.run();
+            final Image currentImage = cache.get(tile).image();
+            assertNotNull(currentImage);
+            assertNull(cache.get(tile).imageFuture());
+            assertEquals(Collections.singletonList(tile), notified);
+
+            superseded.run();
+            cancelled.run();
+            assertSame(currentImage, cache.get(tile).image());
+            assertFalse(cache.get(tile).isDirty());
+            assertEquals(Collections.singletonList(tile), notified);
+        } finally {
+            g2d.dispose();
+            cache.clear();
+        }
+    }
+
     private static BufferedImage render(Function<Graphics2D, ? extends StyledMapRenderer> renderer,
                                         final DataSet ds, final NavigatableComponent nc) {
         final BufferedImage bufferedImage = new BufferedImage(nc.getWidth(), nc.getHeight(), BufferedImage.TYPE_INT_ARGB);
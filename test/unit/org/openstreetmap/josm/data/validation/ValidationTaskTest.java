@@ -0,0 +1,144 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.preferences.sources.ValidatorPrefHelper;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link ValidationTask} class.
+ */
+@BasicPreferences
+class ValidationTaskTest {
+
+    /**
+     * A test reporting every node, which takes some time to end.
+     */
+    private static final class SlowTest extends org.openstreetmap.josm.data.validation.Test {
+        SlowTest() {
+            super("Slow test");
+        }
+
+        @Override
+        public void visit(Node n) {
+            errors.add(TestError.builder(this, Severity.WARNING, 1).message("Slow test").primitives(n).build());
+        }
+
+        @Override
+        public void endTest() {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.endTest();
+        }
+    }
+
+    /**
+     * A test visiting the tagged primitives only.
+     */
+    private static final class TaggedTest extends org.openstreetmap.josm.data.validation.Test {
+        TaggedTest() {
+            super("Tagged test");
+        }
+
+        @Override
+        public boolean isPrimitiveUsable(OsmPrimitive p) {
+            return super.isPrimitiveUsable(p) && p.hasKeys();
+        }
+    }
+
+    private static ValidationTask validate(List<OsmPrimitive> primitives, boolean beforeUpload) {
+        return validate(Collections.singletonList(new SlowTest()), primitives, beforeUpload);
+    }
+
+    private static ValidationTask validate(List<org.openstreetmap.josm.data.validation.Test> tests, List<OsmPrimitive> primitives,
+            boolean beforeUpload) {
+        ValidationTask task = new ValidationTask(null, NullProgressMonitor.INSTANCE, tests, primitives, null, beforeUpload);
+        task.run();
+        return task;
+    }
+
+    /**
+     * Test that the statistics of the tests are recorded
+     */
+    @Test
+    void testStatistics() {
+        DataSet ds = new DataSet();
+        List<OsmPrimitive> nodes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Node node = new Node(new LatLon(0, i));
+            if (i == 0) {
+                node.put("amenity", "bench");
+            }
+            ds.addPrimitive(node);
+            nodes.add(node);
+        }
+        List<TestStatistics> statistics = validate(Arrays.asList(new SlowTest(), new TaggedTest()), nodes, false).getStatistics();
+        assertEquals(2, statistics.size());
+        assertEquals("Slow test", statistics.get(0).getName());
+        assertEquals(3, statistics.get(0).getPrimitives());
+        assertEquals(3, statistics.get(0).getErrors());
+        assertEquals(0, statistics.get(0).getSkipped());
+        assertTrue(statistics.get(0).getElapsed() >= 20);
+        assertTrue(statistics.get(0).getErrorsByRule().isEmpty());
+        assertEquals("Tagged test", statistics.get(1).getName());
+        assertEquals(1, statistics.get(1).getPrimitives());
+        assertEquals(0, statistics.get(1).getErrors());
+
+        TestStatistics sum = new TestStatistics("Slow test");
+        sum.add(statistics.get(0));
+        sum.add(statistics.get(0));
+        assertEquals(6, sum.getPrimitives());
+        assertEquals(6, sum.getErrors());
+    }
+
+    /**
+     * Test that a test exceeding its time budget on average before upload is skipped for several uploads, then run again
+     */
+    @Test
+    void testUploadTimeBudget() {
+        DataSet ds = new DataSet();
+        Node node = new Node(LatLon.ZERO);
+        ds.addPrimitive(node);
+        List<OsmPrimitive> primitives = Collections.singletonList(node);
+        ValidatorPrefHelper.PREF_UPLOAD_TIME_BUDGET.put(5);
+        try {
+            ValidationTask first = validate(primitives, true);
+            assertEquals(0, first.getStatistics().get(0).getSkipped());
+            assertEquals(1, first.getErrors().size());
+            // the average of more than 20 ms needs several uploads to decrease below 5 ms
+            for (int i = 0; i < 2; i++) {
+                ValidationTask skipped = validate(primitives, true);
+                assertEquals(1, skipped.getStatistics().get(0).getSkipped());
+                assertTrue(skipped.getErrors().isEmpty());
+            }
+            int uploads = 0;
+            ValidationTask next;
+            do {
+                next = validate(primitives, true);
+                uploads++;
+            } while (next.getStatistics().get(0).getSkipped() > 0 && uploads < 30);
+            assertEquals(0, next.getStatistics().get(0).getSkipped());
+            assertEquals(1, next.getErrors().size());
+            // measured again, still too slow
+            assertEquals(1, validate(primitives, true).getStatistics().get(0).getSkipped());
+        } finally {
+            ValidatorPrefHelper.PREF_UPLOAD_TIME_BUDGET.remove();
+        }
+    }
+}
@@ -16,6 +16,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -37,6 +38,7 @@ import org.openstreetmap.josm.TestUtils;
 import org.openstreetmap.josm.data.coor.LatLon;
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.io.OsmWriter;
 import org.openstreetmap.josm.io.OsmWriterFactory;
 import org.openstreetmap.josm.spi.lifecycle.Lifecycle;
@@ -135,6 +137,179 @@ class ValidatorCLITest {
         assertEquals(3, errors.size(), errors.stream().map(ValidatorCLITest::getMessage).collect(Collectors.joining("\n")));
     }
 
+    /**
+     * Validate the data of ticket #13165 tile by tile, with tiles much smaller than the data
+     */
+    @Test
+    void testBadDataTicket13165Tiles() {
+        final String dataPath = TestUtils.getRegressionDataFile(13165, "13165.osm");
+        final String outputPath = Paths.get(temporaryDirectory.getPath(), "testBadDataTicket13165Tiles.geojson").toString();
+        validatorCLI.processArguments(new String[]{"--input", dataPath, "--output", outputPath, "--tile-size", "0.0005"});
+        final File outputFile = new File(outputPath);
+        assertTrue(outputFile.exists());
+        threadSync.threadSync();
+        final List<JsonObject> errors = readJsonObjects(outputFile.toPath());
+        assertEquals(3, errors.stream().map(ValidatorCLITest::getMessage).filter("Overlapping Identical Landuses"::equals).count());
+        assertEquals(3, errors.size(), errors.stream().map(ValidatorCLITest::getMessage).collect(Collectors.joining("\n")));
+    }
+
+    /**
+     * Validate tile by tile a long way crossing a short way far from its center: the crossing is found once, as without tiles.
+     * @throws IOException if the data cannot be written
+     */
+    @Test
+    void testLongWayTiles() throws IOException {
+        final DataSet dataSet = new DataSet();
+        final Way longWay = TestUtils.newWay("highway=residential", new Node(new LatLon(0, 0)), new Node(new LatLon(0, 1)));
+        final Way shortWay = TestUtils.newWay("highway=residential", new Node(new LatLon(-0.0005, 0.9)), new Node(new LatLon(0.0005, 0.9)));
+        dataSet.addPrimitiveRecursive(longWay);
+        dataSet.addPrimitiveRecursive(shortWay);
+        final Path osmPath = Paths.get(temporaryDirectory.getPath(), "testLongWayTiles.osm");
+        try (PrintWriter printWriter = new PrintWriter(Files.newOutputStream(osmPath), true)) {
+            OsmWriterFactory.createOsmWriter(printWriter, true, "0.6").write(dataSet);
+        }
+
+        final List<List<String>> messages = new ArrayList<>();
+        for (String[] tileArguments : new String[][] {{}, {"--tile-size", "0.01"}}) {
+            final String outputPath = Paths.get(temporaryDirectory.getPath(), "testLongWayTiles" + messages.size() + ".geojson").toString();
+            final List<String> arguments = new ArrayList<>(Arrays.asList("--input", osmPath.toString(), "--output", outputPath));
+            arguments.addAll(Arrays.asList(tileArguments));
+            validatorCLI.processArguments(arguments.toArray(new String[0]));
+            threadSync.threadSync();
+            messages.add(readJsonObjects(Paths.get(outputPath)).stream().map(ValidatorCLITest::getMessage).sorted()
+                    .collect(Collectors.toList()));
+        }
+        assertEquals(1, messages.get(1).stream().filter("Crossing highways"::equals).count(), messages.get(1)::toString);
+        assertEquals(messages.get(0), messages.get(1));
+    }
+
+    /**
+     * Validate tile by tile two long ways crossing in a tile which owns none of them: the crossing is still found once.
+     * @throws IOException if the data cannot be written
+     */
+    @Test
+    void testLongWaysCrossingInOtherTile() throws IOException {
+        final DataSet dataSet = new DataSet();
+        // owned by the tile of its center, row 2 and column 0 with tiles of 0.01°
+        dataSet.addPrimitiveRecursive(TestUtils.newWay("highway=residential",
+                new Node(new LatLon(0.025, 0.0)), new Node(new LatLon(0.025, 0.018))));
+        // owned by the tile of row 1 and column 1, the crossing is in the tile of row 2 and column 1
+        dataSet.addPrimitiveRecursive(TestUtils.newWay("waterway=river",
+                new Node(new LatLon(0.0, 0.015)), new Node(new LatLon(0.028, 0.015))));
+        final Path osmPath = Paths.get(temporaryDirectory.getPath(), "testLongWaysCrossingInOtherTile.osm");
+        try (PrintWriter printWriter = new PrintWriter(Files.newOutputStream(osmPath), true)) {
+            OsmWriterFactory.createOsmWriter(printWriter, true, "0.6").write(dataSet);
+        }
+        final String outputPath = Paths.get(temporaryDirectory.getPath(), "testLongWaysCrossingInOtherTile.geojson").toString();
+        validatorCLI.processArguments(new String[]{"--input", osmPath.toString(), "--output", outputPath, "--tile-size", "0.01"});
+        threadSync.threadSync();
+        final List<String> messages = readJsonObjects(Paths.get(outputPath)).stream().map(ValidatorCLITest::getMessage)
+                .collect(Collectors.toList());
+        assertEquals(1, messages.stream().filter("Crossing highway/waterway"::equals).count(), messages::toString);
+    }
+
+    /**
+     * Validate the data of ticket #13165 twice with a validation results cache, the second run reusing the results
+     */
+    @Test
+    void testBadDataTicket13165ResultCache() {
+        final String dataPath = TestUtils.getRegressionDataFile(13165, "13165.osm");
+        final String outputPath = Paths.get(temporaryDirectory.getPath(), "testBadDataTicket13165ResultCache.geojson").toString();
+        final String cachePath = Paths.get(temporaryDirectory.getPath(), "testBadDataTicket13165ResultCache.cache").toString();
+        for (int run = 0; run < 2; run++) {
+            validatorCLI.processArguments(new String[]{"--input", dataPath, "--output", outputPath, "--result-cache", cachePath});
+            final File outputFile = new File(outputPath);
+            assertTrue(outputFile.exists());
+            assertTrue(new File(cachePath).isFile());
+            threadSync.threadSync();
+            final List<JsonObject> errors = readJsonObjects(outputFile.toPath());
+            assertEquals(3, errors.stream().map(ValidatorCLITest::getMessage).filter("Overlapping Identical Landuses"::equals).count());
+            assertEquals(3, errors.size(), errors.stream().map(ValidatorCLITest::getMessage).collect(Collectors.joining("\n")));
+        }
+    }
+
+    /**
+     * Validate twice with a validation results cache a long way crossing a short way, with a change near the short way only:
+     * the crossing is found again although the long way is far from the change.
+     * @throws IOException if the data cannot be written
+     */
+    @Test
+    void testResultCacheCrossingWays() throws IOException {
+        final DataSet dataSet = new DataSet();
+        final Way longWay = TestUtils.newWay("highway=residential", new Node(new LatLon(0, 0)), new Node(new LatLon(0, 1)));
+        final Way shortWay = TestUtils.newWay("highway=residential", new Node(new LatLon(-0.0005, 0.9)), new Node(new LatLon(0.0005, 0.9)));
+        dataSet.addPrimitiveRecursive(longWay);
+        dataSet.addPrimitiveRecursive(shortWay);
+        long id = 1;
+        for (Way way : Arrays.asList(longWay, shortWay)) {
+            way.setOsmId(id++, 1);
+            for (Node node : way.getNodes()) {
+                node.setOsmId(id++, 1);
+            }
+        }
+        final Path osmPath = Paths.get(temporaryDirectory.getPath(), "testResultCacheCrossingWays.osm");
+        final String outputPath = Paths.get(temporaryDirectory.getPath(), "testResultCacheCrossingWays.geojson").toString();
+        final String cachePath = Paths.get(temporaryDirectory.getPath(), "testResultCacheCrossingWays.cache").toString();
+        for (int run = 0; run < 2; run++) {
+            if (run == 1) {
+                // near the short way, far from the nodes and the bounding box of the long way
+                final Node bench = new Node(new LatLon(0.0015, 0.9));
+                bench.put("amenity", "bench");
+                bench.setOsmId(id, 1);
+                dataSet.addPrimitive(bench);
+            }
+            try (PrintWriter printWriter = new PrintWriter(Files.newOutputStream(osmPath), true)) {
+                OsmWriterFactory.createOsmWriter(printWriter, true, "0.6").write(dataSet);
+            }
+            validatorCLI.processArguments(new String[]{"--input", osmPath.toString(), "--output", outputPath, "--result-cache", cachePath});
+            threadSync.threadSync();
+            final List<String> messages = readJsonObjects(Paths.get(outputPath)).stream().map(ValidatorCLITest::getMessage)
+                    .collect(Collectors.toList());
+            assertEquals(1, messages.stream().filter("Crossing highways"::equals).count(), messages::toString);
+        }
+    }
+
+    /**
+     * Validate twice with a validation results cache a way, then the way and a new way with a similar name, farther than
+     * the margin of the cache but in the same grid cell: the similar names are found although the first way is unchanged.
+     * @throws IOException if the data cannot be written
+     */
+    @Test
+    void testResultCacheSimilarNamedWays() throws IOException {
+        final DataSet dataSet = new DataSet();
+        // the end nodes at the longitudes 0.00046° and 0.00171° share a cell of 100 m of the grid of the validator
+        final Way way = TestUtils.newWay("highway=residential name=\"Main Street\"",
+                new Node(new LatLon(0, -0.01)), new Node(new LatLon(0, 0.00046)));
+        dataSet.addPrimitiveRecursive(way);
+        long id = 1;
+        way.setOsmId(id++, 1);
+        for (Node node : way.getNodes()) {
+            node.setOsmId(id++, 1);
+        }
+        final Path osmPath = Paths.get(temporaryDirectory.getPath(), "testResultCacheSimilarNamedWays.osm");
+        final String outputPath = Paths.get(temporaryDirectory.getPath(), "testResultCacheSimilarNamedWays.geojson").toString();
+        final String cachePath = Paths.get(temporaryDirectory.getPath(), "testResultCacheSimilarNamedWays.cache").toString();
+        for (int run = 0; run < 2; run++) {
+            if (run == 1) {
+                final Way similarWay = TestUtils.newWay("highway=residential name=\"Maim Street\"",
+                        new Node(new LatLon(0, 0.00171)), new Node(new LatLon(0, 0.01)));
+                dataSet.addPrimitiveRecursive(similarWay);
+                similarWay.setOsmId(id++, 1);
+                for (Node node : similarWay.getNodes()) {
+                    node.setOsmId(id++, 1);
+                }
+            }
+            try (PrintWriter printWriter = new PrintWriter(Files.newOutputStream(osmPath), true)) {
+                OsmWriterFactory.createOsmWriter(printWriter, true, "0.6").write(dataSet);
+            }
+            validatorCLI.processArguments(new String[]{"--input", osmPath.toString(), "--output", outputPath, "--result-cache", cachePath});
+            threadSync.threadSync();
+            final List<String> messages = readJsonObjects(Paths.get(outputPath)).stream().map(ValidatorCLITest::getMessage)
+                    .collect(Collectors.toList());
+            assertEquals(run, messages.stream().filter("Similarly named ways"::equals).count(), messages::toString);
+        }
+    }
+
     @Test
     void testBadDataPlusChangeFile() throws IOException {
         // Write test data out
@@ -10,7 +10,10 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.InputStream;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -449,6 +452,61 @@ class MapCSSTagCheckerTest {
         assertEquals("12.12", p.get("ele"));
     }
 
+    /**
+     * Test that the checks of large collections, evaluated in parallel, give the same errors in the same order.
+     * @throws ParseException if a parsing error occurs
+     */
+    @Test
+    void testParallelVisit() throws ParseException {
+        final MapCSSTagChecker test = buildTagChecker(
+                "node[amenity=bench][!backrest] { throwWarning: tr(\"bench without backrest\"); }");
+        final List<OsmPrimitive> nodes = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            nodes.add(TestUtils.newNode(i % 3 == 0 ? "amenity=bench backrest=yes" : "amenity=bench"));
+        }
+        test.startTest(NullProgressMonitor.INSTANCE);
+        test.visit(nodes);
+        test.endTest();
+        final List<TestError> errors = test.getErrors();
+        assertEquals(nodes.stream().filter(n -> !n.hasKey("backrest")).count(), errors.size());
+        final Iterator<TestError> it = errors.iterator();
+        for (OsmPrimitive n : nodes) {
+            if (!n.hasKey("backrest")) {
+                assertEquals(Collections.singleton(n), new HashSet<>(it.next().getPrimitives()));
+            }
+        }
+    }
+
+    /**
+     * Test that the rules of several files, pre-filtered by required and forbidden tags, give the expected errors.
+     * @throws ParseException if a parsing error occurs
+     */
+    @Test
+    void testTagFilters() throws ParseException {
+        final MapCSSTagChecker test = buildTagChecker(
+                "node[amenity=bench][!backrest] { throwWarning: tr(\"bench without backrest\"); }" +
+                "node[amenity=bench][backrest?] { throwWarning: tr(\"bench with backrest\"); }");
+        test.checks.putAll("test2", MapCSSTagCheckerRule.readMapCSS(new StringReader(
+                "node[amenity][!name], node[shop][!name] { throwWarning: tr(\"unnamed\"); }" +
+                "node[amenity=bench][backrest=no] { throwWarning: tr(\"backrest=no\"); }"), e -> { }).parseChecks);
+        final Node bench = TestUtils.newNode("amenity=bench");
+        final Node benchWithBackrest = TestUtils.newNode("amenity=bench backrest=yes name=Foo");
+        final Node benchWithoutBackrest = TestUtils.newNode("amenity=bench backrest=no name=Foo");
+        final Node shop = TestUtils.newNode("shop=bakery");
+        final Node named = TestUtils.newNode("shop=bakery name=Bar");
+        test.startTest(NullProgressMonitor.INSTANCE);
+        test.visit(Arrays.asList(bench, benchWithBackrest, benchWithoutBackrest, shop, named));
+        test.endTest();
+        final List<String> messages = new ArrayList<>();
+        for (TestError e : test.getErrors()) {
+            messages.add(e.getPrimitives().iterator().next().get("amenity") + "/" + e.getMessage());
+        }
+        Collections.sort(messages);
+        assertEquals(Arrays.asList(
+                "bench/backrest=no", "bench/bench with backrest", "bench/bench without backrest", "bench/unnamed", "null/unnamed"),
+                messages);
+    }
+
     /**
      * A water area inside a coastline, where the coastline way is oriented away from the water area
      * (the water area is not inside the ocean).
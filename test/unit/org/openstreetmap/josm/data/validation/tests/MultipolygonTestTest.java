@@ -5,11 +5,20 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.validation.TestError;
 import org.openstreetmap.josm.io.OsmReader;
 import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
 import org.openstreetmap.josm.testutils.annotations.Main;
@@ -66,4 +75,58 @@ class MultipolygonTestTest {
             assertEquals(1, mpTest.getErrors().size());
         }
     }
+
+    /**
+     * Test that checking many multipolygons at once, possibly concurrently, finds the same errors in the same order
+     * as checking them one by one, and counts the same visited primitives.
+     */
+    @Test
+    void testManyMultipolygons() {
+        DataSet ds = new DataSet();
+        List<OsmPrimitive> relations = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            List<Node> nodes = new ArrayList<>();
+            for (LatLon ll : new LatLon[] {new LatLon(i, 0), new LatLon(i, 0.5), new LatLon(i + 0.5, 0.5)}) {
+                Node n = new Node(ll);
+                ds.addPrimitive(n);
+                nodes.add(n);
+            }
+            nodes.add(nodes.get(0));
+            Way w = new Way();
+            w.setNodes(nodes);
+            ds.addPrimitive(w);
+            Relation r = new Relation();
+            r.put("type", "multipolygon");
+            r.put("landuse", "meadow");
+            // an inner ring without outer ring
+            r.addMember(new RelationMember(i % 2 == 0 ? "inner" : "outer", w));
+            ds.addPrimitive(r);
+            relations.add(r);
+        }
+
+        MultipolygonTest sequentialTest = new MultipolygonTest();
+        sequentialTest.startTest(null);
+        relations.forEach(r -> sequentialTest.visit((Relation) r));
+        sequentialTest.endTest();
+
+        MultipolygonTest test = new MultipolygonTest();
+        test.startTest(null);
+        test.visit(relations);
+        test.endTest();
+
+        assertEquals(150, test.getErrors().size());
+        assertEquals(toString(sequentialTest.getErrors()), toString(test.getErrors()));
+        assertEquals(150, test.getVisitedCount());
+
+        // all usable primitives are counted, as when the primitives are visited one by one
+        MultipolygonTest allPrimitivesTest = new MultipolygonTest();
+        allPrimitivesTest.startTest(null);
+        allPrimitivesTest.visit(ds.allPrimitives());
+        allPrimitivesTest.endTest();
+        assertEquals(ds.allPrimitives().size(), allPrimitivesTest.getVisitedCount());
+    }
+
+    private static List<String> toString(List<TestError> errors) {
+        return errors.stream().map(e -> e.getCode() + " " + e.getPrimitives()).collect(Collectors.toList());
+    }
 }
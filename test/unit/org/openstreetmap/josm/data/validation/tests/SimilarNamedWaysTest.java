@@ -4,11 +4,27 @@ package org.openstreetmap.josm.data.validation.tests;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.validation.OsmValidator;
+import org.openstreetmap.josm.data.validation.TestError;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.Projection;
 
 /**
  * Unit test of {@link SimilarNamedWays}
  */
+@BasicPreferences
+@Projection
 class SimilarNamedWaysTest {
 
     private final SimilarNamedWays test = new SimilarNamedWays();
@@ -73,4 +89,35 @@ class SimilarNamedWaysTest {
      void testSimilarNamesRegression() {
          assertFalse(test.similaryName("Unnecessary Name", "Third"));
      }
+
+    private static Way newWay(String name, double lat, double lon) {
+        return TestUtils.newWay("highway=residential name=" + name,
+                new Node(new LatLon(lat, lon)), new Node(new LatLon(lat + 0.0001, lon + 0.0001)));
+    }
+
+    /**
+     * Test that only nearby ways with similar names are reported, each pair once.
+     */
+    @Test
+    void testVisit() {
+        OsmValidator.initializeGridDetail();
+        Way main1 = newWay("Main_Street", 48.0, 11.0);
+        Way main2 = newWay("Main_Street", 48.0, 11.0);
+        Way typo = newWay("Maim_Street", 48.0, 11.0);
+        Way church = newWay("Church_Street", 48.0, 11.0);
+        Way farTypo = newWay("Maim_Street", 49.0, 12.0);
+        Way shortName = newWay("Mains", 48.0, 11.0);
+
+        test.startTest(NullProgressMonitor.INSTANCE);
+        for (Way w : Arrays.asList(main1, main2, typo, church, farTypo, shortName)) {
+            test.visit(w);
+        }
+        test.endTest();
+        List<TestError> errors = test.getErrors();
+        assertEquals(2, errors.size());
+        assertEquals(new HashSet<>(Arrays.asList(
+                new HashSet<>(Arrays.asList(typo, main1)),
+                new HashSet<>(Arrays.asList(typo, main2)))),
+                errors.stream().map(e -> new HashSet<>(e.getPrimitives())).collect(Collectors.toSet()));
+    }
 }
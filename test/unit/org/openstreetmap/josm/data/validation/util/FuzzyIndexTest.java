@@ -0,0 +1,52 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Unit tests of {@link FuzzyIndex} class.
+ */
+class FuzzyIndexTest {
+
+    /**
+     * Test that all strings within the maximal distance are found
+     */
+    @Test
+    void testGetCandidates() {
+        List<String> values = Arrays.asList("residential", "residental", "service", "services", "track", "trunk",
+                "primary", "secondary", "no", "yes", "a", "");
+        for (int maxDistance = 0; maxDistance <= 3; maxDistance++) {
+            FuzzyIndex<String> index = new FuzzyIndex<>(maxDistance);
+            assertTrue(index.isEmpty());
+            for (String value : values) {
+                index.add(value, value);
+            }
+            assertFalse(index.isEmpty());
+            for (String query : Arrays.asList("residentail", "servcie", "trakc", "secundary", "yes", "ys", "b", "", "motorway")) {
+                Set<String> candidates = index.getCandidates(query);
+                for (String value : values) {
+                    if (Utils.getLevenshteinDistance(value, query) <= maxDistance) {
+                        assertTrue(candidates.contains(value), () -> value + " / " + query);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that a negative distance is rejected
+     */
+    @Test
+    void testNegativeDistance() {
+        assertThrows(IllegalArgumentException.class, () -> new FuzzyIndex<String>(-1));
+    }
+}
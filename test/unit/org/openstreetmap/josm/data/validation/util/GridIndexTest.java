@@ -0,0 +1,96 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.EastNorth;
+
+/**
+ * Unit tests of {@link GridIndex} class.
+ */
+class GridIndexTest {
+
+    /**
+     * Test of {@link GridIndex#key}
+     */
+    @Test
+    void testKey() {
+        assertNotEquals(GridIndex.key(1, 2), GridIndex.key(2, 1));
+        assertNotEquals(GridIndex.key(-1, 0), GridIndex.key(0, -1));
+        assertEquals(-1, GridIndex.key(-1, 5) >> 32);
+        assertEquals(-5, (int) GridIndex.key(3, -5));
+    }
+
+    /**
+     * Test of adding values, with enough cells to grow the hash table
+     */
+    @Test
+    void testAdd() {
+        GridIndex<String> index = new GridIndex<>();
+        assertTrue(index.isEmpty());
+        assertEquals(-1, index.find(GridIndex.key(0, 0)));
+        for (int x = -50; x < 50; x++) {
+            for (int y = -50; y < 50; y++) {
+                int cell = index.cell(GridIndex.key(x, y));
+                for (int i = 0; i <= (x & 7); i++) {
+                    index.add(cell, x + "/" + y + "/" + i);
+                }
+            }
+        }
+        assertEquals(100 * 100, index.getCellCount());
+        for (int x = -50; x < 50; x++) {
+            for (int y = -50; y < 50; y++) {
+                int cell = index.find(GridIndex.key(x, y));
+                assertEquals(cell, index.cell(GridIndex.key(x, y)));
+                assertEquals((x & 7) + 1, index.size(cell));
+                assertEquals(x + "/" + y + "/" + (x & 7), index.get(cell, x & 7));
+            }
+        }
+        int cell = index.find(GridIndex.key(0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.get(cell, 1));
+    }
+
+    /**
+     * Test of {@link GridIndex#clear} and of the copy constructor
+     */
+    @Test
+    void testClearAndCopy() {
+        GridIndex<String> index = new GridIndex<>();
+        index.add(index.cell(GridIndex.key(1, 1)), "a");
+        GridIndex<String> copy = new GridIndex<>(index);
+        copy.add(copy.cell(GridIndex.key(1, 1)), "b");
+        copy.add(copy.cell(GridIndex.key(2, 2)), "c");
+        assertEquals(1, index.size(index.find(GridIndex.key(1, 1))));
+        assertEquals(-1, index.find(GridIndex.key(2, 2)));
+        assertEquals(2, copy.size(copy.find(GridIndex.key(1, 1))));
+
+        index.clear();
+        assertTrue(index.isEmpty());
+        assertEquals(-1, index.find(GridIndex.key(1, 1)));
+        assertEquals(0, index.size(index.cell(GridIndex.key(2, 2))));
+        assertEquals(2, copy.getCellCount());
+    }
+
+    /**
+     * Test that {@link ValUtil#getSegmentCellKeys} returns the same cells as {@link ValUtil#getSegmentCells}
+     */
+    @Test
+    void testSegmentCellKeys() {
+        EastNorth en1 = new EastNorth(-12.3, 45.6);
+        EastNorth en2 = new EastNorth(78.9, -10.1);
+        List<Point2D> cells = ValUtil.getSegmentCells(en1, en2, 0.5);
+        long[] keys = ValUtil.getSegmentCellKeys(en1, en2, 0.5);
+        assertTrue(keys.length > 10);
+        assertEquals(cells.size(), keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(GridIndex.key((long) cells.get(i).getX(), (long) cells.get(i).getY()), keys[i]);
+        }
+    }
+}
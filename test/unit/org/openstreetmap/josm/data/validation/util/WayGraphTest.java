@@ -0,0 +1,57 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+
+/**
+ * Unit tests of {@link WayGraph} class.
+ */
+class WayGraphTest {
+
+    /**
+     * Test of the connected components and of the parent ways of the graph
+     */
+    @Test
+    void testGraph() {
+        DataSet ds = new DataSet();
+        Node[] nodes = new Node[6];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(new LatLon(0, i));
+            ds.addPrimitive(nodes[i]);
+        }
+        Way highway1 = TestUtils.newWay("highway=residential", nodes[0], nodes[1]);
+        Way highway2 = TestUtils.newWay("highway=residential", nodes[1], nodes[2]);
+        Way river = TestUtils.newWay("waterway=river", nodes[2], nodes[3]);
+        Way highway3 = TestUtils.newWay("highway=residential", nodes[3], nodes[4], nodes[3]);
+        for (Way way : Arrays.asList(highway1, highway2, river, highway3)) {
+            ds.addPrimitive(way);
+        }
+
+        WayGraph graph = new WayGraph(ds.getWays(), w -> w.hasKey("highway"));
+        assertTrue(graph.isConnected(nodes[0], nodes[2]));
+        assertTrue(graph.isConnected(nodes[4], nodes[3]));
+        assertFalse(graph.isConnected(nodes[0], nodes[3]));
+        assertTrue(graph.isConnected(nodes[5], nodes[5]));
+        assertFalse(graph.isConnected(nodes[0], nodes[5]));
+
+        assertEquals(2, graph.getWays(nodes[1]).size());
+        assertEquals(Collections.singletonList(highway2), graph.getWays(nodes[2]));
+        assertTrue(graph.getWays(nodes[5]).isEmpty());
+
+        assertEquals(0, WayGraph.indexOf(highway3, nodes[3]));
+        assertEquals(1, WayGraph.indexOf(highway3, nodes[4]));
+        assertEquals(-1, WayGraph.indexOf(highway3, nodes[0]));
+    }
+}
@@ -0,0 +1,39 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.io.importexport;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.layer.GpxLayer;
+import org.openstreetmap.josm.gui.progress.CLIProgressMonitor;
+import org.openstreetmap.josm.gui.progress.ProgressMonitor;
+import org.openstreetmap.josm.io.ImportCancelException;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link GpxImporter} class.
+ */
+@BasicPreferences
+class GpxImporterTest {
+    /**
+     * Test that the import of several files reports its cancellation, so that the files are not recorded as imported
+     */
+    @Test
+    void testCanceledImport() {
+        MainApplication.getLayerManager().resetState();
+        File file = new File(TestUtils.getTestDataRoot(), "minimal.gpx");
+        ProgressMonitor progressMonitor = new CLIProgressMonitor();
+        progressMonitor.cancel();
+        IOException e = assertThrows(IOException.class,
+                () -> new GpxImporter().importData(Arrays.asList(file, file), progressMonitor));
+        assertTrue(e instanceof ImportCancelException, e::toString);
+        assertTrue(MainApplication.getLayerManager().getLayersOfType(GpxLayer.class).isEmpty());
+    }
+}
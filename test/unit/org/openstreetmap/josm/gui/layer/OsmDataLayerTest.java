@@ -12,6 +12,10 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,7 +34,9 @@ import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.Relation;
 import org.openstreetmap.josm.data.osm.RelationMember;
 import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.osm.visitor.paint.BackgroundMapRenderer;
 import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.MapView;
 import org.openstreetmap.josm.gui.datatransfer.ClipboardUtils;
 import org.openstreetmap.josm.io.IllegalDataException;
 import org.openstreetmap.josm.io.OsmReader;
@@ -350,4 +356,30 @@ class OsmDataLayerTest {
         ds.setSelected(first);
     }
 
+    /**
+     * Test that the frames rendered in the background repaint the layer in the Event Dispatch Thread
+     * @throws InterruptedException if the rendering is interrupted
+     */
+    @Test
+    void testBackgroundRendering() throws InterruptedException {
+        final DataSet ds = new DataSet(new Node(LatLon.ZERO));
+        final OsmDataLayer layer = new OsmDataLayer(ds, "OsmDataLayerTest#testBackgroundRendering", null);
+        MainApplication.getLayerManager().addLayer(layer);
+        final MapView mv = MainApplication.getMap().mapView;
+        mv.setBounds(0, 0, 200, 200);
+        final CountDownLatch repainted = new CountDownLatch(1);
+        final boolean[] inEdt = new boolean[1];
+        layer.addInvalidationListener(e -> {
+            inEdt[0] = SwingUtilities.isEventDispatchThread();
+            repainted.countDown();
+        });
+        BackgroundMapRenderer.PROP_ENABLED.put(true);
+        try {
+            layer.paint(TestUtils.newGraphics(), mv, mv.getRealBounds());
+            assertTrue(repainted.await(10, TimeUnit.SECONDS));
+            assertTrue(inEdt[0]);
+        } finally {
+            BackgroundMapRenderer.PROP_ENABLED.remove();
+        }
+    }
 }
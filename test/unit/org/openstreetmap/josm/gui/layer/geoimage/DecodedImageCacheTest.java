@@ -0,0 +1,103 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.geoimage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link DecodedImageCache} class.
+ */
+@BasicPreferences
+class DecodedImageCacheTest {
+
+    private static final Dimension TARGET = new Dimension(500, 500);
+
+    private static DecodedImageCache.Key key(String name) {
+        return new DecodedImageCache.Key(URI.create("file:/" + name), TARGET, 0);
+    }
+
+    /**
+     * Test that the least recently used images are evicted
+     */
+    @Test
+    void testEviction() {
+        DecodedImageCache.PROP_MAX_MEMORY.put(1);
+        DecodedImageCache cache = new DecodedImageCache();
+        BufferedImage image1 = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB);
+        BufferedImage image2 = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB);
+        assertEquals(400 * 400 * 4, DecodedImageCache.getSize(image1));
+
+        cache.put(key("1.jpg"), image1);
+        assertSame(image1, cache.get(key("1.jpg")));
+        cache.put(key("2.jpg"), image2);
+        assertNull(cache.get(key("1.jpg")));
+        assertSame(image2, cache.get(key("2.jpg")));
+        assertEquals(400 * 400 * 4, cache.getSize());
+
+        // images larger than the cache are not kept
+        cache.put(key("3.jpg"), new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB));
+        assertNull(cache.get(key("3.jpg")));
+        assertSame(image2, cache.get(key("2.jpg")));
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get(key("2.jpg")));
+    }
+
+    /**
+     * Test that images are decoded only once
+     * @throws Exception if any error occurs
+     */
+    @Test
+    void testRead() throws Exception {
+        DecodedImageCache.PROP_MAX_MEMORY.put(256);
+        DecodedImageCache cache = new DecodedImageCache();
+        ImageEntry entry = new ImageEntry(new File(TestUtils.getRegressionDataFile(12255, "G0016941.JPG")));
+        Dimension target = new Dimension(500, 500);
+        BufferedImage image = cache.read(entry, target);
+        assertNotNull(image);
+        assertSame(image, cache.get(DecodedImageCache.Key.of(entry, target)));
+        assertSame(image, cache.read(entry, target));
+
+        // the image is decoded again for another dimension
+        BufferedImage smaller = cache.read(entry, new Dimension(100, 100));
+        assertNotSame(image, smaller);
+        assertSame(image, cache.get(DecodedImageCache.Key.of(entry, target)));
+    }
+
+    /**
+     * Test that the image dimension and the file modification date are part of the key
+     */
+    @Test
+    void testKey() {
+        URI uri = URI.create("file:/1.jpg");
+        assertEquals(new DecodedImageCache.Key(uri, TARGET, 1), new DecodedImageCache.Key(uri, new Dimension(500, 500), 1));
+        assertNotEquals(new DecodedImageCache.Key(uri, TARGET, 1), new DecodedImageCache.Key(uri, new Dimension(100, 100), 1));
+        assertNotEquals(new DecodedImageCache.Key(uri, TARGET, 1), new DecodedImageCache.Key(uri, TARGET, 2));
+        assertNotEquals(new DecodedImageCache.Key(uri, TARGET, 1), new DecodedImageCache.Key(URI.create("file:/2.jpg"), TARGET, 1));
+    }
+
+    /**
+     * Test that the default maximum memory depends on the maximum heap size
+     */
+    @Test
+    void testDefaultMaxMemory() {
+        int defaultValue = DecodedImageCache.PROP_MAX_MEMORY.getDefaultValue();
+        assertTrue(defaultValue <= 256);
+        assertTrue(defaultValue <= Runtime.getRuntime().maxMemory() / 1024 / 1024 / 8);
+    }
+}
@@ -0,0 +1,103 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.gpx;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.GpxTrack;
+import org.openstreetmap.josm.data.gpx.IGpxTrack;
+import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.gui.layer.gpx.GpxHeatMapPyramid.Level;
+import org.openstreetmap.josm.gui.layer.gpx.GpxHeatMapPyramid.Pyramid;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Unit tests of {@link GpxHeatMapPyramid} class.
+ */
+@Projection
+class GpxHeatMapPyramidTest {
+
+    private static GpxTrack track(LatLon... coordinates) {
+        List<WayPoint> points = Arrays.stream(coordinates).map(WayPoint::new).collect(Collectors.toList());
+        return new GpxTrack(Collections.singleton(points), Collections.emptyMap());
+    }
+
+    private static Pyramid build(Pyramid previous, List<IGpxTrack> tracks, boolean[] visibility) {
+        return GpxHeatMapPyramid.build(previous, tracks, visibility, ProjectionRegistry.getProjection());
+    }
+
+    private static long sum(Level level) {
+        return Arrays.stream(level.counts).asLongStream().sum();
+    }
+
+    /**
+     * Test of {@link GpxHeatMapPyramid#build}
+     */
+    @Test
+    void testBuild() {
+        List<IGpxTrack> tracks = Arrays.asList(
+                track(new LatLon(0, 0), new LatLon(0, 1)),
+                track(new LatLon(0, 0), new LatLon(0, 1)));
+        Pyramid pyramid = build(null, tracks, null);
+
+        Level finest = pyramid.levels[0];
+        assertTrue(finest.width <= GpxHeatMapPyramid.MAX_GRID_SIZE);
+        assertTrue(finest.height <= GpxHeatMapPyramid.MAX_GRID_SIZE);
+        Level coarsest = pyramid.levels[pyramid.levels.length - 1];
+        assertEquals(1, coarsest.width);
+        assertEquals(1, coarsest.height);
+        // each track crosses the single cell of the coarsest level once
+        assertEquals(2, coarsest.getCount(0, 0));
+        assertEquals(0, coarsest.getCount(1, 0));
+        for (int i = 1; i < pyramid.levels.length; i++) {
+            assertEquals(pyramid.levels[i - 1].cellSize * 2, pyramid.levels[i].cellSize, 1e-6);
+            // a line crosses fewer cells when they are larger
+            assertTrue(sum(pyramid.levels[i]) <= sum(pyramid.levels[i - 1]));
+        }
+
+        assertNull(pyramid.getLevel(finest.cellSize / 2));
+        assertSame(finest, pyramid.getLevel(finest.cellSize));
+        assertSame(pyramid.levels[1], pyramid.getLevel(finest.cellSize * 3));
+    }
+
+    /**
+     * Test of {@link GpxHeatMapPyramid#build} with hidden tracks and added tracks
+     */
+    @Test
+    void testBuildIncremental() {
+        GpxTrack track1 = track(new LatLon(0, 0), new LatLon(1, 1));
+        GpxTrack track2 = track(new LatLon(1, 0), new LatLon(0, 1));
+        GpxTrack outside = track(new LatLon(10, 10), new LatLon(11, 11));
+
+        Pyramid pyramid1 = build(null, Arrays.asList(track1, track2), new boolean[] {true, false});
+        assertEquals(1, pyramid1.tracks.size());
+        assertSame(pyramid1, build(pyramid1, Arrays.asList(track1, track2), new boolean[] {true, false}));
+
+        // showing a track inside the grids updates them
+        Pyramid pyramid2 = build(pyramid1, Arrays.asList(track1, track2), null);
+        assertEquals(pyramid1.minEast, pyramid2.minEast);
+        assertEquals(pyramid1.levels.length, pyramid2.levels.length);
+        Pyramid full = build(null, Arrays.asList(track1, track2), null);
+        for (int i = 0; i < full.levels.length; i++) {
+            assertArrayEquals(full.levels[i].counts, pyramid2.levels[i].counts);
+        }
+
+        // adding a track outside of the grids rebuilds them
+        Pyramid pyramid3 = build(pyramid2, Arrays.asList(track1, track2, outside), null);
+        assertNotNull(pyramid3);
+        assertTrue(pyramid3.maxEast > pyramid2.maxEast);
+        assertEquals(3, pyramid3.tracks.size());
+    }
+}
@@ -0,0 +1,108 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Unit tests of {@link GpxBinaryCache} class.
+ */
+@BasicPreferences
+class GpxBinaryCacheTest {
+
+    @TempDir
+    Path temporaryDirectory;
+
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        GpxBinaryCache.PROP_MIN_FILE_SIZE.put(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (file != null) {
+            Utils.deleteFile(GpxBinaryCache.getCacheFile(file));
+        }
+    }
+
+    private GpxData copyAndParse(String name) throws Exception {
+        file = temporaryDirectory.resolve(name).toFile();
+        Files.copy(new File(TestUtils.getTestDataRoot(), "tracks/" + name).toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        return GpxReaderTest.parseGpxData(file.getPath());
+    }
+
+    /**
+     * Test that cached data is equal to the parsed data.
+     * @param name the GPX file name
+     * @throws Exception if any error occurs
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"tracks.gpx", "tracks-extensions.gpx", "tracks-layerprefs.gpx"})
+    void testStoreAndLoad(String name) throws Exception {
+        GpxData data = copyAndParse(name);
+        assertNull(GpxBinaryCache.load(file));
+        GpxBinaryCache.store(file, data);
+        assertTrue(GpxBinaryCache.getCacheFile(file).isFile());
+
+        GpxData cached = GpxBinaryCache.load(file);
+        assertNotNull(cached);
+        assertEquals(data.creator, cached.creator);
+        assertEquals(data.getTracks(), cached.getTracks());
+        assertEquals(data.getWaypoints(), cached.getWaypoints());
+        assertEquals(data.getRoutes(), cached.getRoutes());
+        assertEquals(data, cached);
+    }
+
+    /**
+     * Test that the cache is not used once the file has been modified.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    void testModifiedFile() throws Exception {
+        GpxData data = copyAndParse("tracks.gpx");
+        GpxBinaryCache.store(file, data);
+        assertTrue(file.setLastModified(file.lastModified() - 60_000));
+        assertNull(GpxBinaryCache.load(file));
+
+        // files smaller than the threshold are not cached
+        GpxBinaryCache.PROP_MIN_FILE_SIZE.put((int) file.length() + 1);
+        GpxBinaryCache.store(file, data);
+        assertNull(GpxBinaryCache.load(file));
+    }
+
+    /**
+     * Test that a corrupted cache is deleted.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    void testCorruptedCache() throws Exception {
+        GpxData data = copyAndParse("tracks.gpx");
+        GpxBinaryCache.store(file, data);
+        File cacheFile = GpxBinaryCache.getCacheFile(file);
+        Files.write(cacheFile.toPath(), new byte[] {0x4A, 0x47, 0x50, 0x58, 0, 0, 0, 1, 1});
+        assertNull(GpxBinaryCache.load(file));
+        assertFalse(cacheFile.exists());
+    }
+}
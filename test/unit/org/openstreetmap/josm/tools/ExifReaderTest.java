@@ -3,6 +3,7 @@ package org.openstreetmap.josm.tools;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.File;
 import java.io.IOException;
@@ -74,6 +75,20 @@ class ExifReaderTest {
         assertEquals(Integer.valueOf(6), orientation);
     }
 
+    /**
+     * Test embedded thumbnail extraction
+     */
+    @Test
+    void testReadThumbnail() {
+        byte[] thumbnail = ExifReader.readThumbnail(orientationSampleFile);
+        assertNotNull(thumbnail);
+        assertEquals(9671, thumbnail.length);
+        assertEquals((byte) 0xFF, thumbnail[0]);
+        assertEquals((byte) 0xD8, thumbnail[1]);
+        assertNull(ExifReader.readThumbnail(new File("nodist/data/exif-example_speed_ele.jpg")));
+        assertNull(ExifReader.readThumbnail(new File("nodist/data/does-not-exist.jpg")));
+    }
+
     /**
      * Test coordinates extraction
      */